@@ -64,6 +64,10 @@ public abstract class AbstractService<C extends EdmEnabledODataClient> {
 
   private PersistenceManager persistenceManager;
 
+  private volatile int flushBatchSize = 0;
+
+  private volatile int navigationPrefetchThreshold = 0;
+
   protected AbstractService(final String compressedMetadata, final String metadataETag,
       final ODataServiceVersion version, final String serviceRoot, final boolean transactional) {
 
@@ -122,6 +126,48 @@ public abstract class AbstractService<C extends EdmEnabledODataClient> {
     return transactional;
   }
 
+  /**
+   * Gets the maximum number of changes sent within a single batch request by a non-transactional flush.
+   *
+   * @return maximum number of changes per batch request; 0 if each change is sent as a separate request
+   */
+  public int getFlushBatchSize() {
+    return flushBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of changes sent within a single batch request by a non-transactional flush.
+   * Changes are then grouped into batch requests without atomicity; only changes referring to entities created
+   * within the same request are grouped into change sets. This has no effect on transactional services.
+   *
+   * @param flushBatchSize maximum number of changes per batch request; 0 to send each change as separate request
+   */
+  public void setFlushBatchSize(final int flushBatchSize) {
+    this.flushBatchSize = flushBatchSize;
+  }
+
+  /**
+   * Gets the number of entities of a retrieved collection page on which a navigation property must be navigated
+   * lazily before it gets loaded for all other entities of the same page.
+   *
+   * @return navigation prefetch threshold; 0 if navigation properties are never prefetched
+   */
+  public int getNavigationPrefetchThreshold() {
+    return navigationPrefetchThreshold;
+  }
+
+  /**
+   * Sets the number of entities of a retrieved collection page on which a navigation property must be navigated
+   * lazily before it gets loaded for all other entities of the same page, within batch requests instead of one
+   * request per entity. Navigation properties known in advance should rather be prefetched via
+   * {@link org.apache.olingo.ext.proxy.api.StructuredQuery#prefetch(String...)}.
+   *
+   * @param navigationPrefetchThreshold navigation prefetch threshold; 0 to never prefetch navigation properties
+   */
+  public void setNavigationPrefetchThreshold(final int navigationPrefetchThreshold) {
+    this.navigationPrefetchThreshold = navigationPrefetchThreshold;
+  }
+
   public PersistenceManager getPersistenceManager() {
     synchronized (this) {
       if (persistenceManager == null) {
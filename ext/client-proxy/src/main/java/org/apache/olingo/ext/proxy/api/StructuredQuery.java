@@ -28,6 +28,19 @@ public interface StructuredQuery<T extends CommonQuery> extends CommonQuery {
    */
   T expand(String... expand);
 
+  /**
+   * Adds navigation paths to the <tt>$expand</tt> expression, so that the related entities are retrieved together
+   * with the current ones rather than by a request per entity upon navigation.
+   * <br/>
+   * Each path is made of navigation property names separated by <tt>/</tt>, e.g. <tt>Orders/Customer</tt>.
+   * Paths are merged with the items given to {@link #expand(java.lang.String...)}, in whatever order both are
+   * invoked: an item already expanded is not repeated and gets the nested paths added to its own <tt>$expand</tt>.
+   *
+   * @param navigationPaths navigation paths.
+   * @return the same query instance.
+   */
+  T prefetch(String... navigationPaths);
+
   /**
    * Sets <tt>$select</tt> expression.
    *
@@ -22,6 +22,7 @@ import java.io.Serializable;
 import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -64,6 +65,14 @@ public abstract class AbstractCollectionInvocationHandler<T extends Serializable
   private final Map<Class<? extends AbstractTerm>, Object> annotationsByTerm =
           new HashMap<Class<? extends AbstractTerm>, Object>();
 
+  /**
+   * Items given to {@link #expand(java.lang.String...)} and paths given to {@link #prefetch(java.lang.String...)}:
+   * both are merged into <tt>$expand</tt>.
+   */
+  private final List<String> expandItems = new ArrayList<String>();
+
+  private final List<String> prefetchPaths = new ArrayList<String>();
+
   public AbstractCollectionInvocationHandler(
           final AbstractService<?> service,
           final Collection<T> items,
@@ -301,7 +310,16 @@ public abstract class AbstractCollectionInvocationHandler<T extends Serializable
 
   public void expand(final String... expand) {
     if (this.uri != null) {
-      this.uri.replaceQueryOption(QueryOption.EXPAND, StringUtils.join(expand, ","));
+      expandItems.clear();
+      expandItems.addAll(Arrays.asList(expand));
+      this.uri.replaceQueryOption(QueryOption.EXPAND, CoreUtils.getExpand(expandItems, prefetchPaths));
+    }
+  }
+
+  public void prefetch(final String... navigationPaths) {
+    if (this.uri != null) {
+      prefetchPaths.addAll(Arrays.asList(navigationPaths));
+      this.uri.replaceQueryOption(QueryOption.EXPAND, CoreUtils.getExpand(expandItems, prefetchPaths));
     }
   }
 
@@ -317,6 +335,8 @@ public abstract class AbstractCollectionInvocationHandler<T extends Serializable
 
   public void clearQueryOptions() {
     this.uri = this.baseURI == null ? null : getClient().newURIBuilder(baseURI.toASCIIString());
+    expandItems.clear();
+    prefetchPaths.clear();
     this.nextPageURI = null;
   }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.commons;
+
+import java.net.URI;
+
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.request.cud.ODataEntityUpdateRequest;
+import org.apache.olingo.client.api.communication.request.cud.UpdateType;
+import org.apache.olingo.client.api.communication.response.ODataEntityUpdateResponse;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.ext.proxy.AbstractService;
+
+/**
+ * Base class for the concrete entity type classes generated by pojogen when concrete type generation is enabled.
+ * <br/>
+ * These are detached beans: they are not attached to the entity context of the service, hence neither flushed by
+ * its persistence manager nor shared with the proxies of the same entity. Besides the property values, an entity
+ * keeps the edit link and the ETag it has been read with, so that its changes can be sent back with
+ * {@link #update(AbstractService)}, directly with the client of the generated service.
+ */
+public abstract class AbstractEntityBean extends AbstractStructuredBean {
+
+  private static final long serialVersionUID = -2710384575497290561L;
+
+  private URI entityURI;
+
+  private String eTag;
+
+  public URI getEntityURI() {
+    return entityURI;
+  }
+
+  public void setEntityURI(final URI entityURI) {
+    this.entityURI = entityURI;
+  }
+
+  public String getETag() {
+    return eTag;
+  }
+
+  public void setETag(final String eTag) {
+    this.eTag = eTag;
+  }
+
+  /**
+   * Converts this entity into its client representation.
+   *
+   * @param client client providing the object factory
+   * @param changedOnly whether only changed properties are included, e.g., for a <tt>PATCH</tt> request
+   * @return client entity
+   */
+  public abstract ClientEntity toClientEntity(ODataClient client, boolean changedOnly);
+
+  /**
+   * Reads edit link and ETag from the given client entity.
+   */
+  protected void readMetadata(final ClientEntity entity) {
+    entityURI = entity.getEditLink();
+    eTag = entity.getETag();
+  }
+
+  /**
+   * Sends the changed properties to the service with a <tt>PATCH</tt> request, if there are any.
+   * The ETag the entity has been read with is sent as <tt>If-Match</tt> header.
+   *
+   * @param service generated service whose client is used
+   */
+  public void update(final AbstractService<?> service) {
+    if (!isChanged()) {
+      return;
+    }
+    if (entityURI == null) {
+      throw new IllegalStateException("Entity has no edit link");
+    }
+
+    final ODataEntityUpdateRequest<ClientEntity> request = service.getClient().getCUDRequestFactory().
+        getEntityUpdateRequest(entityURI, UpdateType.PATCH, toClientEntity(service.getClient(), true));
+    if (eTag != null) {
+      request.setIfMatch(eTag);
+    }
+    final ODataEntityUpdateResponse<ClientEntity> response = request.execute();
+    try {
+      if (response.getETag() != null) {
+        eTag = response.getETag();
+      }
+    } finally {
+      response.close();
+    }
+    clearChanges();
+  }
+
+  /**
+   * Retrieves the client representation of the entity at the given URI.
+   */
+  protected static ClientEntity retrieve(final AbstractService<?> service, final URI uri) {
+    return service.getClient().getRetrieveRequestFactory().getEntityRequest(uri).execute().getBody();
+  }
+}
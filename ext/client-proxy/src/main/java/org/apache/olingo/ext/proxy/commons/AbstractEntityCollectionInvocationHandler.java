@@ -120,6 +120,9 @@ public abstract class AbstractEntityCollectionInvocationHandler<T extends Entity
     }
 
     final List<T> res = new ArrayList<T>(entities.size());
+    final NavigationPrefetcher prefetcher = service.getNavigationPrefetchThreshold() > 0 && entities.size() > 1
+        ? new NavigationPrefetcher(service, service.getNavigationPrefetchThreshold())
+        : null;
 
     for (ClientEntity entity : entities) {
       Class<?> actualRef = null;
@@ -143,6 +146,9 @@ public abstract class AbstractEntityCollectionInvocationHandler<T extends Entity
                   service);
 
       final EntityInvocationHandler handlerInTheContext = getContext().entityContext().getEntity(handler.getUUID());
+      if (prefetcher != null) {
+        prefetcher.add(handlerInTheContext == null ? handler : handlerInTheContext);
+      }
 
       res.add((T) Proxy.newProxyInstance(
           Thread.currentThread().getContextClassLoader(),
@@ -33,18 +33,24 @@ import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.EdmEnabledODataClient;
+import org.apache.olingo.client.api.communication.ODataServerErrorException;
 import org.apache.olingo.client.api.communication.header.ODataPreferences;
+import org.apache.olingo.client.api.communication.request.ODataRequest;
 import org.apache.olingo.client.api.communication.request.cud.ODataDeleteRequest;
 import org.apache.olingo.client.api.communication.request.cud.ODataEntityUpdateRequest;
 import org.apache.olingo.client.api.communication.request.cud.ODataReferenceAddingRequest;
 import org.apache.olingo.client.api.communication.request.streamed.ODataMediaEntityUpdateRequest;
 import org.apache.olingo.client.api.communication.request.streamed.ODataStreamUpdateRequest;
+import org.apache.olingo.client.api.communication.response.ODataBatchResponse;
+import org.apache.olingo.client.api.communication.response.ODataResponse;
+import org.apache.olingo.client.core.communication.header.ODataErrorResponseChecker;
 import org.apache.olingo.client.core.uri.URIUtils;
 import org.apache.olingo.client.api.domain.ClientEntity;
 import org.apache.olingo.client.api.domain.ClientLink;
 import org.apache.olingo.client.api.domain.ClientLinkType;
 import org.apache.olingo.ext.proxy.AbstractService;
 import org.apache.olingo.ext.proxy.api.EdmStreamValue;
+import org.apache.olingo.ext.proxy.api.ODataResponseError;
 import org.apache.olingo.ext.proxy.api.PersistenceManager;
 import org.apache.olingo.ext.proxy.api.annotations.NavigationProperty;
 import org.apache.olingo.ext.proxy.context.AttachedEntity;
@@ -83,6 +89,34 @@ abstract class AbstractPersistenceManager implements PersistenceManager {
 
   protected abstract void doFlush(PersistenceChanges changes, TransactionItems items);
 
+  /**
+   * Checks the status of a batch response.
+   * @throws ODataServerErrorException if the batch request as a whole has failed
+   */
+  protected void checkBatchResponse(final ODataBatchResponse response) {
+    // This should be 202 for service version <= 3.0 and 200 for service version >= 4.0 but it seems that
+    // many service implementations are not fully compliant in this respect.
+    if (response.getStatusCode() != 202 && response.getStatusCode() != 200) {
+      throw new ODataServerErrorException(new ResponseStatusLine(response));
+    }
+  }
+
+  /**
+   * Builds the error for a failed operation of a batch request.
+   * @param response the failed operation's response
+   * @param accept the accepted content type of the batch request
+   * @param index the index of the operation
+   * @param request the operation's request
+   */
+  protected ODataResponseError getResponseError(final ODataResponse response, final String accept,
+      final int index, final ODataRequest request) {
+    return new ODataResponseError(ODataErrorResponseChecker.checkResponse(
+        service.getClient(),
+        new ResponseStatusLine(response),
+        response.getRawResponse(),
+        accept), index, request);
+  }
+
   @Override
   public void flush() {
     final PersistenceChanges changes = new PersistenceChanges();
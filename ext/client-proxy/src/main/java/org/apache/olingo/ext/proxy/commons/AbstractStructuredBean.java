@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.commons;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.domain.ClientCollectionValue;
+import org.apache.olingo.client.api.domain.ClientPrimitiveValue;
+import org.apache.olingo.client.api.domain.ClientProperty;
+import org.apache.olingo.client.api.domain.ClientValue;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+
+/**
+ * Base class for the concrete entity and complex type classes generated by pojogen when concrete type generation
+ * is enabled; these are detached beans, not managed by the entity context of the service.
+ * <br/>
+ * Generated classes keep property values in typed fields; their setters mark the property as changed in a bit set,
+ * indexed by the position of the property in {@link #getPropertyNames()}.
+ * The static helpers of this class convert single property values from and to their client representation.
+ */
+public abstract class AbstractStructuredBean implements Serializable {
+
+  private static final long serialVersionUID = 6587063432394853917L;
+
+  private final BitSet changes = new BitSet();
+
+  /**
+   * Gets the names of all properties, in the order used for change tracking.
+   */
+  protected abstract String[] getPropertyNames();
+
+  protected void markChanged(final int index) {
+    changes.set(index);
+  }
+
+  protected boolean isChanged(final int index) {
+    return changes.get(index);
+  }
+
+  /**
+   * @return whether any property has been changed since the last call of {@link #clearChanges()}
+   */
+  public boolean isChanged() {
+    return !changes.isEmpty();
+  }
+
+  /**
+   * @return whether the given property has been changed since the last call of {@link #clearChanges()}
+   */
+  public boolean isChanged(final String propertyName) {
+    final String[] names = getPropertyNames();
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(propertyName)) {
+        return changes.get(i);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return names of the properties changed since the last call of {@link #clearChanges()}
+   */
+  public List<String> getChangedProperties() {
+    final String[] names = getPropertyNames();
+    final List<String> changed = new ArrayList<String>(changes.cardinality());
+    for (int i = changes.nextSetBit(0); i >= 0; i = changes.nextSetBit(i + 1)) {
+      changed.add(names[i]);
+    }
+    return Collections.unmodifiableList(changed);
+  }
+
+  public void clearChanges() {
+    changes.clear();
+  }
+
+  protected static <T> T toPrimitive(final ClientProperty property, final Class<T> reference) {
+    if (property == null || property.hasNullValue() || !property.hasPrimitiveValue()) {
+      return null;
+    }
+    return toPrimitive(property.getPrimitiveValue(), reference);
+  }
+
+  protected static <T> List<T> toPrimitiveList(final ClientProperty property, final Class<T> reference) {
+    if (property == null || !property.hasCollectionValue()) {
+      return null;
+    }
+    final List<T> result = new ArrayList<T>(property.getCollectionValue().size());
+    for (ClientValue value : property.getCollectionValue()) {
+      result.add(value.isPrimitive() ? toPrimitive(value.asPrimitive(), reference) : null);
+    }
+    return result;
+  }
+
+  private static <T> T toPrimitive(final ClientPrimitiveValue value, final Class<T> reference) {
+    try {
+      return value.toCastValue(reference);
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new IllegalArgumentException("Cannot convert " + value + " to " + reference.getName(), e);
+    }
+  }
+
+  protected static <E extends Enum<E>> E toEnum(final ClientProperty property, final Class<E> reference) {
+    if (property == null || !property.hasEnumValue()) {
+      return null;
+    }
+    return Enum.valueOf(reference, property.getEnumValue().getValue());
+  }
+
+  protected static <E extends Enum<E>> List<E> toEnumList(final ClientProperty property, final Class<E> reference) {
+    if (property == null || !property.hasCollectionValue()) {
+      return null;
+    }
+    final List<E> result = new ArrayList<E>(property.getCollectionValue().size());
+    for (ClientValue value : property.getCollectionValue()) {
+      result.add(value.isEnum() ? Enum.valueOf(reference, value.asEnum().getValue()) : null);
+    }
+    return result;
+  }
+
+  protected static ClientProperty fromPrimitive(final ODataClient client, final String name,
+      final EdmPrimitiveTypeKind kind, final Object value) {
+    return client.getObjectFactory().newPrimitiveProperty(name,
+        client.getObjectFactory().newPrimitiveValueBuilder().setType(kind).setValue(value).build());
+  }
+
+  protected static ClientProperty fromPrimitiveList(final ODataClient client, final String name,
+      final EdmPrimitiveTypeKind kind, final List<?> values) {
+    final ClientCollectionValue<ClientValue> collection =
+        client.getObjectFactory().newCollectionValue("Collection(" + kind.getFullQualifiedName() + ")");
+    if (values != null) {
+      for (Object value : values) {
+        collection.add(client.getObjectFactory().newPrimitiveValueBuilder().setType(kind).setValue(value).build());
+      }
+    }
+    return client.getObjectFactory().newCollectionProperty(name, collection);
+  }
+
+  protected static ClientProperty fromEnum(final ODataClient client, final String name, final String typeName,
+      final Enum<?> value) {
+    return value == null
+        ? client.getObjectFactory().newPrimitiveProperty(name, null)
+        : client.getObjectFactory().newEnumProperty(name,
+            client.getObjectFactory().newEnumValue(typeName, value.name()));
+  }
+
+  protected static ClientProperty fromEnumList(final ODataClient client, final String name, final String typeName,
+      final List<? extends Enum<?>> values) {
+    final ClientCollectionValue<ClientValue> collection =
+        client.getObjectFactory().newCollectionValue("Collection(" + typeName + ")");
+    if (values != null) {
+      for (Enum<?> value : values) {
+        collection.add(client.getObjectFactory().newEnumValue(typeName, value.name()));
+      }
+    }
+    return client.getObjectFactory().newCollectionProperty(name, collection);
+  }
+}
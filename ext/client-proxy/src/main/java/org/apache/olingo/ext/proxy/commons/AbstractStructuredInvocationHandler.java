@@ -26,6 +26,7 @@ import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -66,6 +67,7 @@ import org.apache.olingo.ext.proxy.context.EntityUUID;
 import org.apache.olingo.ext.proxy.utils.ClassUtils;
 import org.apache.olingo.ext.proxy.utils.CoreUtils;
 import org.apache.olingo.ext.proxy.utils.ProxyUtils;
+import org.apache.olingo.ext.proxy.utils.TypeMetadata;
 
 public abstract class AbstractStructuredInvocationHandler extends AbstractInvocationHandler {
 
@@ -97,6 +99,19 @@ public abstract class AbstractStructuredInvocationHandler extends AbstractInvoca
 
   protected final Map<String, EdmStreamValue> streamedPropertyCache = new HashMap<String, EdmStreamValue>();
 
+  /**
+   * Items given to {@link #expand(java.lang.String...)} and paths given to {@link #prefetch(java.lang.String...)}:
+   * both are merged into <tt>$expand</tt>.
+   */
+  private final List<String> expandItems = new ArrayList<String>();
+
+  private final List<String> prefetchPaths = new ArrayList<String>();
+
+  /**
+   * Reflection information about the proxied type; referencing it keeps it cached as long as this handler is alive.
+   */
+  private transient TypeMetadata typeMetadata;
+
   protected AbstractStructuredInvocationHandler(
           final Class<?> typeRef,
           final AbstractService<?> service) {
@@ -151,41 +166,35 @@ public abstract class AbstractStructuredInvocationHandler extends AbstractInvoca
     return typeRef;
   }
 
+  protected TypeMetadata getTypeMetadata() {
+    if (typeMetadata == null) {
+      typeMetadata = TypeMetadata.of(typeRef);
+    }
+    return typeMetadata;
+  }
+
   @Override
   public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
-  	if (method.getName().startsWith("get")) {  
-  		// Here need check "get"/"set" first for better get-/set- performance because
-  		// the below if-statements are really time-consuming, even twice slower than "get" body.
-
-  		// Assumption: for each getter will always exist a setter and viceversa.
-      // get method annotation and check if it exists as expected
-
-      final Object res;
-      final Method getter = typeRef.getMethod(method.getName());
-
-      final Property property = ClassUtils.getAnnotation(Property.class, getter);
+    // Getters and setters are resolved once per proxied type, see TypeMetadata
+    final TypeMetadata.Accessor accessor = getTypeMetadata().getAccessor(method);
+    if (accessor != null && !accessor.isSetter()) {
+      final Property property = accessor.getProperty();
       if (property == null) {
-        final NavigationProperty navProp = ClassUtils.getAnnotation(NavigationProperty.class, getter);
+        final NavigationProperty navProp = accessor.getNavigationProperty();
         if (navProp == null) {
           throw new UnsupportedOperationException("Unsupported method " + method.getName());
         } else {
           // if the getter refers to a navigation property ... navigate and follow link if necessary
-          res = getNavigationPropertyValue(navProp, getter);
+          return getNavigationPropertyValue(navProp, accessor.getGetter());
         }
       } else {
         // if the getter refers to a property .... get property from wrapped entity
-        res = getPropertyValue(property.name(), getter.getGenericReturnType());
+        return getPropertyValue(property.name(), accessor.getGenericType());
       }
-
-      return res;
-    } else if (method.getName().startsWith("set")) {
-      // get the corresponding getter method (see assumption above)
-      final String getterName = method.getName().replaceFirst("set", "get");
-      final Method getter = typeRef.getMethod(getterName);
-
-      final Property property = ClassUtils.getAnnotation(Property.class, getter);
+    } else if (accessor != null) {
+      final Property property = accessor.getProperty();
       if (property == null) {
-        final NavigationProperty navProp = ClassUtils.getAnnotation(NavigationProperty.class, getter);
+        final NavigationProperty navProp = accessor.getNavigationProperty();
         if (navProp == null) {
           throw new UnsupportedOperationException("Unsupported method " + method.getName());
         } else {
@@ -202,6 +211,7 @@ public abstract class AbstractStructuredInvocationHandler extends AbstractInvoca
 
       return ClassUtils.returnVoid();
     } else if ("expand".equals(method.getName())
+            || "prefetch".equals(method.getName())
             || "select".equals(method.getName())
             || "refs".equals(method.getName())) {
       invokeSelfMethod(method, args);
@@ -683,7 +693,14 @@ public abstract class AbstractStructuredInvocationHandler extends AbstractInvoca
   }
 
   public void expand(final String... expand) {
-    this.uri.replaceQueryOption(QueryOption.EXPAND, StringUtils.join(expand, ","));
+    expandItems.clear();
+    expandItems.addAll(Arrays.asList(expand));
+    this.uri.replaceQueryOption(QueryOption.EXPAND, CoreUtils.getExpand(expandItems, prefetchPaths));
+  }
+
+  public void prefetch(final String... navigationPaths) {
+    prefetchPaths.addAll(Arrays.asList(navigationPaths));
+    this.uri.replaceQueryOption(QueryOption.EXPAND, CoreUtils.getExpand(expandItems, prefetchPaths));
   }
 
   public void select(final String... select) {
@@ -696,6 +713,8 @@ public abstract class AbstractStructuredInvocationHandler extends AbstractInvoca
 
   public void clearQueryOptions() {
     this.uri = baseURI == null ? null : getClient().newURIBuilder(baseURI.toASCIIString());
+    expandItems.clear();
+    prefetchPaths.clear();
   }
 
   protected abstract void load();
@@ -74,6 +74,7 @@ public class ComplexCollectionInvocationHandler<T extends ComplexType<?>>
         || "top".equals(method.getName())
         || "skip".equals(method.getName())
         || "expand".equals(method.getName())
+        || "prefetch".equals(method.getName())
         || "select".equals(method.getName())
         || "nextPage".equals(method.getName())
         || "execute".equals(method.getName())) {
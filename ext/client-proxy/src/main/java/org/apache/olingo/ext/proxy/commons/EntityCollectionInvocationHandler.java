@@ -56,6 +56,7 @@ public class EntityCollectionInvocationHandler<T extends EntityType<?>>
             || "top".equals(method.getName())
             || "skip".equals(method.getName())
             || "expand".equals(method.getName())
+            || "prefetch".equals(method.getName())
             || "select".equals(method.getName())
             || "nextPage".equals(method.getName())
             || "refs".equals(method.getName())
@@ -62,6 +62,8 @@ public class EntityInvocationHandler extends AbstractStructuredInvocationHandler
 
   private EntityUUID uuid;
 
+  private transient NavigationPrefetcher prefetcher;
+
   static EntityInvocationHandler getInstance(
       final ClientEntity entity,
       final EntitySetInvocationHandler<?, ?, ?> entitySet,
@@ -355,6 +357,9 @@ public class EntityInvocationHandler extends AbstractStructuredInvocationHandler
     } else if (linkCache.containsKey(property)) {
       navPropValue = linkCache.get(property);
     } else {
+      if (prefetcher != null) {
+        prefetcher.navigate(this, property, getter);
+      }
       navPropValue = retrieveNavigationProperty(property, getter);
     }
 
@@ -366,6 +371,25 @@ public class EntityInvocationHandler extends AbstractStructuredInvocationHandler
     return navPropValue;
   }
 
+  /**
+   * Sets the prefetcher loading navigation properties of this entity together with those of its siblings.
+   *
+   * @param prefetcher prefetcher, or <tt>null</tt> to navigate this entity on its own
+   */
+  public void setPrefetcher(final NavigationPrefetcher prefetcher) {
+    this.prefetcher = prefetcher;
+  }
+
+  /**
+   * Checks whether the given navigation property has already been navigated or set.
+   *
+   * @param navProp navigation property
+   * @return <tt>true</tt> if a value is available without retrieving it
+   */
+  public boolean isNavigationResolved(final NavigationProperty navProp) {
+    return linkChanges.containsKey(navProp) || linkCache.containsKey(navProp);
+  }
+
   protected void cacheLink(final NavigationProperty navProp, final Object value) {
     linkCache.put(navProp, value);
   }
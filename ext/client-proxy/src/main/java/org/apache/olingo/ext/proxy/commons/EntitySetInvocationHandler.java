@@ -80,6 +80,7 @@ public class EntitySetInvocationHandler<
             || "top".equals(method.getName())
             || "skip".equals(method.getName())
             || "expand".equals(method.getName())
+            || "prefetch".equals(method.getName())
             || "select".equals(method.getName())) {
 
       invokeSelfMethod(method, args);
@@ -70,6 +70,7 @@ public class InlineEntitySetInvocationHandler<
         || "top".equals(method.getName())
         || "skip".equals(method.getName())
         || "expand".equals(method.getName())
+        || "prefetch".equals(method.getName())
         || "select".equals(method.getName())) {
 
       invokeSelfMethod(method, args);
@@ -23,6 +23,7 @@ import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -31,6 +32,7 @@ import java.util.concurrent.Future;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.communication.request.invoke.ClientNoContent;
+import org.apache.olingo.client.api.uri.QueryOption;
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.client.api.uri.URIFilter;
 import org.apache.olingo.client.core.uri.URIUtils;
@@ -63,6 +65,14 @@ public class InvokerInvocationHandler<T, O extends Operations> extends AbstractI
 
   private URIBuilder uri;
 
+  /**
+   * Items given to all invocations of {@link #expand(java.lang.String...)} and paths given to
+   * {@link #prefetch(java.lang.String...)}: both are merged into <tt>$expand</tt>.
+   */
+  private final List<String> expandItems = new ArrayList<String>();
+
+  private final List<String> prefetchPaths = new ArrayList<String>();
+
   private final Map<String, ClientValue> parameters;
 
   private final Operation operation;
@@ -244,6 +254,7 @@ public class InvokerInvocationHandler<T, O extends Operations> extends AbstractI
             || "top".equals(method.getName())
             || "skip".equals(method.getName())
             || "expand".equals(method.getName())
+            || "prefetch".equals(method.getName())
             || "select".equals(method.getName())) {
       invokeSelfMethod(method, args);
       return proxy;
@@ -327,7 +338,15 @@ public class InvokerInvocationHandler<T, O extends Operations> extends AbstractI
 
   public void expand(final String... expand) {
     if (this.uri != null) {
-      this.uri.expand(expand);
+      expandItems.addAll(Arrays.asList(expand));
+      this.uri.replaceQueryOption(QueryOption.EXPAND, CoreUtils.getExpand(expandItems, prefetchPaths));
+    }
+  }
+
+  public void prefetch(final String... navigationPaths) {
+    if (this.uri != null) {
+      prefetchPaths.addAll(Arrays.asList(navigationPaths));
+      this.uri.replaceQueryOption(QueryOption.EXPAND, CoreUtils.getExpand(expandItems, prefetchPaths));
     }
   }
 
@@ -339,5 +358,7 @@ public class InvokerInvocationHandler<T, O extends Operations> extends AbstractI
 
   public void clearQueryOptions() {
     this.uri = this.baseURI == null ? null : getClient().newURIBuilder(baseURI.toASCIIString());
+    expandItems.clear();
+    prefetchPaths.clear();
   }
 }
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.commons;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.client.api.EdmEnabledODataClient;
+import org.apache.olingo.client.api.communication.request.ODataRequest;
+import org.apache.olingo.client.api.communication.request.ODataStreamedRequest;
+import org.apache.olingo.client.api.communication.request.batch.BatchManager;
+import org.apache.olingo.client.api.communication.request.batch.ODataBatchRequest;
+import org.apache.olingo.client.api.communication.request.batch.ODataBatchResponseItem;
+import org.apache.olingo.client.api.communication.response.ODataBatchResponse;
+import org.apache.olingo.client.api.communication.response.ODataResponse;
+import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.api.domain.ClientEntitySet;
+import org.apache.olingo.client.api.domain.ClientInlineEntity;
+import org.apache.olingo.client.api.domain.ClientInlineEntitySet;
+import org.apache.olingo.client.api.domain.ClientLink;
+import org.apache.olingo.client.core.uri.URIUtils;
+import org.apache.olingo.ext.proxy.AbstractService;
+import org.apache.olingo.ext.proxy.api.AbstractEntitySet;
+import org.apache.olingo.ext.proxy.api.EntityCollection;
+import org.apache.olingo.ext.proxy.api.annotations.NavigationProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads a navigation property for all entities of a retrieved collection page at once, as soon as it has been
+ * navigated on a given number of them: instead of a request per entity, the targets of the remaining entities are
+ * retrieved within batch requests and attached to the wrapped entities as inline links, as if they had been expanded.
+ * <br/>
+ * If a batch request fails, navigation falls back to separate requests.
+ *
+ * @see AbstractService#setNavigationPrefetchThreshold(int)
+ */
+public class NavigationPrefetcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NavigationPrefetcher.class);
+
+  /**
+   * Maximum number of retrieve requests sent within a single batch request.
+   */
+  public static final int MAX_BATCH_REQUESTS = 100;
+
+  private final AbstractService<?> service;
+
+  private final int threshold;
+
+  private final List<EntityInvocationHandler> handlers = new ArrayList<EntityInvocationHandler>();
+
+  /**
+   * Number of lazy navigations per navigation property name; negative once the property has been prefetched.
+   */
+  private final Map<String, Integer> navigations = new HashMap<String, Integer>();
+
+  public NavigationPrefetcher(final AbstractService<?> service, final int threshold) {
+    this.service = service;
+    this.threshold = threshold;
+  }
+
+  public void add(final EntityInvocationHandler handler) {
+    handlers.add(handler);
+    handler.setPrefetcher(this);
+  }
+
+  /**
+   * Notifies that the given navigation property is about to be navigated lazily on the given entity; once this
+   * happened for the configured number of entities, the targets of all entities not navigated yet are retrieved.
+   *
+   * @param handler entity being navigated
+   * @param property navigation property
+   * @param getter navigation property getter
+   */
+  public synchronized void navigate(
+      final EntityInvocationHandler handler, final NavigationProperty property, final Method getter) {
+
+    // entity sets reached via navigation are retrieved by their own URI
+    if (AbstractEntitySet.class.isAssignableFrom(getter.getReturnType())) {
+      return;
+    }
+
+    final Integer count = navigations.get(property.name());
+    if (count != null && count < 0) {
+      return;
+    }
+    final int navigated = count == null ? 1 : count + 1;
+    if (navigated < threshold) {
+      navigations.put(property.name(), navigated);
+      return;
+    }
+    navigations.put(property.name(), -1);
+
+    final List<EntityInvocationHandler> targets = new ArrayList<EntityInvocationHandler>();
+    for (EntityInvocationHandler sibling : handlers) {
+      if (sibling.getEntityURI() != null && !sibling.isNavigationResolved(property)) {
+        final ClientLink link = sibling.getEntity().getNavigationLink(property.name());
+        if (!(link instanceof ClientInlineEntity) && !(link instanceof ClientInlineEntitySet)) {
+          targets.add(sibling);
+        }
+      }
+    }
+
+    // a single entity left is just navigated as usual
+    if (targets.size() > 1) {
+      final boolean collection = EntityCollection.class.isAssignableFrom(getter.getReturnType());
+      for (int from = 0; from < targets.size(); from += MAX_BATCH_REQUESTS) {
+        final List<EntityInvocationHandler> batch =
+            targets.subList(from, Math.min(from + MAX_BATCH_REQUESTS, targets.size()));
+        try {
+          fetch(batch, property.name(), collection);
+        } catch (RuntimeException e) {
+          LOG.warn("Error prefetching navigation property '" + property.name() + "'", e);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void fetch(final List<EntityInvocationHandler> targets, final String name, final boolean collection) {
+    final EdmEnabledODataClient client = service.getClient();
+
+    final ODataBatchRequest request = client.getBatchRequestFactory().getBatchRequest(client.getServiceRoot());
+    ((ODataRequest) request).setAccept(client.getConfiguration().getDefaultBatchAcceptFormat().toContentTypeString());
+
+    final BatchManager batchManager = (BatchManager) ((ODataStreamedRequest<?, ?>) request).payloadManager();
+    for (EntityInvocationHandler target : targets) {
+      final URI uri = URIUtils.getURI(target.getEntityURI(), name);
+      if (collection) {
+        batchManager.addRequest(client.getRetrieveRequestFactory().getEntitySetRequest(uri));
+      } else {
+        batchManager.addRequest(client.getRetrieveRequestFactory().getEntityRequest(uri));
+      }
+    }
+    LOG.debug("Prefetch '{}' for {} entities", name, targets.size());
+
+    final ODataBatchResponse response = batchManager.getResponse();
+    try {
+      if (response.getStatusCode() != 202 && response.getStatusCode() != 200) {
+        LOG.warn("Prefetching '{}' failed with status {}", name, response.getStatusCode());
+        return;
+      }
+
+      final Iterator<ODataBatchResponseItem> batchResItor = response.getBody();
+      for (EntityInvocationHandler target : targets) {
+        if (!batchResItor.hasNext()) {
+          break;
+        }
+        final ODataBatchResponseItem item = batchResItor.next();
+        final ODataResponse res = item.hasNext() ? item.next() : null;
+        if (res instanceof ODataRetrieveResponse && res.getStatusCode() == 200) {
+          final ClientLink inline;
+          if (collection) {
+            final ClientEntitySet entitySet = ((ODataRetrieveResponse<ClientEntitySet>) res).getBody();
+            // further pages are left to be retrieved by navigation
+            inline = entitySet.getNext() == null
+                ? client.getObjectFactory().newDeepInsertEntitySet(name, entitySet)
+                : null;
+          } else {
+            inline = client.getObjectFactory().newDeepInsertEntity(
+                name, ((ODataRetrieveResponse<ClientEntity>) res).getBody());
+          }
+
+          if (inline != null) {
+            final ClientEntity entity = target.getEntity();
+            final ClientLink link = entity.getNavigationLink(name);
+            if (link != null) {
+              entity.removeLink(link);
+            }
+            entity.addLink(inline);
+          }
+        }
+      }
+    } finally {
+      response.close();
+    }
+  }
+}
@@ -19,13 +19,22 @@
 package org.apache.olingo.ext.proxy.commons;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+
 import org.apache.olingo.client.api.communication.request.ODataBasicRequest;
 import org.apache.olingo.client.api.communication.request.ODataBatchableRequest;
 import org.apache.olingo.client.api.communication.request.ODataRequest;
 import org.apache.olingo.client.api.communication.request.ODataStreamedRequest;
+import org.apache.olingo.client.api.communication.request.batch.BatchManager;
+import org.apache.olingo.client.api.communication.request.batch.ODataBatchRequest;
+import org.apache.olingo.client.api.communication.request.batch.ODataBatchResponseItem;
+import org.apache.olingo.client.api.communication.request.batch.ODataChangeset;
+import org.apache.olingo.client.api.communication.response.ODataBatchResponse;
 import org.apache.olingo.client.api.communication.response.ODataEntityCreateResponse;
 import org.apache.olingo.client.api.communication.response.ODataEntityUpdateResponse;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
@@ -37,6 +46,10 @@ import org.apache.olingo.ext.proxy.api.ODataResponseError;
 /**
  * {@link org.apache.olingo.ext.proxy.api.PersistenceManager} implementation not using OData batch requests: any
  * read-write operation will be sent separately to the OData service when calling <tt>flush()</tt>.
+ * <br/>
+ * If a flush batch size has been set at the service (see {@link AbstractService#setFlushBatchSize(int)}), the
+ * operations are sent instead within batch requests of at most that size, without atomicity. An operation referring
+ * to an entity created by the immediately preceding operations is sent in the same change set, via its Content-ID.
  */
 public class NonTransactionalPersistenceManagerImpl extends AbstractPersistenceManager {
 
@@ -48,6 +61,11 @@ public class NonTransactionalPersistenceManagerImpl extends AbstractPersistenceM
 
   @Override
   protected void doFlush(final PersistenceChanges changes, final TransactionItems items) {
+    if (service.getFlushBatchSize() > 0) {
+      doBatchFlush(changes, service.getFlushBatchSize());
+      return;
+    }
+
     final Map<Integer, URI> responses = new HashMap<Integer, URI>();
 
     int index = 0;
@@ -57,15 +75,7 @@ public class NonTransactionalPersistenceManagerImpl extends AbstractPersistenceM
       final ODataRequest request = ODataRequest.class.cast(entry.getKey());
       final ODataResponse response;
       try {
-        String uri = request.getURI().toASCIIString();
-        if (uri.startsWith("$")) {
-          int slashIndex = uri.indexOf('/');
-          final Integer toBeReplaced = Integer.valueOf(uri.substring(1, slashIndex < 0 ? uri.length() : slashIndex));
-          if (responses.containsKey(toBeReplaced)) {
-            uri = uri.replace("$" + toBeReplaced, responses.get(toBeReplaced).toASCIIString());
-            request.setURI(URI.create(uri));
-          }
-        }
+        resolveReference(request, responses);
 
         if (ODataStreamedRequest.class.isAssignableFrom(request.getClass())) {
           response = ((ODataStreamedRequest<?, ?>) request).payloadManager().getResponse();
@@ -73,36 +83,203 @@ public class NonTransactionalPersistenceManagerImpl extends AbstractPersistenceM
           response = ((ODataBasicRequest<?>) request).execute();
         }
 
-        if (entry.getValue() != null
-            && response instanceof ODataEntityCreateResponse && (response.getStatusCode() == 201 || response
-                .getStatusCode() == 204)) {
-          if (response.getStatusCode() == 201) {
-            entry.getValue().setEntity(((ODataEntityCreateResponse<?>) response).getBody());
-            responses.put(index, entry.getValue().getEntityURI());
-            LOG.debug("Upgrade created object '{}'", entry.getValue());
+        applyResponse(index, entry.getValue(), response, responses);
+      } catch (ODataRuntimeException e) {
+        LOG.error("While performing {}", entry.getKey().getURI(), e);
+
+        throw new ODataFlushException(0, Collections.singletonList(new ODataResponseError(e, index, request)));
+      }
+    }
+  }
+
+  /**
+   * Sends the changes within batch requests of at most the given size.
+   * Each change is a batch part of its own, unless it refers (via <tt>$n</tt>) to a change in the preceding part;
+   * in that case it is added to that part, which becomes a change set.
+   * References to changes sent in previous batch requests are resolved as for separate requests.
+   */
+  private void doBatchFlush(final PersistenceChanges changes, final int batchSize) {
+    final List<ODataBatchableRequest> requests = new ArrayList<ODataBatchableRequest>(changes.getChanges().keySet());
+
+    final Map<Integer, URI> responses = new HashMap<Integer, URI>();
+    final List<ODataResponseError> errors = new ArrayList<ODataResponseError>();
+    int statusCode = 0;
+    for (List<List<Integer>> parts : planBatches(requests, batchSize)) {
+      try {
+        statusCode = sendBatch(parts, requests, changes.getChanges(), responses, errors);
+      } catch (ODataFlushException e) {
+        throw e;
+      } catch (ODataRuntimeException e) {
+        // The batch request as a whole failed: report it at its first change, together with the errors so far.
+        final Integer index = parts.get(0).get(0);
+        LOG.error("While performing batch request for change {}", index, e);
+        errors.add(new ODataResponseError(e, index, (ODataRequest) requests.get(index - 1)));
+        throw new ODataFlushException(statusCode, errors);
+      }
+    }
+    if (!errors.isEmpty()) {
+      throw new ODataFlushException(statusCode, errors);
+    }
+  }
+
+  /**
+   * Plans the batch requests for the given changes; each one is a list of parts, each part a list of 1-based change
+   * indexes. A batch request has at most the given number of changes, except when a change set has to be completed.
+   */
+  static List<List<List<Integer>>> planBatches(final List<ODataBatchableRequest> requests, final int batchSize) {
+    final List<List<List<Integer>>> batches = new ArrayList<List<List<Integer>>>();
+    List<List<Integer>> batch = new ArrayList<List<Integer>>();
+    int batchCount = 0;
+    final Map<Integer, List<List<Integer>>> index2Batch = new HashMap<Integer, List<List<Integer>>>();
+    for (int index = 1; index <= requests.size(); index++) {
+      final Integer reference = getReference(requests.get(index - 1));
+      final List<Integer> lastPart = batch.isEmpty() ? null : batch.get(batch.size() - 1);
+      if (reference != null && lastPart != null && lastPart.contains(reference)) {
+        lastPart.add(index);
+      } else {
+        if (batchCount >= batchSize || reference != null && index2Batch.get(reference) == batch) {
+          batches.add(batch);
+          batch = new ArrayList<List<Integer>>();
+          batchCount = 0;
+        }
+        final List<Integer> part = new ArrayList<Integer>();
+        part.add(index);
+        batch.add(part);
+      }
+      batchCount++;
+      index2Batch.put(index, batch);
+    }
+    if (!batch.isEmpty()) {
+      batches.add(batch);
+    }
+    return batches;
+  }
+
+  private int sendBatch(final List<List<Integer>> parts, final List<ODataBatchableRequest> requests,
+      final Map<ODataBatchableRequest, EntityInvocationHandler> handlers, final Map<Integer, URI> responses,
+      final List<ODataResponseError> errors) {
+
+    final ODataBatchRequest request =
+        service.getClient().getBatchRequestFactory().getBatchRequest(service.getClient().getServiceRoot());
+    ((ODataRequest) request).setAccept(
+        service.getClient().getConfiguration().getDefaultBatchAcceptFormat().toContentTypeString());
+
+    final BatchManager batchManager = (BatchManager) ((ODataStreamedRequest<?, ?>) request).payloadManager();
+
+    for (List<Integer> part : parts) {
+      if (part.size() == 1) {
+        final ODataRequest single = (ODataRequest) requests.get(part.get(0) - 1);
+        resolveReference(single, responses);
+        batchManager.addRequest((ODataBatchableRequest) single);
+      } else {
+        final ODataChangeset changeset = batchManager.addChangeset();
+        for (Integer index : part) {
+          final ODataRequest member = (ODataRequest) requests.get(index - 1);
+          final Integer reference = getReference((ODataBatchableRequest) member);
+          if (reference != null && part.contains(reference)) {
+            // Content-IDs are assigned by the change set in the order of its requests, starting from 1.
+            replaceReference(member, reference, "$" + (part.indexOf(reference) + 1));
           } else {
-            entry.getValue().applyChanges();
-            responses.put(index, null);
+            resolveReference(member, responses);
+          }
+          changeset.addRequest((ODataBatchableRequest) member);
+        }
+      }
+    }
+
+    final ODataBatchResponse response = batchManager.getResponse();
+    try {
+      checkBatchResponse(response);
+
+      final Iterator<ODataBatchResponseItem> batchResItor = response.getBody();
+      for (List<Integer> part : parts) {
+        if (!batchResItor.hasNext()) {
+          // The service stopped processing after an error: report the first change left without response.
+          final Integer index = part.get(0);
+          errors.add(new ODataResponseError(
+              new ODataRuntimeException("No response for change " + index + ": the service stopped processing"),
+              index, (ODataRequest) requests.get(index - 1)));
+          throw new ODataFlushException(response.getStatusCode(), errors);
+        }
+        final ODataBatchResponseItem item = batchResItor.next();
+        for (Integer index : part) {
+          if (!item.hasNext()) {
+            // A failed change set is answered by a single error response.
+            break;
           }
-        } else if (entry.getValue() != null
-            && response instanceof ODataEntityUpdateResponse && (response.getStatusCode() == 200 || response
-                .getStatusCode() == 204)) {
-          if (response.getStatusCode() == 200) {
-            entry.getValue().setEntity(((ODataEntityUpdateResponse<?>) response).getBody());
-            responses.put(index, entry.getValue().getEntityURI());
-            LOG.debug("Upgrade updated object '{}'", entry.getValue());
+          final ODataResponse res = item.next();
+          final ODataBatchableRequest batchable = requests.get(index - 1);
+          if (res.getStatusCode() >= 400) {
+            errors.add(getResponseError(res, ((ODataRequest) request).getAccept(), index, (ODataRequest) batchable));
+            if (!service.getClient().getConfiguration().isContinueOnError()) {
+              throw new ODataFlushException(response.getStatusCode(), errors);
+            }
           } else {
-            entry.getValue().applyChanges();
-            responses.put(index, null);
+            applyResponse(index, handlers.get(batchable), res, responses);
           }
-        } else {
-          responses.put(index, null);
         }
-      } catch (ODataRuntimeException e) {
-        LOG.error("While performing {}", entry.getKey().getURI(), e);
+      }
+      return response.getStatusCode();
+    } finally {
+      response.close();
+    }
+  }
 
-        throw new ODataFlushException(0, Collections.singletonList(new ODataResponseError(e, index, request)));
+  /**
+   * Gets the index of the change the request refers to via its URI (<tt>$n</tt>), if any.
+   */
+  private static Integer getReference(final ODataBatchableRequest request) {
+    final String uri = request.getURI().toASCIIString();
+    if (uri.startsWith("$")) {
+      final int slashIndex = uri.indexOf('/');
+      try {
+        return Integer.valueOf(uri.substring(1, slashIndex < 0 ? uri.length() : slashIndex));
+      } catch (final NumberFormatException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static void resolveReference(final ODataRequest request, final Map<Integer, URI> responses) {
+    final Integer toBeReplaced = getReference((ODataBatchableRequest) request);
+    if (toBeReplaced != null && responses.get(toBeReplaced) != null) {
+      replaceReference(request, toBeReplaced, responses.get(toBeReplaced).toASCIIString());
+    }
+  }
+
+  static void replaceReference(final ODataRequest request, final Integer reference, final String by) {
+    final String uri = request.getURI().toASCIIString();
+    request.setURI(URI.create(by + uri.substring(("$" + reference).length())));
+  }
+
+  private void applyResponse(final int index, final EntityInvocationHandler handler, final ODataResponse response,
+      final Map<Integer, URI> responses) {
+
+    if (handler != null
+        && response instanceof ODataEntityCreateResponse && (response.getStatusCode() == 201 || response
+            .getStatusCode() == 204)) {
+      if (response.getStatusCode() == 201) {
+        handler.setEntity(((ODataEntityCreateResponse<?>) response).getBody());
+        responses.put(index, handler.getEntityURI());
+        LOG.debug("Upgrade created object '{}'", handler);
+      } else {
+        handler.applyChanges();
+        responses.put(index, null);
+      }
+    } else if (handler != null
+        && response instanceof ODataEntityUpdateResponse && (response.getStatusCode() == 200 || response
+            .getStatusCode() == 204)) {
+      if (response.getStatusCode() == 200) {
+        handler.setEntity(((ODataEntityUpdateResponse<?>) response).getBody());
+        responses.put(index, handler.getEntityURI());
+        LOG.debug("Upgrade updated object '{}'", handler);
+      } else {
+        handler.applyChanges();
+        responses.put(index, null);
       }
+    } else {
+      responses.put(index, null);
     }
   }
 }
@@ -70,6 +70,7 @@ public class StructuredComposableInvokerInvocationHandler<T, O extends Operation
             || "top".equals(method.getName())
             || "skip".equals(method.getName())
             || "expand".equals(method.getName())
+            || "prefetch".equals(method.getName())
             || "select".equals(method.getName())) {
 
       return super.invoke(proxy, method, args);
@@ -23,7 +23,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.olingo.client.api.communication.ODataServerErrorException;
 import org.apache.olingo.client.api.communication.request.ODataBatchableRequest;
 import org.apache.olingo.client.api.communication.request.ODataRequest;
 import org.apache.olingo.client.api.communication.request.ODataStreamedRequest;
@@ -35,7 +34,6 @@ import org.apache.olingo.client.api.communication.response.ODataBatchResponse;
 import org.apache.olingo.client.api.communication.response.ODataEntityCreateResponse;
 import org.apache.olingo.client.api.communication.response.ODataEntityUpdateResponse;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
-import org.apache.olingo.client.core.communication.header.ODataErrorResponseChecker;
 import org.apache.olingo.client.core.communication.request.batch.ODataChangesetResponseItem;
 import org.apache.olingo.ext.proxy.AbstractService;
 import org.apache.olingo.ext.proxy.api.ODataFlushException;
@@ -74,12 +72,7 @@ public class TransactionalPersistenceManagerImpl extends AbstractPersistenceMana
     }
 
     final ODataBatchResponse response = batchManager.getResponse();
-
-    // This should be 202 for service version <= 3.0 and 200 for service version >= 4.0 but it seems that
-    // many service implementations are not fully compliant in this respect.
-    if (response.getStatusCode() != 202 && response.getStatusCode() != 200) {
-      throw new ODataServerErrorException(new ResponseStatusLine(response));
-    }
+    checkBatchResponse(response);
 
     if (!items.isEmpty()) {
       final List<ODataResponseError> errors = new ArrayList<ODataResponseError>();
@@ -103,11 +96,7 @@ public class TransactionalPersistenceManagerImpl extends AbstractPersistenceMana
 
         final ODataResponse res = chgres.next();
         if (res.getStatusCode() >= 400) {
-          errors.add(new ODataResponseError(ODataErrorResponseChecker.checkResponse(
-                  service.getClient(),
-                  new ResponseStatusLine(res),
-                  res.getRawResponse(),
-                  ((ODataRequest) request).getAccept()), index, requests.get(index)));
+          errors.add(getResponseError(res, ((ODataRequest) request).getAccept(), index, requests.get(index)));
           if (!service.getClient().getConfiguration().isContinueOnError()) {
             throw new ODataFlushException(response.getStatusCode(), errors);
           }
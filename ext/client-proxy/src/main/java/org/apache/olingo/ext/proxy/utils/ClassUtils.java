@@ -35,8 +35,6 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
-import java.util.HashSet;
-import java.util.Set;
 
 public final class ClassUtils {
 
@@ -45,6 +43,8 @@ public final class ClassUtils {
    */
   private static final Logger LOG = LoggerFactory.getLogger(ClassUtils.class);
 
+  private static volatile Void voidInstance;
+
   private ClassUtils() {
     // Empty private constructor for static utility classes
   }
@@ -118,16 +118,10 @@ public final class ClassUtils {
     Class<?> res = getCompoundKeyRef(entityTypeRef);
 
     if (res == null) {
-      final Set<Method> keyGetters = new HashSet<Method>();
+      final Method[] keyGetters = TypeMetadata.of(entityTypeRef).getKeyGetters();
 
-      for (Method method : entityTypeRef.getDeclaredMethods()) {
-        if (method.getName().startsWith("get") && method.getAnnotation(Key.class) != null) {
-          keyGetters.add(method);
-        }
-      }
-
-      if (keyGetters.size() == 1) {
-        res = keyGetters.iterator().next().getReturnType();
+      if (keyGetters.length == 1) {
+        res = keyGetters[0].getReturnType();
       } else {
         throw new IllegalStateException(entityTypeRef.getSimpleName() + "'s key reference not found");
       }
@@ -158,9 +152,14 @@ public final class ClassUtils {
           throws NoSuchMethodException, InstantiationException, IllegalAccessException,
           IllegalArgumentException, InvocationTargetException {
 
-    final Constructor<Void> voidConstructor = Void.class.getDeclaredConstructor();
-    voidConstructor.setAccessible(true);
-    return voidConstructor.newInstance();
+    Void instance = voidInstance;
+    if (instance == null) {
+      final Constructor<Void> voidConstructor = Void.class.getDeclaredConstructor();
+      voidConstructor.setAccessible(true);
+      instance = voidConstructor.newInstance();
+      voidInstance = instance;
+    }
+    return instance;
   }
 
   public static Type[] getTypeArguments(final Type type) {
@@ -28,13 +28,13 @@ import java.lang.reflect.Type;
 import java.net.URI;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.EdmEnabledODataClient;
@@ -66,7 +66,6 @@ import org.apache.olingo.ext.proxy.api.annotations.ComplexType;
 import org.apache.olingo.ext.proxy.api.annotations.CompoundKey;
 import org.apache.olingo.ext.proxy.api.annotations.CompoundKeyElement;
 import org.apache.olingo.ext.proxy.api.annotations.EnumType;
-import org.apache.olingo.ext.proxy.api.annotations.Key;
 import org.apache.olingo.ext.proxy.api.annotations.Namespace;
 import org.apache.olingo.ext.proxy.api.annotations.NavigationProperty;
 import org.apache.olingo.ext.proxy.api.annotations.Property;
@@ -400,15 +399,7 @@ public final class CoreUtils {
   }
 
   public static Map<String, Object> getCompoundKey(final Object key) {
-    final Set<CompoundKeyElementWrapper> elements = new TreeSet<CompoundKeyElementWrapper>();
-
-    for (Method method : key.getClass().getMethods()) {
-      final Annotation annotation = method.getAnnotation(CompoundKeyElement.class);
-      if (annotation instanceof CompoundKeyElement) {
-        elements.add(new CompoundKeyElementWrapper(
-            ((CompoundKeyElement) annotation).name(), method, ((CompoundKeyElement) annotation).position()));
-      }
-    }
+    final List<CompoundKeyElementWrapper> elements = TypeMetadata.of(key.getClass()).getCompoundKeyElements();
 
     final LinkedHashMap<String, Object> map = new LinkedHashMap<String, Object>();
 
@@ -489,7 +480,7 @@ public final class CoreUtils {
       while (propItor.hasNext()) {
         final ClientProperty property = propItor.next();
 
-        final Method getter = ClassUtils.findGetterByAnnotatedName(typeRef, getterAnn, property.getName());
+        final Method getter = TypeMetadata.of(typeRef).getGetterByAnnotatedName(getterAnn, property.getName());
 
         if (getter == null) {
           LOG.warn("Could not find any property annotated as {} in {}",
@@ -634,15 +625,7 @@ public final class CoreUtils {
   }
 
   private static String firstValidEntityKey(final Class<?> entityTypeRef) {
-    for (Method method : entityTypeRef.getDeclaredMethods()) {
-      if (method.getAnnotation(Key.class) != null) {
-        final Annotation ann = method.getAnnotation(Property.class);
-        if (ann != null) {
-          return ((Property) ann).name();
-        }
-      }
-    }
-    return null;
+    return TypeMetadata.of(entityTypeRef).getKeyPropertyName();
   }
 
   public static URI getMediaEditLink(final String name, final ClientEntity entity) {
@@ -655,4 +638,126 @@ public final class CoreUtils {
     uriBuilder.appendEntitySetSegment(property.targetEntitySet());
     return uriBuilder.build();
   }
+
+  /**
+   * Builds the <tt>$expand</tt> expression for the given navigation paths: each path is made of navigation property
+   * names separated by <tt>/</tt>; paths sharing a prefix are merged, nested navigation properties are expanded via
+   * nested <tt>$expand</tt> options (e.g. <tt>Orders/Customer</tt> becomes <tt>Orders($expand=Customer)</tt>).
+   *
+   * @param navigationPaths navigation paths
+   * @return <tt>$expand</tt> expression
+   */
+  public static String getExpand(final String... navigationPaths) {
+    return getExpand(Collections.<String> emptyList(), Arrays.asList(navigationPaths));
+  }
+
+  /**
+   * Builds the <tt>$expand</tt> expression made of the given expand items and navigation paths, merged into a single
+   * tree: an item is expanded only once, nested <tt>$expand</tt> options of the same item are merged and its other
+   * options are kept (e.g. items <tt>Orders($select=Id)</tt> and path <tt>Orders/Customer</tt> become
+   * <tt>Orders($select=Id;$expand=Customer)</tt>). The result does not depend on the order of the invocations
+   * having provided items and paths.
+   *
+   * @param expandItems <tt>$expand</tt> items, possibly with options
+   * @param navigationPaths navigation paths, as for {@link #getExpand(java.lang.String...)}
+   * @return <tt>$expand</tt> expression
+   */
+  public static String getExpand(final List<String> expandItems, final List<String> navigationPaths) {
+    final ExpandNode root = new ExpandNode();
+    for (String item : expandItems) {
+      root.addItems(item);
+    }
+    for (String path : navigationPaths) {
+      ExpandNode node = root;
+      for (String segment : StringUtils.split(path, '/')) {
+        node = node.getChild(segment.trim());
+      }
+    }
+    return root.toString();
+  }
+
+  /**
+   * Splits the given expression at the given separator, ignoring separators within parentheses or quotes.
+   */
+  private static List<String> splitTopLevel(final String expression, final char separator) {
+    final List<String> parts = new ArrayList<String>();
+    int depth = 0;
+    boolean quoted = false;
+    int start = 0;
+    for (int i = 0; i < expression.length(); i++) {
+      final char c = expression.charAt(i);
+      if (c == '\'') {
+        quoted = !quoted;
+      } else if (!quoted && c == '(') {
+        depth++;
+      } else if (!quoted && c == ')') {
+        depth--;
+      } else if (!quoted && depth == 0 && c == separator) {
+        parts.add(expression.substring(start, i).trim());
+        start = i + 1;
+      }
+    }
+    parts.add(expression.substring(start).trim());
+    return parts;
+  }
+
+  private static final class ExpandNode {
+
+    private final List<String> options = new ArrayList<String>();
+
+    private final Map<String, ExpandNode> children = new LinkedHashMap<String, ExpandNode>();
+
+    private ExpandNode getChild(final String name) {
+      ExpandNode child = children.get(name);
+      if (child == null) {
+        child = new ExpandNode();
+        children.put(name, child);
+      }
+      return child;
+    }
+
+    private void addItems(final String expand) {
+      for (String item : splitTopLevel(expand, ',')) {
+        if (!item.isEmpty()) {
+          final int open = item.indexOf('(');
+          if (open == -1 || !item.endsWith(")")) {
+            getChild(item);
+          } else {
+            getChild(item.substring(0, open).trim()).addOptions(item.substring(open + 1, item.length() - 1));
+          }
+        }
+      }
+    }
+
+    private void addOptions(final String itemOptions) {
+      for (String option : splitTopLevel(itemOptions, ';')) {
+        if (option.startsWith("$expand=")) {
+          addItems(option.substring("$expand=".length()));
+        } else if (!option.isEmpty() && !options.contains(option)) {
+          options.add(option);
+        }
+      }
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder expand = new StringBuilder();
+      for (Map.Entry<String, ExpandNode> entry : children.entrySet()) {
+        if (expand.length() > 0) {
+          expand.append(',');
+        }
+        expand.append(entry.getKey());
+
+        final ExpandNode child = entry.getValue();
+        final List<String> childOptions = new ArrayList<String>(child.options);
+        if (!child.children.isEmpty()) {
+          childOptions.add("$expand=" + child);
+        }
+        if (!childOptions.isEmpty()) {
+          expand.append('(').append(StringUtils.join(childOptions, ';')).append(')');
+        }
+      }
+      return expand.toString();
+    }
+  }
 }
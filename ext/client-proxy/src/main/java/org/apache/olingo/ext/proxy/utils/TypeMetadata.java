@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.utils;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.olingo.ext.proxy.api.annotations.CompoundKeyElement;
+import org.apache.olingo.ext.proxy.api.annotations.Key;
+import org.apache.olingo.ext.proxy.api.annotations.NavigationProperty;
+import org.apache.olingo.ext.proxy.api.annotations.Property;
+
+/**
+ * Reflection information about a proxied type (or key class), computed once per type and shared by all proxies.
+ * <br/>
+ * Accessors are looked up by identity of the invoked {@link Method}: proxy classes pass the same method instances
+ * on every invocation, so after the first call of a method its descriptor is found without any further reflection.
+ * <br/>
+ * The cache holds types and descriptors weakly, in the way of <tt>java.lang.ClassValue</tt>: it does not prevent
+ * generated classes and their class loader from being unloaded. A descriptor stays cached while it is referenced,
+ * e.g., by the invocation handlers of its type.
+ */
+public final class TypeMetadata {
+
+  private static final Map<Class<?>, WeakReference<TypeMetadata>> METADATA =
+      new WeakHashMap<Class<?>, WeakReference<TypeMetadata>>();
+
+  private final Class<?> typeRef;
+
+  /**
+   * Upper bound for the identity lookup table; methods obtained via reflection are new instances on every call.
+   */
+  private static final int MAX_IDENTITY_ENTRIES = 512;
+
+  private volatile Map<Method, Accessor> accessors = new IdentityHashMap<Method, Accessor>();
+
+  private final ConcurrentMap<Method, Accessor> accessorsByEquality = new ConcurrentHashMap<Method, Accessor>();
+
+  private final ConcurrentMap<String, Method> annotatedGetters = new ConcurrentHashMap<String, Method>();
+
+  private volatile List<CompoundKeyElementWrapper> compoundKeyElements;
+
+  private volatile String keyPropertyName;
+
+  private volatile Method[] keyGetters;
+
+  private TypeMetadata(final Class<?> typeRef) {
+    this.typeRef = typeRef;
+  }
+
+  public static TypeMetadata of(final Class<?> typeRef) {
+    synchronized (METADATA) {
+      final WeakReference<TypeMetadata> reference = METADATA.get(typeRef);
+      TypeMetadata metadata = reference == null ? null : reference.get();
+      if (metadata == null) {
+        metadata = new TypeMetadata(typeRef);
+        METADATA.put(typeRef, new WeakReference<TypeMetadata>(metadata));
+      }
+      return metadata;
+    }
+  }
+
+  /**
+   * Gets the descriptor of the given getter or setter.
+   * Assumption: for each getter will always exist a setter and viceversa; the descriptor of a setter refers to the
+   * corresponding getter.
+   *
+   * @param method getter or setter, as invoked on a proxy
+   * @return descriptor, or <tt>null</tt> if the method is neither getter nor setter
+   * @throws NoSuchMethodException if the type has no getter for the given method
+   */
+  public Accessor getAccessor(final Method method) throws NoSuchMethodException {
+    Accessor accessor = accessors.get(method);
+    if (accessor == null) {
+      accessor = accessorsByEquality.get(method);
+      if (accessor == null) {
+        accessor = createAccessor(method);
+        if (accessor == null) {
+          return null;
+        }
+        accessorsByEquality.putIfAbsent(method, accessor);
+      }
+      synchronized (this) {
+        if (accessors.size() < MAX_IDENTITY_ENTRIES) {
+          final Map<Method, Accessor> copy = new IdentityHashMap<Method, Accessor>(accessors);
+          copy.put(method, accessor);
+          accessors = copy;
+        }
+      }
+    }
+    return accessor;
+  }
+
+  private Accessor createAccessor(final Method method) throws NoSuchMethodException {
+    final String name = method.getName();
+    final boolean setter;
+    final Method getter;
+    if (name.startsWith("get")) {
+      setter = false;
+      getter = typeRef.getMethod(name);
+    } else if (name.startsWith("set")) {
+      setter = true;
+      getter = typeRef.getMethod(name.replaceFirst("set", "get"));
+    } else {
+      return null;
+    }
+
+    final Property property = ClassUtils.getAnnotation(Property.class, getter);
+    final NavigationProperty navProp = property == null
+        ? ClassUtils.getAnnotation(NavigationProperty.class, getter)
+        : null;
+    return new Accessor(setter, getter, property, navProp);
+  }
+
+  /**
+   * Gets the getter annotated with the given annotation having the given name.
+   *
+   * @return getter, or <tt>null</tt> if not found
+   */
+  public Method getGetterByAnnotatedName(final Class<? extends Annotation> ann, final String name) {
+    final String key = ann.getName() + '#' + name;
+    Method getter = annotatedGetters.get(key);
+    if (getter == null) {
+      getter = ClassUtils.findGetterByAnnotatedName(typeRef, ann, name);
+      if (getter != null) {
+        annotatedGetters.put(key, getter);
+      }
+    }
+    return getter;
+  }
+
+  /**
+   * Gets the getters annotated as {@link CompoundKeyElement}, sorted by position.
+   */
+  public List<CompoundKeyElementWrapper> getCompoundKeyElements() {
+    if (compoundKeyElements == null) {
+      final TreeSet<CompoundKeyElementWrapper> elements = new TreeSet<CompoundKeyElementWrapper>();
+      for (Method method : typeRef.getMethods()) {
+        final Annotation annotation = method.getAnnotation(CompoundKeyElement.class);
+        if (annotation instanceof CompoundKeyElement) {
+          elements.add(new CompoundKeyElementWrapper(
+              ((CompoundKeyElement) annotation).name(), method, ((CompoundKeyElement) annotation).position()));
+        }
+      }
+      compoundKeyElements = Collections.unmodifiableList(new ArrayList<CompoundKeyElementWrapper>(elements));
+    }
+    return compoundKeyElements;
+  }
+
+  /**
+   * Gets the getters declared by the type and annotated as {@link Key}.
+   *
+   * @return a copy of the cached getters, which can be modified by the caller
+   */
+  public Method[] getKeyGetters() {
+    if (keyGetters == null) {
+      final List<Method> getters = new ArrayList<Method>();
+      for (Method method : typeRef.getDeclaredMethods()) {
+        if (method.getName().startsWith("get") && method.getAnnotation(Key.class) != null) {
+          getters.add(method);
+        }
+      }
+      keyGetters = getters.toArray(new Method[getters.size()]);
+    }
+    return keyGetters.clone();
+  }
+
+  /**
+   * Gets the property name of the first method declared by the type and annotated as {@link Key}.
+   *
+   * @return property name, or <tt>null</tt> if not found
+   */
+  public String getKeyPropertyName() {
+    if (keyPropertyName == null) {
+      for (Method method : typeRef.getDeclaredMethods()) {
+        if (method.getAnnotation(Key.class) != null) {
+          final Annotation ann = method.getAnnotation(Property.class);
+          if (ann != null) {
+            keyPropertyName = ((Property) ann).name();
+            break;
+          }
+        }
+      }
+    }
+    return keyPropertyName;
+  }
+
+  /**
+   * Pre-resolved information about a getter or setter of a proxied type.
+   */
+  public static final class Accessor {
+
+    private final boolean setter;
+
+    private final Method getter;
+
+    private final Property property;
+
+    private final NavigationProperty navigationProperty;
+
+    private final Type genericType;
+
+    Accessor(final boolean setter, final Method getter, final Property property,
+        final NavigationProperty navigationProperty) {
+      this.setter = setter;
+      this.getter = getter;
+      this.property = property;
+      this.navigationProperty = navigationProperty;
+      this.genericType = getter.getGenericReturnType();
+    }
+
+    public boolean isSetter() {
+      return setter;
+    }
+
+    public Method getGetter() {
+      return getter;
+    }
+
+    /**
+     * @return property annotation of the getter, or <tt>null</tt> if not a property
+     */
+    public Property getProperty() {
+      return property;
+    }
+
+    /**
+     * @return navigation property annotation of the getter, or <tt>null</tt> if not a navigation property
+     */
+    public NavigationProperty getNavigationProperty() {
+      return navigationProperty;
+    }
+
+    /**
+     * @return generic return type of the getter
+     */
+    public Type getGenericType() {
+      return genericType;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.commons;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.request.ODataBatchableRequest;
+import org.apache.olingo.client.api.communication.request.ODataRequest;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.junit.Test;
+
+public class NonTransactionalPersistenceManagerImplTest {
+
+  private static final String SERVICE_ROOT = "http://localhost:9080/odata.svc/";
+
+  private final ODataClient client = ODataClientFactory.getClient();
+
+  /**
+   * Creates delete requests for the given URIs, relative to the service root unless they start with <tt>$</tt>.
+   */
+  private List<ODataBatchableRequest> requests(final String... uris) {
+    final List<ODataBatchableRequest> requests = new ArrayList<ODataBatchableRequest>();
+    for (String uri : uris) {
+      requests.add(client.getCUDRequestFactory().getDeleteRequest(
+          URI.create(uri.startsWith("$") ? uri : SERVICE_ROOT + uri)));
+    }
+    return requests;
+  }
+
+  @Test
+  public void planWithoutReferences() {
+    assertEquals("[[[1], [2]], [[3], [4]], [[5]]]",
+        NonTransactionalPersistenceManagerImpl.planBatches(
+            requests("Customers(1)", "Customers(2)", "Customers(3)", "Customers(4)", "Customers(5)"), 2).toString());
+  }
+
+  @Test
+  public void planEmpty() {
+    assertEquals(0, NonTransactionalPersistenceManagerImpl.planBatches(requests(), 2).size());
+  }
+
+  @Test
+  public void planChangeSet() {
+    // changes referring to the preceding part join it, also beyond the batch size
+    assertEquals("[[[1, 2, 3]], [[4]]]",
+        NonTransactionalPersistenceManagerImpl.planBatches(
+            requests("Customers(1)", "$1/Orders", "$2/Customer", "Customers(4)"), 2).toString());
+  }
+
+  @Test
+  public void planReferenceToEarlierPart() {
+    // a reference to an earlier part of the same batch is resolved after that batch, by sending the next one
+    assertEquals("[[[1], [2]], [[3], [4]]]",
+        NonTransactionalPersistenceManagerImpl.planBatches(
+            requests("Customers(1)", "Customers(2)", "$1/Orders", "Customers(4)"), 5).toString());
+  }
+
+  @Test
+  public void planReferenceToEarlierBatch() {
+    assertEquals("[[[1], [2]], [[3], [4]]]",
+        NonTransactionalPersistenceManagerImpl.planBatches(
+            requests("Customers(1)", "Customers(2)", "Customers(3)", "$1/Orders"), 2).toString());
+  }
+
+  @Test
+  public void replaceReference() {
+    final List<ODataBatchableRequest> requests = requests("$1/Orders", "$12", "$12/Orders(3)");
+
+    NonTransactionalPersistenceManagerImpl.replaceReference(
+        (ODataRequest) requests.get(0), 1, SERVICE_ROOT + "Customers(7)");
+    assertEquals(SERVICE_ROOT + "Customers(7)/Orders", requests.get(0).getURI().toASCIIString());
+
+    NonTransactionalPersistenceManagerImpl.replaceReference((ODataRequest) requests.get(1), 12, "$2");
+    assertEquals("$2", requests.get(1).getURI().toASCIIString());
+
+    NonTransactionalPersistenceManagerImpl.replaceReference((ODataRequest) requests.get(2), 12, "$2");
+    assertEquals("$2/Orders(3)", requests.get(2).getURI().toASCIIString());
+  }
+}
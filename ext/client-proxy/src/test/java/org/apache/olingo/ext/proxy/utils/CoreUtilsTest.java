@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class CoreUtilsTest {
+
+  @Test
+  public void expandEmpty() {
+    assertEquals("", CoreUtils.getExpand());
+    assertEquals("", CoreUtils.getExpand(Collections.<String> emptyList(), Collections.<String> emptyList()));
+    assertEquals("", CoreUtils.getExpand(Arrays.asList(""), Collections.<String> emptyList()));
+  }
+
+  @Test
+  public void expandNested() {
+    assertEquals("Orders", CoreUtils.getExpand("Orders"));
+    assertEquals("Orders($expand=Customer($expand=Address))", CoreUtils.getExpand("Orders/Customer/Address"));
+  }
+
+  @Test
+  public void expandSharedPrefixes() {
+    assertEquals("Orders($expand=Customer,Items($expand=Product)),Info",
+        CoreUtils.getExpand("Orders/Customer", "Orders/Items/Product", "Info", "Orders", "Orders/Customer"));
+  }
+
+  @Test
+  public void expandMergedWithItems() {
+    assertEquals("Orders($expand=Customer)",
+        CoreUtils.getExpand(Arrays.asList("Orders"), Arrays.asList("Orders/Customer")));
+    assertEquals("Info,Orders($select=Id;$expand=Items,Customer)",
+        CoreUtils.getExpand(Arrays.asList("Info,Orders($select=Id;$expand=Items)"), Arrays.asList("Orders/Customer")));
+    assertEquals("Orders($filter=Name eq 'a;b(c)';$expand=Customer)",
+        CoreUtils.getExpand(Arrays.asList("Orders($filter=Name eq 'a;b(c)')"), Arrays.asList("Orders/Customer")));
+  }
+
+  @Test
+  public void expandWithoutDuplicates() {
+    assertEquals("Orders($top=2;$expand=Customer),Info",
+        CoreUtils.getExpand(Arrays.asList("Orders($top=2)", "Info", "Orders($top=2;$expand=Customer)"),
+            Arrays.asList("Orders", "Orders/Customer")));
+  }
+}
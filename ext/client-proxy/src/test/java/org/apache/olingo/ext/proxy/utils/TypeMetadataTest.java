@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.apache.olingo.ext.proxy.api.annotations.CompoundKeyElement;
+import org.apache.olingo.ext.proxy.api.annotations.Key;
+import org.apache.olingo.ext.proxy.api.annotations.NavigationProperty;
+import org.apache.olingo.ext.proxy.api.annotations.Property;
+import org.junit.Test;
+
+public class TypeMetadataTest {
+
+  public interface Sample {
+
+    @Key
+    @Property(name = "ID", type = "Edm.Int32")
+    Integer getId();
+
+    void setId(Integer id);
+
+    @Property(name = "Name", type = "Edm.String")
+    String getName();
+
+    void setName(String name);
+
+    @NavigationProperty(name = "Parent", type = "NS.Sample", targetSchema = "NS", targetContainer = "Container",
+        targetEntitySet = "Samples")
+    Sample getParent();
+
+    void setParent(Sample parent);
+
+    void load();
+  }
+
+  public static class SampleKey {
+
+    @CompoundKeyElement(name = "Second", position = 1)
+    public String getSecond() {
+      return "b";
+    }
+
+    @CompoundKeyElement(name = "First", position = 0)
+    public String getFirst() {
+      return "a";
+    }
+  }
+
+  @Test
+  public void sameInstancePerType() {
+    final TypeMetadata metadata = TypeMetadata.of(Sample.class);
+    assertSame(metadata, TypeMetadata.of(Sample.class));
+    assertNotSame(metadata, TypeMetadata.of(SampleKey.class));
+  }
+
+  @Test
+  public void accessors() throws Exception {
+    final TypeMetadata metadata = TypeMetadata.of(Sample.class);
+    final Method getName = Sample.class.getMethod("getName");
+
+    final TypeMetadata.Accessor getter = metadata.getAccessor(getName);
+    assertFalse(getter.isSetter());
+    assertEquals(getName, getter.getGetter());
+    assertEquals("Name", getter.getProperty().name());
+    assertNull(getter.getNavigationProperty());
+    assertEquals(String.class, getter.getGenericType());
+    assertSame(getter, metadata.getAccessor(getName));
+
+    final TypeMetadata.Accessor setter = metadata.getAccessor(Sample.class.getMethod("setName", String.class));
+    assertTrue(setter.isSetter());
+    assertEquals(getName, setter.getGetter());
+
+    final TypeMetadata.Accessor navigation = metadata.getAccessor(Sample.class.getMethod("getParent"));
+    assertNull(navigation.getProperty());
+    assertEquals("Parent", navigation.getNavigationProperty().name());
+
+    assertNull(metadata.getAccessor(Sample.class.getMethod("load")));
+  }
+
+  @Test
+  public void annotatedGetters() throws Exception {
+    final TypeMetadata metadata = TypeMetadata.of(Sample.class);
+    assertEquals(Sample.class.getMethod("getName"), metadata.getGetterByAnnotatedName(Property.class, "Name"));
+    assertEquals(Sample.class.getMethod("getParent"),
+        metadata.getGetterByAnnotatedName(NavigationProperty.class, "Parent"));
+    assertNull(metadata.getGetterByAnnotatedName(Property.class, "Parent"));
+  }
+
+  @Test
+  public void keys() throws Exception {
+    final TypeMetadata metadata = TypeMetadata.of(Sample.class);
+    assertEquals("ID", metadata.getKeyPropertyName());
+
+    final Method[] keyGetters = metadata.getKeyGetters();
+    assertEquals(1, keyGetters.length);
+    assertEquals(Sample.class.getMethod("getId"), keyGetters[0]);
+    // the cached getters are not exposed
+    keyGetters[0] = null;
+    assertEquals(Sample.class.getMethod("getId"), metadata.getKeyGetters()[0]);
+
+    final List<CompoundKeyElementWrapper> elements = TypeMetadata.of(SampleKey.class).getCompoundKeyElements();
+    assertEquals(2, elements.size());
+    assertEquals("First", elements.get(0).getName());
+    assertEquals("Second", elements.get(1).getName());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void compoundKeyElementsUnmodifiable() {
+    TypeMetadata.of(SampleKey.class).getCompoundKeyElements().clear();
+  }
+}
@@ -88,6 +88,15 @@ public abstract class AbstractPOJOGenMojo extends AbstractMojo {
   @Parameter(property = "basePackage", required = false)
   protected String basePackage;
 
+  /**
+   * Whether detached beans, i.e. concrete classes with typed fields and change tracking, are generated for entity and
+   * complex types, in addition to the proxy interfaces. They are placed into the <tt>types.beans</tt> sub-package and
+   * convert directly from and to the client's domain objects; they are not managed by the entity context of the
+   * generated service.
+   */
+  @Parameter(property = "generateConcreteTypes", required = false, defaultValue = "false")
+  protected boolean generateConcreteTypes;
+
   protected final Set<String> namespaces = new HashSet<String>();
 
   protected static String TOOL_DIR = "ojc-plugin";
@@ -287,6 +296,9 @@ public abstract class AbstractPOJOGenMojo extends AbstractMojo {
           parseObj(typesBaseDir, typesPkg, "enumType", className + ".java", objs);
         }
 
+        final File beansBaseDir = generateConcreteTypes ? mkPkgDir(schemaPath + "/types/beans") : null;
+        final String beansPkg = typesPkg + ".beans";
+
         final List<EdmComplexType> complexes = new ArrayList<EdmComplexType>();
 
         for (EdmComplexType complex : schema.getComplexTypes()) {
@@ -304,6 +316,14 @@ public abstract class AbstractPOJOGenMojo extends AbstractMojo {
                   "complexCollection", className + "Collection.java", objs);
           parseObj(typesBaseDir, typesPkg, 
                   "complexCollectionComposableInvoker", className + "CollectionComposableInvoker.java", objs);
+
+          if (generateConcreteTypes) {
+            objs.clear();
+            objs.put("structuredType", complex);
+            objs.put("isEntity", Boolean.FALSE);
+            parseObj(beansBaseDir, beansPkg,
+                    "structuredBean", utility.getBeanClassName(complex) + ".java", objs);
+          }
         }
 
         for (EdmEntityType entity : schema.getEntityTypes()) {
@@ -348,6 +368,14 @@ public abstract class AbstractPOJOGenMojo extends AbstractMojo {
                   "entityCollection", className + "Collection.java", objs);
           parseObj(typesBaseDir, typesPkg, 
                   "entityCollectionComposableInvoker", className + "CollectionComposableInvoker.java", objs);
+
+          if (generateConcreteTypes) {
+            objs.clear();
+            objs.put("structuredType", entity);
+            objs.put("isEntity", Boolean.TRUE);
+            parseObj(beansBaseDir, beansPkg,
+                    "structuredBean", utility.getBeanClassName(entity) + ".java", objs);
+          }
         }
 
         // write container and top entity sets into the base package
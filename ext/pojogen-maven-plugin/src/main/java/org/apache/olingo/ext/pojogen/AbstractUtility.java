@@ -34,6 +34,7 @@ import org.apache.olingo.commons.api.edm.EdmSchema;
 import org.apache.olingo.commons.api.edm.EdmSingleton;
 import org.apache.olingo.commons.api.edm.EdmStructuredType;
 import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.EdmTypeDefinition;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
 import org.apache.olingo.commons.core.edm.EdmTypeInfo;
@@ -66,6 +67,8 @@ public abstract class AbstractUtility {
 
   protected static final String TYPE_SUB_PKG = "types";
 
+  protected static final String BEAN_SUB_PKG = "beans";
+
   protected final String basePackage;
 
   protected final String schemaName;
@@ -349,6 +352,71 @@ public abstract class AbstractUtility {
     return res.toString();
   }
 
+  /**
+   * Gets the name of the concrete class generated for the given structured type.
+   */
+  public String getBeanClassName(final EdmStructuredType type) {
+    return capitalize(type.getName()) + "Bean";
+  }
+
+  /**
+   * Gets the fully qualified name of the concrete class generated for the given complex type.
+   */
+  public String getBeanJavaType(final EdmStructuredType type) {
+    final String basepkg = StringUtils.isBlank(basePackage) ? "" : basePackage + ".";
+    return basepkg + type.getNamespace().toLowerCase() + '.' + TYPE_SUB_PKG + '.' + BEAN_SUB_PKG + '.'
+        + getBeanClassName(type);
+  }
+
+  /**
+   * Gets the kind of a property as handled by the generated concrete classes:
+   * <tt>primitive</tt>, <tt>enum</tt>, or <tt>complex</tt>.
+   */
+  public String getBeanPropertyKind(final EdmProperty property) {
+    switch (property.getType().getKind()) {
+    case ENUM:
+      return "enum";
+    case COMPLEX:
+      return "complex";
+    default:
+      return "primitive";
+    }
+  }
+
+  /**
+   * Gets the Java type of a single value of the given property in the generated concrete classes.
+   */
+  public String getBeanItemJavaType(final EdmProperty property) {
+    final EdmType type = property.getType();
+    switch (type.getKind()) {
+    case COMPLEX:
+      return getBeanJavaType((EdmStructuredType) type);
+    case ENUM:
+      return getJavaType(type);
+    default:
+      return getJavaType(getPrimitiveKind(property).getFullQualifiedName().toString());
+    }
+  }
+
+  /**
+   * Gets the Java type of the given property in the generated concrete classes; collections are lists.
+   */
+  public String getBeanJavaType(final EdmProperty property) {
+    return property.isCollection()
+        ? "java.util.List<" + getBeanItemJavaType(property) + ">"
+        : getBeanItemJavaType(property);
+  }
+
+  /**
+   * Gets the primitive type kind of a primitive property (or of the underlying type of a type definition).
+   */
+  public EdmPrimitiveTypeKind getPrimitiveKind(final EdmProperty property) {
+    final EdmType type = property.getType() instanceof EdmTypeDefinition
+        ? ((EdmTypeDefinition) property.getType()).getUnderlyingType()
+        : property.getType();
+    return EdmPrimitiveTypeKind.valueOfFQN(type.getFullQualifiedName());
+  }
+
   public EdmTypeInfo getEdmType(final EdmEntitySet entitySet) {
     return getEdmTypeInfo(entitySet.getEntityType().getFullQualifiedName().toString());
   }
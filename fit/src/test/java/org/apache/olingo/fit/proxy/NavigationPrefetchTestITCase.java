@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.fit.proxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.olingo.client.api.EdmEnabledODataClient;
+import org.apache.olingo.client.core.http.DefaultHttpClientFactory;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.fit.proxy.staticservice.Service;
+import org.apache.olingo.fit.proxy.staticservice.microsoft.test.odata.services.odatawcfservice.InMemoryEntities;
+import org.apache.olingo.fit.proxy.staticservice.microsoft.test.odata.services.odatawcfservice.types.Customer;
+import org.apache.olingo.fit.proxy.staticservice.microsoft.test.odata.services.odatawcfservice.types.CustomerCollection;
+import org.junit.Test;
+
+/**
+ * This is the unit test class to check that navigation properties are prefetched for a whole collection page.
+ */
+public class NavigationPrefetchTestITCase extends AbstractTestITCase {
+
+  private static class RecordingHttpClientFactory extends DefaultHttpClientFactory {
+
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+    @Override
+    public DefaultHttpClient create(final HttpMethod method, final URI uri) {
+      requests.add(method + " " + uri.getPath());
+      return super.create(method, uri);
+    }
+  }
+
+  @Test
+  public void prefetchAfterThreshold() {
+    final RecordingHttpClientFactory recorder = new RecordingHttpClientFactory();
+    final Service<EdmEnabledODataClient> prefetchService = Service.getV4(testStaticServiceRootURL);
+    prefetchService.getClient().getConfiguration().setDefaultBatchAcceptFormat(ContentType.APPLICATION_OCTET_STREAM);
+    prefetchService.getClient().getConfiguration().setHttpClientFactory(recorder);
+    prefetchService.setNavigationPrefetchThreshold(1);
+
+    final CustomerCollection customers =
+        prefetchService.getEntityContainer(InMemoryEntities.class).getCustomers().execute();
+    assertTrue(customers.size() > 1);
+    recorder.requests.clear();
+
+    // threshold reached: the company of all customers of the page is retrieved within a single batch request
+    final List<Customer> all = new ArrayList<Customer>(customers);
+    assertNotNull(all.get(0).getCompany().getCompanyID());
+    int batches = 0;
+    for (String request : recorder.requests) {
+      if (request.endsWith("/$batch")) {
+        batches++;
+      }
+    }
+    assertEquals(recorder.requests.toString(), 1, batches);
+
+    // the remaining customers navigate to the prefetched company without any further request
+    recorder.requests.clear();
+    for (Customer customer : all.subList(1, all.size())) {
+      assertNotNull(customer.getCompany().getCompanyID());
+    }
+    assertEquals(recorder.requests.toString(), 0, recorder.requests.size());
+
+    prefetchService.getContext().detachAll();
+  }
+}
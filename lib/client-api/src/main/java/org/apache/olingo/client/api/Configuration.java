@@ -20,6 +20,7 @@ package org.apache.olingo.client.api;
 
 import java.util.concurrent.ExecutorService;
 
+import org.apache.olingo.client.api.edm.xml.XMLMetadataCache;
 import org.apache.olingo.client.api.http.HttpClientFactory;
 import org.apache.olingo.client.api.http.HttpUriRequestFactory;
 import org.apache.olingo.commons.api.format.ContentType;
@@ -172,6 +173,36 @@ public interface Configuration {
    */
   void setUseChuncked(boolean value);
 
+  /**
+   * Gets the size of the buffer, in bytes, through which the payload of a streamed request (e.g. a batch request)
+   * is passed to the HTTP client while it is being written.
+   * The buffer is not used if the payload is sent without chunk HTTP encoding; then the payload is kept completely.
+   *
+   * @return buffer size in bytes
+   */
+  int getStreamedRequestBufferSize();
+
+  /**
+   * Sets the size of the buffer through which the payload of a streamed request is passed to the HTTP client.
+   *
+   * @param value buffer size in bytes
+   */
+  void setStreamedRequestBufferSize(int value);
+
+  /**
+   * Gets the cache of parsed metadata documents.
+   *
+   * @return configured cache, or <tt>null</tt> if metadata documents are not cached (default)
+   */
+  XMLMetadataCache getMetadataCache();
+
+  /**
+   * Sets the cache of parsed metadata documents, consulted before fetching the metadata document of a service.
+   *
+   * @param cache cache, or <tt>null</tt> to disable caching
+   */
+  void setMetadataCache(XMLMetadataCache cache);
+
   /**
    * Checks whether URIs contain entity key between parentheses (standard) or instead as additional segment
    * (non-standard).
@@ -75,4 +75,11 @@ public interface ODataClient {
   CUDRequestFactory getCUDRequestFactory();
 
   BatchRequestFactory getBatchRequestFactory();
+
+  /**
+   * Releases the resources held by this client, e.g. the connection pool of a
+   * {@link org.apache.olingo.client.api.http.HttpClientFactory} implementing {@link java.io.Closeable}.
+   * The client must not be used afterwards.
+   */
+  void close();
 }
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.edm.xml;
+
+/**
+ * Cache of parsed metadata documents, keyed by service root and metadata ETag.
+ * <br/>
+ * When configured, it is consulted by {@link org.apache.olingo.client.api.EdmEnabledODataClient} before fetching
+ * and parsing the metadata document of its service.
+ */
+public interface XMLMetadataCache {
+
+  /**
+   * Gets cached metadata.
+   *
+   * @param serviceRoot service root
+   * @param metadataETag ETag of the metadata document
+   * @return cached metadata, or <tt>null</tt> if not available
+   */
+  XMLMetadata get(String serviceRoot, String metadataETag);
+
+  /**
+   * Gets the ETag of the metadata most recently stored for the given service root; it can be used to validate the
+   * cached metadata with a conditional request.
+   *
+   * @param serviceRoot service root
+   * @return ETag, or <tt>null</tt> if no metadata has been stored for the given service root
+   */
+  String getLatestETag(String serviceRoot);
+
+  /**
+   * Stores metadata.
+   *
+   * @param serviceRoot service root
+   * @param metadataETag ETag of the metadata document
+   * @param metadata metadata
+   */
+  void put(String serviceRoot, String metadataETag, XMLMetadata metadata);
+}
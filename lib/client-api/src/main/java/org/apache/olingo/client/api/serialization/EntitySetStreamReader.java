@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.serialization;
+
+import java.io.Closeable;
+
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+
+/**
+ * Pull reader for entity set payloads: entities are de-serialized one at a time while the underlying stream is
+ * being read, so that only the current entity is kept in memory.
+ * <br/>
+ * <b>Please don't forget to call the <tt>close()</tt> method when not needed any more.</b>
+ */
+public interface EntitySetStreamReader extends Closeable {
+
+  /**
+   * Reads the next entity of the entity set.
+   *
+   * @return next entity, or <tt>null</tt> when all entities have been read.
+   * @throws ODataDeserializerException
+   */
+  ResWrap<Entity> next() throws ODataDeserializerException;
+
+  /**
+   * Gets the entity set information found in the payload, like count, next link and annotations; the entity set
+   * does not contain any entity.
+   * <br/>
+   * Since such information can follow the entities in the payload, it is only available once {@link #next()} has
+   * returned <tt>null</tt>.
+   *
+   * @return entity set without entities.
+   * @throws IllegalStateException if the entities have not been read completely
+   */
+  ResWrap<EntityCollection> getEntitySet();
+
+  /**
+   * Releases the underlying stream; the stream is closed as well.
+   */
+  @Override
+  void close();
+}
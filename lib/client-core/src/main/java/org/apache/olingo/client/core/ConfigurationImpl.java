@@ -24,8 +24,10 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import org.apache.olingo.client.api.Configuration;
+import org.apache.olingo.client.api.edm.xml.XMLMetadataCache;
 import org.apache.olingo.client.api.http.HttpClientFactory;
 import org.apache.olingo.client.api.http.HttpUriRequestFactory;
+import org.apache.olingo.client.core.communication.request.RequestBodyPipe;
 import org.apache.olingo.client.core.http.DefaultHttpClientFactory;
 import org.apache.olingo.client.core.http.DefaultHttpUriRequestFactory;
 import org.apache.olingo.commons.api.format.ContentType;
@@ -56,6 +58,10 @@ public class ConfigurationImpl implements Configuration {
 
   private static final String CHUNKING = "chunking";
 
+  private static final String STREAMED_REQUEST_BUFFER_SIZE = "streamedRequestBufferSize";
+
+  private static final String METADATA_CACHE = "metadataCache";
+
   private static final String CONTINUE_ON_ERROR = "continueOnError";
 
   private final Map<String, Object> CONF = new HashMap<String, Object>();
@@ -180,6 +186,26 @@ public class ConfigurationImpl implements Configuration {
     setProperty(CHUNKING, value);
   }
 
+  @Override
+  public int getStreamedRequestBufferSize() {
+    return (Integer) getProperty(STREAMED_REQUEST_BUFFER_SIZE, RequestBodyPipe.DEFAULT_CAPACITY);
+  }
+
+  @Override
+  public void setStreamedRequestBufferSize(final int value) {
+    setProperty(STREAMED_REQUEST_BUFFER_SIZE, value);
+  }
+
+  @Override
+  public XMLMetadataCache getMetadataCache() {
+    return (XMLMetadataCache) getProperty(METADATA_CACHE, null);
+  }
+
+  @Override
+  public void setMetadataCache(final XMLMetadataCache cache) {
+    setProperty(METADATA_CACHE, cache);
+  }
+
   @Override
   public boolean isKeyAsSegment() {
     return (Boolean) getProperty(KEY_AS_SEGMENT, false);
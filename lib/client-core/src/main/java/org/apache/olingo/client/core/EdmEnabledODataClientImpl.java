@@ -21,11 +21,15 @@ package org.apache.olingo.client.core;
 import org.apache.olingo.client.api.EdmEnabledODataClient;
 import org.apache.olingo.client.api.communication.request.invoke.EdmEnabledInvokeRequestFactory;
 import org.apache.olingo.client.api.communication.request.retrieve.EdmMetadataRequest;
+import org.apache.olingo.client.api.communication.request.retrieve.XMLMetadataRequest;
 import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
+import org.apache.olingo.client.api.edm.xml.XMLMetadata;
+import org.apache.olingo.client.api.edm.xml.XMLMetadataCache;
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.client.core.communication.request.invoke.EdmEnabledInvokeRequestFactoryImpl;
 import org.apache.olingo.client.core.uri.URIBuilderImpl;
 import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 
 public class EdmEnabledODataClientImpl extends ODataClientImpl implements EdmEnabledODataClient {
 
@@ -54,15 +58,57 @@ public class EdmEnabledODataClientImpl extends ODataClientImpl implements EdmEna
   public Edm getEdm(final String metadataETag) {
     synchronized (this) {
       if (this.edm == null || (metadataETag != null && !metadataETag.equals(this.metadataETag))) {
-        final EdmMetadataRequest metadataReq = getRetrieveRequestFactory().getMetadataRequest(serviceRoot);
-        final ODataRetrieveResponse<Edm> metadataRes = metadataReq.execute();
-        this.metadataETag = metadataRes.getETag();
-        this.edm = metadataRes.getBody();
+        final XMLMetadataCache cache = getConfiguration().getMetadataCache();
+        if (cache == null) {
+          final EdmMetadataRequest metadataReq = getRetrieveRequestFactory().getMetadataRequest(serviceRoot);
+          final ODataRetrieveResponse<Edm> metadataRes = metadataReq.execute();
+          this.metadataETag = metadataRes.getETag();
+          this.edm = metadataRes.getBody();
+        } else {
+          loadEdm(cache, metadataETag);
+        }
       }
     }
     return this.edm;
   }
 
+  /**
+   * Looks up the metadata with the given ETag in the cache; if not known, the metadata document is fetched,
+   * conditionally to the most recently cached ETag of the service, and cached once parsed.
+   */
+  private void loadEdm(final XMLMetadataCache cache, final String metadataETag) {
+    String etag = metadataETag;
+    XMLMetadata xmlMetadata = etag == null ? null : cache.get(serviceRoot, etag);
+
+    if (xmlMetadata == null) {
+      final String cachedETag = cache.getLatestETag(serviceRoot);
+      final XMLMetadataRequest request = getRetrieveRequestFactory().getXMLMetadataRequest(serviceRoot);
+      if (cachedETag != null) {
+        request.setIfNoneMatch(cachedETag);
+      }
+      ODataRetrieveResponse<XMLMetadata> response = request.execute();
+      if (response.getStatusCode() == HttpStatusCode.NOT_MODIFIED.getStatusCode()) {
+        response.close();
+        etag = cachedETag;
+        xmlMetadata = cache.get(serviceRoot, etag);
+        if (xmlMetadata == null) {
+          // the cached entry has vanished in the meantime
+          response = getRetrieveRequestFactory().getXMLMetadataRequest(serviceRoot).execute();
+        }
+      }
+      if (xmlMetadata == null) {
+        etag = response.getETag();
+        xmlMetadata = response.getBody();
+        if (etag != null) {
+          cache.put(serviceRoot, etag, xmlMetadata);
+        }
+      }
+    }
+
+    this.metadataETag = etag;
+    this.edm = getReader().readMetadata(xmlMetadata.getSchemaByNsOrAlias());
+  }
+
   @Override
   public Edm getCachedEdm() {
     if (this.edm == null) {
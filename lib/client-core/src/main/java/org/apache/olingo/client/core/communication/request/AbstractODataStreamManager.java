@@ -44,7 +44,7 @@ public abstract class AbstractODataStreamManager<T extends ODataResponse> extend
   /**
    * Body input stream.
    */
-  private final PipedInputStream body;
+  private final InputStream body;
 
   /**
    * Default body input stream.
@@ -62,7 +62,21 @@ public abstract class AbstractODataStreamManager<T extends ODataResponse> extend
    * @param futureWrap wrapper of the Future object of the HttpResponse.
    */
   public AbstractODataStreamManager(final Wrapper<Future<HttpResponse>> futureWrap) {
-    this(futureWrap, new PipedOutputStream());
+    this(futureWrap, new RequestBodyPipe());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param futureWrap wrapper of the Future object of the HttpResponse.
+   * @param pipe pipe passing the payload to the HTTP client.
+   */
+  public AbstractODataStreamManager(final Wrapper<Future<HttpResponse>> futureWrap, final RequestBodyPipe pipe) {
+    super(pipe.getOutputStream());
+
+    this.futureWrap = futureWrap;
+    this.body = pipe.getInputStream();
+    this.defaultBody = this.body;
   }
 
   /**
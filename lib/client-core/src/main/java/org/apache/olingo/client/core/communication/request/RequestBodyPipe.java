@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.core.uri.URIUtils;
+
+/**
+ * Passes the payload of a streamed request from the thread writing it to the HTTP client reading it.
+ * <br/>
+ * In bounded mode the bytes go through a ring buffer of fixed capacity: the writer blocks while the buffer is full,
+ * the reader while it is empty, and each of them is signalled as soon as the other one has made progress.
+ * In buffered mode the writer never blocks and all bytes are kept; once the writer has been closed,
+ * the complete payload can be taken over by {@link PipeInputStream#getContent()} without copying it.
+ * This suits requests whose body has to be sent with a known length anyway.
+ * <br/>
+ * Closing the writer signals the end of the payload to the reader; closing the reader makes further writes fail.
+ */
+public class RequestBodyPipe {
+
+  public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+  private static final int INITIAL_BUFFERED_SIZE = 8 * 1024;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition readable = lock.newCondition();
+
+  private final Condition writable = lock.newCondition();
+
+  private final boolean bounded;
+
+  private byte[] buffer;
+
+  /** Position of the next byte to read. */
+  private int readPosition = 0;
+
+  /** Number of bytes written but not yet read. */
+  private int count = 0;
+
+  private boolean writerClosed = false;
+
+  private boolean readerClosed = false;
+
+  private final PipeOutputStream output = new PipeOutputStream();
+
+  private final PipeInputStream input = new PipeInputStream();
+
+  /**
+   * Creates a pipe in bounded mode with the default capacity.
+   */
+  public RequestBodyPipe() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity capacity of the ring buffer in bytes; 0 or negative for buffered mode
+   */
+  public RequestBodyPipe(final int capacity) {
+    bounded = capacity > 0;
+    buffer = new byte[bounded ? capacity : INITIAL_BUFFERED_SIZE];
+  }
+
+  /**
+   * Creates a pipe suitable for the configuration of the given client: in buffered mode if the request body is
+   * not sent in chunks or has to be repeatable, otherwise in bounded mode with the configured buffer size.
+   */
+  public static RequestBodyPipe create(final ODataClient client) {
+    return URIUtils.shouldUseRepeatableHttpBodyEntry(client) || !client.getConfiguration().isUseChuncked() ?
+        new RequestBodyPipe(0) :
+        new RequestBodyPipe(client.getConfiguration().getStreamedRequestBufferSize());
+  }
+
+  public boolean isBuffered() {
+    return !bounded;
+  }
+
+  /**
+   * Gets the stream to write the payload to; it has to be closed after the payload has been written.
+   * It must not be connected to a {@link PipedInputStream}.
+   */
+  public PipedOutputStream getOutputStream() {
+    return output;
+  }
+
+  /**
+   * Gets the stream to read the payload from.
+   */
+  public PipeInputStream getInputStream() {
+    return input;
+  }
+
+  private void write(final byte[] b, final int off, final int len) throws IOException {
+    int offset = off;
+    int remaining = len;
+    lock.lock();
+    try {
+      while (remaining > 0) {
+        checkWritable();
+        if (bounded) {
+          while (count == buffer.length && !readerClosed) {
+            await(writable);
+          }
+          checkWritable();
+          final int length = Math.min(remaining, buffer.length - count);
+          final int writePosition = (readPosition + count) % buffer.length;
+          final int first = Math.min(length, buffer.length - writePosition);
+          System.arraycopy(b, offset, buffer, writePosition, first);
+          System.arraycopy(b, offset + first, buffer, 0, length - first);
+          count += length;
+          offset += length;
+          remaining -= length;
+        } else {
+          final int end = readPosition + count;
+          if (end + remaining > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, end + remaining));
+          }
+          System.arraycopy(b, offset, buffer, end, remaining);
+          count += remaining;
+          remaining = 0;
+        }
+        readable.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void checkWritable() throws IOException {
+    if (writerClosed) {
+      throw new IOException("Pipe closed");
+    }
+    if (readerClosed) {
+      throw new IOException("Read end of the pipe has been closed");
+    }
+  }
+
+  private int read(final byte[] b, final int off, final int len) throws IOException {
+    lock.lock();
+    try {
+      if (!awaitData()) {
+        return -1;
+      }
+      final int length = Math.min(len, count);
+      if (bounded) {
+        final int first = Math.min(length, buffer.length - readPosition);
+        System.arraycopy(buffer, readPosition, b, off, first);
+        System.arraycopy(buffer, 0, b, off + first, length - first);
+        readPosition = (readPosition + length) % buffer.length;
+      } else {
+        System.arraycopy(buffer, readPosition, b, off, length);
+        readPosition += length;
+      }
+      count -= length;
+      writable.signal();
+      return length;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Waits for data to read; returns <code>false</code> at the end of the payload. The lock must be held. */
+  private boolean awaitData() throws IOException {
+    while (count == 0 && !writerClosed && !readerClosed) {
+      await(readable);
+    }
+    if (readerClosed) {
+      throw new IOException("Pipe closed");
+    }
+    return count > 0;
+  }
+
+  private ByteBuffer getContent() throws IOException {
+    lock.lock();
+    try {
+      if (!bounded) {
+        while (!writerClosed && !readerClosed) {
+          await(readable);
+        }
+        if (readerClosed) {
+          throw new IOException("Pipe closed");
+        }
+        final ByteBuffer content = ByteBuffer.wrap(buffer, readPosition, count);
+        readPosition += count;
+        count = 0;
+        return content;
+      }
+    } finally {
+      lock.unlock();
+    }
+    byte[] content = new byte[buffer.length];
+    int length = 0;
+    int read;
+    while ((read = read(content, length, content.length - length)) >= 0) {
+      length += read;
+      if (length == content.length) {
+        content = Arrays.copyOf(content, content.length * 2);
+      }
+    }
+    return ByteBuffer.wrap(content, 0, length);
+  }
+
+  private void closeWriter() {
+    lock.lock();
+    try {
+      writerClosed = true;
+      readable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void closeReader() {
+    lock.lock();
+    try {
+      readerClosed = true;
+      count = 0;
+      readable.signalAll();
+      writable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void await(final Condition condition) throws InterruptedIOException {
+    try {
+      condition.await();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting on pipe");
+    }
+  }
+
+  /**
+   * The writing end of the pipe.
+   * It extends {@link PipedOutputStream} only for compatibility with existing interfaces.
+   */
+  private class PipeOutputStream extends PipedOutputStream {
+
+    @Override
+    public void connect(final PipedInputStream snk) throws IOException {
+      throw new IOException("Already connected");
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      if (off < 0 || len < 0 || off + len > b.length) {
+        throw new IndexOutOfBoundsException();
+      }
+      RequestBodyPipe.this.write(b, off, len);
+    }
+
+    @Override
+    public void flush() {
+      // Nothing to do: the reader is signalled on every write.
+    }
+
+    @Override
+    public void close() {
+      closeWriter();
+    }
+  }
+
+  /**
+   * The reading end of the pipe.
+   */
+  public class PipeInputStream extends InputStream {
+
+    private PipeInputStream() {
+      // Only created by the pipe.
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (off < 0 || len < 0 || off + len > b.length) {
+        throw new IndexOutOfBoundsException();
+      }
+      return len == 0 ? 0 : RequestBodyPipe.this.read(b, off, len);
+    }
+
+    @Override
+    public int available() {
+      lock.lock();
+      try {
+        return count;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Reads the complete remaining payload, waiting for the writer to be closed.
+     * In buffered mode the returned buffer wraps the internal array of the pipe; its position and remaining
+     * bytes delimit the payload.
+     */
+    public ByteBuffer getContent() throws IOException {
+      return RequestBodyPipe.this.getContent();
+    }
+
+    /** Whether the pipe is in buffered mode, see {@link RequestBodyPipe#isBuffered()}. */
+    public boolean isBuffered() {
+      return !bounded;
+    }
+
+    @Override
+    public void close() {
+      closeReader();
+    }
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.olingo.client.api.communication.request.batch.ODataChangeset;
 import org.apache.olingo.client.api.communication.request.batch.ODataSingleRequest;
 import org.apache.olingo.client.api.communication.response.ODataBatchResponse;
 import org.apache.olingo.client.core.communication.request.AbstractODataStreamManager;
+import org.apache.olingo.client.core.communication.request.RequestBodyPipe;
 import org.apache.olingo.client.core.communication.request.Wrapper;
 
 /**
@@ -51,7 +52,13 @@ public abstract class AbstractBatchManager extends AbstractODataStreamManager<OD
   protected AbstractBatchManager(final ODataBatchRequest req,
           final Wrapper<Future<HttpResponse>> futureWrap, final boolean continueOnError) {
 
-    super(futureWrap);
+    this(req, futureWrap, continueOnError, new RequestBodyPipe());
+  }
+
+  protected AbstractBatchManager(final ODataBatchRequest req,
+          final Wrapper<Future<HttpResponse>> futureWrap, final boolean continueOnError, final RequestBodyPipe pipe) {
+
+    super(futureWrap, pipe);
     this.req = req;
     this.continueOnError = continueOnError;
   }
@@ -32,6 +32,7 @@ import org.apache.olingo.client.api.communication.request.batch.BatchManager;
 import org.apache.olingo.client.api.communication.request.batch.ODataBatchRequest;
 import org.apache.olingo.client.api.communication.request.batch.ODataBatchResponseItem;
 import org.apache.olingo.client.api.communication.response.ODataBatchResponse;
+import org.apache.olingo.client.core.communication.request.RequestBodyPipe;
 import org.apache.olingo.client.core.communication.response.AbstractODataResponse;
 import org.apache.olingo.client.core.communication.response.batch.ODataBatchResponseManager;
 
@@ -80,7 +81,8 @@ public class ODataBatchRequestImpl
 
     public BatchManagerImpl(final ODataBatchRequest req) {
       super(req, ODataBatchRequestImpl.this.futureWrapper,
-              ODataBatchRequestImpl.this.odataClient.getConfiguration().isContinueOnError());
+              ODataBatchRequestImpl.this.odataClient.getConfiguration().isContinueOnError(),
+              RequestBodyPipe.create(ODataBatchRequestImpl.this.odataClient));
     }
 
     @Override
@@ -34,6 +34,8 @@ import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.apache.http.util.EntityUtils;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.request.ODataStreamer;
 import org.apache.olingo.client.api.communication.request.batch.ODataBatchLineIterator;
@@ -42,6 +44,7 @@ import org.apache.olingo.client.api.http.NoContentException;
 import org.apache.olingo.client.core.communication.request.batch.ODataBatchController;
 import org.apache.olingo.client.core.communication.request.batch.ODataBatchLineIteratorImpl;
 import org.apache.olingo.client.core.communication.request.batch.ODataBatchUtilities;
+import org.apache.olingo.client.core.http.PoolingHttpClientFactory;
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpHeader;
@@ -241,6 +244,19 @@ public abstract class AbstractODataResponse implements ODataResponse {
 
   @Override
   public void close() {
+    if (res != null) {
+      if (PoolingHttpClientFactory.isPooled(httpClient)) {
+        // gives the connection back to the pool, also when the payload has not been read
+        EntityUtils.consumeQuietly(res.getEntity());
+      } else if (res.getEntity() instanceof ConnectionReleaseTrigger) {
+        // the connection is not reused: do not read a possibly large payload just to throw it away
+        try {
+          ((ConnectionReleaseTrigger) res.getEntity()).abortConnection();
+        } catch (IOException e) {
+          LOG.debug("Error aborting connection", e);
+        }
+      }
+    }
     odataClient.getConfiguration().getHttpClientFactory().close(httpClient);
 
     if (batchInfo != null) {
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.edm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.client.api.edm.xml.XMLMetadata;
+import org.apache.olingo.client.api.edm.xml.XMLMetadataCache;
+import org.apache.olingo.commons.api.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Metadata cache storing each parsed metadata document as a compressed, serialized CSDL model in a directory.
+ * <br/>
+ * Files are named after a hash of service root and metadata ETag; they are written to a temporary file first and
+ * then renamed, so that several client processes can share the same directory. Entries which cannot be read, e.g.
+ * because written by an incompatible library version, are discarded; so are entries referring to classes other
+ * than those of the CSDL model, which are never deserialized.
+ */
+public class FileXMLMetadataCache implements XMLMetadataCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FileXMLMetadataCache.class);
+
+  private static final String METADATA_SUFFIX = ".csdl";
+
+  private static final String ETAG_SUFFIX = ".etag";
+
+  /** Classes outside the Olingo packages which may occur in a serialized CSDL model. */
+  private static final Set<String> ALLOWED_CLASSES = new HashSet<String>(Arrays.asList(
+      String.class.getName(), java.net.URI.class.getName(),
+      Boolean.class.getName(), Character.class.getName(), Number.class.getName(), Byte.class.getName(),
+      Short.class.getName(), Integer.class.getName(), Long.class.getName(), Float.class.getName(),
+      Double.class.getName(), Enum.class.getName(),
+      java.util.ArrayList.class.getName(), java.util.LinkedList.class.getName(),
+      java.util.HashMap.class.getName(), java.util.LinkedHashMap.class.getName(),
+      java.util.TreeMap.class.getName(), java.util.HashSet.class.getName(),
+      java.util.LinkedHashSet.class.getName(), java.util.TreeSet.class.getName()));
+
+  private final File directory;
+
+  /**
+   * @param directory directory holding the cache files; it gets created if not existing
+   */
+  public FileXMLMetadataCache(final File directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public XMLMetadata get(final String serviceRoot, final String metadataETag) {
+    final File file = new File(directory, hash(serviceRoot, metadataETag) + METADATA_SUFFIX);
+    if (!file.isFile()) {
+      return null;
+    }
+
+    ObjectInputStream input = null;
+    try {
+      input = new MetadataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))));
+      // guard against hash collisions
+      if (serviceRoot.equals(input.readUTF()) && metadataETag.equals(input.readUTF())) {
+        return (XMLMetadata) input.readObject();
+      }
+    } catch (final IOException e) {
+      IOUtils.closeQuietly(input);
+      discard(file, e);
+    } catch (final ClassNotFoundException e) {
+      IOUtils.closeQuietly(input);
+      discard(file, e);
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+    return null;
+  }
+
+  @Override
+  public String getLatestETag(final String serviceRoot) {
+    final File file = new File(directory, hash(serviceRoot) + ETAG_SUFFIX);
+    try {
+      return file.isFile() ? FileUtils.readFileToString(file, Constants.UTF8) : null;
+    } catch (final IOException e) {
+      LOG.warn("Could not read cached metadata ETag {}", file, e);
+      return null;
+    }
+  }
+
+  @Override
+  public void put(final String serviceRoot, final String metadataETag, final XMLMetadata metadata) {
+    if (!(metadata instanceof Serializable)) {
+      LOG.warn("Metadata of {} is not serializable: not cached", serviceRoot);
+      return;
+    }
+
+    File temp = null;
+    ObjectOutputStream output = null;
+    try {
+      FileUtils.forceMkdir(directory);
+
+      temp = File.createTempFile("metadata", null, directory);
+      output = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temp))));
+      output.writeUTF(serviceRoot);
+      output.writeUTF(metadataETag);
+      output.writeObject(metadata);
+      output.close();
+      output = null;
+      moveTo(temp, new File(directory, hash(serviceRoot, metadataETag) + METADATA_SUFFIX));
+
+      temp = File.createTempFile("metadata", null, directory);
+      FileUtils.writeStringToFile(temp, metadataETag, Constants.UTF8);
+      moveTo(temp, new File(directory, hash(serviceRoot) + ETAG_SUFFIX));
+    } catch (final IOException e) {
+      LOG.warn("Could not cache metadata of {}", serviceRoot, e);
+      IOUtils.closeQuietly(output);
+      FileUtils.deleteQuietly(temp);
+    }
+  }
+
+  private void discard(final File file, final Exception e) {
+    LOG.warn("Discarding unreadable cached metadata {}", file, e);
+    FileUtils.deleteQuietly(file);
+  }
+
+  private void moveTo(final File source, final File target) throws IOException {
+    if (!source.renameTo(target)) {
+      // some platforms do not replace existing files on rename
+      FileUtils.deleteQuietly(target);
+      if (!source.renameTo(target)) {
+        throw new IOException("Could not rename " + source + " to " + target);
+      }
+    }
+  }
+
+  /**
+   * Only resolves the classes of the CSDL model, the collections holding its elements, and the types of its
+   * values, so that a tampered cache file cannot instantiate arbitrary serializable classes.
+   */
+  private static class MetadataInputStream extends ObjectInputStream {
+
+    MetadataInputStream(final InputStream input) throws IOException {
+      super(input);
+    }
+
+    @Override
+    protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      if (!isAllowed(desc.getName())) {
+        throw new InvalidClassException(desc.getName(), "Class not allowed in cached metadata");
+      }
+      return super.resolveClass(desc);
+    }
+
+    private static boolean isAllowed(final String className) {
+      // array class names look like "[Lcom.example.Type;", or "[I" for primitive component types
+      final String name = className.replaceFirst("^\\[+L?", "").replaceFirst(";$", "");
+      return name.length() <= 1
+          || name.startsWith("org.apache.olingo.")
+          || name.startsWith("java.util.Collections$")
+          || ALLOWED_CLASSES.contains(name);
+    }
+  }
+
+  private String hash(final String... parts) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      for (String part : parts) {
+        digest.update(part.getBytes(Constants.UTF8));
+        digest.update((byte) 0);
+      }
+      return Hex.encodeHexString(digest.digest());
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    } catch (final UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
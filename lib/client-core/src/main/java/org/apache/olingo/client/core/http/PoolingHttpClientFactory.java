@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.CoreProtocolPNames;
+import org.apache.olingo.commons.api.http.HttpMethod;
+
+/**
+ * Implementation returning HttpClients which share a single, thread-safe pool of keep-alive connections.
+ * <br/>
+ * Connections are given back to the pool as soon as the response payload has been consumed or closed; idle and
+ * expired connections are evicted while new clients are being created. The pool is released by {@link #close()},
+ * which is invoked by {@link org.apache.olingo.client.api.ODataClient#close()}.
+ * <br/>
+ * The authenticating and proxy factories of this package can be used on top of this one, by extending or wrapping
+ * it, respectively.
+ */
+public class PoolingHttpClientFactory extends DefaultHttpClientFactory implements Closeable {
+
+  public static final int DEFAULT_MAX_TOTAL = 20;
+
+  public static final int DEFAULT_MAX_PER_ROUTE = 10;
+
+  public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30000;
+
+  public static final long DEFAULT_CONNECTION_REQUEST_TIMEOUT_MILLIS = 60000;
+
+  private final PoolingClientConnectionManager connectionManager;
+
+  private final long idleTimeoutMillis;
+
+  private final long connectionRequestTimeoutMillis;
+
+  private volatile long lastEviction = System.currentTimeMillis();
+
+  private volatile boolean closed = false;
+
+  public PoolingHttpClientFactory() {
+    this(DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE, DEFAULT_IDLE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param maxTotal maximum number of connections kept by the pool, over all routes
+   * @param maxPerRoute maximum number of connections kept by the pool for each route (i.e. target host)
+   * @param idleTimeoutMillis time after which an unused connection gets closed; 0 or negative to keep it forever
+   */
+  public PoolingHttpClientFactory(final int maxTotal, final int maxPerRoute, final long idleTimeoutMillis) {
+    this(maxTotal, maxPerRoute, idleTimeoutMillis, DEFAULT_CONNECTION_REQUEST_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param maxTotal maximum number of connections kept by the pool, over all routes
+   * @param maxPerRoute maximum number of connections kept by the pool for each route (i.e. target host)
+   * @param idleTimeoutMillis time after which an unused connection gets closed; 0 or negative to keep it forever
+   * @param connectionRequestTimeoutMillis maximum time to wait for a connection from the pool; 0 to wait forever
+   */
+  public PoolingHttpClientFactory(final int maxTotal, final int maxPerRoute, final long idleTimeoutMillis,
+      final long connectionRequestTimeoutMillis) {
+    connectionManager = new PoolingClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+  }
+
+  @Override
+  public DefaultHttpClient create(final HttpMethod method, final URI uri) {
+    if (closed) {
+      throw new IllegalStateException("Connection pool has already been shut down");
+    }
+    evictIdleConnections();
+
+    final DefaultHttpClient client = new DefaultHttpClient(connectionManager);
+    client.getParams().setParameter(CoreProtocolPNames.USER_AGENT, USER_AGENT);
+    client.getParams().setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, connectionRequestTimeoutMillis);
+    return client;
+  }
+
+  /**
+   * The connection used by the given client is not closed but stays in the shared pool for further requests.
+   * It is given back to the pool once the response payload has been consumed, which happens on closing the response.
+   */
+  @Override
+  public void close(final HttpClient httpClient) {
+    // Nothing to do: the connection is released to the pool once the response has been consumed.
+  }
+
+  /**
+   * Shuts down the connection pool; clients created afterwards are no longer usable.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    connectionManager.shutdown();
+  }
+
+  public PoolingClientConnectionManager getConnectionManager() {
+    return connectionManager;
+  }
+
+  /**
+   * Tells whether the connections of the given client are taken from a pool, i.e. whether it is worth consuming
+   * the remaining response payload in order to give the connection back for reuse.
+   *
+   * @param httpClient HTTP client
+   * @return <tt>true</tt> if the client uses a pooling connection manager
+   */
+  public static boolean isPooled(final HttpClient httpClient) {
+    return httpClient.getConnectionManager() instanceof PoolingClientConnectionManager;
+  }
+
+  private void evictIdleConnections() {
+    if (idleTimeoutMillis > 0) {
+      final long now = System.currentTimeMillis();
+      if (now - lastEviction >= idleTimeoutMillis) {
+        lastEviction = now;
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+}
@@ -35,8 +35,10 @@ import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.serialization.EntitySetStreamReader;
 import org.apache.olingo.client.api.serialization.ODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
 import org.apache.olingo.commons.api.Constants;
@@ -740,8 +742,24 @@ public class AtomDeserializer extends AbstractAtomDealer implements ODataDeseria
       entitySet.setBaseURI(URI.create(xmlBase.getValue()));
     }
 
-    boolean foundEndFeed = false;
-    while (reader.hasNext() && !foundEndFeed) {
+    Entity entity;
+    while ((entity = nextEntity(reader, start, entitySet)) != null) {
+      entitySet.getEntities().add(entity);
+    }
+
+    return entitySet;
+  }
+
+  /**
+   * Reads the feed content up to the next entry or entity reference, which is returned; any feed information met
+   * on the way is set on the given entity set.
+   *
+   * @return next entity, or <tt>null</tt> once the end of the feed has been reached
+   */
+  private Entity nextEntity(final XMLEventReader reader, final StartElement start, final EntityCollection entitySet)
+      throws XMLStreamException, EdmPrimitiveTypeException {
+
+    while (reader.hasNext()) {
       final XMLEvent event = reader.nextEvent();
       if (event.isStartElement()) {
         if (countQName.equals(event.asStartElement().getName())) {
@@ -771,20 +789,20 @@ public class AtomDeserializer extends AbstractAtomDealer implements ODataDeseria
             }
           }
         } else if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(event.asStartElement().getName())) {
-          entitySet.getEntities().add(entity(reader, event.asStartElement()));
+          return entity(reader, event.asStartElement());
         } else if (entryRefQName.equals(event.asStartElement().getName())) {
-          entitySet.getEntities().add(entityRef(event.asStartElement()));
+          return entityRef(event.asStartElement());
         } else if (annotationQName.equals(event.asStartElement().getName())) {
           entitySet.getAnnotations().add(annotation(reader, event.asStartElement()));
         }
       }
 
       if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
-        foundEndFeed = true;
+        return null;
       }
     }
 
-    return entitySet;
+    return null;
   }
 
   @Override
@@ -800,6 +818,91 @@ public class AtomDeserializer extends AbstractAtomDealer implements ODataDeseria
     }
   }
 
+  /**
+   * Gets a reader de-serializing the entries of the feed represented by the given InputStream one at a time.
+   *
+   * @param input stream to be de-serialized.
+   * @return {@link EntitySetStreamReader} instance.
+   * @throws ODataDeserializerException
+   */
+  public EntitySetStreamReader toEntitySetStream(final InputStream input) throws ODataDeserializerException {
+    try {
+      final XMLEventReader reader = getReader(input);
+      final StartElement start = skipBeforeFirstStartElement(reader);
+      if (!Constants.QNAME_ATOM_ELEM_FEED.equals(start.getName())) {
+        throw new ODataDeserializerException("No feed found!");
+      }
+      return new FeedStreamReader(input, reader, start);
+    } catch (XMLStreamException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  private class FeedStreamReader implements EntitySetStreamReader {
+
+    private final InputStream input;
+
+    private final XMLEventReader reader;
+
+    private final StartElement start;
+
+    private final EntityCollection entitySet = new EntityCollection();
+
+    private boolean completed = false;
+
+    private FeedStreamReader(final InputStream input, final XMLEventReader reader, final StartElement start) {
+      this.input = input;
+      this.reader = reader;
+      this.start = start;
+
+      final Attribute xmlBase = start.getAttributeByName(Constants.QNAME_ATTR_XML_BASE);
+      if (xmlBase != null) {
+        entitySet.setBaseURI(URI.create(xmlBase.getValue()));
+      }
+    }
+
+    @Override
+    public ResWrap<Entity> next() throws ODataDeserializerException {
+      if (completed) {
+        return null;
+      }
+      try {
+        final Entity entity = nextEntity(reader, start, entitySet);
+        if (entity == null) {
+          completed = true;
+          close();
+          return null;
+        }
+        // entries are bound to the context of the feed, as done for fully read entity sets
+        return getContainer(start, entity);
+      } catch (XMLStreamException e) {
+        close();
+        throw new ODataDeserializerException(e);
+      } catch (final EdmPrimitiveTypeException e) {
+        close();
+        throw new ODataDeserializerException(e);
+      }
+    }
+
+    @Override
+    public ResWrap<EntityCollection> getEntitySet() {
+      if (!completed) {
+        throw new IllegalStateException("Entities must be read completely in order to retrieve the entity set");
+      }
+      return getContainer(start, entitySet);
+    }
+
+    @Override
+    public void close() {
+      try {
+        reader.close();
+      } catch (final XMLStreamException e) {
+        // ignore: the stream is closed anyway below
+      }
+      IOUtils.closeQuietly(input);
+    }
+  }
+
   private ODataError error(final XMLEventReader reader, final StartElement start) throws XMLStreamException {
     final ODataError error = new ODataError();
 
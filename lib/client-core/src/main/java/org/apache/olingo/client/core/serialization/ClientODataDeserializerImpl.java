@@ -27,6 +27,7 @@ import org.apache.olingo.client.api.data.ResWrap;
 import org.apache.olingo.client.api.data.ServiceDocument;
 import org.apache.olingo.client.api.edm.xml.XMLMetadata;
 import org.apache.olingo.client.api.serialization.ClientODataDeserializer;
+import org.apache.olingo.client.api.serialization.EntitySetStreamReader;
 import org.apache.olingo.client.api.serialization.ODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
 import org.apache.olingo.client.core.data.JSONServiceDocumentDeserializer;
@@ -55,9 +56,11 @@ import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 public class ClientODataDeserializerImpl implements ClientODataDeserializer {
 
   private final ODataDeserializer deserializer;
+  private final boolean serverMode;
   private final ContentType contentType;
 
   public ClientODataDeserializerImpl(final boolean serverMode, final ContentType contentType) {
+    this.serverMode = serverMode;
     this.contentType = contentType;
     if (contentType.isCompatible(ContentType.APPLICATION_ATOM_SVC)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)
@@ -73,6 +76,13 @@ public class ClientODataDeserializerImpl implements ClientODataDeserializer {
     return deserializer.toEntitySet(input);
   }
 
+  @Override
+  public EntitySetStreamReader toEntitySetStream(final InputStream input) throws ODataDeserializerException {
+    return deserializer instanceof AtomDeserializer ?
+        ((AtomDeserializer) deserializer).toEntitySetStream(input) :
+        new JsonEntitySetStreamReader(serverMode, input);
+  }
+
   @Override
   public ResWrap<Entity> toEntity(final InputStream input) throws ODataDeserializerException {
     return deserializer.toEntity(input);
@@ -88,7 +98,17 @@ public class ClientODataDeserializerImpl implements ClientODataDeserializer {
     return deserializer.toError(input);
   }
 
+  /**
+   * Metadata documents are parsed by the pull deserializers of the CSDL classes, on top of the streaming parser of
+   * the shared mapper: configured once, the mapper is thread-safe and keeps the deserializers it looked up.
+   */
+  private static final XmlMapper XML_MAPPER = newXmlMapper();
+
   protected XmlMapper getXmlMapper() {
+    return XML_MAPPER;
+  }
+
+  private static XmlMapper newXmlMapper() {
     final XmlMapper xmlMapper = new XmlMapper(
         new XmlFactory(new InputFactoryImpl(), new OutputFactoryImpl()), new JacksonXmlModule());
 
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.serialization.EntitySetStreamReader;
+import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads a JSON entity set one entity at a time, advancing a single parser over the payload.
+ * <br/>
+ * Any other member of the entity set object is collected while reading and handed to
+ * {@link JsonEntitySetDeserializer} once the end of the payload has been reached.
+ */
+public class JsonEntitySetStreamReader implements EntitySetStreamReader {
+
+  private final boolean serverMode;
+
+  private final InputStream input;
+
+  private final JsonParser parser;
+
+  private final JsonEntityDeserializer entityDeserializer;
+
+  private final ObjectNode envelope = JsonNodeFactory.instance.objectNode();
+
+  private boolean inValue = false;
+
+  private URI contextURL;
+
+  private String metadataETag;
+
+  private ResWrap<EntityCollection> entitySet;
+
+  public JsonEntitySetStreamReader(final boolean serverMode, final InputStream input)
+      throws ODataDeserializerException {
+
+    this.serverMode = serverMode;
+    this.input = input;
+    entityDeserializer = new JsonEntityDeserializer(serverMode);
+    try {
+      parser = JsonDeserializer.FACTORY.createParser(input);
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException("Expected OData EntitySet", parser.getCurrentLocation());
+      }
+    } catch (final IOException e) {
+      IOUtils.closeQuietly(input);
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  @Override
+  public ResWrap<Entity> next() throws ODataDeserializerException {
+    try {
+      while (entitySet == null) {
+        if (inValue) {
+          final JsonToken token = parser.nextToken();
+          if (token == JsonToken.START_OBJECT) {
+            final ResWrap<Entity> entity = entityDeserializer.doDeserialize(parser);
+            return entity.getContextURL() == null
+                ? new ResWrap<Entity>(contextURL, metadataETag, entity.getPayload())
+                : entity;
+          } else if (token == JsonToken.END_ARRAY) {
+            inValue = false;
+          } else {
+            throw new JsonParseException("Expected OData Entity", parser.getCurrentLocation());
+          }
+        } else if (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String name = parser.getCurrentName();
+          if (parser.nextToken() == JsonToken.START_ARRAY && Constants.VALUE.equals(name)) {
+            envelope.putArray(name);
+            startValue();
+          } else {
+            final JsonNode node = parser.getCodec().readTree(parser);
+            if (node == null) {
+              envelope.putNull(name);
+            } else {
+              envelope.set(name, node);
+            }
+          }
+        } else {
+          entitySet = new JsonEntitySetDeserializer(serverMode).doDeserialize(envelope.traverse(parser.getCodec()));
+          if (entitySet == null) {
+            throw new JsonParseException("Expected OData EntitySet", parser.getCurrentLocation());
+          }
+          close();
+        }
+      }
+    } catch (final IOException e) {
+      close();
+      throw new ODataDeserializerException(e);
+    }
+
+    return null;
+  }
+
+  /**
+   * Entities read from the value array are bound to the context URL of the entity set, as done for fully read
+   * entity sets; the context URL is required to precede the entities in the payload.
+   */
+  private void startValue() {
+    inValue = true;
+    if (envelope.hasNonNull(Constants.JSON_CONTEXT)) {
+      contextURL = URI.create(envelope.get(Constants.JSON_CONTEXT).textValue());
+    } else if (envelope.hasNonNull(Constants.JSON_METADATA)) {
+      contextURL = URI.create(envelope.get(Constants.JSON_METADATA).textValue());
+    }
+    if (envelope.hasNonNull(Constants.JSON_METADATA_ETAG)) {
+      metadataETag = envelope.get(Constants.JSON_METADATA_ETAG).textValue();
+    }
+  }
+
+  @Override
+  public ResWrap<EntityCollection> getEntitySet() {
+    if (entitySet == null) {
+      throw new IllegalStateException("Entities must be read completely in order to retrieve the entity set");
+    }
+    return entitySet;
+  }
+
+  @Override
+  public void close() {
+    try {
+      parser.close();
+    } catch (final IOException e) {
+      // ignore: the stream is closed anyway below
+    }
+    IOUtils.closeQuietly(input);
+  }
+}
@@ -61,6 +61,8 @@ public class JsonSerializer implements ODataSerializer {
     EdmPrimitiveTypeKind.Decimal
   };
 
+  private static final JsonFactory FACTORY = new JsonFactory();
+
   private final JsonGeoValueSerializer geoSerializer = new JsonGeoValueSerializer();
 
   protected boolean serverMode;
@@ -76,7 +78,7 @@ public class JsonSerializer implements ODataSerializer {
   @Override
   public <T> void write(final Writer writer, final T obj) throws ODataSerializerException {
     try {
-      final JsonGenerator json = new JsonFactory().createGenerator(writer);
+      final JsonGenerator json = FACTORY.createGenerator(writer);
       if (obj instanceof EntityCollection) {
         new JsonEntitySetSerializer(serverMode, contentType).doSerialize((EntityCollection) obj, json);
       } else if (obj instanceof Entity) {
@@ -108,7 +110,7 @@ public class JsonSerializer implements ODataSerializer {
   public <T> void write(final Writer writer, final ResWrap<T> container) throws ODataSerializerException {
     final T obj = container == null ? null : container.getPayload();
     try {
-      final JsonGenerator json = new JsonFactory().createGenerator(writer);
+      final JsonGenerator json = FACTORY.createGenerator(writer);
       if (obj instanceof EntityCollection) {
         new JsonEntitySetSerializer(serverMode, contentType).doContainerSerialize(
             (ResWrap<EntityCollection>) container, json);
@@ -18,13 +18,16 @@
  */
 package org.apache.olingo.client.core.uri;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
 import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Collection;
@@ -48,6 +51,7 @@ import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.http.HttpClientFactory;
 import org.apache.olingo.client.api.http.WrappingHttpClientFactory;
 import org.apache.olingo.client.api.uri.SegmentType;
+import org.apache.olingo.client.core.communication.request.RequestBodyPipe;
 import org.apache.olingo.client.core.http.BasicAuthHttpClientFactory;
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.client.api.domain.ClientValue;
@@ -287,7 +291,12 @@ public final class URIUtils {
     AbstractHttpEntity entity;
     boolean useChunked = client.getConfiguration().isUseChuncked();
 
-    if (shouldUseRepeatableHttpBodyEntry(client) || !useChunked) {
+    if (input instanceof RequestBodyPipe.PipeInputStream && ((RequestBodyPipe.PipeInputStream) input).isBuffered()) {
+      // The payload may still be written; its length is known only when the HTTP client asks for it.
+      entity = new PipeContentEntity((RequestBodyPipe.PipeInputStream) input);
+      entity.setChunked(useChunked);
+      return entity;
+    } else if (shouldUseRepeatableHttpBodyEntry(client) || !useChunked) {
       byte[] bytes = new byte[0];
       try {
         bytes = IOUtils.toByteArray(input);
@@ -362,4 +371,58 @@ public final class URIUtils {
     }
 
   }
+
+  /**
+   * Entity with the payload of a pipe in buffered mode. The payload is taken over without copying it
+   * when the HTTP client needs it for the first time, waiting for it to be written completely.
+   */
+  private static class PipeContentEntity extends AbstractHttpEntity {
+
+    private final RequestBodyPipe.PipeInputStream input;
+
+    private ByteBuffer content;
+
+    private PipeContentEntity(final RequestBodyPipe.PipeInputStream input) {
+      this.input = input;
+    }
+
+    private synchronized ByteBuffer getBuffer() throws IOException {
+      if (content == null) {
+        content = input.getContent();
+      }
+      return content;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return true;
+    }
+
+    @Override
+    public long getContentLength() {
+      try {
+        return getBuffer().remaining();
+      } catch (final IOException e) {
+        throw new IllegalStateException("While reading the request payload", e);
+      }
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+      final ByteBuffer buffer = getBuffer();
+      return new ByteArrayInputStream(buffer.array(), buffer.position(), buffer.remaining());
+    }
+
+    @Override
+    public void writeTo(final OutputStream outstream) throws IOException {
+      final ByteBuffer buffer = getBuffer();
+      outstream.write(buffer.array(), buffer.position(), buffer.remaining());
+      outstream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+      return false;
+    }
+  }
 }
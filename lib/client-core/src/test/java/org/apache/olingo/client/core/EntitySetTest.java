@@ -19,17 +19,27 @@
 package org.apache.olingo.client.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.olingo.client.api.data.ResWrap;
 import org.apache.olingo.client.api.domain.ClientEntity;
 import org.apache.olingo.client.api.domain.ClientEntitySet;
+import org.apache.olingo.client.api.domain.ClientEntitySetIterator;
+import org.apache.olingo.client.api.serialization.EntitySetStreamReader;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.junit.Test;
@@ -61,6 +71,64 @@ public class EntitySetTest extends AbstractTest {
     read(ContentType.JSON);
   }
 
+  private void iterate(final ContentType contentType) throws ODataDeserializerException {
+    final ClientEntitySet entitySet = client.getBinder().getODataEntitySet(client.getDeserializer(contentType)
+        .toEntitySet(getClass().getResourceAsStream("Customers." + getSuffix(contentType))));
+
+    final ClientEntitySetIterator<ClientEntitySet, ClientEntity> iterator =
+        new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(
+            client, getClass().getResourceAsStream("Customers." + getSuffix(contentType)), contentType);
+    final List<ClientEntity> entities = new ArrayList<ClientEntity>();
+    while (iterator.hasNext()) {
+      entities.add(iterator.next());
+    }
+    assertFalse(iterator.hasNext());
+    assertEquals(entitySet.getEntities(), entities);
+    assertNull(iterator.getNext());
+    assertEquals(entitySet.getCount(), iterator.getEntitySet().getCount());
+    assertTrue(iterator.getEntitySet().getEntities().isEmpty());
+  }
+
+  @Test
+  public void iterateAtom() throws Exception {
+    iterate(ContentType.APPLICATION_ATOM_XML);
+  }
+
+  @Test
+  public void iterateJSON() throws Exception {
+    iterate(ContentType.JSON);
+  }
+
+  @Test
+  public void streamJSONWithTrailingNextLink() throws Exception {
+    final String payload = "{\"@odata.context\":\"http://host/service/$metadata#People\","
+        + "\"value\":[{\"Id\":1,\"Info\":{\"value\":[2]}},{\"Id\":2}],"
+        + "\"@odata.count\":5,\"@Custom.Annotation\":\"text\",\"@odata.nextLink\":\"People?$skiptoken=2\"}";
+    final EntitySetStreamReader reader = client.getDeserializer(ContentType.JSON)
+        .toEntitySetStream(new ByteArrayInputStream(payload.getBytes("UTF-8")));
+    try {
+      reader.getEntitySet();
+      fail("Expected IllegalStateException");
+    } catch (final IllegalStateException e) {
+      assertNotNull(e.getMessage());
+    }
+
+    ResWrap<Entity> entity = reader.next();
+    assertEquals(URI.create("http://host/service/$metadata#People"), entity.getContextURL());
+    assertEquals(1, entity.getPayload().getProperty("Id").getValue());
+    assertNotNull(entity.getPayload().getProperty("Info").asComplex());
+    entity = reader.next();
+    assertEquals(2, entity.getPayload().getProperty("Id").getValue());
+    assertNull(reader.next());
+    assertNull(reader.next());
+
+    final EntityCollection entitySet = reader.getEntitySet().getPayload();
+    assertTrue(entitySet.getEntities().isEmpty());
+    assertEquals(Integer.valueOf(5), entitySet.getCount());
+    assertEquals(URI.create("People?$skiptoken=2"), entitySet.getNext());
+    assertEquals(1, entitySet.getAnnotations().size());
+  }
+
   private void ref(final ContentType contentType) throws ODataDeserializerException {
     final InputStream input = getClass().getResourceAsStream("collectionOfEntityReferences." + getSuffix(contentType));
     final ClientEntitySet entitySet = client.getBinder().getODataEntitySet(
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.olingo.client.api.EdmEnabledODataClient;
+import org.apache.olingo.client.api.edm.xml.XMLMetadata;
+import org.apache.olingo.client.core.edm.FileXMLMetadataCache;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MetadataCacheTest extends AbstractTest {
+
+  private static final String SERVICE_ROOT = "http://localhost:9/unreachable/service";
+
+  private static final String ETAG = "W/\"1\"";
+
+  private static final FullQualifiedName USER =
+      new FullQualifiedName("Microsoft.Exchange.Services.OData.Model", "User");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private XMLMetadata parse() {
+    return client.getDeserializer(ContentType.APPLICATION_XML).toMetadata(
+        getClass().getResourceAsStream("metadata.xml"));
+  }
+
+  @Test
+  public void roundTrip() throws Exception {
+    final FileXMLMetadataCache cache = new FileXMLMetadataCache(new File(folder.getRoot(), "cache"));
+    assertNull(cache.getLatestETag(SERVICE_ROOT));
+    assertNull(cache.get(SERVICE_ROOT, ETAG));
+
+    final XMLMetadata metadata = parse();
+    cache.put(SERVICE_ROOT, ETAG, metadata);
+    assertEquals(ETAG, cache.getLatestETag(SERVICE_ROOT));
+    assertNull(cache.get(SERVICE_ROOT, "W/\"2\""));
+    assertNull(cache.get(SERVICE_ROOT + "/other", ETAG));
+
+    final XMLMetadata cached = cache.get(SERVICE_ROOT, ETAG);
+    assertNotNull(cached);
+    assertEquals(metadata.getSchemas().size(), cached.getSchemas().size());
+
+    final EdmEntityType expected = client.getReader().readMetadata(metadata.getSchemaByNsOrAlias())
+        .getEntityType(USER);
+    final EdmEntityType actual = client.getReader().readMetadata(cached.getSchemaByNsOrAlias())
+        .getEntityType(USER);
+    assertEquals(expected.getPropertyNames(), actual.getPropertyNames());
+    assertEquals(expected.getNavigationPropertyNames(), actual.getNavigationPropertyNames());
+    assertEquals(expected.getBaseType().getFullQualifiedName(), actual.getBaseType().getFullQualifiedName());
+  }
+
+  @Test
+  public void discardUnreadable() throws Exception {
+    final FileXMLMetadataCache cache = new FileXMLMetadataCache(folder.getRoot());
+    cache.put(SERVICE_ROOT, ETAG, parse());
+    final File file = getCachedMetadataFile();
+    FileUtils.writeStringToFile(file, "garbage");
+
+    assertNull(cache.get(SERVICE_ROOT, ETAG));
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void rejectForeignClass() throws Exception {
+    final FileXMLMetadataCache cache = new FileXMLMetadataCache(folder.getRoot());
+    cache.put(SERVICE_ROOT, ETAG, parse());
+    final File file = getCachedMetadataFile();
+
+    // a well-formed entry carrying a serializable class which is not part of the CSDL model
+    ObjectOutputStream output = new ObjectOutputStream(new GZIPOutputStream(new FileOutputStream(file)));
+    output.writeUTF(SERVICE_ROOT);
+    output.writeUTF(ETAG);
+    output.writeObject(new Date());
+    output.close();
+
+    assertNull(cache.get(SERVICE_ROOT, ETAG));
+    assertFalse(file.exists());
+  }
+
+  private File getCachedMetadataFile() {
+    final File[] files = folder.getRoot().listFiles(new FileFilter() {
+      @Override
+      public boolean accept(final File file) {
+        return file.getName().endsWith(".csdl");
+      }
+    });
+    assertEquals(1, files.length);
+    return files[0];
+  }
+
+  @Test
+  public void edmEnabledClient() throws Exception {
+    final FileXMLMetadataCache cache = new FileXMLMetadataCache(folder.getRoot());
+    cache.put(SERVICE_ROOT, ETAG, parse());
+
+    // the service is not reachable: the metadata must be taken from the cache
+    final EdmEnabledODataClient edmClient = ODataClientFactory.getEdmEnabledClient(SERVICE_ROOT);
+    edmClient.getConfiguration().setMetadataCache(cache);
+    final Edm edm = edmClient.getEdm(ETAG);
+    assertNotNull(edm.getEntityType(USER));
+    assertEquals(edm, edmClient.getCachedEdm());
+  }
+}
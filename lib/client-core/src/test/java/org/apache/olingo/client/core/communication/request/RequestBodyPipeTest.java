@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpEntity;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.client.core.uri.URIUtils;
+import org.junit.After;
+import org.junit.Test;
+
+public class RequestBodyPipeTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void bounded() throws Exception {
+    final byte[] payload = payload(1000000);
+    final RequestBodyPipe pipe = new RequestBodyPipe(1000);
+    assertFalse(pipe.isBuffered());
+
+    final Future<byte[]> read = executor.submit(new Callable<byte[]>() {
+      @Override
+      public byte[] call() throws Exception {
+        return IOUtils.toByteArray(pipe.getInputStream());
+      }
+    });
+    write(pipe, payload);
+    assertArrayEquals(payload, read.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void buffered() throws Exception {
+    final byte[] payload = payload(100000);
+    final RequestBodyPipe pipe = new RequestBodyPipe(0);
+    assertTrue(pipe.isBuffered());
+
+    // The writer does not need a reader.
+    write(pipe, payload);
+    final ByteBuffer content = pipe.getInputStream().getContent();
+    assertEquals(payload.length, content.remaining());
+    final byte[] bytes = new byte[content.remaining()];
+    content.get(bytes);
+    assertArrayEquals(payload, bytes);
+    assertEquals(-1, pipe.getInputStream().read());
+  }
+
+  @Test
+  public void closedReader() throws Exception {
+    final RequestBodyPipe pipe = new RequestBodyPipe(10);
+    final OutputStream output = pipe.getOutputStream();
+    output.write(new byte[] { 1, 2, 3 });
+    assertEquals(1, pipe.getInputStream().read());
+    pipe.getInputStream().close();
+    try {
+      // Larger than the capacity: must fail instead of waiting for a reader.
+      output.write(new byte[20]);
+      fail("Expected an exception.");
+    } catch (final IOException e) {
+      assertTrue(e.getMessage().contains("closed"));
+    }
+  }
+
+  @Test
+  public void entity() throws Exception {
+    final ODataClient client = ODataClientFactory.getClient();
+    client.getConfiguration().setUseChuncked(false);
+    final RequestBodyPipe pipe = RequestBodyPipe.create(client);
+    assertTrue(pipe.isBuffered());
+
+    final byte[] payload = payload(5000);
+    final HttpEntity entity = URIUtils.buildInputStreamEntity(client, pipe.getInputStream());
+    write(pipe, payload);
+    assertFalse(entity.isChunked());
+    assertTrue(entity.isRepeatable());
+    assertEquals(payload.length, entity.getContentLength());
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    entity.writeTo(output);
+    assertArrayEquals(payload, output.toByteArray());
+
+    client.getConfiguration().setUseChuncked(true);
+    client.getConfiguration().setStreamedRequestBufferSize(4096);
+    assertFalse(RequestBodyPipe.create(client).isBuffered());
+  }
+
+  private static void write(final RequestBodyPipe pipe, final byte[] payload) throws IOException {
+    final OutputStream output = pipe.getOutputStream();
+    int offset = 0;
+    int size = 1;
+    while (offset < payload.length) {
+      final int length = Math.min(size, payload.length - offset);
+      output.write(payload, offset, length);
+      offset += length;
+      size = size * 3 % 4099 + 1;
+    }
+    output.close();
+  }
+
+  private static byte[] payload(final int size) {
+    final byte[] payload = new byte[size];
+    new Random(42).nextBytes(payload);
+    return payload;
+  }
+}
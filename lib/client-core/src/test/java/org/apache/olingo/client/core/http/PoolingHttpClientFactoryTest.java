@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.response.ODataRawResponse;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class PoolingHttpClientFactoryTest {
+
+  private static final URI SERVICE_ROOT = URI.create("http://localhost:9080/odata.svc");
+
+  @Test
+  public void sharedConnectionManager() {
+    final PoolingHttpClientFactory factory = new PoolingHttpClientFactory();
+    assertSame(factory.getConnectionManager(),
+        factory.create(HttpMethod.GET, SERVICE_ROOT).getConnectionManager());
+    assertSame(factory.getConnectionManager(),
+        factory.create(HttpMethod.POST, SERVICE_ROOT).getConnectionManager());
+    factory.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void closedWithClient() {
+    final PoolingHttpClientFactory factory = new PoolingHttpClientFactory(5, 5, 0);
+    final ODataClient client = ODataClientFactory.getClient();
+    client.getConfiguration().setHttpClientFactory(new ProxyWrappingHttpClientFactory(SERVICE_ROOT, factory));
+    client.close();
+    factory.create(HttpMethod.GET, SERVICE_ROOT);
+  }
+
+  @Test(timeout = 20000)
+  public void connectionReleasedOnCloseWithoutReading() throws IOException {
+    final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(final HttpExchange exchange) throws IOException {
+        final byte[] payload = new byte[16 * 1024];
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, payload.length);
+        final OutputStream out = exchange.getResponseBody();
+        out.write(payload);
+        out.close();
+      }
+    });
+    server.start();
+
+    final PoolingHttpClientFactory factory =
+        new PoolingHttpClientFactory(PoolingHttpClientFactory.DEFAULT_MAX_TOTAL,
+            PoolingHttpClientFactory.DEFAULT_MAX_PER_ROUTE, 0, 5000);
+    final ODataClient client = ODataClientFactory.getClient();
+    client.getConfiguration().setHttpClientFactory(factory);
+    try {
+      final URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/odata.svc/raw");
+      for (int i = 0; i <= PoolingHttpClientFactory.DEFAULT_MAX_PER_ROUTE; i++) {
+        client.getRetrieveRequestFactory().getRawRequest(uri).execute().close();
+      }
+
+      final ODataRawResponse response = client.getRetrieveRequestFactory().getRawRequest(uri).execute();
+      assertEquals(200, response.getStatusCode());
+      response.close();
+      assertEquals(0, factory.getConnectionManager().getTotalStats().getLeased());
+    } finally {
+      client.close();
+      server.stop(0);
+    }
+  }
+
+  @Test(timeout = 20000)
+  public void unpooledConnectionAbortedOnCloseWithoutReading() throws IOException {
+    final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(final HttpExchange exchange) throws IOException {
+        // endless chunked payload: draining it on close would never end
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, 0);
+        final OutputStream out = exchange.getResponseBody();
+        final byte[] chunk = new byte[64 * 1024];
+        try {
+          while (true) {
+            out.write(chunk);
+          }
+        } finally {
+          exchange.close();
+        }
+      }
+    });
+    server.start();
+
+    final ODataClient client = ODataClientFactory.getClient();
+    client.getConfiguration().setHttpClientFactory(new DefaultHttpClientFactory());
+    try {
+      final URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/odata.svc/raw");
+      final ODataRawResponse response = client.getRetrieveRequestFactory().getRawRequest(uri).execute();
+      assertEquals(200, response.getStatusCode());
+      response.close();
+    } finally {
+      client.close();
+      server.stop(0);
+    }
+  }
+}
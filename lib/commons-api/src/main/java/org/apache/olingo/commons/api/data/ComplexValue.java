@@ -27,6 +27,22 @@ import java.util.List;
 public class ComplexValue extends Linked {
 
   private final List<Property> value = new ArrayList<Property>();
+  private PropertyIndex propertyIndex;
+
+  /**
+   * Creates a complex value without property index.
+   */
+  public ComplexValue() {}
+
+  /**
+   * Creates a complex value whose properties are looked up with the help of the given index.
+   *
+   * @param propertyIndex index of the properties of the value's type, or <code>null</code>
+   * @see PropertyIndex
+   */
+  public ComplexValue(final PropertyIndex propertyIndex) {
+    this.propertyIndex = propertyIndex;
+  }
 
   /**
    * Get list of all values for this ComplexValue.
@@ -37,6 +53,42 @@ public class ComplexValue extends Linked {
     return value;
   }
 
+  /**
+   * Gets property with given name.
+   *
+   * @param name property name
+   * @return property with given name if found, null otherwise
+   */
+  public Property getProperty(final String name) {
+    if (propertyIndex != null) {
+      return propertyIndex.find(value, name);
+    }
+    for (final Property property : value) {
+      if (name.equals(property.getName())) {
+        return property;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the index used to look up properties.
+   *
+   * @return property index or <code>null</code>
+   */
+  public PropertyIndex getPropertyIndex() {
+    return propertyIndex;
+  }
+
+  /**
+   * Sets the index used to look up properties; it is shared by all values of the same type.
+   *
+   * @param propertyIndex property index or <code>null</code>
+   */
+  public void setPropertyIndex(final PropertyIndex propertyIndex) {
+    this.propertyIndex = propertyIndex;
+  }
+
   @Override
   public boolean equals(final Object o) {
     return super.equals(o) && value.equals(((ComplexValue) o).value);
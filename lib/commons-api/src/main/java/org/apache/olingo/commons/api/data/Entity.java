@@ -37,11 +37,27 @@ public class Entity extends Linked {
   private final List<Operation> operations = new ArrayList<Operation>();
 
   private final List<Property> properties = new ArrayList<Property>();
+  private PropertyIndex propertyIndex;
 
   private URI mediaContentSource;
   private String mediaContentType;
   private String mediaETag;
 
+  /**
+   * Creates an entity without property index.
+   */
+  public Entity() {}
+
+  /**
+   * Creates an entity whose properties are looked up with the help of the given index.
+   *
+   * @param propertyIndex index of the properties of the entity's type, or <code>null</code>
+   * @see PropertyIndex
+   */
+  public Entity(final PropertyIndex propertyIndex) {
+    this.propertyIndex = propertyIndex;
+  }
+
   /**
    * Gets ETag.
    *
@@ -158,6 +174,10 @@ public class Entity extends Linked {
    * @return property with given name if found, null otherwise
    */
   public Property getProperty(final String name) {
+    if (propertyIndex != null) {
+      return propertyIndex.find(properties, name);
+    }
+
     Property result = null;
 
     for (Property property : properties) {
@@ -170,6 +190,24 @@ public class Entity extends Linked {
     return result;
   }
 
+  /**
+   * Gets the index used to look up properties.
+   *
+   * @return property index or <code>null</code>
+   */
+  public PropertyIndex getPropertyIndex() {
+    return propertyIndex;
+  }
+
+  /**
+   * Sets the index used to look up properties; it is shared by all entities of the same type.
+   *
+   * @param propertyIndex property index or <code>null</code>
+   */
+  public void setPropertyIndex(final PropertyIndex propertyIndex) {
+    this.propertyIndex = propertyIndex;
+  }
+
   /**
    * Gets media content type.
    *
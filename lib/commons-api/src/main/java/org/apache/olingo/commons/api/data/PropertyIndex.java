@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.commons.api.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+
+/**
+ * Immutable mapping of the property names of a structured type to their slots, i.e., their positions
+ * in the definition of the type.
+ * <p>An index is meant to be shared by all {@link Entity} and {@link ComplexValue} instances of the same type;
+ * it speeds up the look-up of properties by name if the properties are stored in the order of the type's
+ * definition, with possibly some of them missing, as it is the case for deserialized data.
+ * Properties in any other order are still found, with the cost of a linear scan.</p>
+ */
+public final class PropertyIndex {
+
+  /** Upper bound for the number of cached indexes; types with further property lists get an uncached index. */
+  private static final int MAX_CACHED_INDEXES = 4096;
+
+  /**
+   * Indexes by property-name list. Since an index depends on nothing but the names, types that are
+   * recreated (e.g., with every new EDM instance) share the entry of their predecessors.
+   */
+  private static final ConcurrentMap<List<String>, PropertyIndex> INDEXES =
+      new ConcurrentHashMap<List<String>, PropertyIndex>();
+
+  private final String[] names;
+  private final String[] table;
+  private final int[] slots;
+  private final int mask;
+
+  private PropertyIndex(final List<String> propertyNames) {
+    names = propertyNames.toArray(new String[propertyNames.size()]);
+    int capacity = 2;
+    while (capacity < 2 * names.length) {
+      capacity <<= 1;
+    }
+    table = new String[capacity];
+    slots = new int[capacity];
+    mask = capacity - 1;
+    for (int slot = 0; slot < names.length; slot++) {
+      int position = names[slot].hashCode() & mask;
+      while (table[position] != null) {
+        if (table[position].equals(names[slot])) {
+          throw new IllegalArgumentException("Duplicate property name " + names[slot]);
+        }
+        position = (position + 1) & mask;
+      }
+      table[position] = names[slot];
+      slots[position] = slot;
+    }
+  }
+
+  /**
+   * Creates an index for the given property names.
+   * @param propertyNames the property names, in the order of their slots
+   * @return the index
+   */
+  public static PropertyIndex create(final List<String> propertyNames) {
+    return new PropertyIndex(propertyNames);
+  }
+
+  /**
+   * Gets the index of the structural properties of the given type.
+   * The index is created on first request and shared by all types with the same property names;
+   * callers handling many instances of a type should look it up once and reuse it.
+   * @param type the structured type
+   * @return the index
+   */
+  public static PropertyIndex of(final EdmStructuredType type) {
+    final List<String> propertyNames = type.getPropertyNames();
+    PropertyIndex index = INDEXES.get(propertyNames);
+    if (index == null) {
+      index = new PropertyIndex(propertyNames);
+      if (INDEXES.size() < MAX_CACHED_INDEXES) {
+        final PropertyIndex existing = INDEXES.putIfAbsent(index.getNames(), index);
+        if (existing != null) {
+          index = existing;
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Gets the number of slots.
+   * @return the number of slots
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Gets the names of the properties, in the order of their slots.
+   * @return an unmodifiable list of property names
+   */
+  public List<String> getNames() {
+    return Collections.unmodifiableList(Arrays.asList(names));
+  }
+
+  /**
+   * Gets the slot of the property with the given name.
+   * @param name the property name
+   * @return the slot or <code>-1</code> if there is no such property
+   */
+  public int getSlot(final String name) {
+    int position = name.hashCode() & mask;
+    while (table[position] != null) {
+      if (table[position].equals(name)) {
+        return slots[position];
+      }
+      position = (position + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the property with the given name in a list of properties.
+   * <p>The search starts at the slot of the property and proceeds towards the beginning of the list,
+   * where the property is expected if the list follows the order of the slots;
+   * the rest of the list is searched afterwards.</p>
+   * @param properties the properties
+   * @param name the property name
+   * @return the property with given name if found, <code>null</code> otherwise
+   */
+  public Property find(final List<Property> properties, final String name) {
+    final int size = properties.size();
+    final int start = Math.min(getSlot(name), size - 1);
+    for (int position = start; position >= 0; position--) {
+      final Property property = properties.get(position);
+      if (name.equals(property.getName())) {
+        return property;
+      }
+    }
+    for (int position = start + 1; position < size; position++) {
+      final Property property = properties.get(position);
+      if (name.equals(property.getName())) {
+        return property;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(names);
+  }
+}
@@ -18,14 +18,20 @@
  */
 package org.apache.olingo.commons.api.edm.provider;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 /**
  * Super type of all CsdlEdmItems
+ * <br/>
+ * Items are serializable, so that a complete metadata model can be stored and read again without parsing the
+ * metadata document.
  */
-public abstract class CsdlAbstractEdmItem {
+public abstract class CsdlAbstractEdmItem implements Serializable {
+
+  private static final long serialVersionUID = -2749417373574547366L;
 
   /**
    * Gets one by name.
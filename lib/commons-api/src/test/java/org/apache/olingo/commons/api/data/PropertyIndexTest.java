@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.commons.api.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PropertyIndexTest {
+
+  private static final PropertyIndex INDEX = PropertyIndex.create(Arrays.asList("A", "B", "C", "D", "E"));
+
+  @Test
+  public void slots() {
+    assertEquals(5, INDEX.size());
+    assertEquals(0, INDEX.getSlot("A"));
+    assertEquals(4, INDEX.getSlot("E"));
+    assertEquals(-1, INDEX.getSlot("F"));
+    assertEquals(Arrays.asList("A", "B", "C", "D", "E"), INDEX.getNames());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicateName() {
+    PropertyIndex.create(Arrays.asList("A", "B", "A"));
+  }
+
+  @Test
+  public void entity() {
+    Entity entity = new Entity(INDEX);
+    final Property b = new Property(null, "B", ValueType.PRIMITIVE, 1);
+    final Property d = new Property(null, "D", ValueType.PRIMITIVE, 2);
+    final Property e = new Property(null, "E", ValueType.PRIMITIVE, 3);
+    entity.addProperty(b).addProperty(d).addProperty(e);
+    assertSame(b, entity.getProperty("B"));
+    assertSame(d, entity.getProperty("D"));
+    assertSame(e, entity.getProperty("E"));
+    assertNull(entity.getProperty("A"));
+    assertNull(entity.getProperty("X"));
+
+    // Order not following the slots
+    entity.getProperties().add(0, entity.getProperties().remove(2));
+    assertSame(b, entity.getProperty("B"));
+    assertSame(e, entity.getProperty("E"));
+
+    final Property x = new Property(null, "X", ValueType.PRIMITIVE, 4);
+    entity.addProperty(x);
+    assertSame(x, entity.getProperty("X"));
+    assertEquals(new Entity().addProperty(e).addProperty(b).addProperty(d).addProperty(x), entity);
+  }
+
+  @Test
+  public void complexValue() {
+    ComplexValue value = new ComplexValue(INDEX);
+    final Property c = new Property(null, "C", ValueType.PRIMITIVE, 1);
+    final Property a = new Property(null, "A", ValueType.PRIMITIVE, 2);
+    value.getValue().add(c);
+    value.getValue().add(a);
+    assertSame(a, value.getProperty("A"));
+    assertSame(c, value.getProperty("C"));
+    assertNull(value.getProperty("B"));
+
+    ComplexValue plainValue = new ComplexValue();
+    plainValue.getValue().add(c);
+    assertSame(c, plainValue.getProperty("C"));
+  }
+}
@@ -20,9 +20,13 @@ package org.apache.olingo.commons.core.edm;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmAction;
@@ -34,85 +38,172 @@ import org.apache.olingo.commons.api.edm.EdmEnumType;
 import org.apache.olingo.commons.api.edm.EdmFunction;
 import org.apache.olingo.commons.api.edm.EdmParameter;
 import org.apache.olingo.commons.api.edm.EdmSchema;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
 import org.apache.olingo.commons.api.edm.EdmTerm;
 import org.apache.olingo.commons.api.edm.EdmTypeDefinition;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 
+/**
+ * Base implementation of the EDM, caching all model elements once they have been created.
+ * <p>Look-ups are lock-free. Names which could not be found are remembered as well,
+ * so repeated requests for unknown elements do not reach the underlying model again;
+ * elements added later through the <code>cache...</code> methods replace such entries.</p>
+ * <p>After {@link #freeze()} the whole model has been created and further look-ups are served
+ * from the caches only.</p>
+ */
 public abstract class AbstractEdm implements Edm {
 
   protected Map<String, EdmSchema> schemas;
-  protected List<EdmSchema> schemaList;
+  /** Assigned last when the schemas are created; reading it non-null publishes {@link #schemas} as well. */
+  protected volatile List<EdmSchema> schemaList;
+
+  private final LookupCache<FullQualifiedName, EdmEntityContainer> entityContainers =
+      new LookupCache<FullQualifiedName, EdmEntityContainer>();
 
-  private final Map<FullQualifiedName, EdmEntityContainer> entityContainers =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityContainer>());
+  private final LookupCache<FullQualifiedName, EdmEnumType> enumTypes =
+      new LookupCache<FullQualifiedName, EdmEnumType>();
 
-  private final Map<FullQualifiedName, EdmEnumType> enumTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEnumType>());
+  private final LookupCache<FullQualifiedName, EdmTypeDefinition> typeDefinitions =
+      new LookupCache<FullQualifiedName, EdmTypeDefinition>();
 
-  private final Map<FullQualifiedName, EdmTypeDefinition> typeDefinitions =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmTypeDefinition>());
+  private final LookupCache<FullQualifiedName, EdmEntityType> entityTypes =
+      new LookupCache<FullQualifiedName, EdmEntityType>();
 
-  private final Map<FullQualifiedName, EdmEntityType> entityTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+  private final LookupCache<FullQualifiedName, EdmComplexType> complexTypes =
+      new LookupCache<FullQualifiedName, EdmComplexType>();
 
-  private final Map<FullQualifiedName, EdmComplexType> complexTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+  private final LookupCache<FullQualifiedName, EdmAction> unboundActions =
+      new LookupCache<FullQualifiedName, EdmAction>();
 
-  private final Map<FullQualifiedName, EdmAction> unboundActions =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmAction>());
+  private final LookupCache<FullQualifiedName, List<EdmFunction>> unboundFunctionsByName =
+      new LookupCache<FullQualifiedName, List<EdmFunction>>();
 
-  private final Map<FullQualifiedName, List<EdmFunction>> unboundFunctionsByName =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, List<EdmFunction>>());
+  private final LookupCache<FunctionMapKey, EdmFunction> unboundFunctionsByKey =
+      new LookupCache<FunctionMapKey, EdmFunction>();
 
-  private final Map<FunctionMapKey, EdmFunction> unboundFunctionsByKey =
-      Collections.synchronizedMap(new HashMap<FunctionMapKey, EdmFunction>());
+  private final LookupCache<ActionMapKey, EdmAction> boundActions =
+      new LookupCache<ActionMapKey, EdmAction>();
 
-  private final Map<ActionMapKey, EdmAction> boundActions =
-      Collections.synchronizedMap(new HashMap<ActionMapKey, EdmAction>());
+  private final LookupCache<FunctionMapKey, EdmFunction> boundFunctions =
+      new LookupCache<FunctionMapKey, EdmFunction>();
 
-  private final Map<FunctionMapKey, EdmFunction> boundFunctions =
-      Collections.synchronizedMap(new HashMap<FunctionMapKey, EdmFunction>());
+  private final LookupCache<FullQualifiedName, EdmTerm> terms =
+      new LookupCache<FullQualifiedName, EdmTerm>();
 
-  private final Map<FullQualifiedName, EdmTerm> terms =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmTerm>());
+  private final LookupCache<TargetQualifierMapKey, EdmAnnotations> annotationGroups =
+      new LookupCache<TargetQualifierMapKey, EdmAnnotations>();
 
-  private final Map<TargetQualifierMapKey, EdmAnnotations> annotationGroups =
-      Collections.synchronizedMap(new HashMap<TargetQualifierMapKey, EdmAnnotations>());
+  private volatile Map<String, String> aliasToNamespaceInfo = null;
 
-  private Map<String, String> aliasToNamespaceInfo = null;
+  private volatile boolean frozen = false;
 
   @Override
   public List<EdmSchema> getSchemas() {
-    if (schemaList == null) {
+    List<EdmSchema> localSchemaList = schemaList;
+    if (localSchemaList == null) {
       initSchemas();
+      localSchemaList = schemaList;
     }
-    return schemaList;
+    return localSchemaList;
   }
 
   @Override
   public EdmSchema getSchema(final String namespace) {
-    if (schemas == null) {
+    if (schemaList == null) {
       initSchemas();
     }
+    if (namespace == null) {
+      return null;
+    }
 
     EdmSchema schema = schemas.get(namespace);
     if (schema == null) {
-      schema = schemas.get(aliasToNamespaceInfo.get(namespace));
+      final String aliasNamespace = aliasToNamespaceInfo.get(namespace);
+      schema = aliasNamespace == null ? null : schemas.get(aliasNamespace);
     }
     return schema;
   }
 
-  private void initSchemas() {
-    loadAliasToNamespaceInfo();
-    Map<String, EdmSchema> localSchemas = createSchemas();
-    schemas = Collections.synchronizedMap(localSchemas);
-
-    schemaList = Collections.unmodifiableList(new ArrayList<EdmSchema>(schemas.values()));
+  private synchronized void initSchemas() {
+    if (schemaList == null) {
+      loadAliasToNamespaceInfo();
+      final Map<String, EdmSchema> localSchemas = createSchemas();
+      schemas = Collections.unmodifiableMap(new LinkedHashMap<String, EdmSchema>(localSchemas));
+      schemaList = Collections.unmodifiableList(new ArrayList<EdmSchema>(schemas.values()));
+    }
   }
 
   private void loadAliasToNamespaceInfo() {
-    Map<String, String> localAliasToNamespaceInfo = createAliasToNamespaceInfo();
-    aliasToNamespaceInfo = Collections.synchronizedMap(localAliasToNamespaceInfo);
+    final Map<String, String> localAliasToNamespaceInfo = new ConcurrentHashMap<String, String>();
+    for (final Map.Entry<String, String> entry : createAliasToNamespaceInfo().entrySet()) {
+      if (entry.getKey() != null && entry.getValue() != null) {
+        localAliasToNamespaceInfo.put(entry.getKey(), entry.getValue());
+      }
+    }
+    aliasToNamespaceInfo = localAliasToNamespaceInfo;
+  }
+
+  /**
+   * Creates all elements of the model and afterwards serves all look-ups from the caches,
+   * without consulting the underlying model anymore.
+   * <p>All lazily computed information of the structured types, the entity containers,
+   * and the operations is computed as well, so the model can be read concurrently
+   * without any further initialization.
+   * Elements which are not part of a schema are not found after freezing.</p>
+   */
+  public void freeze() {
+    if (frozen) {
+      return;
+    }
+    for (final EdmSchema schema : getSchemas()) {
+      for (final EdmEntityType entityType : schema.getEntityTypes()) {
+        warmUp(entityType);
+        entityType.getKeyPredicateNames();
+        entityType.getKeyPropertyRefs();
+      }
+      for (final EdmComplexType complexType : schema.getComplexTypes()) {
+        warmUp(complexType);
+      }
+      for (final EdmAction action : schema.getActions()) {
+        action.getParameterNames();
+        action.getReturnType();
+      }
+      for (final EdmFunction function : schema.getFunctions()) {
+        function.getParameterNames();
+        function.getReturnType();
+        getUnboundFunctions(new FullQualifiedName(function.getNamespace(), function.getName()));
+      }
+      schema.getEnumTypes();
+      schema.getTypeDefinitions();
+      schema.getTerms();
+      schema.getAnnotationGroups();
+      final EdmEntityContainer container = schema.getEntityContainer();
+      if (container != null) {
+        container.getEntitySets();
+        container.getSingletons();
+        container.getActionImports();
+        container.getFunctionImports();
+      }
+    }
+    getEntityContainer();
+    frozen = true;
+  }
+
+  private void warmUp(final EdmStructuredType type) {
+    type.getBaseType();
+    for (final String name : type.getPropertyNames()) {
+      type.getStructuralProperty(name);
+    }
+    for (final String name : type.getNavigationPropertyNames()) {
+      type.getNavigationProperty(name);
+    }
+  }
+
+  /**
+   * Returns whether {@link #freeze()} has been called.
+   */
+  public boolean isFrozen() {
+    return frozen;
   }
 
   @Override
@@ -124,9 +215,11 @@ public abstract class AbstractEdm implements Edm {
   public EdmEntityContainer getEntityContainer(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
     EdmEntityContainer container = entityContainers.get(fqn);
-    if (container == null) {
+    if (container == null && mayCreate(entityContainers, fqn)) {
       container = createEntityContainer(fqn);
-      if (container != null) {
+      if (container == null) {
+        entityContainers.putMissing(fqn);
+      } else {
         entityContainers.put(fqn, container);
         if (fqn == null) {
           entityContainers.put(new FullQualifiedName(container.getNamespace(), container.getName()), container);
@@ -140,11 +233,8 @@ public abstract class AbstractEdm implements Edm {
   public EdmEnumType getEnumType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
     EdmEnumType enumType = enumTypes.get(fqn);
-    if (enumType == null) {
-      enumType = createEnumType(fqn);
-      if (enumType != null) {
-        enumTypes.put(fqn, enumType);
-      }
+    if (enumType == null && mayCreate(enumTypes, fqn)) {
+      enumType = enumTypes.putResult(fqn, createEnumType(fqn));
     }
     return enumType;
   }
@@ -153,11 +243,8 @@ public abstract class AbstractEdm implements Edm {
   public EdmTypeDefinition getTypeDefinition(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
     EdmTypeDefinition typeDefinition = typeDefinitions.get(fqn);
-    if (typeDefinition == null) {
-      typeDefinition = createTypeDefinition(fqn);
-      if (typeDefinition != null) {
-        typeDefinitions.put(fqn, typeDefinition);
-      }
+    if (typeDefinition == null && mayCreate(typeDefinitions, fqn)) {
+      typeDefinition = typeDefinitions.putResult(fqn, createTypeDefinition(fqn));
     }
     return typeDefinition;
   }
@@ -166,11 +253,8 @@ public abstract class AbstractEdm implements Edm {
   public EdmEntityType getEntityType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
     EdmEntityType entityType = entityTypes.get(fqn);
-    if (entityType == null) {
-      entityType = createEntityType(fqn);
-      if (entityType != null) {
-        entityTypes.put(fqn, entityType);
-      }
+    if (entityType == null && mayCreate(entityTypes, fqn)) {
+      entityType = entityTypes.putResult(fqn, createEntityType(fqn));
     }
     return entityType;
   }
@@ -179,11 +263,8 @@ public abstract class AbstractEdm implements Edm {
   public EdmComplexType getComplexType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
     EdmComplexType complexType = complexTypes.get(fqn);
-    if (complexType == null) {
-      complexType = createComplexType(fqn);
-      if (complexType != null) {
-        complexTypes.put(fqn, complexType);
-      }
+    if (complexType == null && mayCreate(complexTypes, fqn)) {
+      complexType = complexTypes.putResult(fqn, createComplexType(fqn));
     }
     return complexType;
   }
@@ -192,11 +273,8 @@ public abstract class AbstractEdm implements Edm {
   public EdmAction getUnboundAction(final FullQualifiedName actionName) {
     final FullQualifiedName fqn = resolvePossibleAlias(actionName);
     EdmAction action = unboundActions.get(fqn);
-    if (action == null) {
-      action = createUnboundAction(fqn);
-      if (action != null) {
-        unboundActions.put(actionName, action);
-      }
+    if (action == null && mayCreate(unboundActions, fqn)) {
+      action = unboundActions.putResult(fqn, createUnboundAction(fqn));
     }
 
     return action;
@@ -210,11 +288,9 @@ public abstract class AbstractEdm implements Edm {
     final FullQualifiedName bindingParameterTypeFqn = resolvePossibleAlias(bindingParameterTypeName);
     final ActionMapKey key = new ActionMapKey(actionFqn, bindingParameterTypeFqn, isBindingParameterCollection);
     EdmAction action = boundActions.get(key);
-    if (action == null) {
-      action = createBoundAction(actionFqn, bindingParameterTypeFqn, isBindingParameterCollection);
-      if (action != null) {
-        boundActions.put(key, action);
-      }
+    if (action == null && mayCreate(boundActions, key)) {
+      action = boundActions.putResult(key,
+          createBoundAction(actionFqn, bindingParameterTypeFqn, isBindingParameterCollection));
     }
 
     return action;
@@ -225,9 +301,11 @@ public abstract class AbstractEdm implements Edm {
     final FullQualifiedName functionFqn = resolvePossibleAlias(functionName);
 
     List<EdmFunction> functions = unboundFunctionsByName.get(functionFqn);
-    if (functions == null) {
+    if (functions == null && mayCreate(unboundFunctionsByName, functionFqn)) {
       functions = createUnboundFunctions(functionFqn);
-      if (functions != null) {
+      if (functions == null) {
+        unboundFunctionsByName.putMissing(functionFqn);
+      } else {
         unboundFunctionsByName.put(functionFqn, functions);
 
         for (EdmFunction unbound : functions) {
@@ -250,11 +328,8 @@ public abstract class AbstractEdm implements Edm {
 
     final FunctionMapKey key = new FunctionMapKey(functionFqn, null, null, parameterNames);
     EdmFunction function = unboundFunctionsByKey.get(key);
-    if (function == null) {
-      function = createUnboundFunction(functionFqn, parameterNames);
-      if (function != null) {
-        unboundFunctionsByKey.put(key, function);
-      }
+    if (function == null && mayCreate(unboundFunctionsByKey, key)) {
+      function = unboundFunctionsByKey.putResult(key, createUnboundFunction(functionFqn, parameterNames));
     }
 
     return function;
@@ -270,12 +345,9 @@ public abstract class AbstractEdm implements Edm {
     final FunctionMapKey key =
         new FunctionMapKey(functionFqn, bindingParameterTypeFqn, isBindingParameterCollection, parameterNames);
     EdmFunction function = boundFunctions.get(key);
-    if (function == null) {
-      function = createBoundFunction(functionFqn, bindingParameterTypeFqn, isBindingParameterCollection,
-          parameterNames);
-      if (function != null) {
-        boundFunctions.put(key, function);
-      }
+    if (function == null && mayCreate(boundFunctions, key)) {
+      function = boundFunctions.putResult(key, createBoundFunction(functionFqn, bindingParameterTypeFqn,
+          isBindingParameterCollection, parameterNames));
     }
 
     return function;
@@ -285,11 +357,8 @@ public abstract class AbstractEdm implements Edm {
   public EdmTerm getTerm(final FullQualifiedName termName) {
     final FullQualifiedName fqn = resolvePossibleAlias(termName);
     EdmTerm term = terms.get(fqn);
-    if (term == null) {
-      term = createTerm(fqn);
-      if (term != null) {
-        terms.put(fqn, term);
-      }
+    if (term == null && mayCreate(terms, fqn)) {
+      term = terms.putResult(fqn, createTerm(fqn));
     }
     return term;
   }
@@ -299,22 +368,24 @@ public abstract class AbstractEdm implements Edm {
     final FullQualifiedName fqn = resolvePossibleAlias(targetName);
     TargetQualifierMapKey key = new TargetQualifierMapKey(fqn, qualifier);
     EdmAnnotations _annotations = annotationGroups.get(key);
-    if (_annotations == null) {
-      _annotations = createAnnotationGroup(fqn, qualifier);
-      if (_annotations != null) {
-        annotationGroups.put(key, _annotations);
-      }
+    if (_annotations == null && mayCreate(annotationGroups, key)) {
+      _annotations = annotationGroups.putResult(key, createAnnotationGroup(fqn, qualifier));
     }
     return _annotations;
   }
 
+  private <K> boolean mayCreate(final LookupCache<K, ?> cache, final K key) {
+    return !frozen && !cache.isMissing(key);
+  }
+
   private FullQualifiedName resolvePossibleAlias(final FullQualifiedName namespaceOrAliasFQN) {
     if (aliasToNamespaceInfo == null) {
       loadAliasToNamespaceInfo();
     }
     FullQualifiedName finalFQN = null;
     if (namespaceOrAliasFQN != null) {
-      final String namespace = aliasToNamespaceInfo.get(namespaceOrAliasFQN.getNamespace());
+      final String namespace = namespaceOrAliasFQN.getNamespace() == null ? null :
+          aliasToNamespaceInfo.get(namespaceOrAliasFQN.getNamespace());
       // If not contained in info it must be a namespace
       if (namespace == null) {
         finalFQN = namespaceOrAliasFQN;
@@ -330,7 +401,9 @@ public abstract class AbstractEdm implements Edm {
   protected abstract Map<String, String> createAliasToNamespaceInfo();
 
   public void cacheAliasNamespaceInfo(final String alias, final String namespace) {
-    aliasToNamespaceInfo.put(alias, namespace);
+    if (alias != null && namespace != null) {
+      aliasToNamespaceInfo.put(alias, namespace);
+    }
   }
 
   protected abstract EdmEntityContainer createEntityContainer(FullQualifiedName containerName);
@@ -385,10 +458,15 @@ public abstract class AbstractEdm implements Edm {
     if (function.isBound()) {
       boundFunctions.put(key, function);
     } else {
-      if (!unboundFunctionsByName.containsKey(functionName)) {
-        unboundFunctionsByName.put(functionName, new ArrayList<EdmFunction>());
+      List<EdmFunction> functions = unboundFunctionsByName.get(functionName);
+      if (functions == null) {
+        functions = new CopyOnWriteArrayList<EdmFunction>();
+        final List<EdmFunction> previous = unboundFunctionsByName.putIfAbsent(functionName, functions);
+        if (previous != null) {
+          functions = previous;
+        }
       }
-      unboundFunctionsByName.get(functionName).add(function);
+      functions.add(function);
 
       unboundFunctionsByKey.put(key, function);
     }
@@ -452,4 +530,59 @@ public abstract class AbstractEdm implements Edm {
     }
     return functions;
   }
+
+  /**
+   * Concurrent cache of found elements and of keys known to have no element.
+   * The number of remembered missing keys is limited since they can come from arbitrary requests.
+   */
+  private static final class LookupCache<K, V> {
+
+    private static final Object NULL_KEY = new Object();
+    private static final int MAX_MISSING = 1000;
+
+    private final ConcurrentMap<Object, V> values = new ConcurrentHashMap<Object, V>();
+    private final Set<Object> missing = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+
+    V get(final K key) {
+      return values.get(wrap(key));
+    }
+
+    boolean isMissing(final K key) {
+      return missing.contains(wrap(key));
+    }
+
+    void put(final K key, final V value) {
+      final Object wrappedKey = wrap(key);
+      values.put(wrappedKey, value);
+      missing.remove(wrappedKey);
+    }
+
+    V putIfAbsent(final K key, final V value) {
+      final Object wrappedKey = wrap(key);
+      final V previous = values.putIfAbsent(wrappedKey, value);
+      missing.remove(wrappedKey);
+      return previous;
+    }
+
+    void putMissing(final K key) {
+      if (missing.size() >= MAX_MISSING) {
+        missing.clear();
+      }
+      missing.add(wrap(key));
+    }
+
+    /** Caches the result of a creation, which may be <code>null</code>, and returns it. */
+    V putResult(final K key, final V value) {
+      if (value == null) {
+        putMissing(key);
+      } else {
+        put(key, value);
+      }
+      return value;
+    }
+
+    private static Object wrap(final Object key) {
+      return key == null ? NULL_KEY : key;
+    }
+  }
 }
@@ -19,8 +19,6 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import java.util.Calendar;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 
@@ -29,8 +27,6 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
  */
 public final class EdmDate extends SingletonPrimitiveType {
 
-  private static final Pattern PATTERN = Pattern.compile("(-?\\p{Digit}{4,})-(\\p{Digit}{2})-(\\p{Digit}{2})");
-
   private static final EdmDate INSTANCE = new EdmDate();
 
   public static EdmDate getInstance() {
@@ -47,18 +43,24 @@ public final class EdmDate extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
 
-    final Calendar dateTimeValue = Calendar.getInstance();
-    dateTimeValue.clear();
-
-    final Matcher matcher = PATTERN.matcher(value);
-    if (!matcher.matches()) {
+    // The literal is scanned by hand, with the same syntax as -?yyyy-mm-dd with at least four year digits.
+    final int start = value.startsWith("-") ? 1 : 0;
+    final int yearEnd = EdmDateTimeOffset.skipDigits(value, start);
+    final int year = yearEnd - start < 4 ? -1 : EdmDateTimeOffset.parseDigits(value, start, yearEnd - start);
+    final int month = EdmDateTimeOffset.expect(value, yearEnd, '-') ?
+        EdmDateTimeOffset.parseDigits(value, yearEnd + 1, 2) : -1;
+    final int day = EdmDateTimeOffset.expect(value, yearEnd + 3, '-') ?
+        EdmDateTimeOffset.parseDigits(value, yearEnd + 4, 2) : -1;
+    if (year < 0 || month < 0 || day < 0 || yearEnd + 6 != value.length()) {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
     }
 
+    final Calendar dateTimeValue = Calendar.getInstance();
+    dateTimeValue.clear();
     dateTimeValue.set(
-        Integer.parseInt(matcher.group(1)),
-        Byte.parseByte(matcher.group(2)) - 1, // month is zero-based
-        Byte.parseByte(matcher.group(3)));
+        start == 1 ? -year : year,
+        month - 1, // month is zero-based
+        day);
 
     try {
       return EdmDateTimeOffset.convertDateTime(dateTimeValue, 0, returnType);
@@ -23,8 +23,8 @@ import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 
@@ -33,10 +33,10 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
  */
 public final class EdmDateTimeOffset extends SingletonPrimitiveType {
 
-  private static final Pattern PATTERN = Pattern.compile(
-      "(-?\\p{Digit}{4,})-(\\p{Digit}{2})-(\\p{Digit}{2})"
-          + "T(\\p{Digit}{2}):(\\p{Digit}{2})(?::(\\p{Digit}{2})(\\.(\\p{Digit}{0,12}?)0*)?)?"
-          + "(Z|([-+]\\p{Digit}{2}:\\p{Digit}{2}))?");
+  private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
+
+  /** Time zones with a fixed offset, by offset in minutes; they are cloned before use since they are mutable. */
+  private static final ConcurrentMap<Integer, TimeZone> TIME_ZONES = new ConcurrentHashMap<Integer, TimeZone>();
 
   private static final EdmDateTimeOffset INSTANCE = new EdmDateTimeOffset();
 
@@ -54,53 +54,56 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
 
-    final Matcher matcher = PATTERN.matcher(value);
-    if (!matcher.matches()) {
-      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+    // The literal is scanned by hand, with the same syntax as
+    // -?yyyy-mm-ddThh:mm(:ss(.fffffffffffff)?)?(Z|[-+]hh:mm)? with at least four year digits.
+    final int length = value.length();
+    int pos = value.startsWith("-") ? 1 : 0;
+    final int yearEnd = skipDigits(value, pos);
+    final int year = yearEnd - pos < 4 ? -1 : parseDigits(value, pos, yearEnd - pos);
+    pos = yearEnd;
+    final int month = expect(value, pos, '-') ? parseDigits(value, pos + 1, 2) : -1;
+    final int day = expect(value, pos + 3, '-') ? parseDigits(value, pos + 4, 2) : -1;
+    pos += 6;
+    final int hour = expect(value, pos, 'T') ? parseDigits(value, pos + 1, 2) : -1;
+    final int minute = expect(value, pos + 3, ':') ? parseDigits(value, pos + 4, 2) : -1;
+    pos += 6;
+    int second = 0;
+    int fractionStart = -1;
+    int fractionEnd = -1;
+    if (expect(value, pos, ':')) {
+      second = parseDigits(value, pos + 1, 2);
+      pos += 3;
+      if (expect(value, pos, '.')) {
+        fractionStart = pos + 1;
+        fractionEnd = skipDigits(value, fractionStart);
+        pos = fractionEnd;
+      }
     }
-
-    final String timeZoneOffset = matcher.group(9) == null || matcher.group(10) == null
-        || matcher.group(10).matches("[-+]0+:0+") ? "" : matcher.group(10);
-    final Calendar dateTimeValue = Calendar.getInstance(TimeZone.getTimeZone("GMT" + timeZoneOffset));
-    if (dateTimeValue.get(Calendar.ZONE_OFFSET) == 0 && !timeZoneOffset.isEmpty()) {
+    boolean validOffset = true;
+    int offsetInMinutes = 0;
+    if (expect(value, pos, 'Z')) {
+      pos++;
+    } else if ((expect(value, pos, '+') || expect(value, pos, '-')) && expect(value, pos + 3, ':')) {
+      final int offsetHours = parseDigits(value, pos + 1, 2);
+      final int offsetMinutes = parseDigits(value, pos + 4, 2);
+      // The same offsets as for custom time-zone IDs are allowed.
+      validOffset = offsetHours >= 0 && offsetHours <= 23 && offsetMinutes >= 0 && offsetMinutes <= 59;
+      offsetInMinutes = (value.charAt(pos) == '-' ? -1 : 1) * (offsetHours * 60 + offsetMinutes);
+      pos += 6;
+    }
+    if (year < 0 || year > Short.MAX_VALUE || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0
+        || !validOffset || pos != length) {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
     }
+
+    final Calendar dateTimeValue = Calendar.getInstance(getTimeZone(offsetInMinutes));
     dateTimeValue.clear();
+    dateTimeValue.set(value.charAt(0) == '-' ? -year : year,
+        month - 1, // month is zero-based
+        day, hour, minute, second);
 
-    dateTimeValue.set(
-        Short.parseShort(matcher.group(1)),
-        Byte.parseByte(matcher.group(2)) - 1, // month is zero-based
-        Byte.parseByte(matcher.group(3)),
-        Byte.parseByte(matcher.group(4)),
-        Byte.parseByte(matcher.group(5)),
-        matcher.group(6) == null ? 0 : Byte.parseByte(matcher.group(6)));
-
-    int nanoSeconds = 0;
-    if (matcher.group(7) != null) {
-      if (matcher.group(7).length() == 1 || matcher.group(7).length() > 13) {
-        throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
-      }
-      final String decimals = matcher.group(8);
-      if (decimals.length() > (precision == null ? 0 : precision)) {
-        throw new EdmPrimitiveTypeException("The literal '" + value + "' does not match the facets' constraints.");
-      }
-      if (returnType.isAssignableFrom(Timestamp.class)) {
-        if (decimals.length() <= 9) {
-          nanoSeconds = Integer.parseInt(decimals + "000000000".substring(decimals.length()));
-        } else {
-          throw new EdmPrimitiveTypeException("The literal '" + value
-              + "' cannot be converted to value type " + returnType + ".");
-        }
-      } else {
-        if (decimals.length() <= 3) {
-          final String milliSeconds = decimals + "000".substring(decimals.length());
-          dateTimeValue.set(Calendar.MILLISECOND, Short.parseShort(milliSeconds));
-        } else {
-          throw new EdmPrimitiveTypeException("The literal '" + value
-              + "' cannot be converted to value type " + returnType + ".");
-        }
-      }
-    }
+    final int nanoSeconds = fractionStart < 0 ? 0 :
+        parseFractionalSeconds(value, fractionStart, fractionEnd, precision, returnType, dateTimeValue);
 
     try {
       return convertDateTime(dateTimeValue, nanoSeconds, returnType);
@@ -172,7 +175,7 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
 
     final Calendar dateTimeValue = createDateTime(value, false);
 
-    StringBuilder result = new StringBuilder();
+    final StringBuilder result = new StringBuilder(29); // enough for milliseconds and a time-zone offset
     final int year = dateTimeValue.get(Calendar.YEAR);
     appendTwoDigits(result, year / 100);
     appendTwoDigits(result, year % 100);
@@ -198,10 +201,11 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
 
     final int offsetInMinutes = (dateTimeValue.get(Calendar.ZONE_OFFSET)
         + dateTimeValue.get(Calendar.DST_OFFSET)) / 60 / 1000;
-    final int offsetHours = offsetInMinutes / 60;
-    final int offsetMinutes = Math.abs(offsetInMinutes % 60);
-    final String offsetString = offsetInMinutes == 0 ? "Z" : String.format("%+03d:%02d", offsetHours, offsetMinutes);
-    result.append(offsetString);
+    if (offsetInMinutes == 0) {
+      result.append('Z');
+    } else {
+      appendOffset(result, offsetInMinutes);
+    }
 
     return result.toString();
   }
@@ -217,12 +221,12 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
   protected static <T> Calendar createDateTime(final T value, final boolean isLocal) throws EdmPrimitiveTypeException {
     Calendar dateTimeValue;
     if (value instanceof Date) {
-      dateTimeValue = Calendar.getInstance(isLocal ? TimeZone.getDefault() : TimeZone.getTimeZone("GMT"));
+      dateTimeValue = Calendar.getInstance(isLocal ? TimeZone.getDefault() : getTimeZone(0));
       dateTimeValue.setTime((Date) value);
     } else if (value instanceof Calendar) {
       dateTimeValue = (Calendar) ((Calendar) value).clone();
     } else if (value instanceof Long) {
-      dateTimeValue = Calendar.getInstance(isLocal ? TimeZone.getDefault() : TimeZone.getTimeZone("GMT"));
+      dateTimeValue = Calendar.getInstance(isLocal ? TimeZone.getDefault() : getTimeZone(0));
       dateTimeValue.setTimeInMillis((Long) value);
     } else {
       throw new EdmPrimitiveTypeException("The value type " + value.getClass() + " is not supported.");
@@ -230,6 +234,115 @@ public final class EdmDateTimeOffset extends SingletonPrimitiveType {
     return dateTimeValue;
   }
 
+  /**
+   * Gets a time zone with the given fixed offset from GMT, without the look-up by ID for every value.
+   *
+   * @param offsetInMinutes offset in minutes; zero for GMT
+   * @return a new time-zone instance
+   */
+  protected static TimeZone getTimeZone(final int offsetInMinutes) {
+    if (offsetInMinutes == 0) {
+      return (TimeZone) GMT.clone();
+    }
+    TimeZone timeZone = TIME_ZONES.get(offsetInMinutes);
+    if (timeZone == null) {
+      final StringBuilder id = new StringBuilder("GMT");
+      appendOffset(id, offsetInMinutes);
+      timeZone = TimeZone.getTimeZone(id.toString());
+      TIME_ZONES.putIfAbsent(offsetInMinutes, timeZone);
+    }
+    return (TimeZone) timeZone.clone();
+  }
+
+  private static void appendOffset(final StringBuilder result, final int offsetInMinutes) {
+    result.append(offsetInMinutes < 0 ? '-' : '+');
+    appendTwoDigits(result, Math.abs(offsetInMinutes) / 60);
+    result.append(':');
+    appendTwoDigits(result, Math.abs(offsetInMinutes) % 60);
+  }
+
+  /**
+   * Checks whether the given value has the given character at the given position.
+   */
+  protected static boolean expect(final String value, final int pos, final char c) {
+    return pos < value.length() && value.charAt(pos) == c;
+  }
+
+  /**
+   * Finds the end of the sequence of decimal digits starting at the given position.
+   *
+   * @return the position of the first character after the digits
+   */
+  protected static int skipDigits(final String value, final int start) {
+    int pos = start;
+    while (pos < value.length() && value.charAt(pos) >= '0' && value.charAt(pos) <= '9') {
+      pos++;
+    }
+    return pos;
+  }
+
+  /**
+   * Parses the given number of decimal digits starting at the given position, without creating substrings.
+   *
+   * @param count number of digits, at most nine
+   * @return the non-negative number, or -1 if not all characters are decimal digits
+   */
+  protected static int parseDigits(final String value, final int start, final int count) {
+    if (start < 0 || count > 9 || start + count > value.length()) {
+      return -1;
+    }
+    int result = 0;
+    for (int pos = start; pos < start + count; pos++) {
+      final char c = value.charAt(pos);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+
+  /**
+   * Parses the fractional seconds found between the given positions of the literal.
+   * <br/>
+   * Up to twelve digits are allowed; trailing zeroes do not count against the precision. For return types that
+   * can hold a {@link Timestamp}, nanoseconds are returned; otherwise the milliseconds are set in the given
+   * {@link Calendar}.
+   *
+   * @return nanoseconds, or zero if the milliseconds have been set
+   * @throws EdmPrimitiveTypeException if the literal is not valid or cannot be represented in the return type
+   */
+  protected static int parseFractionalSeconds(final String value, final int start, final int end,
+      final Integer precision, final Class<?> returnType, final Calendar dateTimeValue)
+      throws EdmPrimitiveTypeException {
+    if (end == start || end - start > 12) {
+      throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+    }
+    int significantEnd = end;
+    while (significantEnd > start && value.charAt(significantEnd - 1) == '0') {
+      significantEnd--;
+    }
+    final int decimals = significantEnd - start;
+    if (decimals > (precision == null ? 0 : precision)) {
+      throw new EdmPrimitiveTypeException("The literal '" + value + "' does not match the facets' constraints.");
+    }
+    final int maxDecimals = returnType.isAssignableFrom(Timestamp.class) ? 9 : 3;
+    if (decimals > maxDecimals) {
+      throw new EdmPrimitiveTypeException("The literal '" + value
+          + "' cannot be converted to value type " + returnType + ".");
+    }
+    int fraction = parseDigits(value, start, decimals);
+    for (int digits = decimals; digits < maxDecimals; digits++) {
+      fraction *= 10;
+    }
+    if (maxDecimals == 9) {
+      return fraction;
+    } else {
+      dateTimeValue.set(Calendar.MILLISECOND, fraction);
+      return 0;
+    }
+  }
+
   /**
    * Appends the given number to the given string builder, assuming that the number has at most two digits,
    * performance-optimized.
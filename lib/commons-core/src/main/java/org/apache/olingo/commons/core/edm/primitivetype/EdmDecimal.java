@@ -20,8 +20,6 @@ package org.apache.olingo.commons.core.edm.primitivetype;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
@@ -31,8 +29,6 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
  */
 public final class EdmDecimal extends SingletonPrimitiveType {
 
-  private static final Pattern PATTERN = Pattern.compile("(?:\\+|-)?(?:0*(\\p{Digit}+?))(?:\\.(\\p{Digit}+?)0*)?");
-
   private static final EdmDecimal INSTANCE = new EdmDecimal();
 
   public static EdmDecimal getInstance() {
@@ -61,24 +57,58 @@ public final class EdmDecimal extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode) {
 
-    return value == null
-        ? isNullable == null || isNullable
-        : validateLiteral(value) && validatePrecisionAndScale(value, precision, scale);
+    if (value == null) {
+      return isNullable == null || isNullable;
+    }
+    final int[] digits = scanLiteral(value);
+    return digits != null && validatePrecisionAndScale(digits, precision, scale);
   }
 
-  private static boolean validateLiteral(final String value) {
-    return PATTERN.matcher(value).matches();
+  /**
+   * Scans a literal of the form [+-]digits[.digits] by hand.
+   *
+   * @return the numbers of significant integer digits and of decimals without trailing zeroes (but at least one if
+   * there is a decimal point), or <code>null</code> if the literal is not valid
+   */
+  private static int[] scanLiteral(final String value) {
+    final int length = value.length();
+    int pos = 0;
+    if (pos < length && (value.charAt(pos) == '+' || value.charAt(pos) == '-')) {
+      pos++;
+    }
+    final int integerStart = pos;
+    int significantStart = -1;
+    for (; pos < length && value.charAt(pos) >= '0' && value.charAt(pos) <= '9'; pos++) {
+      if (significantStart < 0 && value.charAt(pos) != '0') {
+        significantStart = pos;
+      }
+    }
+    if (pos == integerStart) {
+      return null;
+    }
+    final int significantIntegerDigits = significantStart < 0 ? 0 : pos - significantStart;
+
+    int decimals = 0;
+    if (pos < length && value.charAt(pos) == '.') {
+      final int fractionStart = ++pos;
+      int significantEnd = fractionStart + 1;
+      for (; pos < length && value.charAt(pos) >= '0' && value.charAt(pos) <= '9'; pos++) {
+        if (value.charAt(pos) != '0') {
+          significantEnd = pos + 1;
+        }
+      }
+      if (pos == fractionStart) {
+        return null;
+      }
+      decimals = significantEnd - fractionStart;
+    }
+    return pos == length ? new int[] { significantIntegerDigits, decimals } : null;
   }
 
-  private static boolean validatePrecisionAndScale(final String value, final Integer precision,
+  private static boolean validatePrecisionAndScale(final int[] digits, final Integer precision,
       final Integer scale) {
-
-    final Matcher matcher = PATTERN.matcher(value);
-    matcher.matches();
-    final int significantIntegerDigits = matcher.group(1).equals("0") ? 0 : matcher.group(1).length();
-    final int decimals = matcher.group(2) == null ? 0 : matcher.group(2).length();
-    return (precision == null || precision >= significantIntegerDigits + decimals)
-        && (decimals <= (scale == null ? 0 : scale));
+    return (precision == null || precision >= digits[0] + digits[1])
+        && (digits[1] <= (scale == null ? 0 : scale));
   }
 
   @Override
@@ -86,10 +116,11 @@ public final class EdmDecimal extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
 
-    if (!validateLiteral(value)) {
+    final int[] digits = scanLiteral(value);
+    if (digits == null) {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
     }
-    if (!validatePrecisionAndScale(value, precision, scale)) {
+    if (!validatePrecisionAndScale(digits, precision, scale)) {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' does not match the facets' constraints.");
     }
 
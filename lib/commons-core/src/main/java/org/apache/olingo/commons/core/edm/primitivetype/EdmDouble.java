@@ -19,7 +19,6 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import java.math.BigDecimal;
-import java.util.regex.Pattern;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
@@ -35,8 +34,11 @@ public final class EdmDouble extends SingletonPrimitiveType {
 
   protected static final String NaN = "NaN";
 
-  private static final Pattern PATTERN = Pattern.compile(
-      "(?:\\+|-)?\\p{Digit}{1,17}(?:\\.\\p{Digit}{1,17})?(?:(?:E|e)(?:\\+|-)?\\p{Digit}{1,3})?");
+  /**
+   * Number of significant decimal digits which survive the round trip through a double value; literals with not
+   * more digits are converted without going through {@link BigDecimal}.
+   */
+  private static final int EXACT_DIGITS = 15;
 
   private static final EdmDouble INSTANCE = new EdmDouble();
 
@@ -76,17 +78,31 @@ public final class EdmDouble extends SingletonPrimitiveType {
       result = Double.NaN;
     } else {
       // Now only "normal" numbers remain.
-      if (!PATTERN.matcher(value).matches()) {
+      final int significantDigits = scanLiteral(value, 17, 3);
+      if (significantDigits < 0) {
         throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
       }
 
-      // The number format is checked above, so we don't have to catch NumberFormatException.
-      bigDecimalValue = new BigDecimal(value);
-      result = bigDecimalValue.doubleValue();
-      // "Real" infinite values have been treated already above, so we can throw an exception
-      // if the conversion to a double results in an infinite value.
-      if (result.isInfinite() || BigDecimal.valueOf(result).compareTo(bigDecimalValue) != 0) {
-        throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+      if (significantDigits <= EXACT_DIGITS && returnType.isAssignableFrom(Double.class)) {
+        // The number format is checked above, so we don't have to catch NumberFormatException.
+        final double doubleValue = Double.parseDouble(value);
+        // Values outside the normal range lose digits or are infinite.
+        if (significantDigits == 0) {
+          result = 0.0;
+        } else if (Math.abs(doubleValue) >= Double.MIN_NORMAL && !Double.isInfinite(doubleValue)) {
+          result = doubleValue;
+        } else {
+          throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+        }
+      } else {
+        // The number format is checked above, so we don't have to catch NumberFormatException.
+        bigDecimalValue = new BigDecimal(value);
+        result = bigDecimalValue.doubleValue();
+        // "Real" infinite values have been treated already above, so we can throw an exception
+        // if the conversion to a double results in an infinite value.
+        if (result.isInfinite() || BigDecimal.valueOf(result).compareTo(bigDecimalValue) != 0) {
+          throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+        }
       }
     }
 
@@ -111,6 +127,54 @@ public final class EdmDouble extends SingletonPrimitiveType {
     }
   }
 
+  /**
+   * Scans a literal of the form [+-]digits[.digits][(E|e)[+-]digits] by hand.
+   *
+   * @param maxDigits maximum number of digits before and after the decimal point, respectively
+   * @param maxExponentDigits maximum number of exponent digits
+   * @return the number of mantissa digits without leading zeroes, or -1 if the literal is not valid
+   */
+  protected static int scanLiteral(final String value, final int maxDigits, final int maxExponentDigits) {
+    final int length = value.length();
+    int pos = 0;
+    if (pos < length && (value.charAt(pos) == '+' || value.charAt(pos) == '-')) {
+      pos++;
+    }
+    int significantDigits = 0;
+    int start = pos;
+    for (; pos < length && value.charAt(pos) >= '0' && value.charAt(pos) <= '9'; pos++) {
+      if (significantDigits > 0 || value.charAt(pos) != '0') {
+        significantDigits++;
+      }
+    }
+    if (pos == start || pos - start > maxDigits) {
+      return -1;
+    }
+    if (pos < length && value.charAt(pos) == '.') {
+      start = ++pos;
+      for (; pos < length && value.charAt(pos) >= '0' && value.charAt(pos) <= '9'; pos++) {
+        if (significantDigits > 0 || value.charAt(pos) != '0') {
+          significantDigits++;
+        }
+      }
+      if (pos == start || pos - start > maxDigits) {
+        return -1;
+      }
+    }
+    if (pos < length && (value.charAt(pos) == 'E' || value.charAt(pos) == 'e')) {
+      pos++;
+      if (pos < length && (value.charAt(pos) == '+' || value.charAt(pos) == '-')) {
+        pos++;
+      }
+      start = pos;
+      pos = EdmDateTimeOffset.skipDigits(value, pos);
+      if (pos == start || pos - start > maxExponentDigits) {
+        return -1;
+      }
+    }
+    return pos == length ? significantDigits : -1;
+  }
+
   @Override
   protected <T> String internalValueToString(final T value,
       final Boolean isNullable, final Integer maxLength, final Integer precision,
@@ -27,8 +27,6 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
  */
 public final class EdmGuid extends SingletonPrimitiveType {
 
-  private static final String PATTERN = "\\p{XDigit}{8}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{12}";
-
   private static final EdmGuid INSTANCE = new EdmGuid();
 
   public static EdmGuid getInstance() {
@@ -48,7 +46,33 @@ public final class EdmGuid extends SingletonPrimitiveType {
   }
 
   private boolean validateLiteral(final String value) {
-    return value.matches(PATTERN);
+    if (value.length() != 36) {
+      return false;
+    }
+    for (int pos = 0; pos < 36; pos++) {
+      final char c = value.charAt(pos);
+      if (pos == 8 || pos == 13 || pos == 18 || pos == 23 ? c != '-' : hexDigit(c) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int hexDigit(final char c) {
+    return c >= '0' && c <= '9' ? c - '0'
+        : c >= 'a' && c <= 'f' ? c - 'a' + 10
+            : c >= 'A' && c <= 'F' ? c - 'A' + 10 : -1;
+  }
+
+  /**
+   * Parses the hexadecimal digits between the given positions of a validated literal.
+   */
+  private long parseHex(final String value, final int start, final int end) {
+    long result = 0;
+    for (int pos = start; pos < end; pos++) {
+      result = result << 4 | hexDigit(value.charAt(pos));
+    }
+    return result;
   }
 
   @Override
@@ -59,7 +83,9 @@ public final class EdmGuid extends SingletonPrimitiveType {
 
     UUID result;
     if (validateLiteral(value)) {
-      result = UUID.fromString(value);
+      result = new UUID(
+          parseHex(value, 0, 8) << 32 | parseHex(value, 9, 13) << 16 | parseHex(value, 14, 18),
+          parseHex(value, 19, 23) << 48 | parseHex(value, 24, 36));
     } else {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
     }
@@ -19,7 +19,6 @@
 package org.apache.olingo.commons.core.edm.primitivetype;
 
 import java.math.BigDecimal;
-import java.util.regex.Pattern;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
@@ -29,8 +28,11 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
  */
 public final class EdmSingle extends SingletonPrimitiveType {
 
-  private static final Pattern PATTERN = Pattern.compile(
-      "(?:\\+|-)?\\p{Digit}{1,9}(?:\\.\\p{Digit}{1,9})?(?:(?:E|e)(?:\\+|-)?\\p{Digit}{1,2})?");
+  /**
+   * Number of significant decimal digits which survive the round trip through a float value; literals with not
+   * more digits are converted without going through {@link BigDecimal}.
+   */
+  private static final int EXACT_DIGITS = 6;
 
   private static final EdmSingle INSTANCE = new EdmSingle();
 
@@ -69,17 +71,31 @@ public final class EdmSingle extends SingletonPrimitiveType {
       result = Float.NaN;
     } else {
       // Now only "normal" numbers remain.
-      if (!PATTERN.matcher(value).matches()) {
+      final int significantDigits = EdmDouble.scanLiteral(value, 9, 2);
+      if (significantDigits < 0) {
         throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
       }
 
-      // The number format is checked above, so we don't have to catch NumberFormatException.
-      bigDecimalValue = new BigDecimal(value);
-      result = bigDecimalValue.floatValue();
-      // "Real" infinite values have been treated already above, so we can throw an exception
-      // if the conversion to a float results in an infinite value.
-      if (result.isInfinite() || bigDecimalValue.compareTo(new BigDecimal(result.toString())) != 0) {
-        throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+      if (significantDigits <= EXACT_DIGITS && returnType.isAssignableFrom(Float.class)) {
+        // The number format is checked above, so we don't have to catch NumberFormatException.
+        final float floatValue = Float.parseFloat(value);
+        // Values outside the normal range lose digits or are infinite.
+        if (significantDigits == 0) {
+          result = 0.0F;
+        } else if (Math.abs(floatValue) >= Float.MIN_NORMAL && !Float.isInfinite(floatValue)) {
+          result = floatValue;
+        } else {
+          throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+        }
+      } else {
+        // The number format is checked above, so we don't have to catch NumberFormatException.
+        bigDecimalValue = new BigDecimal(value);
+        result = bigDecimalValue.floatValue();
+        // "Real" infinite values have been treated already above, so we can throw an exception
+        // if the conversion to a float results in an infinite value.
+        if (result.isInfinite() || bigDecimalValue.compareTo(new BigDecimal(result.toString())) != 0) {
+          throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
+        }
       }
     }
 
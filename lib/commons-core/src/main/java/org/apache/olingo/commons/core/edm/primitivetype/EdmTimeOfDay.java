@@ -20,16 +20,11 @@ package org.apache.olingo.commons.core.edm.primitivetype;
 
 import java.sql.Timestamp;
 import java.util.Calendar;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 
 public final class EdmTimeOfDay extends SingletonPrimitiveType {
 
-  private static final Pattern PATTERN = Pattern.compile(
-      "(\\p{Digit}{2}):(\\p{Digit}{2})(?::(\\p{Digit}{2})(\\.(\\p{Digit}{0,}?)0*)?)?");
-
   private static final EdmTimeOfDay INSTANCE = new EdmTimeOfDay();
 
   public static EdmTimeOfDay getInstance() {
@@ -46,43 +41,32 @@ public final class EdmTimeOfDay extends SingletonPrimitiveType {
       final Boolean isNullable, final Integer maxLength, final Integer precision,
       final Integer scale, final Boolean isUnicode, final Class<T> returnType) throws EdmPrimitiveTypeException {
 
-    final Matcher matcher = PATTERN.matcher(value);
-    if (!matcher.matches()) {
+    // The literal is scanned by hand, with the same syntax as hh:mm(:ss(.fffffffffffff)?)?.
+    final int hour = EdmDateTimeOffset.parseDigits(value, 0, 2);
+    final int minute = EdmDateTimeOffset.expect(value, 2, ':') ? EdmDateTimeOffset.parseDigits(value, 3, 2) : -1;
+    int second = 0;
+    int pos = 5;
+    int fractionStart = -1;
+    if (EdmDateTimeOffset.expect(value, pos, ':')) {
+      second = EdmDateTimeOffset.parseDigits(value, pos + 1, 2);
+      pos += 3;
+      if (EdmDateTimeOffset.expect(value, pos, '.')) {
+        fractionStart = pos + 1;
+        pos = EdmDateTimeOffset.skipDigits(value, fractionStart);
+      }
+    }
+    if (hour < 0 || minute < 0 || second < 0 || pos != value.length()) {
       throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
     }
 
     final Calendar dateTimeValue = Calendar.getInstance();
     dateTimeValue.clear();
-    dateTimeValue.set(Calendar.HOUR_OF_DAY, Byte.parseByte(matcher.group(1)));
-    dateTimeValue.set(Calendar.MINUTE, Byte.parseByte(matcher.group(2)));
-    dateTimeValue.set(Calendar.SECOND, matcher.group(3) == null ? 0 : Byte.parseByte(matcher.group(3)));
-
-    int nanoSeconds = 0;
-    if (matcher.group(4) != null) {
-      if (matcher.group(4).length() == 1 || matcher.group(4).length() > 13) {
-        throw new EdmPrimitiveTypeException("The literal '" + value + "' has illegal content.");
-      }
-      final String decimals = matcher.group(5);
-      if (decimals.length() > (precision == null ? 0 : precision)) {
-        throw new EdmPrimitiveTypeException("The literal '" + value + "' does not match the facets' constraints.");
-      }
-      if (returnType.isAssignableFrom(Timestamp.class)) {
-        if (decimals.length() <= 9) {
-          nanoSeconds = Integer.parseInt(decimals + "000000000".substring(decimals.length()));
-        } else {
-          throw new EdmPrimitiveTypeException("The literal '" + value
-              + "' cannot be converted to value type " + returnType + ".");
-        }
-      } else {
-        if (decimals.length() <= 3) {
-          final String milliSeconds = decimals + "000".substring(decimals.length());
-          dateTimeValue.set(Calendar.MILLISECOND, Short.parseShort(milliSeconds));
-        } else {
-          throw new EdmPrimitiveTypeException("The literal '" + value
-              + "' cannot be converted to value type " + returnType + ".");
-        }
-      }
-    }
+    dateTimeValue.set(Calendar.HOUR_OF_DAY, hour);
+    dateTimeValue.set(Calendar.MINUTE, minute);
+    dateTimeValue.set(Calendar.SECOND, second);
+
+    final int nanoSeconds = fractionStart < 0 ? 0 : EdmDateTimeOffset.parseFractionalSeconds(
+        value, fractionStart, pos, precision, returnType, dateTimeValue);
 
     try {
       return EdmDateTimeOffset.convertDateTime(dateTimeValue, nanoSeconds, returnType);
@@ -100,7 +84,7 @@ public final class EdmTimeOfDay extends SingletonPrimitiveType {
 
     final Calendar dateTimeValue = EdmDateTimeOffset.createDateTime(value, true);
 
-    StringBuilder result = new StringBuilder();
+    final StringBuilder result = new StringBuilder(18); // enough for nanoseconds
     EdmDateTimeOffset.appendTwoDigits(result, dateTimeValue.get(Calendar.HOUR_OF_DAY));
     result.append(':');
     EdmDateTimeOffset.appendTwoDigits(result, dateTimeValue.get(Calendar.MINUTE));
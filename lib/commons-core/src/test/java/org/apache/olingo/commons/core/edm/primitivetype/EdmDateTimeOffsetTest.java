@@ -118,6 +118,11 @@ public class EdmDateTimeOffsetTest extends PrimitiveTypeBaseTest {
     dateTime.set(2012, 1, 29, 1, 2, 3);
     assertEquals(dateTime, instance.valueOfString("2012-02-29T01:02:03+11:00", null, null, null, null, null,
         Calendar.class));
+    // The time zone of a returned value must not be shared.
+    instance.valueOfString("2012-02-29T01:02:03+11:00", null, null, null, null, null, Calendar.class)
+        .getTimeZone().setRawOffset(0);
+    assertEquals(dateTime, instance.valueOfString("2012-02-29T01:02:03+11:00", null, null, null, null, null,
+        Calendar.class));
 
     dateTime.add(Calendar.MILLISECOND, 7);
     assertEquals(dateTime, instance.valueOfString("2012-02-29T01:02:03.007+11:00", null, null, 3, null, null,
@@ -143,6 +148,12 @@ public class EdmDateTimeOffsetTest extends PrimitiveTypeBaseTest {
     expectFacetsErrorInValueOfString(instance, "2012-02-29T23:32:02.9Z", null, null, 0, null, null);
     expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02X");
     expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02+24:00");
+    expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02+01:60");
+    expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02+1:00");
+    expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02Z+01:00");
+    expectContentErrorInValueOfString(instance, "2012-02-29T23:3");
+    expectContentErrorInValueOfString(instance, "40000-02-29T23:32:02Z");
+    expectContentErrorInValueOfString(instance, "2012-02-29T\u0662\u0663:32:02Z");
     expectContentErrorInValueOfString(instance, "2012-02-30T01:02:03");
     expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02.");
     expectContentErrorInValueOfString(instance, "2012-02-29T23:32:02.0000000000000");
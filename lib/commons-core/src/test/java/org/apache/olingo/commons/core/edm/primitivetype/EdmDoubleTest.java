@@ -103,6 +103,9 @@ public class EdmDoubleTest extends PrimitiveTypeBaseTest {
     expectContentErrorInValueOfString(instance, ".0");
     expectContentErrorInValueOfString(instance, "1234567890.12345678");
     expectContentErrorInValueOfString(instance, "42E400");
+    expectContentErrorInValueOfString(instance, "1E-320");
+    expectContentErrorInValueOfString(instance, "42E");
+    expectContentErrorInValueOfString(instance, "42E+1234");
     expectContentErrorInValueOfString(instance, "42.42.42");
     expectContentErrorInValueOfString(instance, "42F");
     expectContentErrorInValueOfString(instance, "0x42P42");
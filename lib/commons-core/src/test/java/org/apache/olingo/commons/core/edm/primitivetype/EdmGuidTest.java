@@ -62,6 +62,9 @@ public class EdmGuidTest extends PrimitiveTypeBaseTest {
         UUID.class));
 
     expectContentErrorInValueOfString(instance, "AABBCCDDAABBCCDDEEFFAABBCCDDEEFF");
+    expectContentErrorInValueOfString(instance, "AABBCCDD-AABB-CCDD-EEFF-AABBCCDDEEF");
+    expectContentErrorInValueOfString(instance, "AABBCCDD-AABB-CCDD-EEFF-AABBCCDDEEFG");
+    expectContentErrorInValueOfString(instance, "AABBCCDD-AABB-CCDD-EEFF-AABBCCDDEE\u0663\u0664");
 
     expectTypeErrorInValueOfString(instance, uuid.toString());
   }
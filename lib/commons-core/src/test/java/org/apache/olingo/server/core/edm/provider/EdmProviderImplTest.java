@@ -21,13 +21,19 @@ package org.apache.olingo.server.core.edm.provider;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.olingo.commons.api.ex.ODataException;
@@ -48,6 +54,7 @@ import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
 import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
 import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
 import org.apache.olingo.commons.core.edm.EdmProviderImpl;
 import org.junit.Before;
@@ -107,6 +114,38 @@ public class EdmProviderImplTest {
     localEdm.getTypeDefinition(FQN);
   }
 
+  @Test
+  public void missingElementsAreCached() throws Exception {
+    CsdlEdmProvider localProvider = mock(CsdlEdmProvider.class);
+    Edm localEdm = new EdmProviderImpl(localProvider);
+    assertNull(localEdm.getEntityType(WRONG_FQN));
+    assertNull(localEdm.getEntityType(WRONG_FQN));
+    assertNull(localEdm.getComplexType(WRONG_FQN));
+    assertNull(localEdm.getComplexType(WRONG_FQN));
+    verify(localProvider, times(1)).getEntityType(WRONG_FQN);
+    verify(localProvider, times(1)).getComplexType(WRONG_FQN);
+  }
+
+  @Test
+  public void freeze() throws Exception {
+    CsdlEdmProvider localProvider = mock(CsdlEdmProvider.class);
+    CsdlEntityType entityType = new CsdlEntityType().setName(FQN.getName())
+        .setKey(new ArrayList<CsdlPropertyRef>());
+    CsdlSchema schema = new CsdlSchema().setNamespace(FQN.getNamespace())
+        .setEntityTypes(Collections.singletonList(entityType));
+    when(localProvider.getSchemas()).thenReturn(Collections.singletonList(schema));
+    EdmProviderImpl localEdm = new EdmProviderImpl(localProvider);
+
+    localEdm.freeze();
+    assertTrue(localEdm.isFrozen());
+    final EdmEntityType edmEntityType = localEdm.getEntityType(FQN);
+    assertNotNull(edmEntityType);
+    assertSame(edmEntityType, localEdm.getSchema(FQN.getNamespace()).getEntityTypes().get(0));
+    assertNull(localEdm.getEntityType(WRONG_FQN));
+    verify(localProvider, never()).getEntityType(FQN);
+    verify(localProvider, never()).getEntityType(WRONG_FQN);
+  }
+
   @Test
   public void convertExceptionsTest() throws Exception {
     CsdlEdmProvider localProvider = mock(CsdlEdmProvider.class);
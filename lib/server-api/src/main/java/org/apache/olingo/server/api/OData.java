@@ -38,6 +38,7 @@ import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 
 /**
  * Root object for serving factory tasks and support loose coupling of implementation (core) from the API.
@@ -175,4 +176,12 @@ public abstract class OData {
    * @return a debug-response helper
    */
   public abstract DebugResponseHelper createDebugResponseHelper(String debugFormat);
+
+  /**
+   * Creates a cache for parsed request URIs, to be registered at the handlers of a service.
+   * If the cache is full, the least recently used URIs are removed.
+   * @param maxSize maximum number of cached URIs
+   * @return a new, thread-safe URI cache
+   */
+  public abstract UriInfoCache createUriInfoCache(int maxSize);
 }
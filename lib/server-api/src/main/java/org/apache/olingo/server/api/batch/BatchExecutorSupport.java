@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.batch;
+
+import java.util.concurrent.ExecutorService;
+
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Services that would like to process independent parts of a batch request concurrently can implement this
+ * interface.</p>
+ * <p>If implemented this interface can be registered at the ODataHttpHandler.
+ * {@link BatchFacade#handleBatchRequests(java.util.List, boolean)} will then dispatch contiguous runs of
+ * retrieve requests outside of change sets to the returned executor service, each request with its own
+ * ODataHandler. The registered processors must therefore be able to handle requests from several threads
+ * at the same time.</p>
+ * <p>The executor service is owned by the service; it is neither shut down nor otherwise managed by the
+ * library.</p>
+ */
+public interface BatchExecutorSupport extends OlingoExtension {
+
+  /**
+   * Returns the executor service used to process independent batch-request parts.
+   * @return executor service or <code>null</code> to process all parts sequentially
+   */
+  ExecutorService getExecutorService();
+}
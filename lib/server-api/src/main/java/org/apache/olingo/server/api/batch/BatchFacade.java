@@ -17,11 +17,14 @@
  * under the License.
  */package org.apache.olingo.server.api.batch;
 
+ import java.util.List;
+
  import org.apache.olingo.server.api.ODataApplicationException;
  import org.apache.olingo.server.api.ODataLibraryException;
  import org.apache.olingo.server.api.ODataRequest;
  import org.apache.olingo.server.api.ODataResponse;
  import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartReader;
  import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 
  /**
@@ -60,6 +63,37 @@
    public ODataResponsePart handleBatchRequest(BatchRequestPart request)
        throws ODataApplicationException, ODataLibraryException;
 
+   /**
+    * Handles a list of BatchRequestParts in the given order.
+    * <p>The processing stops after the first part with an error response unless <code>continueOnError</code>
+    * is set; the responses of all processed parts including the failed one are returned.</p>
+    * <p>If a {@link BatchExecutorSupport} has been registered, contiguous runs of single retrieve requests
+    * outside of change sets are processed concurrently; their responses are nevertheless returned in the order
+    * of the requests.</p>
+    * @param requests requests to process
+    * @param continueOnError whether processing should continue after a failed part
+    * @return corresponding {@link ODataResponsePart}s in the order of the requests
+    * @throws ODataApplicationException
+    * @throws ODataLibraryException
+    */
+   public List<ODataResponsePart> handleBatchRequests(List<BatchRequestPart> requests, boolean continueOnError)
+       throws ODataApplicationException, ODataLibraryException;
+
+   /**
+    * Handles the BatchRequestParts of the given reader in the order of the request, while it is being read.
+    * <p>Each part is processed as soon as it has been read, so processing starts before the whole batch request
+    * has been received. Otherwise the same rules apply as for {@link #handleBatchRequests(List, boolean)}.</p>
+    * <p>A syntax error is found only when the malformed part is read; the parts before it, including change sets,
+    * may already have taken effect when the exception is thrown.</p>
+    * @param reader reader of the requests to process
+    * @param continueOnError whether processing should continue after a failed part
+    * @return corresponding {@link ODataResponsePart}s in the order of the requests
+    * @throws ODataApplicationException
+    * @throws ODataLibraryException
+    */
+   public List<ODataResponsePart> handleBatchRequests(BatchRequestPartReader reader, boolean continueOnError)
+       throws ODataApplicationException, ODataLibraryException;
+
    /**
     * Extracts the boundary of a multipart/mixed header.
     * See RFC 2046#5.1
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.deserializer.batch;
+
+/**
+ * Reads the parts of a batch request one after the other.
+ * <p>Only the part currently requested is read from the underlying input stream, so the processing of
+ * the first parts can start before the whole batch request has been received.
+ * Syntax errors in later parts are reported when these parts are read.</p>
+ * @see org.apache.olingo.server.api.deserializer.FixedFormatDeserializer#readBatchRequest(java.io.InputStream,
+ * String, BatchOptions)
+ */
+public interface BatchRequestPartReader {
+
+  /**
+   * Reads the next part of the batch request.
+   * The underlying input stream is closed after the close delimiter has been read.
+   * @return the next batch-request part or <code>null</code> if there are no more parts
+   * @throws BatchDeserializerException if the part is not valid
+   */
+  BatchRequestPart next() throws BatchDeserializerException;
+}
@@ -19,7 +19,13 @@
 package org.apache.olingo.server.api.processor;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
@@ -34,6 +40,8 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.etag.ETagHelper;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
+import org.apache.olingo.server.api.serializer.RenderedDocumentCache;
+import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfo;
 
 /**
@@ -43,8 +51,13 @@ import org.apache.olingo.server.api.uri.UriInfo;
  * <li>error handling</li></ul></p>
  * <p>This implementation is registered in the ODataHandler by default.
  * The default can be replaced by re-registering a custom implementation.</p>
+ * <p>If the service metadata is a {@link RenderedDocumentCache} and provides ETags for the documents,
+ * the metadata document and the service document are rendered only once per format and ETag,
+ * and sent compressed to clients accepting gzip encoding.</p>
  */
 public class DefaultProcessor implements MetadataProcessor, ServiceDocumentProcessor, ErrorProcessor {
+  private static final String GZIP = "gzip";
+
   private OData odata;
   private ServiceMetadata serviceMetadata;
 
@@ -72,10 +85,8 @@ public class DefaultProcessor implements MetadataProcessor, ServiceDocumentProce
     if (isNotModified) {
       response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
     } else {
-      ODataSerializer serializer = odata.createSerializer(requestedContentType);
-      response.setContent(serializer.serviceDocument(serviceMetadata, null).getContent());
-      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
-      response.setHeader(HttpHeader.CONTENT_TYPE, requestedContentType.toContentTypeString());
+      writeDocument(request, response, requestedContentType, false,
+          eTagSupport == null ? null : eTagSupport.getServiceDocumentETag());
     }
   }
 
@@ -97,11 +108,74 @@ public class DefaultProcessor implements MetadataProcessor, ServiceDocumentProce
     if (isNotModified) {
       response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
     } else {
-      ODataSerializer serializer = odata.createSerializer(requestedContentType);
-      response.setContent(serializer.metadataDocument(serviceMetadata).getContent());
-      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
-      response.setHeader(HttpHeader.CONTENT_TYPE, requestedContentType.toContentTypeString());
+      writeDocument(request, response, requestedContentType, true,
+          eTagSupport == null ? null : eTagSupport.getMetadataETag());
+    }
+  }
+
+  private void writeDocument(final ODataRequest request, final ODataResponse response,
+      final ContentType requestedContentType, final boolean isMetadata, final String eTag)
+      throws SerializerException {
+    final RenderedDocumentCache cache = eTag != null && serviceMetadata instanceof RenderedDocumentCache ?
+        (RenderedDocumentCache) serviceMetadata : null;
+    if (cache == null) {
+      response.setContent(serialize(requestedContentType, isMetadata));
+    } else {
+      final boolean gzip = acceptsGzip(request.getHeaders(HttpHeader.ACCEPT_ENCODING));
+      final String key = (isMetadata ? "metadata" : "service") + (gzip ? "+" + GZIP : "")
+          + ":" + requestedContentType.toContentTypeString();
+      byte[] content = cache.getRenderedDocument(key, eTag);
+      if (content == null) {
+        content = render(serialize(requestedContentType, isMetadata), gzip);
+        cache.putRenderedDocument(key, eTag, content);
+      }
+      response.setContent(new ByteArrayInputStream(content));
+      if (gzip) {
+        response.setHeader(HttpHeader.CONTENT_ENCODING, GZIP);
+      }
+      response.setHeader(HttpHeader.VARY, HttpHeader.ACCEPT_ENCODING);
+    }
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, requestedContentType.toContentTypeString());
+  }
+
+  private InputStream serialize(final ContentType requestedContentType, final boolean isMetadata)
+      throws SerializerException {
+    final ODataSerializer serializer = odata.createSerializer(requestedContentType);
+    return isMetadata ?
+        serializer.metadataDocument(serviceMetadata).getContent() :
+        serializer.serviceDocument(serviceMetadata, null).getContent();
+  }
+
+  private byte[] render(final InputStream content, final boolean gzip) throws SerializerException {
+    try {
+      ByteArrayOutputStream result = new ByteArrayOutputStream();
+      OutputStream output = gzip ? new GZIPOutputStream(result) : result;
+      byte[] buffer = new byte[8192];
+      int count;
+      while ((count = content.read(buffer)) != -1) {
+        output.write(buffer, 0, count);
+      }
+      output.close();
+      content.close();
+      return result.toByteArray();
+    } catch (final IOException e) {
+      throw new SerializerException("An I/O exception occurred.", e, SerializerException.MessageKeys.IO_EXCEPTION);
+    }
+  }
+
+  private boolean acceptsGzip(final List<String> acceptEncodings) {
+    if (acceptEncodings != null) {
+      for (final String acceptEncoding : acceptEncodings) {
+        for (final String coding : acceptEncoding.split(",")) {
+          final String[] parts = coding.split(";");
+          if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+            return parts.length < 2 || !parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+          }
+        }
+      }
     }
+    return false;
   }
 
   @Override
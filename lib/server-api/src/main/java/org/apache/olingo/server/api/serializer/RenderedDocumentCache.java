@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.serializer;
+
+/**
+ * <p>Cache for rendered documents which only change together with an ETag,
+ * like the metadata document and the service document.</p>
+ * <p>{@link org.apache.olingo.server.api.ServiceMetadata} implementations can implement this interface;
+ * the {@link org.apache.olingo.server.api.processor.DefaultProcessor} then renders these documents
+ * only once per format and ETag.</p>
+ */
+public interface RenderedDocumentCache {
+
+  /**
+   * Gets a rendered document.
+   * @param key the key of the document, identifying the document and its format
+   * @param eTag the current ETag of the document
+   * @return the content or <code>null</code> if no content is cached for the key or the cached content
+   * has been rendered for a different ETag; the content must not be modified
+   */
+  byte[] getRenderedDocument(String key, String eTag);
+
+  /**
+   * Puts a rendered document into the cache, replacing the content for the same key.
+   * @param key the key of the document, identifying the document and its format
+   * @param eTag the ETag of the document
+   * @param content the content; it must not be modified afterwards
+   */
+  void putRenderedDocument(String key, String eTag, byte[] content);
+}
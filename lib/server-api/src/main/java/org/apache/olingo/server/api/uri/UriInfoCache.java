@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.uri;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Cache of parsed and validated request URIs.</p>
+ * <p>If registered at the ODataHttpHandler, the handler takes the {@link UriInfo} of a request from the cache
+ * if the same URI has been requested before with the same HTTP method, instead of parsing it again.
+ * URIs with parameter aliases, custom query options, or a skip token are never cached since their values
+ * typically change from request to request.</p>
+ * <p>Cached URI information is shared between requests, possibly processed concurrently;
+ * processors must therefore not modify it.
+ * A cache should be kept for the lifetime of the service and registered at every handler created for it.
+ * An implementation can be created with {@link org.apache.olingo.server.api.OData#createUriInfoCache(int)}.</p>
+ */
+public interface UriInfoCache extends OlingoExtension {
+
+  /**
+   * Gets the cached URI information.
+   * @param edm the EDM the URI has been parsed against
+   * @param method the HTTP method of the request
+   * @param rawODataPath the OData path of the request URI
+   * @param rawQueryPath the query part of the request URI
+   * @return the URI information or <code>null</code> if not cached
+   */
+  UriInfo get(Edm edm, HttpMethod method, String rawODataPath, String rawQueryPath);
+
+  /**
+   * Puts URI information into the cache.
+   * @param edm the EDM the URI has been parsed against
+   * @param method the HTTP method of the request
+   * @param rawODataPath the OData path of the request URI
+   * @param rawQueryPath the query part of the request URI
+   * @param uriInfo the validated URI information
+   */
+  void put(Edm edm, HttpMethod method, String rawODataPath, String rawQueryPath, UriInfo uriInfo);
+
+  /** Gets the number of requests served from the cache. */
+  long getHitCount();
+
+  /** Gets the number of requests not found in the cache. */
+  long getMissCount();
+
+  /** Gets the number of cached URIs. */
+  int size();
+
+  /** Removes all entries from the cache. */
+  void clear();
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response handed to the processing thread of an asynchronous request. Once the exchange has been finished,
+ * by the processing thread itself or by the container's thread on timeout or error, the processing thread can no
+ * longer change the response: status and header changes are ignored and writes fail with an {@link IOException}.
+ * Writes and finishing are mutually exclusive, so no write reaches a response which has been completed.
+ */
+class GuardedHttpServletResponse extends HttpServletResponseWrapper {
+
+  private boolean finished = false;
+  private ServletOutputStream outputStream;
+  private PrintWriter writer;
+
+  GuardedHttpServletResponse(final HttpServletResponse response) {
+    super(response);
+  }
+
+  /**
+   * Finishes the exchange, waiting for a write in progress.
+   * @return <code>true</code> if the caller has finished the exchange and therefore has to complete it,
+   * <code>false</code> if it had already been finished before
+   */
+  synchronized boolean finish() {
+    if (finished) {
+      return false;
+    }
+    finished = true;
+    return true;
+  }
+
+  synchronized boolean isFinished() {
+    return finished;
+  }
+
+  @Override
+  public synchronized void setStatus(final int sc) {
+    if (!finished) {
+      super.setStatus(sc);
+    }
+  }
+
+  @Override
+  public synchronized void setHeader(final String name, final String value) {
+    if (!finished) {
+      super.setHeader(name, value);
+    }
+  }
+
+  @Override
+  public synchronized void addHeader(final String name, final String value) {
+    if (!finished) {
+      super.addHeader(name, value);
+    }
+  }
+
+  @Override
+  public synchronized void setContentType(final String type) {
+    if (!finished) {
+      super.setContentType(type);
+    }
+  }
+
+  @Override
+  public synchronized void flushBuffer() throws IOException {
+    checkNotFinished();
+    super.flushBuffer();
+  }
+
+  @Override
+  public synchronized ServletOutputStream getOutputStream() throws IOException {
+    checkNotFinished();
+    if (outputStream == null) {
+      final ServletOutputStream output = super.getOutputStream();
+      outputStream = new ServletOutputStream() {
+        @Override
+        public void write(final int b) throws IOException {
+          synchronized (GuardedHttpServletResponse.this) {
+            checkNotFinished();
+            output.write(b);
+          }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+          synchronized (GuardedHttpServletResponse.this) {
+            checkNotFinished();
+            output.write(b, off, len);
+          }
+        }
+
+        @Override
+        public void flush() throws IOException {
+          synchronized (GuardedHttpServletResponse.this) {
+            checkNotFinished();
+            output.flush();
+          }
+        }
+      };
+    }
+    return outputStream;
+  }
+
+  @Override
+  public synchronized PrintWriter getWriter() throws IOException {
+    if (writer == null) {
+      writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+    }
+    return writer;
+  }
+
+  private void checkNotFinished() throws IOException {
+    if (finished) {
+      throw new IOException("The request has already been finished, e.g., because it has timed out");
+    }
+  }
+}
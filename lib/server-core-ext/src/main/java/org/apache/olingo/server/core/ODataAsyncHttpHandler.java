@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataHttpHandler;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.OlingoExtension;
+import org.apache.olingo.server.api.debug.DebugSupport;
+import org.apache.olingo.server.api.etag.CustomETagSupport;
+import org.apache.olingo.server.api.processor.Processor;
+import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
+
+/**
+ * HTTP handler which processes OData requests outside of the servlet container's request threads.
+ * <br/>
+ * Each request is put into asynchronous mode with {@link HttpServletRequest#startAsync()} and handed over,
+ * together with its response, to an application-provided {@link Executor}. The wrapped handler then reads the
+ * request, dispatches it to the processors and streams the serialized result (including
+ * {@link org.apache.olingo.server.api.ODataContent} produced from entity iterators) from the executor's thread,
+ * so that long-running exports and slow clients no longer hold on to the container's thread pool.
+ * Processors therefore run on the executor's threads and may block there until their result is complete.
+ * <br/>
+ * If the container does not support asynchronous processing for the request (e.g., a filter in the chain has
+ * not been declared <code>async-supported</code>), the request is processed synchronously.
+ * Requests rejected by the executor are answered with <code>503 Service Unavailable</code>, as are requests
+ * timing out or failing before their response has been committed. On timeout or error the container's thread
+ * ends the exchange itself and interrupts the processing; from then on, the processing thread can no longer
+ * change or write the response, and it does not complete the asynchronous context a second time.
+ */
+public class ODataAsyncHttpHandler implements ODataHttpHandler {
+
+  /** Default timeout for the asynchronous processing of a single request, in milliseconds. */
+  public static final long DEFAULT_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+  private final ODataHttpHandler handler;
+  private final Executor executor;
+  private final long timeoutMillis;
+
+  public ODataAsyncHttpHandler(final ODataHttpHandler handler, final Executor executor) {
+    this(handler, executor, DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param handler handler which does the actual processing of the requests
+   * @param executor executor running the processing; it should be bounded since its threads are blocked
+   * while the response is written
+   * @param timeoutMillis timeout for the asynchronous processing of a single request; 0 or negative for none
+   */
+  public ODataAsyncHttpHandler(final ODataHttpHandler handler, final Executor executor, final long timeoutMillis) {
+    this.handler = handler;
+    this.executor = executor;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  @Override
+  public void process(final HttpServletRequest request, final HttpServletResponse response) {
+    if (!request.isAsyncSupported()) {
+      handler.process(request, response);
+      return;
+    }
+
+    final AsyncContext asyncContext = request.startAsync(request, response);
+    asyncContext.setTimeout(timeoutMillis > 0 ? timeoutMillis : 0);
+    // Whoever finishes the exchange first completes the asynchronous context: the processing thread when
+    // the wrapped handler has returned, or the container's thread on timeout or error.
+    final GuardedHttpServletResponse guardedResponse =
+        new GuardedHttpServletResponse((HttpServletResponse) asyncContext.getResponse());
+    final FutureTask<Void> task = new FutureTask<Void>(new Runnable() {
+      @Override
+      public void run() {
+        if (guardedResponse.isFinished()) {
+          return;
+        }
+        try {
+          handler.process((HttpServletRequest) asyncContext.getRequest(), guardedResponse);
+        } finally {
+          if (guardedResponse.finish()) {
+            asyncContext.complete();
+          }
+        }
+      }
+    }, null);
+    asyncContext.addListener(new AsyncListener() {
+      @Override
+      public void onTimeout(final AsyncEvent event) throws IOException {
+        abort(event);
+      }
+
+      @Override
+      public void onError(final AsyncEvent event) throws IOException {
+        abort(event);
+      }
+
+      private void abort(final AsyncEvent event) {
+        if (guardedResponse.finish()) {
+          task.cancel(true);
+          fail((HttpServletResponse) event.getSuppliedResponse());
+          event.getAsyncContext().complete();
+        }
+      }
+
+      @Override
+      public void onComplete(final AsyncEvent event) {
+        // Nothing to do.
+      }
+
+      @Override
+      public void onStartAsync(final AsyncEvent event) {
+        // Nothing to do.
+      }
+    });
+
+    try {
+      executor.execute(task);
+    } catch (final RejectedExecutionException e) {
+      if (guardedResponse.finish()) {
+        fail(response);
+        asyncContext.complete();
+      }
+    }
+  }
+
+  private static void fail(final HttpServletResponse response) {
+    if (!response.isCommitted()) {
+      response.reset();
+      response.setStatus(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode());
+    }
+  }
+
+  @Override
+  public ODataResponse process(final ODataRequest request) {
+    return handler.process(request);
+  }
+
+  @Override
+  public void register(final Processor processor) {
+    handler.register(processor);
+  }
+
+  @Override
+  public void register(final OlingoExtension extension) {
+    handler.register(extension);
+  }
+
+  @Override
+  public void setSplit(final int split) {
+    handler.setSplit(split);
+  }
+
+  @Override
+  public void register(final DebugSupport debugSupport) {
+    handler.register(debugSupport);
+  }
+
+  @Override
+  public void register(final CustomContentTypeSupport customContentTypeSupport) {
+    handler.register(customContentTypeSupport);
+  }
+
+  @Override
+  public void register(final CustomETagSupport customETagSupport) {
+    handler.register(customETagSupport);
+  }
+}
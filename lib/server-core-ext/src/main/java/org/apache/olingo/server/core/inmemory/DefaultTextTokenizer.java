@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits texts into the longest sequences of letters and digits; all other characters separate tokens.
+ * By default the tokens are converted to lower case so that the search is case-insensitive.
+ */
+public class DefaultTextTokenizer implements TextTokenizer {
+
+  private final boolean ignoreCase;
+
+  public DefaultTextTokenizer() {
+    this(true);
+  }
+
+  /**
+   * @param ignoreCase whether the tokens are converted to lower case
+   */
+  public DefaultTextTokenizer(final boolean ignoreCase) {
+    this.ignoreCase = ignoreCase;
+  }
+
+  @Override
+  public List<String> tokenize(final String text) {
+    List<String> tokens = new ArrayList<String>();
+    final int length = text.length();
+    int start = -1;
+    int index = 0;
+    while (index < length) {
+      final int codePoint = text.codePointAt(index);
+      if (Character.isLetterOrDigit(codePoint)) {
+        if (start < 0) {
+          start = index;
+        }
+      } else if (start >= 0) {
+        tokens.add(normalize(text.substring(start, index)));
+        start = -1;
+      }
+      index += Character.charCount(codePoint);
+    }
+    if (start >= 0) {
+      tokens.add(normalize(text.substring(start)));
+    }
+    return tokens;
+  }
+
+  private String normalize(final String token) {
+    return ignoreCase ? token.toLowerCase(Locale.ROOT) : token;
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.edm.EdmAnnotation;
+import org.apache.olingo.commons.api.edm.EdmElement;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmTerm;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+
+/**
+ * Entity type describing the structure of the results of data-aggregation transformations.
+ * <br/>
+ * In contrast to the {@link org.apache.olingo.server.core.uri.queryoption.apply.DynamicStructuredType}
+ * used in URI parsing, it contains only the properties which are present in the results,
+ * so it can be used to serialize them. Properties of the start type which have been aggregated away are
+ * not part of it; if also key properties have gone, the type has no key.
+ */
+public class DynamicEntityType implements EdmEntityType {
+
+  private final EdmEntityType startType;
+  private final Map<String, EdmProperty> properties;
+  private final List<String> keyPredicateNames;
+
+  /**
+   * @param startType the entity type of the entities before the transformations
+   * @param properties the properties of the results, by name
+   */
+  public DynamicEntityType(final EdmEntityType startType, final Map<String, EdmProperty> properties) {
+    this.startType = startType;
+    this.properties = properties;
+    boolean keyRetained = true;
+    for (final String keyName : startType.getKeyPredicateNames()) {
+      keyRetained &= startType.getKeyPropertyRef(keyName).getAlias() == null
+          && properties.get(keyName) == startType.getStructuralProperty(keyName);
+    }
+    keyPredicateNames = keyRetained ? startType.getKeyPredicateNames() : Collections.<String> emptyList();
+  }
+
+  @Override
+  public EdmElement getProperty(final String name) {
+    final EdmProperty property = properties.get(name);
+    return property == null ? getNavigationProperty(name) : property;
+  }
+
+  @Override
+  public List<String> getPropertyNames() {
+    return Collections.unmodifiableList(new ArrayList<String>(properties.keySet()));
+  }
+
+  @Override
+  public EdmProperty getStructuralProperty(final String name) {
+    return properties.get(name);
+  }
+
+  @Override
+  public EdmNavigationProperty getNavigationProperty(final String name) {
+    return keyPredicateNames.isEmpty() ? null : startType.getNavigationProperty(name);
+  }
+
+  @Override
+  public List<String> getNavigationPropertyNames() {
+    return keyPredicateNames.isEmpty() ? Collections.<String> emptyList() : startType.getNavigationPropertyNames();
+  }
+
+  @Override
+  public List<String> getKeyPredicateNames() {
+    return keyPredicateNames;
+  }
+
+  @Override
+  public List<EdmKeyPropertyRef> getKeyPropertyRefs() {
+    return keyPredicateNames.isEmpty() ?
+        Collections.<EdmKeyPropertyRef> emptyList() :
+        startType.getKeyPropertyRefs();
+  }
+
+  @Override
+  public EdmKeyPropertyRef getKeyPropertyRef(final String keyPredicateName) {
+    return keyPredicateNames.contains(keyPredicateName) ? startType.getKeyPropertyRef(keyPredicateName) : null;
+  }
+
+  @Override
+  public boolean hasStream() {
+    return !keyPredicateNames.isEmpty() && startType.hasStream();
+  }
+
+  @Override
+  public EdmEntityType getBaseType() {
+    return null;
+  }
+
+  @Override
+  public String getNamespace() {
+    return startType.getNamespace();
+  }
+
+  @Override
+  public String getName() {
+    return startType.getName();
+  }
+
+  @Override
+  public FullQualifiedName getFullQualifiedName() {
+    return startType.getFullQualifiedName();
+  }
+
+  @Override
+  public EdmTypeKind getKind() {
+    return EdmTypeKind.ENTITY;
+  }
+
+  @Override
+  public EdmAnnotation getAnnotation(final EdmTerm term, final String qualifier) {
+    return startType.getAnnotation(term, qualifier);
+  }
+
+  @Override
+  public List<EdmAnnotation> getAnnotations() {
+    return startType.getAnnotations();
+  }
+
+  @Override
+  public boolean compatibleTo(final EdmType targetType) {
+    return startType.compatibleTo(targetType);
+  }
+
+  @Override
+  public boolean isOpenType() {
+    return startType.isOpenType();
+  }
+
+  @Override
+  public boolean isAbstract() {
+    return false;
+  }
+}
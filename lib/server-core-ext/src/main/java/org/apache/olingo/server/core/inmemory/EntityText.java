@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+
+/**
+ * The tokens of the string values of an entity, including the values within complex and collection properties.
+ * The tokens of each value are kept separately so that phrases do not match across values.
+ */
+final class EntityText {
+
+  private final List<List<String>> values = new ArrayList<List<String>>();
+  private Set<String> tokens;
+
+  EntityText(final Entity entity, final TextTokenizer tokenizer) {
+    final List<String> texts = new ArrayList<String>();
+    collectStrings(entity.getProperties(), texts);
+    for (final String text : texts) {
+      values.add(tokenizer.tokenize(text));
+    }
+  }
+
+  /** Returns the tokens of all string values, each value in a separate list. */
+  List<List<String>> getValues() {
+    return values;
+  }
+
+  boolean contains(final String token) {
+    if (tokens == null) {
+      tokens = new HashSet<String>();
+      for (final List<String> value : values) {
+        tokens.addAll(value);
+      }
+    }
+    return tokens.contains(token);
+  }
+
+  /** Determines whether one of the string values contains the given tokens consecutively. */
+  boolean containsSequence(final String[] sequence) {
+    for (final List<String> value : values) {
+      final int last = value.size() - sequence.length;
+      for (int start = 0; start <= last; start++) {
+        int index = 0;
+        while (index < sequence.length && sequence[index].equals(value.get(start + index))) {
+          index++;
+        }
+        if (index == sequence.length) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static void collectStrings(final List<Property> properties, final List<String> texts) {
+    for (final Property property : properties) {
+      if (property.isNull()) {
+        continue;
+      } else if (property.isPrimitive()) {
+        if (property.isCollection()) {
+          for (final Object value : property.asCollection()) {
+            if (value instanceof String) {
+              texts.add((String) value);
+            }
+          }
+        } else if (property.getValue() instanceof String) {
+          texts.add((String) property.getValue());
+        }
+      } else if (property.isComplex()) {
+        if (property.isCollection()) {
+          for (final Object value : property.asCollection()) {
+            if (value instanceof ComplexValue) {
+              collectStrings(((ComplexValue) value).getValue(), texts);
+            }
+          }
+        } else {
+          collectStrings(property.asComplex().getValue(), texts);
+        }
+      }
+    }
+  }
+}
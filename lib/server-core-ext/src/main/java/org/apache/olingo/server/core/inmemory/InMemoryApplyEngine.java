@@ -0,0 +1,852 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.AbstractEntityCollection;
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.ApplyItem;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.apply.Aggregate;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression.StandardMethod;
+import org.apache.olingo.server.api.uri.queryoption.apply.BottomTop;
+import org.apache.olingo.server.api.uri.queryoption.apply.Compute;
+import org.apache.olingo.server.api.uri.queryoption.apply.ComputeExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.Concat;
+import org.apache.olingo.server.api.uri.queryoption.apply.Filter;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupBy;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupByItem;
+import org.apache.olingo.server.api.uri.queryoption.apply.Search;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.core.inmemory.expression.ExpressionCompiler;
+import org.apache.olingo.server.core.inmemory.expression.ExpressionEvaluator;
+import org.apache.olingo.server.core.inmemory.expression.operand.TypedOperand;
+import org.apache.olingo.server.core.inmemory.expression.operand.VisitorOperand;
+import org.apache.olingo.server.core.uri.parser.ExpressionParser;
+import org.apache.olingo.server.core.uri.parser.UriParserException;
+import org.apache.olingo.server.core.uri.queryoption.apply.DynamicProperty;
+
+/**
+ * Evaluates the transformations of the system query option $apply (data-aggregation extension)
+ * for entities held in memory.
+ * <br/>
+ * The transformations are chained into a pipeline through which the entities are pushed one by one;
+ * filter and compute pass each row on immediately, without intermediate collections.
+ * Grouping uses a hash table with one aggregation state per group, so the members of a group are only
+ * kept if the transformation applied to the groups needs them. Partial aggregation with topcount and
+ * bottomcount keeps the requested number of entities in a bounded heap.
+ * <br/>
+ * Supported are aggregate with the standard aggregation methods and $count, groupby without rollup,
+ * topcount, topsum, toppercent and their bottom variants, compute, filter, search, concat, and identity.
+ * All other transformations and custom aggregates result in an error with status code 501.
+ * <br/>
+ * The structure of the results is described by {@link #getResultType(ApplyOption, EdmEntityType)}.
+ */
+public class InMemoryApplyEngine {
+
+  private static final OData odata = OData.newInstance();
+  private static final EdmType DECIMAL = odata.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Decimal);
+  private static final String DECIMAL_NAME = DECIMAL.getFullQualifiedName().getFullQualifiedNameAsString();
+  private static final TextTokenizer TOKENIZER = new DefaultTextTokenizer();
+
+  private final ExpressionCompiler compiler;
+
+  public InMemoryApplyEngine(final UriInfoResource uriInfo) {
+    this(new ExpressionCompiler(uriInfo));
+  }
+
+  public InMemoryApplyEngine(final ExpressionCompiler compiler) {
+    this.compiler = compiler;
+  }
+
+  /**
+   * Applies the transformations to the given entities; the entities themselves are not modified.
+   * @param applyOption the apply option
+   * @param entities the entities, either in a collection or coming from an iterator
+   * @return the result of the transformations
+   */
+  public EntityCollection apply(final ApplyOption applyOption, final AbstractEntityCollection entities)
+      throws ODataApplicationException {
+    final EntityCollection result = new EntityCollection();
+    final RowSink pipeline = createPipeline(applyOption, new CollectingSink(result.getEntities()));
+    for (final Entity entity : entities) {
+      pipeline.add(entity);
+    }
+    pipeline.end();
+    return result;
+  }
+
+  /**
+   * Determines the structure of the results of the transformations; it can be used to serialize the results.
+   * @param applyOption the apply option
+   * @param startType the type of the entities the transformations are applied to
+   */
+  public DynamicEntityType getResultType(final ApplyOption applyOption, final EdmEntityType startType)
+      throws ODataApplicationException {
+    Map<String, EdmProperty> properties = new LinkedHashMap<String, EdmProperty>();
+    for (final String name : startType.getPropertyNames()) {
+      final EdmProperty property = startType.getStructuralProperty(name);
+      if (property != null) {
+        properties.put(name, property);
+      }
+    }
+    return new DynamicEntityType(startType, getResultProperties(applyOption, properties));
+  }
+
+  private Map<String, EdmProperty> getResultProperties(final ApplyOption applyOption,
+      final Map<String, EdmProperty> input) throws ODataApplicationException {
+    Map<String, EdmProperty> properties = input;
+    for (final ApplyItem item : applyOption.getApplyItems()) {
+      switch (item.getKind()) {
+      case AGGREGATE:
+        properties = new LinkedHashMap<String, EdmProperty>();
+        for (final AggregateExpression expression : ((Aggregate) item).getExpressions()) {
+          final EdmType type = expression.getStandardMethod() == StandardMethod.MIN
+              || expression.getStandardMethod() == StandardMethod.MAX ?
+              getType(expression.getExpression()) :
+              DECIMAL;
+          properties.put(expression.getAlias(), new ResultProperty(expression.getAlias(), type));
+        }
+        break;
+      case COMPUTE:
+        properties = new LinkedHashMap<String, EdmProperty>(properties);
+        for (final ComputeExpression expression : ((Compute) item).getExpressions()) {
+          properties.put(expression.getAlias(),
+              new ResultProperty(expression.getAlias(), getType(expression.getExpression())));
+        }
+        break;
+      case CONCAT:
+        final Map<String, EdmProperty> union = new LinkedHashMap<String, EdmProperty>();
+        for (final ApplyOption option : ((Concat) item).getApplyOptions()) {
+          union.putAll(getResultProperties(option, properties));
+        }
+        properties = union;
+        break;
+      case GROUP_BY:
+        final GroupBy groupBy = (GroupBy) item;
+        final Map<String, EdmProperty> grouped = new LinkedHashMap<String, EdmProperty>();
+        for (final GroupByItem groupByItem : groupBy.getGroupByItems()) {
+          final EdmProperty first = getPropertyPath(groupByItem)[0];
+          grouped.put(first.getName(), first);
+        }
+        if (groupBy.getApplyOption() != null) {
+          grouped.putAll(getResultProperties(groupBy.getApplyOption(), properties));
+        }
+        properties = grouped;
+        break;
+      default:
+        break;
+      }
+    }
+    return properties;
+  }
+
+  private static EdmType getType(final Expression expression) {
+    try {
+      return ExpressionParser.getType(expression);
+    } catch (final UriParserException e) {
+      return null;
+    }
+  }
+
+  private RowSink createPipeline(final ApplyOption applyOption, final RowSink end)
+      throws ODataApplicationException {
+    RowSink sink = end;
+    final List<ApplyItem> items = applyOption.getApplyItems();
+    for (int i = items.size() - 1; i >= 0; i--) {
+      sink = createStage(items.get(i), sink);
+    }
+    return sink;
+  }
+
+  private RowSink createStage(final ApplyItem item, final RowSink next) throws ODataApplicationException {
+    switch (item.getKind()) {
+    case IDENTITY:
+      return next;
+    case FILTER:
+      return new FilterSink(InMemoryQueryEngine.compile(compiler,
+          ((Filter) item).getFilterOption().getExpression(), "filter"), next);
+    case SEARCH:
+      return new SearchSink(SearchQuery.compile(
+          ((Search) item).getSearchOption().getSearchExpression(), TOKENIZER), next);
+    case COMPUTE:
+      return new ComputeSink((Compute) item, next);
+    case AGGREGATE:
+      return new AggregateSink(getAggregates((Aggregate) item), next);
+    case GROUP_BY:
+      return new GroupBySink((GroupBy) item, next);
+    case BOTTOM_TOP:
+      return new BottomTopSink((BottomTop) item, next);
+    case CONCAT:
+      return new ConcatSink((Concat) item, next);
+    default:
+      throw notImplemented("Transformation " + item.getKind() + " is not supported.");
+    }
+  }
+
+  private static ODataApplicationException notImplemented(final String message) {
+    return new ODataApplicationException(message, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+
+  /** Receives the rows of a transformation step. */
+  private abstract static class RowSink {
+    abstract void add(Entity row) throws ODataApplicationException;
+
+    /** Called after the last row; blocking steps produce their results here. */
+    abstract void end() throws ODataApplicationException;
+  }
+
+  private static class CollectingSink extends RowSink {
+    private final List<Entity> rows;
+
+    CollectingSink(final List<Entity> rows) {
+      this.rows = rows;
+    }
+
+    @Override
+    void add(final Entity row) {
+      rows.add(row);
+    }
+
+    @Override
+    void end() {
+      // Nothing to do.
+    }
+  }
+
+  private static class FilterSink extends RowSink {
+    private final ExpressionEvaluator filter;
+    private final RowSink next;
+
+    FilterSink(final ExpressionEvaluator filter, final RowSink next) {
+      this.filter = filter;
+      this.next = next;
+    }
+
+    @Override
+    void add(final Entity row) throws ODataApplicationException {
+      if (InMemoryQueryEngine.isAccepted(filter, row)) {
+        next.add(row);
+      }
+    }
+
+    @Override
+    void end() throws ODataApplicationException {
+      next.end();
+    }
+  }
+
+  private static class SearchSink extends RowSink {
+    private final SearchQuery query;
+    private final RowSink next;
+
+    SearchSink(final SearchQuery query, final RowSink next) {
+      this.query = query;
+      this.next = next;
+    }
+
+    @Override
+    void add(final Entity row) throws ODataApplicationException {
+      if (query.matches(new EntityText(row, TOKENIZER))) {
+        next.add(row);
+      }
+    }
+
+    @Override
+    void end() throws ODataApplicationException {
+      next.end();
+    }
+  }
+
+  private class ComputeSink extends RowSink {
+    private final String[] aliases;
+    private final String[] typeNames;
+    private final ExpressionEvaluator[] evaluators;
+    private final RowSink next;
+
+    ComputeSink(final Compute compute, final RowSink next) throws ODataApplicationException {
+      final List<ComputeExpression> expressions = compute.getExpressions();
+      aliases = new String[expressions.size()];
+      typeNames = new String[expressions.size()];
+      evaluators = new ExpressionEvaluator[expressions.size()];
+      for (int i = 0; i < aliases.length; i++) {
+        aliases[i] = expressions.get(i).getAlias();
+        typeNames[i] = getTypeName(getType(expressions.get(i).getExpression()));
+        evaluators[i] = InMemoryQueryEngine.compile(compiler, expressions.get(i).getExpression(), "compute");
+      }
+      this.next = next;
+    }
+
+    @Override
+    void add(final Entity row) throws ODataApplicationException {
+      final Entity result = copy(row);
+      for (int i = 0; i < aliases.length; i++) {
+        final TypedOperand operand = evaluators[i].evaluate(row).asTypedOperand();
+        result.addProperty(new Property(typeNames[i], aliases[i], ValueType.PRIMITIVE,
+            operand.isNull() ? null : operand.getValue()));
+      }
+      next.add(result);
+    }
+
+    @Override
+    void end() throws ODataApplicationException {
+      next.end();
+    }
+  }
+
+  /** An aggregate expression prepared for evaluation; the method is <code>null</code> for $count. */
+  private static final class AggregateSpec {
+    private final String alias;
+    private final StandardMethod method;
+    private final ExpressionEvaluator evaluator;
+    private final String typeName;
+
+    private AggregateSpec(final String alias, final StandardMethod method, final ExpressionEvaluator evaluator,
+        final String typeName) {
+      this.alias = alias;
+      this.method = method;
+      this.evaluator = evaluator;
+      this.typeName = typeName;
+    }
+  }
+
+  private AggregateSpec[] getAggregates(final Aggregate aggregate) throws ODataApplicationException {
+    final List<AggregateExpression> expressions = aggregate.getExpressions();
+    AggregateSpec[] result = new AggregateSpec[expressions.size()];
+    for (int i = 0; i < result.length; i++) {
+      final AggregateExpression expression = expressions.get(i);
+      if (expression.getInlineAggregateExpression() != null || !expression.getFrom().isEmpty()
+          || expression.getCustomMethod() != null) {
+        throw notImplemented("Only standard aggregation methods and $count are supported.");
+      }
+      if (expression.getExpression() == null) {
+        final List<UriResource> path = expression.getPath();
+        if (path.size() != 1 || path.get(0).getKind() != UriResourceKind.count) {
+          throw notImplemented("Custom aggregates are not supported.");
+        }
+        result[i] = new AggregateSpec(expression.getAlias(), null, null, DECIMAL_NAME);
+      } else {
+        final StandardMethod method = expression.getStandardMethod();
+        result[i] = new AggregateSpec(expression.getAlias(), method,
+            InMemoryQueryEngine.compile(compiler, expression.getExpression(), "aggregate"),
+            method == StandardMethod.MIN || method == StandardMethod.MAX ?
+                getTypeName(getType(expression.getExpression())) :
+                DECIMAL_NAME);
+      }
+    }
+    return result;
+  }
+
+  private static class AggregateSink extends RowSink {
+    private final AggregateSpec[] aggregates;
+    private final Accumulator[] accumulators;
+    private final RowSink next;
+
+    AggregateSink(final AggregateSpec[] aggregates, final RowSink next) {
+      this.aggregates = aggregates;
+      accumulators = new Accumulator[aggregates.length];
+      for (int i = 0; i < aggregates.length; i++) {
+        accumulators[i] = Accumulator.create(aggregates[i].method);
+      }
+      this.next = next;
+    }
+
+    @Override
+    void add(final Entity row) throws ODataApplicationException {
+      for (int i = 0; i < aggregates.length; i++) {
+        accumulators[i].add(aggregates[i].evaluator == null ? null : aggregates[i].evaluator.evaluate(row));
+      }
+    }
+
+    @Override
+    void end() throws ODataApplicationException {
+      final Entity result = new Entity();
+      for (int i = 0; i < aggregates.length; i++) {
+        result.addProperty(new Property(aggregates[i].typeName, aggregates[i].alias, ValueType.PRIMITIVE,
+            accumulators[i].getResult()));
+      }
+      next.add(result);
+      next.end();
+    }
+  }
+
+  /** Aggregation state of one aggregate expression; <code>null</code> values are ignored. */
+  private abstract static class Accumulator {
+
+    abstract void add(VisitorOperand operand) throws ODataApplicationException;
+
+    abstract Object getResult();
+
+    static Accumulator create(final StandardMethod method) {
+      if (method == null) {
+        return new CountAccumulator();
+      }
+      switch (method) {
+      case SUM:
+        return new SumAccumulator(false);
+      case AVERAGE:
+        return new SumAccumulator(true);
+      case MIN:
+        return new MinMaxAccumulator(-1);
+      case MAX:
+        return new MinMaxAccumulator(1);
+      default:
+        return new CountDistinctAccumulator();
+      }
+    }
+  }
+
+  private static class CountAccumulator extends Accumulator {
+    private long count;
+
+    @Override
+    void add(final VisitorOperand operand) {
+      count++;
+    }
+
+    @Override
+    Object getResult() {
+      return BigDecimal.valueOf(count);
+    }
+  }
+
+  private static class SumAccumulator extends Accumulator {
+    private final boolean average;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private long count;
+
+    SumAccumulator(final boolean average) {
+      this.average = average;
+    }
+
+    @Override
+    void add(final VisitorOperand operand) throws ODataApplicationException {
+      final BigDecimal value = toDecimal(operand.asTypedOperand());
+      if (value != null) {
+        sum = sum.add(value);
+        count++;
+      }
+    }
+
+    @Override
+    Object getResult() {
+      return average ?
+          count == 0 ? null : sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64) :
+          sum;
+    }
+  }
+
+  private static class MinMaxAccumulator extends Accumulator {
+    private final int sign;
+    private Comparable<Object> best;
+    private Object bestValue;
+
+    MinMaxAccumulator(final int sign) {
+      this.sign = sign;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void add(final VisitorOperand operand) throws ODataApplicationException {
+      final TypedOperand typed = operand.asTypedOperand();
+      if (!typed.isNull() && typed.getValue() instanceof Comparable
+          && (best == null || best.getClass() == typed.getValue().getClass()
+          && best.compareTo(typed.getValue()) * sign < 0)) {
+        best = (Comparable<Object>) typed.getValue();
+        bestValue = operand.getValue();
+      }
+    }
+
+    @Override
+    Object getResult() {
+      return bestValue;
+    }
+  }
+
+  private static class CountDistinctAccumulator extends Accumulator {
+    private final Set<Object> values = new HashSet<Object>();
+
+    @Override
+    void add(final VisitorOperand operand) throws ODataApplicationException {
+      final TypedOperand typed = operand.asTypedOperand();
+      if (!typed.isNull()) {
+        values.add(typed.getValue());
+      }
+    }
+
+    @Override
+    Object getResult() {
+      return BigDecimal.valueOf(values.size());
+    }
+  }
+
+  private static BigDecimal toDecimal(final TypedOperand operand) throws ODataApplicationException {
+    if (operand.isNull()) {
+      return null;
+    }
+    final Object value = operand.getValue();
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    } else if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    } else if (value instanceof Number) {
+      return new BigDecimal(value.toString());
+    } else {
+      throw new ODataApplicationException("A numeric value is expected.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+  }
+
+  private class GroupBySink extends RowSink {
+    private final EdmProperty[][] paths;
+    private final ApplyOption applyOption;
+    private final RowSink next;
+    private final Map<List<Object>, Group> groups = new LinkedHashMap<List<Object>, Group>();
+
+    GroupBySink(final GroupBy groupBy, final RowSink next) throws ODataApplicationException {
+      final List<GroupByItem> items = groupBy.getGroupByItems();
+      paths = new EdmProperty[items.size()][];
+      for (int i = 0; i < paths.length; i++) {
+        paths[i] = getPropertyPath(items.get(i));
+      }
+      applyOption = groupBy.getApplyOption();
+      this.next = next;
+    }
+
+    @Override
+    void add(final Entity row) throws ODataApplicationException {
+      final List<Object> key = new ArrayList<Object>(paths.length);
+      for (final EdmProperty[] path : paths) {
+        key.add(getValue(row, path));
+      }
+      Group group = groups.get(key);
+      if (group == null) {
+        group = new Group(key);
+        if (applyOption != null) {
+          group.pipeline = createPipeline(applyOption, new CollectingSink(group.results));
+        }
+        groups.put(key, group);
+      }
+      if (group.pipeline != null) {
+        group.pipeline.add(row);
+      }
+    }
+
+    @Override
+    void end() throws ODataApplicationException {
+      for (final Group group : groups.values()) {
+        if (group.pipeline == null) {
+          next.add(withGroupValues(new Entity(), group.key));
+        } else {
+          group.pipeline.end();
+          for (final Entity result : group.results) {
+            next.add(withGroupValues(copy(result), group.key));
+          }
+        }
+      }
+      next.end();
+    }
+
+    private Entity withGroupValues(final Entity row, final List<Object> key) {
+      for (int i = 0; i < paths.length; i++) {
+        setValue(row, paths[i], key.get(i));
+      }
+      return row;
+    }
+  }
+
+  private static final class Group {
+    private final List<Object> key;
+    private final List<Entity> results = new ArrayList<Entity>();
+    private RowSink pipeline;
+
+    private Group(final List<Object> key) {
+      this.key = key;
+    }
+  }
+
+  private static EdmProperty[] getPropertyPath(final GroupByItem item) throws ODataApplicationException {
+    final List<UriResource> path = item.getPath();
+    if (!item.getRollup().isEmpty() || item.isRollupAll() || path.isEmpty()) {
+      throw notImplemented("Rollup is not supported.");
+    }
+    EdmProperty[] result = new EdmProperty[path.size()];
+    for (int i = 0; i < result.length; i++) {
+      final UriResource part = path.get(i);
+      if (part instanceof UriResourceProperty && !((UriResourceProperty) part).isCollection()) {
+        result[i] = ((UriResourceProperty) part).getProperty();
+      } else {
+        throw notImplemented("Only grouping by single-valued properties is supported.");
+      }
+    }
+    if (result[result.length - 1].getType().getKind() == EdmTypeKind.COMPLEX) {
+      throw notImplemented("Only grouping by primitive properties is supported.");
+    }
+    return result;
+  }
+
+  private static Object getValue(final Entity entity, final EdmProperty[] path) {
+    Property property = entity.getProperty(path[0].getName());
+    for (int i = 1; i < path.length && property != null; i++) {
+      final ComplexValue complexValue = property.isComplex() ? property.asComplex() : null;
+      property = complexValue == null ? null : complexValue.getProperty(path[i].getName());
+    }
+    return property == null ? null : property.getValue();
+  }
+
+  /** Sets a value along a property path, creating complex values as needed; existing values are kept. */
+  private static void setValue(final Entity entity, final EdmProperty[] path, final Object value) {
+    List<Property> properties = entity.getProperties();
+    for (int i = 0; i < path.length; i++) {
+      final String name = path[i].getName();
+      Property property = null;
+      for (final Property candidate : properties) {
+        if (name.equals(candidate.getName())) {
+          property = candidate;
+          break;
+        }
+      }
+      if (i == path.length - 1) {
+        if (property == null) {
+          properties.add(new Property(getTypeName(path[i].getType()), name,
+              path[i].getType().getKind() == EdmTypeKind.ENUM ? ValueType.ENUM : ValueType.PRIMITIVE, value));
+        }
+      } else {
+        if (property == null) {
+          property = new Property(getTypeName(path[i].getType()), name, ValueType.COMPLEX, new ComplexValue());
+          properties.add(property);
+        }
+        properties = property.asComplex().getValue();
+      }
+    }
+  }
+
+  /** Partial aggregation; the entities are ranked by the value expression. */
+  private class BottomTopSink extends RowSink {
+    private final BottomTop.Method method;
+    private final ExpressionEvaluator number;
+    private final ExpressionEvaluator value;
+    private final Comparator<Ranked> order;
+    private final List<Ranked> ranked = new ArrayList<Ranked>();
+    private final RowSink next;
+    private PriorityQueue<Ranked> heap;
+    private int rows;
+    private int count = -1;
+    private BigDecimal total = BigDecimal.ZERO;
+
+    BottomTopSink(final BottomTop bottomTop, final RowSink next) throws ODataApplicationException {
+      method = bottomTop.getMethod();
+      number = InMemoryQueryEngine.compile(compiler, bottomTop.getNumber(), "number");
+      value = InMemoryQueryEngine.compile(compiler, bottomTop.getValue(), "value");
+      final boolean top = method == BottomTop.Method.TOP_COUNT || method == BottomTop.Method.TOP_PERCENT
+          || method == BottomTop.Method.TOP_SUM;
+      order = new RankedComparator(top);
+      this.next = next;
+    }
+
+    @Override
+    void add(final Entity row) throws ODataApplicationException {
+      final BigDecimal rowValue = toDecimal(value.evaluate(row).asTypedOperand());
+      if (rowValue == null) {
+        return;
+      }
+      final Ranked entry = new Ranked(row, rowValue, rows++);
+      if (method == BottomTop.Method.BOTTOM_COUNT || method == BottomTop.Method.TOP_COUNT) {
+        if (count < 0) {
+          count = getNumber().intValue();
+          // The head of the heap is the entity which is the first to be pushed out.
+          heap = new PriorityQueue<Ranked>(Math.max(count, 1), Collections.reverseOrder(order));
+        }
+        if (heap.size() < count) {
+          heap.add(entry);
+        } else if (count > 0 && order.compare(entry, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(entry);
+        }
+      } else {
+        ranked.add(entry);
+        total = total.add(rowValue);
+      }
+    }
+
+    @Override
+    void end() throws ODataApplicationException {
+      List<Entity> result = new ArrayList<Entity>();
+      if (heap != null) {
+        final Ranked[] entries = heap.toArray(new Ranked[heap.size()]);
+        Arrays.sort(entries, order);
+        for (final Ranked entry : entries) {
+          result.add(entry.entity);
+        }
+      } else if (!ranked.isEmpty()) {
+        final BigDecimal limit = method == BottomTop.Method.BOTTOM_PERCENT || method == BottomTop.Method.TOP_PERCENT ?
+            total.multiply(getNumber()).divide(BigDecimal.valueOf(100), MathContext.DECIMAL64) :
+            getNumber();
+        // Building the heap is linear; only as many entities as needed are taken from it.
+        final PriorityQueue<Ranked> all = new PriorityQueue<Ranked>(ranked.size(), order);
+        all.addAll(ranked);
+        BigDecimal sum = BigDecimal.ZERO;
+        while (!all.isEmpty() && sum.compareTo(limit) < 0) {
+          final Ranked entry = all.poll();
+          result.add(entry.entity);
+          sum = sum.add(entry.value);
+        }
+      }
+      for (final Entity entity : result) {
+        next.add(entity);
+      }
+      next.end();
+    }
+
+    private BigDecimal getNumber() throws ODataApplicationException {
+      final BigDecimal result = toDecimal(number.evaluate(null).asTypedOperand());
+      return result == null ? BigDecimal.ZERO : result;
+    }
+  }
+
+  private static final class Ranked {
+    private final Entity entity;
+    private final BigDecimal value;
+    private final int ordinal;
+
+    private Ranked(final Entity entity, final BigDecimal value, final int ordinal) {
+      this.entity = entity;
+      this.value = value;
+      this.ordinal = ordinal;
+    }
+  }
+
+  /** Orders the entities to be taken first before the others; equal values keep their original order. */
+  private static final class RankedComparator implements Comparator<Ranked> {
+    private final boolean descending;
+
+    private RankedComparator(final boolean descending) {
+      this.descending = descending;
+    }
+
+    @Override
+    public int compare(final Ranked ranked1, final Ranked ranked2) {
+      final int result = ranked1.value.compareTo(ranked2.value);
+      return result != 0 ? descending ? -result : result :
+          ranked1.ordinal < ranked2.ordinal ? -1 : ranked1.ordinal == ranked2.ordinal ? 0 : 1;
+    }
+  }
+
+  /** Passes every row to all branches; their results follow each other in the order of the branches. */
+  private class ConcatSink extends RowSink {
+    private final List<RowSink> branches = new ArrayList<RowSink>();
+    private final List<List<Entity>> results = new ArrayList<List<Entity>>();
+    private final RowSink next;
+
+    ConcatSink(final Concat concat, final RowSink next) throws ODataApplicationException {
+      for (final ApplyOption option : concat.getApplyOptions()) {
+        final List<Entity> branchResults = new ArrayList<Entity>();
+        results.add(branchResults);
+        branches.add(createPipeline(option, new CollectingSink(branchResults)));
+      }
+      this.next = next;
+    }
+
+    @Override
+    void add(final Entity row) throws ODataApplicationException {
+      for (final RowSink branch : branches) {
+        branch.add(row);
+      }
+    }
+
+    @Override
+    void end() throws ODataApplicationException {
+      for (int i = 0; i < branches.size(); i++) {
+        branches.get(i).end();
+        for (final Entity entity : results.get(i)) {
+          next.add(entity);
+        }
+      }
+      next.end();
+    }
+  }
+
+  /** Creates a shallow copy of the entity, so that properties can be added without changing the original. */
+  private static Entity copy(final Entity entity) {
+    Entity copy = new Entity();
+    copy.setType(entity.getType());
+    copy.setId(entity.getId());
+    copy.setETag(entity.getETag());
+    copy.setSelfLink(entity.getSelfLink());
+    copy.setEditLink(entity.getEditLink());
+    copy.getProperties().addAll(entity.getProperties());
+    copy.getNavigationLinks().addAll(entity.getNavigationLinks());
+    return copy;
+  }
+
+  private static String getTypeName(final EdmType type) {
+    return type == null ? null : type.getFullQualifiedName().getFullQualifiedNameAsString();
+  }
+
+  /**
+   * Property created by a transformation; in contrast to dynamic properties of the URI parser it is nullable,
+   * and decimal values have variable scale as required by the data-aggregation extension.
+   */
+  private static class ResultProperty extends DynamicProperty {
+    ResultProperty(final String name, final EdmType type) {
+      super(name, type);
+    }
+
+    @Override
+    public boolean isNullable() {
+      return true;
+    }
+
+    @Override
+    public Integer getScale() {
+      return getType() == DECIMAL ? Integer.MAX_VALUE : null;
+    }
+  }
+}
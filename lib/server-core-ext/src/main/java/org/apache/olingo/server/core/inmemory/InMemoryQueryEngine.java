@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipOption;
+import org.apache.olingo.server.api.uri.queryoption.TopOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.core.inmemory.expression.ExpressionCompiler;
+import org.apache.olingo.server.core.inmemory.expression.ExpressionEvaluator;
+import org.apache.olingo.server.core.inmemory.expression.operand.TypedOperand;
+
+/**
+ * Applies the system query options $filter, $orderby, $skip, and $top to entities held in memory.
+ * <br/>
+ * Each expression is compiled once per request and then evaluated once per entity:
+ * filtering compacts the list in a single pass, and ordering computes the sort keys of every entity
+ * before sorting them. If $top restricts the result to a small part of the entities,
+ * only the first $skip + $top entities are kept in a bounded heap instead of sorting all of them.
+ * <br/>
+ * The lists given to the methods of this class are modified in place.
+ */
+public class InMemoryQueryEngine {
+
+  private static final EdmPrimitiveType primBoolean =
+      OData.newInstance().createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean);
+
+  private final ExpressionCompiler compiler;
+
+  public InMemoryQueryEngine(final UriInfoResource uriInfo) {
+    this(new ExpressionCompiler(uriInfo));
+  }
+
+  public InMemoryQueryEngine(final ExpressionCompiler compiler) {
+    this.compiler = compiler;
+  }
+
+  /**
+   * Removes all entities for which the filter expression does not evaluate to <code>true</code>.
+   * @param filterOption the filter option; if <code>null</code> nothing is done
+   * @param entities the entities to be filtered
+   */
+  public void applyFilter(final FilterOption filterOption, final List<Entity> entities)
+      throws ODataApplicationException {
+    if (filterOption == null) {
+      return;
+    }
+    final ExpressionEvaluator evaluator = compile(compiler, filterOption.getExpression(), "filter");
+    final List<Entity> list = entities instanceof RandomAccess ? entities : new ArrayList<Entity>(entities);
+    final int size = list.size();
+    int kept = 0;
+    for (int index = 0; index < size; index++) {
+      final Entity entity = list.get(index);
+      if (isAccepted(evaluator, entity)) {
+        if (kept != index) {
+          list.set(kept, entity);
+        }
+        kept++;
+      }
+    }
+    truncate(list, 0, kept, entities);
+  }
+
+  /**
+   * Sorts the entities according to the orderby option and keeps only the page described by
+   * the skip and top options. Entities which are equal with respect to the orderby option
+   * keep their relative order.
+   * @param orderByOption the orderby option, or <code>null</code>
+   * @param skipOption the skip option, or <code>null</code>
+   * @param topOption the top option, or <code>null</code>
+   * @param entities the entities to be ordered and paged
+   */
+  public void applyOrderBySkipTop(final OrderByOption orderByOption, final SkipOption skipOption,
+      final TopOption topOption, final List<Entity> entities) throws ODataApplicationException {
+    final int skip = getSkip(skipOption);
+    final int top = getTop(topOption);
+    final int size = entities.size();
+    final int from = Math.min(skip, size);
+    final int to = top < 0 ? size : (int) Math.min((long) from + top, size);
+
+    if (orderByOption == null || orderByOption.getOrders().isEmpty()) {
+      truncate(entities, from, to, entities);
+      return;
+    }
+    if (from == to) {
+      entities.clear();
+      return;
+    }
+
+    final List<OrderByItem> orders = orderByOption.getOrders();
+    final ExpressionEvaluator[] evaluators = new ExpressionEvaluator[orders.size()];
+    final boolean[] descending = new boolean[orders.size()];
+    for (int i = 0; i < evaluators.length; i++) {
+      evaluators[i] = compile(compiler, orders.get(i).getExpression(), "orderBy");
+      descending[i] = orders.get(i).isDescending();
+    }
+    final SortKeyComparator comparator = new SortKeyComparator(descending);
+
+    SortKey[] keys;
+    if (to <= size / 2) {
+      // Keep the best 'to' entities in a heap whose head is the worst of them.
+      final PriorityQueue<SortKey> heap =
+          new PriorityQueue<SortKey>(to + 1, Collections.reverseOrder(comparator));
+      int ordinal = 0;
+      for (final Entity entity : entities) {
+        final SortKey key = new SortKey(entity, ordinal++, evaluate(evaluators, entity));
+        if (heap.size() < to) {
+          heap.add(key);
+        } else if (comparator.compare(key, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(key);
+        }
+      }
+      keys = new SortKey[heap.size()];
+      for (int i = keys.length - 1; i >= 0; i--) {
+        keys[i] = heap.poll();
+      }
+    } else {
+      keys = new SortKey[size];
+      int ordinal = 0;
+      for (final Entity entity : entities) {
+        keys[ordinal] = new SortKey(entity, ordinal, evaluate(evaluators, entity));
+        ordinal++;
+      }
+      Arrays.sort(keys, comparator);
+    }
+
+    entities.clear();
+    for (int i = from; i < to; i++) {
+      entities.add(keys[i].entity);
+    }
+  }
+
+  /** Whether the compiled filter expression does not evaluate to <code>false</code> for the given entity. */
+  static boolean isAccepted(final ExpressionEvaluator filter, final Entity entity) throws ODataApplicationException {
+    final TypedOperand result = filter.evaluate(entity).asTypedOperand();
+    if (!result.is(primBoolean)) {
+      throw new ODataApplicationException(
+          "Invalid filter expression. Filter expressions must return a value of type Edm.Boolean",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+    return !Boolean.FALSE.equals(result.getTypedValue(Boolean.class));
+  }
+
+  static ExpressionEvaluator compile(final ExpressionCompiler compiler, final Expression expression,
+      final String option) throws ODataApplicationException {
+    try {
+      return compiler.compile(expression);
+    } catch (final ExpressionVisitException e) {
+      throw new ODataApplicationException("Exception in " + option + " evaluation",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    }
+  }
+
+  private static Object[] evaluate(final ExpressionEvaluator[] evaluators, final Entity entity)
+      throws ODataApplicationException {
+    final Object[] values = new Object[evaluators.length];
+    for (int i = 0; i < evaluators.length; i++) {
+      final TypedOperand operand = evaluators[i].evaluate(entity).asTypedOperand();
+      values[i] = operand.isNull() ? null : operand.getValue();
+    }
+    return values;
+  }
+
+  private static int getSkip(final SkipOption skipOption) throws ODataApplicationException {
+    if (skipOption == null) {
+      return 0;
+    } else if (skipOption.getValue() >= 0) {
+      return skipOption.getValue();
+    } else {
+      throw new ODataApplicationException("Skip value must be positive", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          Locale.ROOT);
+    }
+  }
+
+  private static int getTop(final TopOption topOption) throws ODataApplicationException {
+    if (topOption == null) {
+      return -1;
+    } else if (topOption.getValue() >= 0) {
+      return topOption.getValue();
+    } else {
+      throw new ODataApplicationException("Top value must be positive", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+          Locale.ROOT);
+    }
+  }
+
+  /** Reduces the target to the elements of the source list between the given indexes. */
+  static void truncate(final List<Entity> source, final int from, final int to, final List<Entity> target) {
+    if (source == target) {
+      target.subList(to, target.size()).clear();
+      target.subList(0, from).clear();
+    } else {
+      final List<Entity> kept = new ArrayList<Entity>(source.subList(from, to));
+      target.clear();
+      target.addAll(kept);
+    }
+  }
+
+  private static final class SortKey {
+    private final Entity entity;
+    private final int ordinal;
+    private final Object[] values;
+
+    private SortKey(final Entity entity, final int ordinal, final Object[] values) {
+      this.entity = entity;
+      this.ordinal = ordinal;
+      this.values = values;
+    }
+  }
+
+  private static final class SortKeyComparator implements Comparator<SortKey> {
+    private final boolean[] descending;
+
+    private SortKeyComparator(final boolean[] descending) {
+      this.descending = descending;
+    }
+
+    @Override
+    public int compare(final SortKey key1, final SortKey key2) {
+      for (int i = 0; i < descending.length; i++) {
+        final int result = compareValues(key1.values[i], key2.values[i]);
+        if (result != 0) {
+          return descending[i] ? -result : result;
+        }
+      }
+      // Equal entities keep their original order, also in the heap which does not sort stably.
+      return key1.ordinal < key2.ordinal ? -1 : key1.ordinal == key2.ordinal ? 0 : 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(final Object value1, final Object value2) {
+      if (value1 == null || value2 == null) {
+        return value1 == null ? value2 == null ? 0 : -1 : 1;
+      } else if (value1.getClass() == value2.getClass() && value1 instanceof Comparable) {
+        return ((Comparable<Object>) value1).compareTo(value2);
+      } else {
+        return 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+
+/**
+ * Applies the system query option $search to entities held in memory.
+ * <br/>
+ * Only the values of string properties are searched, also within complex and collection properties.
+ * Both the values and the search terms are split into tokens by a {@link TextTokenizer}; a word or phrase
+ * matches an entity if one of its string values contains the tokens of the word or phrase consecutively.
+ * The operators AND, OR, and NOT are applied to the whole entity.
+ * <br/>
+ * Without an index the string values of each entity are tokenized once per request.
+ * With a {@link SearchIndex} the matching entities are determined from the index,
+ * and only entities not contained in the index are tokenized.
+ * <br/>
+ * The lists given to the methods of this class are modified in place.
+ */
+public class InMemorySearchEngine {
+
+  private final TextTokenizer tokenizer;
+  private final SearchIndex index;
+
+  public InMemorySearchEngine() {
+    this(new DefaultTextTokenizer());
+  }
+
+  public InMemorySearchEngine(final TextTokenizer tokenizer) {
+    this.tokenizer = tokenizer;
+    index = null;
+  }
+
+  /**
+   * @param index the index of the entity set; its tokenizer is used for all entities
+   */
+  public InMemorySearchEngine(final SearchIndex index) {
+    tokenizer = index.getTokenizer();
+    this.index = index;
+  }
+
+  /**
+   * Removes all entities which do not match the search expression.
+   * @param searchOption the search option; if <code>null</code> nothing is done
+   * @param entities the entities to be searched
+   */
+  public void applySearch(final SearchOption searchOption, final List<Entity> entities)
+      throws ODataApplicationException {
+    if (searchOption == null) {
+      return;
+    }
+    final SearchQuery query = SearchQuery.compile(searchOption.getSearchExpression(), tokenizer);
+    final List<Entity> list = entities instanceof RandomAccess ? entities : new ArrayList<Entity>(entities);
+    final int size = list.size();
+    int kept = 0;
+    Lock lock = null;
+    BitSet matches = null;
+    if (index != null) {
+      lock = index.readLock();
+      lock.lock();
+    }
+    try {
+      if (index != null) {
+        matches = query.evaluate(index);
+      }
+      for (int i = 0; i < size; i++) {
+        final Entity entity = list.get(i);
+        final int ordinal = index == null ? -1 : index.getOrdinal(entity);
+        if (ordinal >= 0 ? matches.get(ordinal) : query.matches(new EntityText(entity, tokenizer))) {
+          if (kept != i) {
+            list.set(kept, entity);
+          }
+          kept++;
+        }
+      }
+    } finally {
+      if (lock != null) {
+        lock.unlock();
+      }
+    }
+    InMemoryQueryEngine.truncate(list, 0, kept, entities);
+  }
+}
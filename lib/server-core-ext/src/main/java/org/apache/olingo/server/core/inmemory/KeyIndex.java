@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+
+/**
+ * An index of the entities of one entity set by their key values, to find an entity
+ * by the key predicates of a request URI in constant time.
+ * <br/>
+ * The literal values of the key predicates are converted once per look-up with
+ * {@link EdmPrimitiveType#valueOfString(String, Boolean, Integer, Integer, Integer, Boolean, Class)}
+ * into the Java types used for the key values of the indexed entities.
+ * Composite keys and key properties within complex properties are supported.
+ * <br/>
+ * The index has to be maintained by the service: entities are added when they are created and
+ * removed when they are deleted. An entity whose key values are changed has to be removed before the change
+ * and added again afterwards. The index can be used by several threads concurrently; look-ups do not block.
+ */
+public class KeyIndex {
+
+  private final String[] keyNames;
+  private final EdmProperty[] keyProperties;
+  private final String[][] keyPaths;
+  private final Map<Object, Entity> entities = new ConcurrentHashMap<Object, Entity>();
+  /** For composite keys, the number of indexed entities with each value of each key property. */
+  private final Map<Object, Integer>[] valueCounts;
+  private volatile Class<?>[] valueClasses;
+
+  @SuppressWarnings("unchecked")
+  public KeyIndex(final EdmEntityType entityType) {
+    final List<EdmKeyPropertyRef> refs = entityType.getKeyPropertyRefs();
+    keyNames = new String[refs.size()];
+    keyProperties = new EdmProperty[refs.size()];
+    keyPaths = new String[refs.size()][];
+    valueCounts = new Map[refs.size() > 1 ? refs.size() : 0];
+    for (int i = 0; i < keyNames.length; i++) {
+      final EdmKeyPropertyRef ref = refs.get(i);
+      keyNames[i] = ref.getAlias() == null ? ref.getName() : ref.getAlias();
+      keyProperties[i] = ref.getProperty();
+      keyPaths[i] = ref.getName().split("/");
+      if (valueCounts.length > 0) {
+        valueCounts[i] = new ConcurrentHashMap<Object, Integer>();
+      }
+    }
+  }
+
+  /**
+   * Finds the entity with the key given in the key predicates of a request URI.
+   * @param keys the key predicates
+   * @return the entity, or <code>null</code> if there is no entity with this key
+   * @throws ODataApplicationException if a key value is not a literal (status code 501)
+   * or cannot be converted to the type of the key property (status code 400)
+   */
+  public Entity get(final List<UriParameter> keys) throws ODataApplicationException {
+    final Class<?>[] classes = valueClasses;
+    if (classes == null || keys.size() != keyNames.length) {
+      return null;
+    }
+    Object[] values = new Object[keyNames.length];
+    for (final UriParameter key : keys) {
+      final int index = indexOf(key.getName());
+      if (index < 0) {
+        return null;
+      }
+      if (key.getExpression() != null && !(key.getExpression() instanceof Literal)) {
+        throw new ODataApplicationException("Expression in key value is not supported.",
+            HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+      }
+      final String text = key.getAlias() == null ? key.getText() : ((Literal) key.getExpression()).getText();
+      final EdmProperty property = keyProperties[index];
+      final EdmPrimitiveType type = (EdmPrimitiveType) property.getType();
+      try {
+        values[index] = type.valueOfString(type.fromUriLiteral(text),
+            property.isNullable(), property.getMaxLength(), property.getPrecision(), property.getScale(),
+            property.isUnicode(), classes[index]);
+      } catch (final EdmPrimitiveTypeException e) {
+        throw new ODataApplicationException("Wrong key value for " + key.getName() + ".",
+            HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT, e);
+      }
+    }
+    for (final Object value : values) {
+      if (value == null) {
+        return null;
+      }
+    }
+    return entities.get(toKey(values));
+  }
+
+  /**
+   * Finds the entity with the given key values.
+   * @param keyValues the key values as Java objects of the types used in the indexed entities,
+   * by key-predicate name
+   * @return the entity, or <code>null</code> if there is no entity with this key
+   */
+  public Entity get(final Map<String, Object> keyValues) {
+    Object[] values = new Object[keyNames.length];
+    for (int i = 0; i < keyNames.length; i++) {
+      values[i] = keyValues.get(keyNames[i]);
+      if (values[i] == null) {
+        return null;
+      }
+    }
+    return entities.get(toKey(values));
+  }
+
+  /**
+   * Determines whether an indexed entity has the given value for one of its key properties,
+   * regardless of the values of the other key properties.
+   * @param keyName the key-predicate name of the key property
+   * @param value the value as Java object of the type used in the indexed entities
+   */
+  public boolean containsValue(final String keyName, final Object value) {
+    final int index = indexOf(keyName);
+    if (index < 0 || value == null) {
+      return false;
+    }
+    return valueCounts.length == 0 ? entities.containsKey(value) : valueCounts[index].containsKey(value);
+  }
+
+  /**
+   * Adds the entity to the index.
+   * @return the entity previously indexed with the same key, or <code>null</code>
+   */
+  public synchronized Entity add(final Entity entity) {
+    if (valueClasses == null) {
+      initValueClasses(entity);
+    }
+    final Object key = getKey(entity);
+    final Entity previous = entities.put(key, entity);
+    if (previous == null) {
+      count(key, 1);
+    }
+    return previous;
+  }
+
+  public void addAll(final Collection<? extends Entity> entities) {
+    for (final Entity entity : entities) {
+      add(entity);
+    }
+  }
+
+  /**
+   * Removes the entity from the index.
+   * @return whether the entity was contained in the index
+   */
+  public synchronized boolean remove(final Entity entity) {
+    final Object key = getKey(entity);
+    if (entities.get(key) != entity) {
+      return false;
+    }
+    entities.remove(key);
+    count(key, -1);
+    return true;
+  }
+
+  public int size() {
+    return entities.size();
+  }
+
+  private void count(final Object key, final int delta) {
+    for (int i = 0; i < valueCounts.length; i++) {
+      final Object value = ((CompositeKey) key).values[i];
+      final Integer count = valueCounts[i].get(value);
+      final int newCount = (count == null ? 0 : count) + delta;
+      if (newCount > 0) {
+        valueCounts[i].put(value, newCount);
+      } else {
+        valueCounts[i].remove(value);
+      }
+    }
+  }
+
+  private void initValueClasses(final Entity entity) {
+    Class<?>[] classes = new Class<?>[keyNames.length];
+    for (int i = 0; i < keyNames.length; i++) {
+      final Object value = getValue(entity, keyPaths[i]);
+      if (value == null) {
+        throw new IllegalArgumentException("Missing value for key property " + keyNames[i] + ".");
+      }
+      classes[i] = value instanceof Calendar ? Calendar.class : value.getClass();
+    }
+    valueClasses = classes;
+  }
+
+  private int indexOf(final String keyName) {
+    for (int i = 0; i < keyNames.length; i++) {
+      if (keyNames[i].equals(keyName)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private Object getKey(final Entity entity) {
+    Object[] values = new Object[keyNames.length];
+    for (int i = 0; i < keyNames.length; i++) {
+      values[i] = getValue(entity, keyPaths[i]);
+      if (values[i] == null) {
+        throw new IllegalArgumentException("Missing value for key property " + keyNames[i] + ".");
+      }
+    }
+    return toKey(values);
+  }
+
+  private static Object getValue(final Entity entity, final String[] path) {
+    Property property = entity.getProperty(path[0]);
+    for (int i = 1; i < path.length && property != null; i++) {
+      final ComplexValue complexValue = property.asComplex();
+      property = null;
+      if (complexValue != null) {
+        for (final Property member : complexValue.getValue()) {
+          if (path[i].equals(member.getName())) {
+            property = member;
+            break;
+          }
+        }
+      }
+    }
+    return property == null ? null : property.getValue();
+  }
+
+  private static Object toKey(final Object[] values) {
+    return values.length == 1 ? values[0] : new CompositeKey(values);
+  }
+
+  private static final class CompositeKey {
+    private final Object[] values;
+    private final int hashCode;
+
+    private CompositeKey(final Object[] values) {
+      this.values = values;
+      hashCode = Arrays.hashCode(values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof CompositeKey && Arrays.equals(values, ((CompositeKey) other).values);
+    }
+  }
+}
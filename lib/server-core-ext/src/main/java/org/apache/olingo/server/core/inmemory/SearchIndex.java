@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+
+/**
+ * An inverted index over the string values of the entities of one entity set, to be used with
+ * {@link InMemorySearchEngine}. It maps each token to the ordinals of the entities containing it.
+ * <br/>
+ * The index is maintained incrementally: entities are added, re-indexed after they have been modified,
+ * and removed one by one. Entities are identified by object identity. The postings of removed entities,
+ * and the stale postings of re-indexed ones, are dropped once they make up the larger part of the index.
+ * <br/>
+ * The index can be used by several threads; searches run concurrently, modifications exclusively.
+ */
+public class SearchIndex {
+
+  private final TextTokenizer tokenizer;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Postings> postings = new HashMap<String, Postings>();
+  private final Map<Entity, Integer> ordinals = new IdentityHashMap<Entity, Integer>();
+  private final List<Entity> entities = new ArrayList<Entity>();
+  private final BitSet live = new BitSet();
+
+  public SearchIndex() {
+    this(new DefaultTextTokenizer());
+  }
+
+  public SearchIndex(final TextTokenizer tokenizer) {
+    this.tokenizer = tokenizer;
+  }
+
+  public TextTokenizer getTokenizer() {
+    return tokenizer;
+  }
+
+  /**
+   * Adds the entity to the index; if it is already contained, it is re-indexed.
+   */
+  public void add(final Entity entity) {
+    lock.writeLock().lock();
+    try {
+      remove(ordinals.get(entity));
+      addInternal(entity);
+      compactIfSparse();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void addAll(final Collection<? extends Entity> entities) {
+    lock.writeLock().lock();
+    try {
+      for (final Entity entity : entities) {
+        remove(ordinals.get(entity));
+        addInternal(entity);
+      }
+      compactIfSparse();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Re-indexes the entity after its values have been modified.
+   * Same as {@link #add(Entity)}.
+   */
+  public void update(final Entity entity) {
+    add(entity);
+  }
+
+  /**
+   * Removes the entity from the index.
+   * @return whether the entity was contained in the index
+   */
+  public boolean remove(final Entity entity) {
+    lock.writeLock().lock();
+    try {
+      final Integer ordinal = ordinals.get(entity);
+      remove(ordinal);
+      compactIfSparse();
+      return ordinal != null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      postings.clear();
+      ordinals.clear();
+      entities.clear();
+      live.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Returns the number of entities in the index. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return ordinals.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns all entities of the index which match the search option, in the order they have been added.
+   * @param searchOption the search option; if <code>null</code> all entities are returned
+   */
+  public List<Entity> search(final SearchOption searchOption) throws ODataApplicationException {
+    final SearchQuery query = searchOption == null ? null :
+        SearchQuery.compile(searchOption.getSearchExpression(), tokenizer);
+    lock.readLock().lock();
+    try {
+      final BitSet result = query == null ? getLive() : query.evaluate(this);
+      List<Entity> found = new ArrayList<Entity>(result.cardinality());
+      for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+        found.add(entities.get(ordinal));
+      }
+      return found;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  Lock readLock() {
+    return lock.readLock();
+  }
+
+  /** Returns the ordinal of the entity, or -1 if it is not contained in the index. */
+  int getOrdinal(final Entity entity) {
+    final Integer ordinal = ordinals.get(entity);
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  Entity getEntity(final int ordinal) {
+    return entities.get(ordinal);
+  }
+
+  /** Returns a new set with the ordinals of all entities in the index. */
+  BitSet getLive() {
+    return (BitSet) live.clone();
+  }
+
+  /** Returns a new set with the ordinals of all entities in the index containing the token. */
+  BitSet getPostings(final String token) {
+    BitSet result = new BitSet();
+    final Postings list = postings.get(token);
+    if (list != null) {
+      for (int i = 0; i < list.size; i++) {
+        result.set(list.ordinals[i]);
+      }
+      result.and(live);
+    }
+    return result;
+  }
+
+  private void addInternal(final Entity entity) {
+    final int ordinal = entities.size();
+    entities.add(entity);
+    ordinals.put(entity, ordinal);
+    live.set(ordinal);
+    for (final List<String> value : new EntityText(entity, tokenizer).getValues()) {
+      for (final String token : value) {
+        Postings list = postings.get(token);
+        if (list == null) {
+          list = new Postings();
+          postings.put(token, list);
+        }
+        list.add(ordinal);
+      }
+    }
+  }
+
+  private void remove(final Integer ordinal) {
+    if (ordinal != null) {
+      ordinals.remove(entities.get(ordinal));
+      entities.set(ordinal, null);
+      live.clear(ordinal);
+    }
+  }
+
+  /** Compacts the index if the slots of removed or re-indexed entities make up its larger part. */
+  private void compactIfSparse() {
+    if (entities.size() > 2 * ordinals.size() + 64) {
+      compact();
+    }
+  }
+
+  /** Renumbers the remaining entities and drops the postings of removed ones, keeping the order. */
+  private void compact() {
+    int[] renumbered = new int[entities.size()];
+    int next = 0;
+    for (int ordinal = 0; ordinal < renumbered.length; ordinal++) {
+      final Entity entity = entities.get(ordinal);
+      if (entity == null) {
+        renumbered[ordinal] = -1;
+      } else {
+        renumbered[ordinal] = next;
+        entities.set(next, entity);
+        ordinals.put(entity, next);
+        next++;
+      }
+    }
+    entities.subList(next, entities.size()).clear();
+    live.clear();
+    live.set(0, next);
+
+    final Iterator<Postings> iterator = postings.values().iterator();
+    while (iterator.hasNext()) {
+      final Postings list = iterator.next();
+      int kept = 0;
+      for (int i = 0; i < list.size; i++) {
+        final int ordinal = renumbered[list.ordinals[i]];
+        if (ordinal >= 0) {
+          list.ordinals[kept++] = ordinal;
+        }
+      }
+      if (kept == 0) {
+        iterator.remove();
+      } else {
+        list.size = kept;
+      }
+    }
+  }
+
+  /** The ascending ordinals of the entities containing a token. */
+  private static final class Postings {
+    private int[] ordinals = new int[2];
+    private int size;
+
+    private void add(final int ordinal) {
+      // The ordinals of an entity's tokens are added together, so duplicates are adjacent.
+      if (size > 0 && ordinals[size - 1] == ordinal) {
+        return;
+      }
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+      }
+      ordinals[size++] = ordinal;
+    }
+  }
+}
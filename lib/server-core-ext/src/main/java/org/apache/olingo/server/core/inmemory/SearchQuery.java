@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinary;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+
+/**
+ * A search expression whose terms have been tokenized; it can be evaluated for a single entity
+ * or for all entities of a {@link SearchIndex} at once.
+ */
+abstract class SearchQuery {
+
+  /** Determines whether the entity with the given text matches. */
+  abstract boolean matches(EntityText text);
+
+  /**
+   * Determines the ordinals of all entities in the index which match.
+   * The caller must hold the read lock of the index; the result may be modified.
+   */
+  abstract BitSet evaluate(SearchIndex index);
+
+  static SearchQuery compile(final SearchExpression expression, final TextTokenizer tokenizer)
+      throws ODataApplicationException {
+    if (expression.isSearchTerm()) {
+      final List<String> tokens = tokenizer.tokenize(expression.asSearchTerm().getSearchTerm());
+      return new Term(tokens.toArray(new String[tokens.size()]));
+    } else if (expression.isSearchUnary()) {
+      return new Not(compile(expression.asSearchUnary().getOperand(), tokenizer));
+    } else if (expression.isSearchBinary()) {
+      final SearchBinary binary = expression.asSearchBinary();
+      final SearchQuery left = compile(binary.getLeftOperand(), tokenizer);
+      final SearchQuery right = compile(binary.getRightOperand(), tokenizer);
+      if (binary.getOperator() == SearchBinaryOperatorKind.AND) {
+        return new And(left, right);
+      } else if (binary.getOperator() == SearchBinaryOperatorKind.OR) {
+        return new Or(left, right);
+      }
+      throw new ODataApplicationException("Found unknown SearchBinaryOperatorKind: " + binary.getOperator(),
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+    }
+    throw new ODataApplicationException("Found unknown SearchExpression: " + expression,
+        HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+  }
+
+  /**
+   * A word or a phrase. If it consists of several tokens, the index only provides candidates
+   * containing all of them; these are checked for the tokens being consecutive.
+   */
+  private static final class Term extends SearchQuery {
+    private final String[] tokens;
+
+    private Term(final String[] tokens) {
+      this.tokens = tokens;
+    }
+
+    @Override
+    boolean matches(final EntityText text) {
+      return tokens.length == 1 ? text.contains(tokens[0])
+          : tokens.length > 0 && text.containsSequence(tokens);
+    }
+
+    @Override
+    BitSet evaluate(final SearchIndex index) {
+      if (tokens.length == 0) {
+        return new BitSet();
+      }
+      BitSet result = index.getPostings(tokens[0]);
+      for (int i = 1; i < tokens.length && !result.isEmpty(); i++) {
+        result.and(index.getPostings(tokens[i]));
+      }
+      if (tokens.length > 1) {
+        for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+          if (!new EntityText(index.getEntity(ordinal), index.getTokenizer()).containsSequence(tokens)) {
+            result.clear(ordinal);
+          }
+        }
+      }
+      return result;
+    }
+  }
+
+  private static final class Not extends SearchQuery {
+    private final SearchQuery operand;
+
+    private Not(final SearchQuery operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    boolean matches(final EntityText text) {
+      return !operand.matches(text);
+    }
+
+    @Override
+    BitSet evaluate(final SearchIndex index) {
+      BitSet result = index.getLive();
+      result.andNot(operand.evaluate(index));
+      return result;
+    }
+  }
+
+  private static final class And extends SearchQuery {
+    private final SearchQuery left;
+    private final SearchQuery right;
+
+    private And(final SearchQuery left, final SearchQuery right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    boolean matches(final EntityText text) {
+      return left.matches(text) && right.matches(text);
+    }
+
+    @Override
+    BitSet evaluate(final SearchIndex index) {
+      BitSet result = left.evaluate(index);
+      if (!result.isEmpty()) {
+        result.and(right.evaluate(index));
+      }
+      return result;
+    }
+  }
+
+  private static final class Or extends SearchQuery {
+    private final SearchQuery left;
+    private final SearchQuery right;
+
+    private Or(final SearchQuery left, final SearchQuery right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    boolean matches(final EntityText text) {
+      return left.matches(text) || right.matches(text);
+    }
+
+    @Override
+    BitSet evaluate(final SearchIndex index) {
+      BitSet result = left.evaluate(index);
+      result.or(right.evaluate(index));
+      return result;
+    }
+  }
+}
@@ -6,9 +6,9 @@
  * to you under the Apache License, Version 2.0 (the
  * "License"); you may not use this file except in compliance
  * with the License. You may obtain a copy of the License at
- * 
+ *
  * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
@@ -16,16 +16,23 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+package org.apache.olingo.server.core.inmemory;
 
-import org.apache.olingo.commons.api.ex.ODataException;
-import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import java.util.List;
 
-public class SystemQueryOptionsRuntimeException extends ODataRuntimeException {
-
-  private static final long serialVersionUID = 1L;
+/**
+ * Splits the values of string properties into the terms used by $search.
+ * The terms of the search expression are split the same way, so a search word matches
+ * an entity if all its tokens occur in one of the entity's string values, in the same order.
+ * <br/>
+ * Implementations must be thread-safe.
+ */
+public interface TextTokenizer {
 
-  public SystemQueryOptionsRuntimeException(final ODataException cause) {
-    super(cause);
-  }
+  /**
+   * Splits the text into tokens.
+   * @param text the text, never <code>null</code>
+   * @return the tokens in the order they occur in the text; may be empty
+   */
+  List<String> tokenize(String text);
 }
@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceFunction;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+import org.apache.olingo.server.core.inmemory.expression.operand.TypedOperand;
+import org.apache.olingo.server.core.inmemory.expression.operand.UntypedOperand;
+import org.apache.olingo.server.core.inmemory.expression.operand.VisitorOperand;
+import org.apache.olingo.server.core.inmemory.expression.operation.BinaryOperator;
+import org.apache.olingo.server.core.inmemory.expression.operation.MethodCallOperator;
+import org.apache.olingo.server.core.inmemory.expression.operation.UnaryOperator;
+
+/**
+ * Compiles an expression tree into an {@link ExpressionEvaluator}.
+ * <br/>
+ * Everything that does not depend on the entity is done once at compile time:
+ * literals, aliases, and enumeration values are converted, and member paths are resolved to property names.
+ * Members which are function calls are not supported by default;
+ * subclasses with access to the data can support them by overriding
+ * {@link #compileFunction(UriResourceFunction, Member)}.
+ */
+public class ExpressionCompiler implements ExpressionVisitor<ExpressionEvaluator> {
+
+  private final UriInfoResource uriInfo;
+
+  /**
+   * @param uriInfo the URI info the expressions to be compiled are part of; used to resolve aliases
+   */
+  public ExpressionCompiler(final UriInfoResource uriInfo) {
+    this.uriInfo = uriInfo;
+  }
+
+  public ExpressionEvaluator compile(final Expression expression)
+      throws ExpressionVisitException, ODataApplicationException {
+    return expression.accept(this);
+  }
+
+  @Override
+  public ExpressionEvaluator visitBinaryOperator(final BinaryOperatorKind operator, final ExpressionEvaluator left,
+      final ExpressionEvaluator right) throws ExpressionVisitException, ODataApplicationException {
+    switch (operator) {
+    case AND:
+    case OR:
+    case EQ:
+    case NE:
+    case GE:
+    case GT:
+    case LE:
+    case LT:
+    case ADD:
+    case SUB:
+    case MUL:
+    case DIV:
+    case MOD:
+    case HAS:
+      return new BinaryEvaluator(operator, left, right);
+    default:
+      return NOT_IMPLEMENTED;
+    }
+  }
+
+  @Override
+  public ExpressionEvaluator visitUnaryOperator(final UnaryOperatorKind operator, final ExpressionEvaluator operand)
+      throws ExpressionVisitException, ODataApplicationException {
+    return operator == UnaryOperatorKind.MINUS || operator == UnaryOperatorKind.NOT ?
+        new UnaryEvaluator(operator, operand) :
+        NOT_IMPLEMENTED;
+  }
+
+  @Override
+  public ExpressionEvaluator visitMethodCall(final MethodKind methodCall, final List<ExpressionEvaluator> parameters)
+      throws ExpressionVisitException, ODataApplicationException {
+    switch (methodCall) {
+    case ENDSWITH:
+    case INDEXOF:
+    case STARTSWITH:
+    case TOLOWER:
+    case TOUPPER:
+    case TRIM:
+    case SUBSTRING:
+    case CONTAINS:
+    case CONCAT:
+    case LENGTH:
+    case YEAR:
+    case MONTH:
+    case DAY:
+    case HOUR:
+    case MINUTE:
+    case SECOND:
+    case FRACTIONALSECONDS:
+    case ROUND:
+    case FLOOR:
+    case CEILING:
+      return new MethodCallEvaluator(methodCall, parameters);
+    default:
+      return NOT_IMPLEMENTED;
+    }
+  }
+
+  @Override
+  public ExpressionEvaluator visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final Expression expression) throws ExpressionVisitException, ODataApplicationException {
+    return NOT_IMPLEMENTED;
+  }
+
+  @Override
+  public ExpressionEvaluator visitLiteral(final Literal literal)
+      throws ExpressionVisitException, ODataApplicationException {
+    return new ConstantEvaluator(new UntypedOperand(literal.getText()));
+  }
+
+  @Override
+  public ExpressionEvaluator visitMember(final Member member)
+      throws ExpressionVisitException, ODataApplicationException {
+    final List<UriResource> uriResourceParts = member.getResourcePath().getUriResourceParts();
+
+    // UriResourceParts contains at least one UriResource.
+    final UriResource initialPart = uriResourceParts.get(0);
+    if (initialPart instanceof UriResourceProperty) {
+      final EdmProperty[] path = new EdmProperty[uriResourceParts.size()];
+      for (int i = 0; i < path.length; i++) {
+        final UriResource part = uriResourceParts.get(i);
+        if (part instanceof UriResourceProperty) {
+          path[i] = ((UriResourceProperty) part).getProperty();
+        } else {
+          return NOT_IMPLEMENTED;
+        }
+      }
+      return new MemberEvaluator(path);
+
+    } else if (initialPart instanceof UriResourceFunction) {
+      return compileFunction((UriResourceFunction) initialPart, member);
+
+    } else {
+      return NOT_IMPLEMENTED;
+    }
+  }
+
+  /**
+   * Compiles a member expression starting with a function call.
+   * The default implementation returns an evaluator which fails with <i>Not Implemented</i>.
+   * @param function the initial part of the member's resource path
+   * @param member the complete member expression
+   */
+  protected ExpressionEvaluator compileFunction(final UriResourceFunction function, final Member member)
+      throws ExpressionVisitException, ODataApplicationException {
+    return NOT_IMPLEMENTED;
+  }
+
+  @Override
+  public ExpressionEvaluator visitAlias(final String aliasName)
+      throws ExpressionVisitException, ODataApplicationException {
+    return new ConstantEvaluator(new UntypedOperand(uriInfo.getValueForAlias(aliasName)));
+  }
+
+  @Override
+  public ExpressionEvaluator visitTypeLiteral(final EdmType type)
+      throws ExpressionVisitException, ODataApplicationException {
+    return NOT_IMPLEMENTED;
+  }
+
+  @Override
+  public ExpressionEvaluator visitLambdaReference(final String variableName)
+      throws ExpressionVisitException, ODataApplicationException {
+    return NOT_IMPLEMENTED;
+  }
+
+  @Override
+  public ExpressionEvaluator visitEnum(final EdmEnumType type, final List<String> enumValues)
+      throws ExpressionVisitException, ODataApplicationException {
+    Long result = null;
+    try {
+      for (final String enumValue : enumValues) {
+        final Long value = type.valueOfString(enumValue, null, null, null, null, null, Long.class);
+        result = result == null ? value : result | value;
+      }
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new ODataApplicationException("Illegal enum value.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT, e);
+    }
+    return new ConstantEvaluator(new TypedOperand(result, type));
+  }
+
+  /**
+   * Evaluator for unsupported expressions; as for the expression visitor, the error is reported on evaluation.
+   */
+  protected static final ExpressionEvaluator NOT_IMPLEMENTED = new ExpressionEvaluator() {
+    @Override
+    public VisitorOperand evaluate(final Entity entity) throws ODataApplicationException {
+      throw new ODataApplicationException("Not implemented", HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(),
+          Locale.ROOT);
+    }
+  };
+
+  private static class ConstantEvaluator implements ExpressionEvaluator {
+    private final VisitorOperand operand;
+
+    public ConstantEvaluator(final VisitorOperand operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) {
+      return operand;
+    }
+  }
+
+  private static class MemberEvaluator implements ExpressionEvaluator {
+    private final EdmProperty[] path;
+
+    public MemberEvaluator(final EdmProperty[] path) {
+      this.path = path;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) {
+      Property property = entity.getProperty(path[0].getName());
+      for (int i = 1; i < path.length && property != null; i++) {
+        final ComplexValue complexValue = property.isComplex() ? property.asComplex() : null;
+        property = complexValue == null ? null : complexValue.getProperty(path[i].getName());
+      }
+      final EdmProperty edmProperty = path[path.length - 1];
+      return new TypedOperand(property == null ? null : property.getValue(), edmProperty.getType(), edmProperty);
+    }
+  }
+
+  private static class BinaryEvaluator implements ExpressionEvaluator {
+    private final BinaryOperatorKind operator;
+    private final ExpressionEvaluator left;
+    private final ExpressionEvaluator right;
+
+    public BinaryEvaluator(final BinaryOperatorKind operator, final ExpressionEvaluator left,
+        final ExpressionEvaluator right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) throws ODataApplicationException {
+      final BinaryOperator binaryOperator = new BinaryOperator(left.evaluate(entity), right.evaluate(entity));
+      switch (operator) {
+      case AND:
+        return binaryOperator.andOperator();
+      case OR:
+        return binaryOperator.orOperator();
+      case EQ:
+        return binaryOperator.equalsOperator();
+      case NE:
+        return binaryOperator.notEqualsOperator();
+      case GE:
+        return binaryOperator.greaterEqualsOperator();
+      case GT:
+        return binaryOperator.greaterThanOperator();
+      case LE:
+        return binaryOperator.lessEqualsOperator();
+      case LT:
+        return binaryOperator.lessThanOperator();
+      case HAS:
+        return binaryOperator.hasOperator();
+      default:
+        return binaryOperator.arithmeticOperator(operator);
+      }
+    }
+  }
+
+  private static class UnaryEvaluator implements ExpressionEvaluator {
+    private final UnaryOperatorKind operator;
+    private final ExpressionEvaluator operand;
+
+    public UnaryEvaluator(final UnaryOperatorKind operator, final ExpressionEvaluator operand) {
+      this.operator = operator;
+      this.operand = operand;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) throws ODataApplicationException {
+      final UnaryOperator unaryOperator = new UnaryOperator(operand.evaluate(entity));
+      return operator == UnaryOperatorKind.MINUS ?
+          unaryOperator.minusOperation() :
+          unaryOperator.notOperation();
+    }
+  }
+
+  private static class MethodCallEvaluator implements ExpressionEvaluator {
+    private final MethodKind methodCall;
+    private final ExpressionEvaluator[] parameters;
+
+    public MethodCallEvaluator(final MethodKind methodCall, final List<ExpressionEvaluator> parameters) {
+      this.methodCall = methodCall;
+      this.parameters = parameters.toArray(new ExpressionEvaluator[parameters.size()]);
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) throws ODataApplicationException {
+      final List<VisitorOperand> operands = new ArrayList<VisitorOperand>(parameters.length);
+      for (final ExpressionEvaluator parameter : parameters) {
+        operands.add(parameter.evaluate(entity));
+      }
+      final MethodCallOperator methodCallOperation = new MethodCallOperator(operands);
+
+      switch (methodCall) {
+      case ENDSWITH:
+        return methodCallOperation.endsWith();
+      case INDEXOF:
+        return methodCallOperation.indexOf();
+      case STARTSWITH:
+        return methodCallOperation.startsWith();
+      case TOLOWER:
+        return methodCallOperation.toLower();
+      case TOUPPER:
+        return methodCallOperation.toUpper();
+      case TRIM:
+        return methodCallOperation.trim();
+      case SUBSTRING:
+        return methodCallOperation.substring();
+      case CONTAINS:
+        return methodCallOperation.contains();
+      case CONCAT:
+        return methodCallOperation.concat();
+      case LENGTH:
+        return methodCallOperation.length();
+      case YEAR:
+        return methodCallOperation.year();
+      case MONTH:
+        return methodCallOperation.month();
+      case DAY:
+        return methodCallOperation.day();
+      case HOUR:
+        return methodCallOperation.hour();
+      case MINUTE:
+        return methodCallOperation.minute();
+      case SECOND:
+        return methodCallOperation.second();
+      case FRACTIONALSECONDS:
+        return methodCallOperation.fractionalseconds();
+      case ROUND:
+        return methodCallOperation.round();
+      case FLOOR:
+        return methodCallOperation.floor();
+      default:
+        return methodCallOperation.ceiling();
+      }
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory.expression;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.core.inmemory.expression.operand.VisitorOperand;
+
+/**
+ * An expression compiled by the {@link ExpressionCompiler};
+ * it can be evaluated for any number of entities without visiting the expression tree again.
+ */
+public interface ExpressionEvaluator {
+
+  /**
+   * Evaluates the expression for the given entity.
+   * @param entity the entity the members of the expression refer to
+   * @return the result of the evaluation
+   * @throws ODataApplicationException if the expression cannot be evaluated for this entity
+   */
+  VisitorOperand evaluate(Entity entity) throws ODataApplicationException;
+}
@@ -16,7 +16,7 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand;
+package org.apache.olingo.server.core.inmemory.expression.operand;
 
 import java.util.Locale;
 
@@ -27,17 +27,39 @@ import org.apache.olingo.server.api.ODataApplicationException;
 
 public class UntypedOperand extends VisitorOperand {
 
+  /*
+   * A compiled expression keeps its literal operands for all entities it is evaluated for,
+   * so the results of the (expensive) literal conversions are remembered.
+   */
+  private volatile TypedOperand determined;
+  private volatile TypedOperand lastCast;
+
   public UntypedOperand(final String literal) {
     super(literal);
   }
 
   @Override
   public TypedOperand asTypedOperand() throws ODataApplicationException {
-    return determineType();
+    TypedOperand result = determined;
+    if (result == null) {
+      result = determineType();
+      determined = result;
+    }
+    return result;
   }
 
   @Override
   public TypedOperand asTypedOperand(final EdmPrimitiveType type) throws ODataApplicationException {
+    final TypedOperand cached = lastCast;
+    if (cached != null && (cached.getType() == type || cached.is(primNull))) {
+      return cached;
+    }
+    final TypedOperand result = castLiteral(type);
+    lastCast = result;
+    return result;
+  }
+
+  private TypedOperand castLiteral(final EdmPrimitiveType type) throws ODataApplicationException {
     final String literal = (String) value;
     Object newValue = null;
 
@@ -37,6 +37,7 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartReader;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.core.ContentNegotiatorException;
 import org.apache.olingo.server.core.ServiceDispatcher;
@@ -68,13 +69,15 @@ public class BatchRequest extends ServiceRequest {
     final BatchOptions options = BatchOptions.with().rawBaseUri(request.getRawBaseUri())
         .rawServiceResolutionUri(this.request.getRawServiceResolutionUri()).build();
 
-    final List<BatchRequestPart> parts = this.odata.createFixedFormatDeserializer()
-        .parseBatchRequest(request.getBody(), boundary, options);
+    // each part is processed as soon as it has been read
+    final BatchRequestPartReader parts = this.odata.createFixedFormatDeserializer()
+        .readBatchRequest(request.getBody(), boundary, options);
 
     ODataResponsePart partResponse = null;
     final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
 
-    for (BatchRequestPart part : parts) {
+    BatchRequestPart part;
+    while ((part = parts.next()) != null) {
       if (part.isChangeSet()) {
         String txnId = null;
         try {
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.olingo.server.api.ODataHttpHandler;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ODataAsyncHttpHandlerTest {
+
+  private static class QueueingExecutor implements Executor {
+    private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    @Override
+    public void execute(final Runnable command) {
+      tasks.add(command);
+    }
+  }
+
+  @Test
+  public void processOnExecutor() {
+    final ODataHttpHandler handler = mock(ODataHttpHandler.class);
+    final HttpServletRequest request = mock(HttpServletRequest.class);
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    final AsyncContext asyncContext = mockAsyncContext(request, response);
+    final QueueingExecutor executor = new QueueingExecutor();
+
+    new ODataAsyncHttpHandler(handler, executor).process(request, response);
+    verify(handler, never()).process(eq(request), any(HttpServletResponse.class));
+    verify(asyncContext, never()).complete();
+    assertEquals(1, executor.tasks.size());
+
+    executor.tasks.get(0).run();
+    verify(handler).process(eq(request), any(HttpServletResponse.class));
+    verify(asyncContext).complete();
+  }
+
+  @Test
+  public void synchronousWithoutAsyncSupport() {
+    final ODataHttpHandler handler = mock(ODataHttpHandler.class);
+    final HttpServletRequest request = mock(HttpServletRequest.class);
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    final QueueingExecutor executor = new QueueingExecutor();
+
+    new ODataAsyncHttpHandler(handler, executor).process(request, response);
+    verify(handler).process(request, response);
+    verify(request, never()).startAsync(request, response);
+    assertEquals(0, executor.tasks.size());
+  }
+
+  @Test
+  public void rejected() {
+    final ODataHttpHandler handler = mock(ODataHttpHandler.class);
+    final HttpServletRequest request = mock(HttpServletRequest.class);
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    final AsyncContext asyncContext = mockAsyncContext(request, response);
+
+    new ODataAsyncHttpHandler(handler, new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    }).process(request, response);
+    verify(handler, never()).process(eq(request), any(HttpServletResponse.class));
+    verify(response).setStatus(503);
+    verify(asyncContext).complete();
+  }
+
+  @Test
+  public void completedOnFailure() {
+    final ODataHttpHandler handler = mock(ODataHttpHandler.class);
+    final HttpServletRequest request = mock(HttpServletRequest.class);
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    final AsyncContext asyncContext = mockAsyncContext(request, response);
+    final QueueingExecutor executor = new QueueingExecutor();
+    doThrow(new IllegalStateException()).when(handler).process(eq(request), any(HttpServletResponse.class));
+
+    new ODataAsyncHttpHandler(handler, executor).process(request, response);
+    assertNotNull(executor.tasks.get(0));
+    try {
+      executor.tasks.get(0).run();
+    } catch (final IllegalStateException e) {
+      // expected
+    }
+    verify(asyncContext).complete();
+    verify(asyncContext).addListener(any(AsyncListener.class));
+  }
+
+  @Test
+  public void timeoutBeforeStart() throws Exception {
+    final ODataHttpHandler handler = mock(ODataHttpHandler.class);
+    final HttpServletRequest request = mock(HttpServletRequest.class);
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    final AsyncContext asyncContext = mockAsyncContext(request, response);
+    final QueueingExecutor executor = new QueueingExecutor();
+
+    new ODataAsyncHttpHandler(handler, executor).process(request, response);
+    getListener(asyncContext).onTimeout(new AsyncEvent(asyncContext, request, response));
+    verify(response).setStatus(503);
+    verify(asyncContext).complete();
+
+    executor.tasks.get(0).run();
+    verify(handler, never()).process(eq(request), any(HttpServletResponse.class));
+    verify(asyncContext).complete();
+  }
+
+  @Test
+  public void timeoutWhileRunning() throws Exception {
+    final HttpServletRequest request = mock(HttpServletRequest.class);
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    final ServletOutputStream output = mock(ServletOutputStream.class);
+    when(response.getOutputStream()).thenReturn(output);
+    final AsyncContext asyncContext = mockAsyncContext(request, response);
+    final QueueingExecutor executor = new QueueingExecutor();
+    final CountDownLatch running = new CountDownLatch(1);
+    final AtomicBoolean interrupted = new AtomicBoolean(false);
+    final AtomicBoolean writeFailed = new AtomicBoolean(false);
+    final ODataHttpHandler handler = mock(ODataHttpHandler.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) {
+        final HttpServletResponse guarded = (HttpServletResponse) invocation.getArguments()[1];
+        running.countDown();
+        try {
+          new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+          interrupted.set(true);
+        }
+        // The exchange has been ended by the timeout: the response must not be touched any more.
+        guarded.setStatus(200);
+        try {
+          guarded.getOutputStream().write(new byte[] { 1 });
+        } catch (final IOException e) {
+          writeFailed.set(true);
+        }
+        return null;
+      }
+    }).when(handler).process(eq(request), any(HttpServletResponse.class));
+
+    new ODataAsyncHttpHandler(handler, executor).process(request, response);
+    final Thread worker = new Thread(executor.tasks.get(0));
+    worker.start();
+    assertTrue(running.await(10, TimeUnit.SECONDS));
+
+    getListener(asyncContext).onTimeout(new AsyncEvent(asyncContext, request, response));
+    verify(response).setStatus(503);
+    verify(asyncContext).complete();
+
+    worker.join(10000);
+    assertFalse(worker.isAlive());
+    assertTrue(interrupted.get());
+    assertTrue(writeFailed.get());
+    verify(response, never()).setStatus(200);
+    verify(output, never()).write(any(byte[].class), anyInt(), anyInt());
+    // Completed by the timeout only, not a second time by the worker.
+    verify(asyncContext).complete();
+  }
+
+  @Test
+  public void errorWhileRunning() throws Exception {
+    final HttpServletRequest request = mock(HttpServletRequest.class);
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    final AsyncContext asyncContext = mockAsyncContext(request, response);
+    final QueueingExecutor executor = new QueueingExecutor();
+    final ODataHttpHandler handler = mock(ODataHttpHandler.class);
+
+    new ODataAsyncHttpHandler(handler, executor).process(request, response);
+    getListener(asyncContext).onError(new AsyncEvent(asyncContext, request, response));
+    verify(asyncContext).complete();
+
+    executor.tasks.get(0).run();
+    verify(handler, never()).process(eq(request), any(HttpServletResponse.class));
+    verify(asyncContext).complete();
+  }
+
+  private AsyncListener getListener(final AsyncContext asyncContext) {
+    final ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+    verify(asyncContext).addListener(listener.capture());
+    return listener.getValue();
+  }
+
+  private AsyncContext mockAsyncContext(final HttpServletRequest request, final HttpServletResponse response) {
+    final AsyncContext asyncContext = mock(AsyncContext.class);
+    when(asyncContext.getRequest()).thenReturn(request);
+    when(asyncContext.getResponse()).thenReturn(response);
+    when(request.isAsyncSupported()).thenReturn(true);
+    when(request.startAsync(request, response)).thenReturn(asyncContext);
+    return asyncContext;
+  }
+}
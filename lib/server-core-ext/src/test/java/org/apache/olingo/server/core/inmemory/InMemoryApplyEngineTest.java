@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.FileReader;
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class InMemoryApplyEngineTest {
+
+  private static final OData odata = OData.newInstance();
+  private static ServiceMetadata metadata;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    final CsdlEdmProvider provider = (CsdlEdmProvider) new MetadataParser()
+        .buildEdmProvider(new FileReader("src/test/resources/trippin.xml"));
+    metadata = odata.createServiceMetadata(provider, Collections.<EdmxReference> emptyList());
+  }
+
+  @Test
+  public void aggregate() throws Exception {
+    final EntityCollection result = apply("aggregate(Budget with sum as Total,Budget with max as Highest,"
+        + "Budget with average as Average,Name with countdistinct as Names,$count as Count)");
+    assertEquals(1, result.getEntities().size());
+    final Entity entity = result.getEntities().get(0);
+    assertEquals(0, new BigDecimal(7000).compareTo((BigDecimal) entity.getProperty("Total").getValue()));
+    assertEquals(3000F, entity.getProperty("Highest").getValue());
+    assertEquals(0, new BigDecimal(1750).compareTo((BigDecimal) entity.getProperty("Average").getValue()));
+    assertEquals(BigDecimal.valueOf(3), entity.getProperty("Names").getValue());
+    assertEquals(BigDecimal.valueOf(5), entity.getProperty("Count").getValue());
+  }
+
+  @Test
+  public void groupBy() throws Exception {
+    final EntityCollection result = apply("groupby((Name),aggregate(Budget with sum as Total))");
+    assertEquals("Paris=4000 Rome=1000 Oslo=2000", format(result, "Name", "Total"));
+  }
+
+  @Test
+  public void groupByWithoutAggregation() throws Exception {
+    final EntityCollection result = apply("filter(Budget gt 500)/groupby((Name))");
+    assertEquals("Paris Rome Oslo", format(result, "Name"));
+    assertEquals(1, result.getEntities().get(0).getProperties().size());
+  }
+
+  @Test
+  public void groupByWithNestedTransformations() throws Exception {
+    final EntityCollection result = apply("groupby((Name),topcount(1,Budget)/aggregate(Budget with sum as Top))");
+    assertEquals("Paris=3000 Rome=1000 Oslo=2000", format(result, "Name", "Top"));
+  }
+
+  @Test
+  public void computeAndFilter() throws Exception {
+    final EntityCollection result = apply("compute(Budget mul 2 as Double)/filter(Double gt 2500)");
+    assertEquals("Paris=6000 Oslo=4000", format(result, "Name", "Double"));
+  }
+
+  @Test
+  public void search() throws Exception {
+    final EntityCollection result = apply("search(paris OR NOT rome)/groupby((Name))");
+    assertEquals("Paris Oslo", format(result, "Name"));
+  }
+
+  @Test
+  public void bottomTop() throws Exception {
+    assertEquals("3 4", format(apply("topcount(2,Budget)"), "TripId"));
+    assertEquals("1 2", format(apply("bottomcount(2,Budget)"), "TripId"));
+    assertEquals("3 4", format(apply("topsum(4000,Budget)"), "TripId"));
+    assertEquals("1 2", format(apply("bottomsum(1500,Budget)"), "TripId"));
+    assertEquals("3", format(apply("toppercent(40,Budget)"), "TripId"));
+  }
+
+  @Test
+  public void concat() throws Exception {
+    final EntityCollection result = apply("concat(topcount(1,Budget),aggregate($count as Count))");
+    assertEquals(2, result.getEntities().size());
+    assertEquals(3000F, result.getEntities().get(0).getProperty("Budget").getValue());
+    assertEquals(BigDecimal.valueOf(5), result.getEntities().get(1).getProperty("Count").getValue());
+  }
+
+  @Test
+  public void sourceIsNotModified() throws Exception {
+    final EntityCollection trips = trips();
+    apply("compute(Budget add 1 as More)", trips);
+    assertNull(trips.getEntities().get(0).getProperty("More"));
+  }
+
+  @Test
+  public void unsupported() throws Exception {
+    try {
+      apply("groupby((rollup($all,Name)),aggregate($count as Count))");
+      fail("Expected an exception.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void serialize() throws Exception {
+    final UriInfo uriInfo = parse("groupby((Name),aggregate(Budget with sum as Total))");
+    final InMemoryApplyEngine engine = new InMemoryApplyEngine(uriInfo);
+    final EdmEntityType type = engine.getResultType(uriInfo.getApplyOption(), getTripType());
+    assertEquals(Collections.<String> emptyList(), type.getKeyPredicateNames());
+    final String json = IOUtils.toString(odata.createSerializer(ContentType.JSON_NO_METADATA)
+        .entityCollection(metadata, type, engine.apply(uriInfo.getApplyOption(), trips()),
+            EntityCollectionSerializerOptions.with().build())
+        .getContent());
+    assertEquals("{\"value\":[{\"Name\":\"Paris\",\"Total\":4000.0},{\"Name\":\"Rome\",\"Total\":1000.0},"
+        + "{\"Name\":\"Oslo\",\"Total\":2000.0}]}", json);
+  }
+
+  private EntityCollection apply(final String apply) throws Exception {
+    return apply(apply, trips());
+  }
+
+  private EntityCollection apply(final String apply, final EntityCollection trips) throws Exception {
+    final UriInfo uriInfo = parse(apply);
+    return new InMemoryApplyEngine(uriInfo).apply(uriInfo.getApplyOption(), trips);
+  }
+
+  private UriInfo parse(final String apply) throws Exception {
+    return new Parser(metadata.getEdm(), odata).parseUri("People('russellwhyte')/Trips", "$apply=" + apply, null);
+  }
+
+  private EdmEntityType getTripType() {
+    return metadata.getEdm().getEntityContainer().getEntitySet("People").getEntityType()
+        .getNavigationProperty("Trips").getType();
+  }
+
+  private static EntityCollection trips() {
+    EntityCollection trips = new EntityCollection();
+    trips.getEntities().add(trip(1, "Paris", 1000F));
+    trips.getEntities().add(trip(2, "Rome", 1000F));
+    trips.getEntities().add(trip(3, "Paris", 3000F));
+    trips.getEntities().add(trip(4, "Oslo", 2000F));
+    trips.getEntities().add(trip(5, "Rome", null));
+    return trips;
+  }
+
+  private static Entity trip(final int id, final String name, final Float budget) {
+    return new Entity()
+        .addProperty(new Property(null, "TripId", ValueType.PRIMITIVE, id))
+        .addProperty(new Property(null, "Name", ValueType.PRIMITIVE, name))
+        .addProperty(new Property(null, "Budget", ValueType.PRIMITIVE, budget));
+  }
+
+  private static String format(final EntityCollection entities, final String... names) {
+    final StringBuilder result = new StringBuilder();
+    for (final Entity entity : entities) {
+      result.append(result.length() == 0 ? "" : " ");
+      for (int i = 0; i < names.length; i++) {
+        final Object value = entity.getProperty(names[i]).getValue();
+        result.append(i == 0 ? "" : "=")
+            .append(value instanceof BigDecimal ? ((BigDecimal) value).stripTrailingZeros().toPlainString() : value);
+      }
+    }
+    return result.toString();
+  }
+}
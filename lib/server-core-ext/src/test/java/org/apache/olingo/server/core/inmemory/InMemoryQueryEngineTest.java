@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class InMemoryQueryEngineTest {
+
+  private static final OData odata = OData.newInstance();
+  private static Edm edm;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    final CsdlEdmProvider provider = (CsdlEdmProvider) new MetadataParser()
+        .buildEdmProvider(new FileReader("src/test/resources/trippin.xml"));
+    edm = odata.createServiceMetadata(provider, Collections.<EdmxReference> emptyList()).getEdm();
+  }
+
+  @Test
+  public void filter() throws Exception {
+    final List<Entity> people = people("Russell:Whyte", "Scott:Ketchum", "Ronald:Mundy", "Javier:", "Willie:Ashmore");
+    apply("$filter=startswith(FirstName,'R') or LastName eq 'Ashmore'", people);
+    assertEquals("Russell Ronald Willie", firstNames(people));
+
+    apply("$filter=LastName eq null", people("Russell:Whyte", "Javier:"));
+  }
+
+  @Test
+  public void filterWithAlias() throws Exception {
+    final List<Entity> people = people("Russell:Whyte", "Scott:Ketchum", "Ronald:Mundy");
+    apply("$filter=FirstName eq @name&@name='Scott'", people);
+    assertEquals("Scott", firstNames(people));
+  }
+
+  @Test
+  public void unsupportedExpression() throws Exception {
+    final String lambda = "$filter=Emails/any(e:endswith(e,'example.com'))";
+    apply(lambda, new ArrayList<Entity>());
+    try {
+      apply(lambda, people("Russell:Whyte"));
+      fail("Expected an exception.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void orderBy() throws Exception {
+    final List<Entity> people = people("Russell:Whyte", "Scott:Ketchum", "Ronald:Mundy", "Javier:", "Ronald:Abbott");
+    apply("$orderby=FirstName desc,LastName", people);
+    assertEquals("Scott Russell Ronald Ronald Javier", firstNames(people));
+    assertEquals("Abbott", people.get(2).getProperty("LastName").getValue());
+
+    apply("$orderby=LastName", people);
+    assertEquals("Javier Ronald Scott Ronald Russell", firstNames(people));
+  }
+
+  @Test
+  public void skipTop() throws Exception {
+    final List<Entity> people = people("A:1", "B:2", "C:3", "D:4", "E:5");
+    apply("$skip=1&$top=2", people);
+    assertEquals("B C", firstNames(people));
+
+    final List<Entity> all = people("A:1", "B:2");
+    apply("$skip=3&$orderby=FirstName", all);
+    assertEquals("", firstNames(all));
+  }
+
+  @Test
+  public void orderByWithTopIsStable() throws Exception {
+    final List<Entity> people = new ArrayList<Entity>();
+    final Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      people.add(person(String.valueOf(i), String.valueOf((char) ('A' + random.nextInt(10)))));
+    }
+    final List<Entity> expected = new ArrayList<Entity>(people);
+    apply("$orderby=LastName desc", expected);
+
+    // The bounded heap for small pages must result in exactly the same order as the complete sort.
+    final List<Entity> page = new ArrayList<Entity>(people);
+    apply("$orderby=LastName desc&$skip=20&$top=30", page);
+    assertEquals(expected.subList(20, 50), page);
+
+    final List<Entity> largePage = new ArrayList<Entity>(people);
+    apply("$orderby=LastName desc&$skip=100&$top=800", largePage);
+    assertEquals(expected.subList(100, 900), largePage);
+  }
+
+  private void apply(final String query, final List<Entity> entities) throws Exception {
+    final UriInfo uriInfo = new Parser(edm, odata).parseUri("People", query, null);
+    final InMemoryQueryEngine engine = new InMemoryQueryEngine(uriInfo);
+    engine.applyFilter(uriInfo.getFilterOption(), entities);
+    engine.applyOrderBySkipTop(uriInfo.getOrderByOption(), uriInfo.getSkipOption(), uriInfo.getTopOption(),
+        entities);
+  }
+
+  private static List<Entity> people(final String... names) {
+    final List<Entity> people = new ArrayList<Entity>();
+    for (final String name : names) {
+      final String[] parts = name.split(":", -1);
+      people.add(person(parts[0], parts[1].isEmpty() ? null : parts[1]));
+    }
+    return people;
+  }
+
+  private static Entity person(final String firstName, final String lastName) {
+    return new Entity()
+        .addProperty(new Property(null, "UserName", ValueType.PRIMITIVE, firstName + lastName))
+        .addProperty(new Property(null, "FirstName", ValueType.PRIMITIVE, firstName))
+        .addProperty(new Property(null, "LastName", ValueType.PRIMITIVE, lastName));
+  }
+
+  private static String firstNames(final List<Entity> people) {
+    final StringBuilder result = new StringBuilder();
+    for (final Entity person : people) {
+      result.append(result.length() == 0 ? "" : " ").append(person.getProperty("FirstName").getValue());
+    }
+    return result.toString();
+  }
+}
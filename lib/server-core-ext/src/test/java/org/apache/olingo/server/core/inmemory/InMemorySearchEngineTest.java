@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class InMemorySearchEngineTest {
+
+  private static final OData odata = OData.newInstance();
+  private static Edm edm;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    final CsdlEdmProvider provider = (CsdlEdmProvider) new MetadataParser()
+        .buildEdmProvider(new FileReader("src/test/resources/trippin.xml"));
+    edm = odata.createServiceMetadata(provider, Collections.<EdmxReference> emptyList()).getEdm();
+  }
+
+  @Test
+  public void tokenizer() {
+    assertEquals(Arrays.asList("number", "106", "o", "brien"),
+        new DefaultTextTokenizer().tokenize("Number:106, O'Brien"));
+    assertEquals(Arrays.asList("Ab", "Cd"), new DefaultTextTokenizer(false).tokenize("  Ab--Cd "));
+    assertTrue(new DefaultTextTokenizer().tokenize(" - ").isEmpty());
+  }
+
+  @Test
+  public void search() throws Exception {
+    assertEquals("Russell", search("whyte", people()));
+    assertEquals("Scott Ronald", search("ketchum OR MUNDY", people()));
+    assertEquals("Russell", search("Russell AND Whyte", people()));
+    assertEquals("Scott Ronald Javier", search("NOT whyte", people()));
+    assertEquals("Javier", search("\"Anna Lee\"", people()));
+    assertEquals("", search("\"Lee Anna\"", people()));
+    assertEquals("", search("russ", people()));
+  }
+
+  @Test
+  public void searchInComplexAndCollectionValues() throws Exception {
+    final Entity person = person("Kristina", "Rosen");
+    person.addProperty(new Property(null, "Emails", ValueType.COLLECTION_PRIMITIVE,
+        Arrays.asList("kristina@example.com", "kr@example.org")));
+    ComplexValue address = new ComplexValue();
+    address.getValue().add(new Property(null, "City", ValueType.PRIMITIVE, "San Francisco"));
+    person.addProperty(new Property(null, "AddressInfo", ValueType.COLLECTION_COMPLEX,
+        Collections.singletonList(address)));
+
+    assertEquals("Kristina", search("\"example org\"", list(person)));
+    assertEquals("Kristina", search("\"san francisco\"", list(person)));
+    assertEquals("", search("\"org kristina\"", list(person)));
+  }
+
+  @Test
+  public void index() throws Exception {
+    final List<Entity> people = people();
+    final SearchIndex index = new SearchIndex();
+    index.addAll(people);
+    assertEquals(4, index.size());
+
+    for (final String query : new String[] { "whyte", "ketchum OR MUNDY", "Russell AND Whyte", "NOT whyte",
+        "\"Anna Lee\"", "\"Lee Anna\"", "NOT ronald AND NOT scott AND NOT lee", "(mundy OR lee) AND NOT ronald" }) {
+      assertEquals(query, search(query, people()), search(query, people, index));
+    }
+    assertEquals(2, index.search(parse("NOT ronald AND NOT scott")).size());
+    assertEquals(4, index.search(null).size());
+
+    // Entities not contained in the index are searched without it.
+    final List<Entity> more = new ArrayList<Entity>(people);
+    more.add(person("Ursula", "Mundy"));
+    assertEquals("Ronald Ursula", search("mundy", more, index));
+  }
+
+  @Test
+  public void incrementalIndex() throws Exception {
+    final List<Entity> people = people();
+    final SearchIndex index = new SearchIndex();
+    index.addAll(people);
+
+    final Entity scott = people.get(1);
+    scott.getProperty("LastName").setValue(ValueType.PRIMITIVE, "Whyte");
+    index.update(scott);
+    assertEquals("Russell Scott", search("whyte", people, index));
+    assertEquals("", search("ketchum", people, index));
+
+    assertTrue(index.remove(people.get(0)));
+    assertFalse(index.remove(people.get(0)));
+    assertEquals(1, index.search(parse("whyte")).size());
+
+    // Removing many entities compacts the index without changing the results.
+    final List<Entity> others = new ArrayList<Entity>();
+    for (int i = 0; i < 200; i++) {
+      others.add(person("Person" + i, "Whyte"));
+    }
+    index.addAll(others);
+    for (int i = 0; i < 190; i++) {
+      index.remove(others.get(i));
+    }
+    assertEquals(13, index.size());
+    final List<Entity> found = index.search(parse("whyte"));
+    assertEquals(11, found.size());
+    assertEquals(scott, found.get(0));
+    assertEquals(others.get(190), found.get(1));
+    assertEquals(others.get(199), found.get(10));
+  }
+
+  @Test
+  public void repeatedUpdates() throws Exception {
+    final List<Entity> people = people();
+    final SearchIndex index = new SearchIndex();
+    index.addAll(people);
+
+    // Each update leaves stale postings behind, which must be compacted away.
+    final Entity scott = people.get(1);
+    for (int i = 0; i < 1000; i++) {
+      scott.getProperty("LastName").setValue(ValueType.PRIMITIVE, i == 999 ? "Final" : "Name " + i);
+      index.update(scott);
+      assertTrue(index.getOrdinal(scott) <= 2 * index.size() + 64);
+    }
+    assertEquals(4, index.size());
+    assertEquals("Scott", search("final", people, index));
+    assertEquals("", search("name", people, index));
+    assertEquals("Russell Ronald Javier Scott", firstNames(index.search(null)));
+  }
+
+  private String search(final String search, final List<Entity> entities) throws Exception {
+    new InMemorySearchEngine().applySearch(parse(search), entities);
+    return firstNames(entities);
+  }
+
+  private String search(final String search, final List<Entity> entities, final SearchIndex index)
+      throws Exception {
+    final List<Entity> copy = new ArrayList<Entity>(entities);
+    new InMemorySearchEngine(index).applySearch(parse(search), copy);
+    return firstNames(copy);
+  }
+
+  private SearchOption parse(final String search) throws Exception {
+    return new Parser(edm, odata).parseUri("People", "$search=" + search, null).getSearchOption();
+  }
+
+  private static List<Entity> people() {
+    return list(person("Russell", "Whyte"), person("Scott", "Ketchum"), person("Ronald", "Mundy"),
+        person("Javier", "Anna Lee"));
+  }
+
+  private static List<Entity> list(final Entity... entities) {
+    return new ArrayList<Entity>(Arrays.asList(entities));
+  }
+
+  private static Entity person(final String firstName, final String lastName) {
+    return new Entity()
+        .addProperty(new Property(null, "UserName", ValueType.PRIMITIVE, firstName.toLowerCase()))
+        .addProperty(new Property(null, "FirstName", ValueType.PRIMITIVE, firstName))
+        .addProperty(new Property(null, "LastName", ValueType.PRIMITIVE, lastName));
+  }
+
+  private static String firstNames(final List<Entity> people) {
+    final StringBuilder result = new StringBuilder();
+    for (final Entity person : people) {
+      result.append(result.length() == 0 ? "" : " ").append(person.getProperty("FirstName").getValue());
+    }
+    return result.toString();
+  }
+}
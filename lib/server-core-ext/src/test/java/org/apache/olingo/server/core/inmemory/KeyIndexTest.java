@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.inmemory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class KeyIndexTest {
+
+  private static final OData odata = OData.newInstance();
+  private static Edm edm;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    final CsdlEdmProvider provider = (CsdlEdmProvider) new MetadataParser()
+        .buildEdmProvider(new FileReader("src/test/resources/trippin.xml"));
+    edm = odata.createServiceMetadata(provider, Collections.<EdmxReference> emptyList()).getEdm();
+  }
+
+  @Test
+  public void lookUp() throws Exception {
+    final KeyIndex index = new KeyIndex(edm.getEntityContainer().getEntitySet("People").getEntityType());
+    assertNull(index.get(keys("People('russellwhyte')", null)));
+
+    final List<Entity> people = new ArrayList<Entity>();
+    for (int i = 0; i < 1000; i++) {
+      people.add(entity("UserName", "user" + i));
+    }
+    index.addAll(people);
+    assertEquals(1000, index.size());
+
+    assertSame(people.get(42), index.get(keys("People('user42')", null)));
+    assertSame(people.get(7), index.get(keys("People(UserName=@u)", "@u='user7'")));
+    assertSame(people.get(999), index.get(Collections.<String, Object> singletonMap("UserName", "user999")));
+    assertNull(index.get(keys("People('user1000')", null)));
+    assertTrue(index.containsValue("UserName", "user1"));
+    assertFalse(index.containsValue("Name", "user1"));
+  }
+
+  @Test
+  public void maintenance() throws Exception {
+    final KeyIndex index = new KeyIndex(edm.getEntityContainer().getEntitySet("Airlines").getEntityType());
+    final Entity first = entity("AirlineCode", "AA");
+    final Entity second = entity("AirlineCode", "FM");
+    assertNull(index.add(first));
+    assertNull(index.add(second));
+    assertSame(first, index.get(keys("Airlines('AA')", null)));
+
+    assertFalse(index.remove(entity("AirlineCode", "AA")));
+    assertTrue(index.remove(first));
+    assertFalse(index.remove(first));
+    assertNull(index.get(keys("Airlines('AA')", null)));
+
+    final Entity replacement = entity("AirlineCode", "FM");
+    assertSame(second, index.add(replacement));
+    assertSame(replacement, index.get(keys("Airlines('FM')", null)));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  public void keyValueType() throws Exception {
+    final KeyIndex index = new KeyIndex(edm.getEntityContainer().getEntitySet("People").getEntityType()
+        .getNavigationProperty("Trips").getType());
+    // The key literals are converted to the Java type of the indexed values, not to the default type.
+    final Entity trip = entity("TripId", (short) 1);
+    index.add(trip);
+    assertSame(trip, index.get(keys("People('x')/Trips(1)", null)));
+    assertNull(index.get(keys("People('x')/Trips(2)", null)));
+  }
+
+  private List<UriParameter> keys(final String path, final String query) throws Exception {
+    final List<UriResource> parts = new Parser(edm, odata).parseUri(path, query, null).getUriResourceParts();
+    final UriResource last = parts.get(parts.size() - 1);
+    return last instanceof UriResourceNavigation ?
+        ((UriResourceNavigation) last).getKeyPredicates() :
+        ((UriResourceEntitySet) last).getKeyPredicates();
+  }
+
+  private static Entity entity(final String keyName, final Object keyValue) {
+    return new Entity().addProperty(new Property(null, keyName, ValueType.PRIMITIVE, keyValue));
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.olingo.server.core;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
@@ -35,6 +36,7 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.batch.BatchExecutorSupport;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
 import org.apache.olingo.server.api.etag.PreconditionException;
@@ -45,6 +47,7 @@ import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
 import org.apache.olingo.server.api.serializer.RepresentationType;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.api.uri.queryoption.FormatOption;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
@@ -65,6 +68,8 @@ public class ODataHandlerImpl implements ODataHandler {
 
   private CustomContentTypeSupport customContentTypeSupport;
   private CustomETagSupport customETagSupport;
+  private BatchExecutorSupport batchExecutorSupport;
+  private UriInfoCache uriInfoCache;
 
   private UriInfo uriInfo;
   private Exception lastThrownException;
@@ -133,27 +138,36 @@ public class ODataHandlerImpl implements ODataHandler {
       throw e;
     }
 
-    final int measurementUriParser = debugger.startRuntimeMeasurement("Parser", "parseUri");
-    try {
-      uriInfo = new Parser(serviceMetadata.getEdm(), odata)
-          .parseUri(request.getRawODataPath(), request.getRawQueryPath(), null);
-    } catch (final ODataLibraryException e) {
+    final HttpMethod method = request.getMethod();
+    final Edm edm = serviceMetadata.getEdm();
+    uriInfo = uriInfoCache == null ? null :
+        uriInfoCache.get(edm, method, request.getRawODataPath(), request.getRawQueryPath());
+    if (uriInfo == null) {
+      final int measurementUriParser = debugger.startRuntimeMeasurement("Parser", "parseUri");
+      try {
+        uriInfo = new Parser(edm, odata)
+            .parseUri(request.getRawODataPath(), request.getRawQueryPath(), null);
+      } catch (final ODataLibraryException e) {
+        debugger.stopRuntimeMeasurement(measurementUriParser);
+        debugger.stopRuntimeMeasurement(measurementHandle);
+        throw e;
+      }
       debugger.stopRuntimeMeasurement(measurementUriParser);
-      debugger.stopRuntimeMeasurement(measurementHandle);
-      throw e;
-    }
-    debugger.stopRuntimeMeasurement(measurementUriParser);
 
-    final int measurementUriValidator = debugger.startRuntimeMeasurement("UriValidator", "validate");
-    final HttpMethod method = request.getMethod();
-    try {
-      new UriValidator().validate(uriInfo, method);
-    } catch (final UriValidationException e) {
+      final int measurementUriValidator = debugger.startRuntimeMeasurement("UriValidator", "validate");
+      try {
+        new UriValidator().validate(uriInfo, method);
+      } catch (final UriValidationException e) {
+        debugger.stopRuntimeMeasurement(measurementUriValidator);
+        debugger.stopRuntimeMeasurement(measurementHandle);
+        throw e;
+      }
       debugger.stopRuntimeMeasurement(measurementUriValidator);
-      debugger.stopRuntimeMeasurement(measurementHandle);
-      throw e;
+
+      if (uriInfoCache != null && isCacheable(uriInfo)) {
+        uriInfoCache.put(edm, method, request.getRawODataPath(), request.getRawQueryPath(), uriInfo);
+      }
     }
-    debugger.stopRuntimeMeasurement(measurementUriValidator);
 
     final int measurementDispatcher = debugger.startRuntimeMeasurement("ODataDispatcher", "dispatch");
     try {
@@ -164,6 +178,17 @@ public class ODataHandlerImpl implements ODataHandler {
     }
   }
 
+  /**
+   * Determines whether the URI information can be re-used for other requests.
+   * Parameter aliases, custom query options, and skip tokens carry values that typically differ
+   * from request to request; URIs containing them would only fill the cache.
+   */
+  private static boolean isCacheable(final UriInfo uriInfo) {
+    return uriInfo.getAliases().isEmpty()
+        && uriInfo.getCustomQueryOptions().isEmpty()
+        && uriInfo.getSkipTokenOption() == null;
+  }
+
   public void handleException(final ODataRequest request, final ODataResponse response,
       final ODataServerError serverError, final Exception exception) {
     final int measurementHandle = debugger.startRuntimeMeasurement("ODataHandler", "handleException");
@@ -246,6 +271,10 @@ public class ODataHandlerImpl implements ODataHandler {
       this.customContentTypeSupport = (CustomContentTypeSupport) extension;
     } else if(extension instanceof CustomETagSupport) {
       this.customETagSupport = (CustomETagSupport) extension;
+    } else if(extension instanceof BatchExecutorSupport) {
+      this.batchExecutorSupport = (BatchExecutorSupport) extension;
+    } else if(extension instanceof UriInfoCache) {
+      this.uriInfoCache = (UriInfoCache) extension;
     } else {
       throw new ODataRuntimeException("Got not supported exception with class name " +
           extension.getClass().getSimpleName());
@@ -260,6 +289,35 @@ public class ODataHandlerImpl implements ODataHandler {
     return customETagSupport;
   }
 
+  public BatchExecutorSupport getBatchExecutorSupport() {
+    return batchExecutorSupport;
+  }
+
+  public UriInfoCache getUriInfoCache() {
+    return uriInfoCache;
+  }
+
+  /**
+   * Creates a new handler with the same processors and extensions as this one.
+   * Since the handler keeps the state of the request it processes, each request that is processed
+   * concurrently with others needs its own handler.
+   * @return a new handler
+   */
+  public ODataHandlerImpl copy() {
+    final ODataHandlerImpl handler = new ODataHandlerImpl(odata, serviceMetadata, debugger);
+    handler.processors.clear();
+    handler.processors.addAll(processors);
+    handler.customContentTypeSupport = customContentTypeSupport;
+    handler.customETagSupport = customETagSupport;
+    handler.batchExecutorSupport = batchExecutorSupport;
+    handler.uriInfoCache = uriInfoCache;
+    return handler;
+  }
+
+  public boolean isDebugMode() {
+    return debugger.isDebugMode();
+  }
+
   public Exception getLastThrownException() {
     return lastThrownException;
   }
@@ -42,6 +42,7 @@ import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.core.debug.DebugResponseHelperImpl;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 import org.apache.olingo.server.core.deserializer.FixedFormatDeserializerImpl;
@@ -53,9 +54,12 @@ import org.apache.olingo.server.core.serializer.FixedFormatSerializerImpl;
 import org.apache.olingo.server.core.serializer.json.ODataJsonSerializer;
 import org.apache.olingo.server.core.serializer.xml.ODataXmlSerializer;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
+import org.apache.olingo.server.core.uri.UriInfoCacheImpl;
 
 public class ODataImpl extends OData {
 
+  private StreamFactoryRegistry factoryRegistry = StreamFactoryRegistry.getDefault();
+
   @Override
   public ODataSerializer createSerializer(final ContentType contentType) throws SerializerException {
     ODataSerializer serializer = null;
@@ -66,11 +70,11 @@ public class ODataImpl extends OData {
           || ContentType.VALUE_ODATA_METADATA_MINIMAL.equals(metadata)
           || ContentType.VALUE_ODATA_METADATA_NONE.equals(metadata)
           || ContentType.VALUE_ODATA_METADATA_FULL.equals(metadata)) {
-        serializer = new ODataJsonSerializer(contentType);
+        serializer = new ODataJsonSerializer(contentType, factoryRegistry);
       }
     } else if (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
-      serializer = new ODataXmlSerializer();
+      serializer = new ODataXmlSerializer(factoryRegistry);
     }
 
     if (serializer == null) {
@@ -121,10 +125,10 @@ public class ODataImpl extends OData {
   @Override
   public ODataDeserializer createDeserializer(final ContentType contentType) throws DeserializerException {
     if (contentType.isCompatible(ContentType.JSON)) {
-      return new ODataJsonDeserializer(contentType);
+      return new ODataJsonDeserializer(contentType, null, factoryRegistry);
     } else if (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
-      return new ODataXmlDeserializer();
+      return new ODataXmlDeserializer(null, factoryRegistry);
     } else {
       throw new DeserializerException("Unsupported format: " + contentType.toContentTypeString(),
           DeserializerException.MessageKeys.UNSUPPORTED_FORMAT, contentType.toContentTypeString());
@@ -134,10 +138,10 @@ public class ODataImpl extends OData {
   public ODataDeserializer createDeserializer(final ContentType contentType,
       ServiceMetadata metadata) throws DeserializerException {
     if (contentType.isCompatible(ContentType.JSON)) {
-      return new ODataJsonDeserializer(contentType, metadata);
+      return new ODataJsonDeserializer(contentType, metadata, factoryRegistry);
     } else if (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
-      return new ODataXmlDeserializer(metadata);
+      return new ODataXmlDeserializer(metadata, factoryRegistry);
     } else {
       throw new DeserializerException("Unsupported format: " + contentType.toContentTypeString(),
           DeserializerException.MessageKeys.UNSUPPORTED_FORMAT, contentType.toContentTypeString());
@@ -166,4 +170,24 @@ public class ODataImpl extends OData {
     return new DebugResponseHelperImpl(debugFormat);
   }
 
+  @Override
+  public UriInfoCache createUriInfoCache(final int maxSize) {
+    return new UriInfoCacheImpl(maxSize);
+  }
+
+  /**
+   * Returns the JSON and XML factories used by the serializers and deserializers created by this instance.
+   */
+  public StreamFactoryRegistry getFactoryRegistry() {
+    return factoryRegistry;
+  }
+
+  /**
+   * Sets the JSON and XML factories to be used by the serializers and deserializers created afterwards.
+   * @param factoryRegistry the registry; <code>null</code> restores the shared default registry
+   */
+  public void setFactoryRegistry(final StreamFactoryRegistry factoryRegistry) {
+    this.factoryRegistry = factoryRegistry == null ? StreamFactoryRegistry.getDefault() : factoryRegistry;
+  }
+
 }
@@ -21,6 +21,8 @@ package org.apache.olingo.server.core;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
@@ -29,14 +31,22 @@ import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.core.edm.EdmProviderImpl;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+import org.apache.olingo.server.api.serializer.RenderedDocumentCache;
+import org.apache.olingo.server.core.serializer.utils.WritePlanCache;
 
 /**
  */
-public class ServiceMetadataImpl implements ServiceMetadata {
+public class ServiceMetadataImpl implements ServiceMetadata, RenderedDocumentCache {
+
+  /** Upper limit for the number of rendered documents; there is one per document, format, and encoding. */
+  private static final int MAX_RENDERED_DOCUMENTS = 64;
 
   private final Edm edm;
   private final List<EdmxReference> references;
   private final ServiceMetadataETagSupport serviceMetadataETagSupport;
+  private final WritePlanCache writePlanCache = new WritePlanCache();
+  private final ConcurrentMap<String, RenderedDocument> renderedDocuments =
+      new ConcurrentHashMap<String, RenderedDocument>();
 
   public ServiceMetadataImpl(final CsdlEdmProvider edmProvider, final List<EdmxReference> references,
       final ServiceMetadataETagSupport serviceMetadataETagSupport) {
@@ -65,4 +75,33 @@ public class ServiceMetadataImpl implements ServiceMetadata {
   public ServiceMetadataETagSupport getServiceMetadataETagSupport() {
     return serviceMetadataETagSupport;
   }
+
+  /** Returns the cache of serialization plans for the structured types of this service's EDM. */
+  public WritePlanCache getWritePlanCache() {
+    return writePlanCache;
+  }
+
+  @Override
+  public byte[] getRenderedDocument(final String key, final String eTag) {
+    final RenderedDocument document = renderedDocuments.get(key);
+    return document != null && document.eTag.equals(eTag) ? document.content : null;
+  }
+
+  @Override
+  public void putRenderedDocument(final String key, final String eTag, final byte[] content) {
+    if (renderedDocuments.size() >= MAX_RENDERED_DOCUMENTS && !renderedDocuments.containsKey(key)) {
+      renderedDocuments.clear();
+    }
+    renderedDocuments.put(key, new RenderedDocument(eTag, content));
+  }
+
+  private static final class RenderedDocument {
+    private final String eTag;
+    private final byte[] content;
+
+    private RenderedDocument(final String eTag, final byte[] content) {
+      this.eTag = eTag;
+      this.content = content;
+    }
+  }
 }
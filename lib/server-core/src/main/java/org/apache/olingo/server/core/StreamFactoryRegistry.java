@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Holds the JSON and XML factories used by the serializers and deserializers.
+ * <p>Creating these factories is expensive: a JsonFactory bootstraps its symbol tables and
+ * the StAX factories are looked up by the service loader. Once configured, all of them are thread-safe,
+ * so a single instance is shared by all serializers and deserializers created through the same
+ * {@link ODataImpl}. Sharing the JsonFactory also lets Jackson reuse its canonicalized field names and
+ * recycled buffers across requests.</p>
+ * <p>Do not change the configuration of the factories after the registry has been put into use.</p>
+ */
+public class StreamFactoryRegistry {
+
+  private static final StreamFactoryRegistry DEFAULT = new StreamFactoryRegistry();
+
+  private final JsonFactory jsonFactory;
+  private final XMLOutputFactory xmlOutputFactory;
+  private final XMLInputFactory xmlInputFactory;
+
+  /**
+   * Creates a registry with default factories.
+   * The JsonFactory reads trees with duplicate keys as error, as required for OData payloads.
+   */
+  public StreamFactoryRegistry() {
+    this(new JsonFactory(new ObjectMapper().configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true)),
+        XMLOutputFactory.newFactory(), XMLInputFactory.newFactory());
+  }
+
+  /**
+   * Creates a registry with the given factories.
+   * @param jsonFactory JSON factory; it must have an ObjectCodec if JSON payloads are deserialized
+   * @param xmlOutputFactory StAX output factory
+   * @param xmlInputFactory StAX input factory
+   */
+  public StreamFactoryRegistry(final JsonFactory jsonFactory, final XMLOutputFactory xmlOutputFactory,
+      final XMLInputFactory xmlInputFactory) {
+    this.jsonFactory = jsonFactory;
+    this.xmlOutputFactory = xmlOutputFactory;
+    this.xmlInputFactory = xmlInputFactory;
+  }
+
+  /**
+   * Returns the registry shared by all {@link ODataImpl} instances which have not been configured otherwise.
+   */
+  public static StreamFactoryRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  public JsonFactory getJsonFactory() {
+    return jsonFactory;
+  }
+
+  public XMLOutputFactory getXmlOutputFactory() {
+    return xmlOutputFactory;
+  }
+
+  public XMLInputFactory getXmlInputFactory() {
+    return xmlInputFactory;
+  }
+}
@@ -16,7 +16,7 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.olingo.server.tecsvc.async;
+package org.apache.olingo.server.core.async;
 
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpHeader;
@@ -45,13 +45,13 @@ import java.util.Map;
 
 /**
  * Async processor "wraps" an Processor (or subclass of) to provide asynchronous support functionality
- * in combination with the TechnicalAsyncService.
+ * in combination with the {@link AsyncRequestService}.
  *
  * @param <T> "wrapped" Processor
  */
 public class AsyncProcessor<T extends Processor> {
   private final ProcessorInvocationHandler handler;
-  private final TechnicalAsyncService service;
+  private final AsyncRequestService service;
   private final T proxyProcessor;
   private String location;
   private String preferHeader;
@@ -142,7 +142,7 @@ public class AsyncProcessor<T extends Processor> {
   }
 
 
-  public AsyncProcessor(T processor, Class<T> processorInterface, TechnicalAsyncService service) {
+  public AsyncProcessor(T processor, Class<T> processorInterface, AsyncRequestService service) {
     Class<? extends Processor> aClass = processor.getClass();
     Class<?>[] interfaces = aClass.getInterfaces();
     handler = new ProcessorInvocationHandler(processor);
@@ -183,7 +183,8 @@ public class AsyncProcessor<T extends Processor> {
    * Start the asynchronous processing and returns the id for this process
    *
    * @return the id for this process
-   * @throws ODataApplicationException
+   * @throws ODataApplicationException with status <code>503 Service Unavailable</code> if the service is
+   * saturated; the <code>Retry-After</code> header is set at the response in this case
    * @throws ODataLibraryException
    */
   public String processAsync() throws ODataApplicationException, ODataLibraryException {
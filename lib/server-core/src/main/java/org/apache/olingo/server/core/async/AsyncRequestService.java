@@ -0,0 +1,445 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.async;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.format.PreferenceName;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.processor.Processor;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.serializer.AsyncResponseSerializer;
+
+/**
+ * The AsyncRequestService provides asynchronous support (<code>Prefer: respond-async</code>) for any Processor.
+ * To use it following steps are necessary:
+ * <ul>
+ *   <li>Create one instance for the service and keep it (e.g., in the servlet context)</li>
+ *   <li>Create an instance of the Processor which should be wrapped for asynchronous support
+ *   (do not forget to call the <code>init(...)</code> method on the processor)</li>
+ *   <li>register the Processor instance via the <code>register(...)</code> method</li>
+ *   <li>prepare the corresponding method with the request parameters via the
+ *   <code>prepareFor()</code> method at the AsyncProcessor</li>
+ *   <li>start the async processing via the <code>processAsync()</code> methods</li>
+ *   <li>let a servlet mapped to the status monitor resources call {@link #handle(HttpServletRequest,
+ *   HttpServletResponse)}</li>
+ * </ul>
+ * A short code snippet is shown below:
+ * <pre>
+ * <code>
+ * MyEntityProcessor processor = new MyEntityProcessor();
+ * processor.init(odata, serviceMetadata);
+ * AsyncProcessor&lt;EntityProcessor&gt; asyncProcessor = asyncService.register(processor, EntityProcessor.class);
+ * asyncProcessor.prepareFor().readEntity(request, response, uriInfo, requestedFormat);
+ * String location = asyncProcessor.processAsync();
+ * AsyncRequestService.acceptedResponse(response, location);
+ * </code>
+ * </pre>
+ * <p>The requests are processed by a bounded executor. If it is saturated, new requests are rejected with
+ * <code>503 Service Unavailable</code> and a <code>Retry-After</code> header.</p>
+ * <p>Completed responses are kept in memory up to the spool threshold and in temporary files beyond it.
+ * They are released once they have been delivered, when they are cancelled with a <code>DELETE</code> request
+ * on the status monitor resource, or when they have not been fetched within the time to live.</p>
+ */
+public class AsyncRequestService {
+
+  public static final String STATUS_MONITOR_TOKEN = "status";
+
+  public static final int DEFAULT_THREADS = 10;
+  public static final int DEFAULT_QUEUE_CAPACITY = 100;
+  public static final long DEFAULT_TIME_TO_LIVE_MILLIS = 10 * 60 * 1000;
+  public static final int DEFAULT_SPOOL_THRESHOLD = 1024 * 1024;
+  public static final int DEFAULT_RETRY_AFTER_SECONDS = 10;
+
+  private final ConcurrentMap<String, AsyncJob> location2Job = new ConcurrentHashMap<String, AsyncJob>();
+  private final AtomicLong idGenerator = new AtomicLong();
+  private final ExecutorService executor;
+  private final AsyncResponseSerializer serializer = new AsyncResponseSerializer();
+
+  private volatile long timeToLiveMillis = DEFAULT_TIME_TO_LIVE_MILLIS;
+  private volatile int spoolThreshold = DEFAULT_SPOOL_THRESHOLD;
+  private volatile File spoolDirectory;
+  private volatile int retryAfterSeconds = DEFAULT_RETRY_AFTER_SECONDS;
+
+  public AsyncRequestService() {
+    this(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * @param threads maximum number of requests processed in parallel
+   * @param queueCapacity maximum number of requests waiting for processing
+   */
+  public AsyncRequestService(final int threads, final int queueCapacity) {
+    this(newBoundedExecutor(threads, queueCapacity));
+  }
+
+  /**
+   * @param executor executor processing the requests; it must throw a {@link RejectedExecutionException}
+   * if it cannot accept any more requests
+   */
+  public AsyncRequestService(final ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Creates an executor with a fixed maximum number of daemon threads and a bounded queue,
+   * rejecting tasks beyond that capacity.
+   */
+  public static ExecutorService newBoundedExecutor(final int threads, final int queueCapacity) {
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(queueCapacity),
+        new ThreadFactory() {
+          private final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+
+          @Override
+          public Thread newThread(final Runnable runnable) {
+            final Thread thread = defaultFactory.newThread(runnable);
+            thread.setName("olingo-async-" + thread.getName());
+            thread.setDaemon(true);
+            return thread;
+          }
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Sets the time completed responses are kept for their delivery.
+   * @param timeToLiveMillis time in milliseconds
+   */
+  public void setTimeToLive(final long timeToLiveMillis) {
+    this.timeToLiveMillis = timeToLiveMillis;
+  }
+
+  /**
+   * Sets the size up to which completed responses are kept in memory.
+   * @param spoolThreshold size in bytes
+   */
+  public void setSpoolThreshold(final int spoolThreshold) {
+    this.spoolThreshold = spoolThreshold;
+  }
+
+  /**
+   * Sets the directory for the temporary files of completed responses.
+   * @param spoolDirectory directory; <code>null</code> for the default temporary directory
+   */
+  public void setSpoolDirectory(final File spoolDirectory) {
+    this.spoolDirectory = spoolDirectory;
+  }
+
+  /**
+   * Sets the value of the <code>Retry-After</code> header for rejected and still running requests.
+   * @param retryAfterSeconds time in seconds
+   */
+  public void setRetryAfter(final int retryAfterSeconds) {
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public <T extends Processor> AsyncProcessor<T> register(final T processor, final Class<T> processorInterface) {
+    return new AsyncProcessor<T>(processor, processorInterface, this);
+  }
+
+  public static void updateHeader(final ODataResponse response, final HttpStatusCode status,
+      final String location) {
+    response.setStatusCode(status.getStatusCode());
+    response.setHeader(HttpHeader.LOCATION, location);
+    response.setHeader(HttpHeader.PREFERENCE_APPLIED, PreferenceName.RESPOND_ASYNC.toString());
+  }
+
+  public static void acceptedResponse(final ODataResponse response, final String location) {
+    updateHeader(response, HttpStatusCode.ACCEPTED, location);
+  }
+
+  /**
+   * Shuts the executor down, interrupting running requests, and releases all completed responses.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+    for (final String location : getLocations()) {
+      final AsyncJob job = location2Job.remove(location);
+      if (job != null) {
+        job.cancel();
+      }
+    }
+  }
+
+  /**
+   * Gets the locations of all status monitor resources currently known.
+   */
+  public Set<String> getLocations() {
+    return new HashSet<String>(location2Job.keySet());
+  }
+
+  /**
+   * Gets the processor for the status monitor resource at the given location.
+   * @return the processor or <code>null</code> if the location is unknown
+   */
+  public AsyncProcessor<?> getProcessor(final String location) {
+    final AsyncJob job = location2Job.get(location);
+    return job == null ? null : job.processor;
+  }
+
+  /**
+   * Determines whether the processing for the status monitor resource at the given location has been finished.
+   */
+  public boolean isFinished(final String location) {
+    final AsyncJob job = location2Job.get(location);
+    return job != null && job.isFinished();
+  }
+
+  /**
+   * Removes completed responses which have not been fetched within the time to live.
+   * This is done also on every submission and every status monitor request.
+   */
+  public void removeExpired() {
+    final long now = System.currentTimeMillis();
+    for (final Map.Entry<String, AsyncJob> entry : location2Job.entrySet()) {
+      if (entry.getValue().isExpired(now) && location2Job.remove(entry.getKey(), entry.getValue())) {
+        entry.getValue().cancel();
+      }
+    }
+  }
+
+  String processAsynchronous(final AsyncProcessor<?> dispatchedProcessor) throws ODataApplicationException {
+    removeExpired();
+    final String location = createNewAsyncLocation(dispatchedProcessor.getRequest());
+    dispatchedProcessor.setLocation(location);
+    final AsyncJob job = new AsyncJob(dispatchedProcessor);
+    location2Job.put(location, job);
+    try {
+      executor.execute(job.task);
+    } catch (final RejectedExecutionException e) {
+      location2Job.remove(location);
+      dispatchedProcessor.getResponse().setHeader(HttpHeader.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+      throw new ODataApplicationException("The service is busy; retry the request later.",
+          HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode(), Locale.ROOT, e);
+    }
+    return location;
+  }
+
+  /**
+   * Executes the processor; called from a thread of the executor.
+   * Subclasses can override this method to wrap the processing.
+   */
+  protected void process(final AsyncProcessor<?> processor) throws Exception {
+    processor.process();
+  }
+
+  /**
+   * Handles a request to a status monitor resource.
+   * <ul>
+   * <li><code>DELETE</code> cancels the processing or releases the completed response;</li>
+   * <li>for other methods, the status is returned as <code>202 Accepted</code> while the request is processed
+   * and, once it has been completed, the response is returned and released.</li>
+   * </ul>
+   * Unknown status monitor resources are answered with <code>404 Not Found</code>.
+   */
+  public void handle(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+    removeExpired();
+    final String location = getAsyncLocation(request);
+
+    if (HttpMethod.DELETE.name().equals(request.getMethod())) {
+      final AsyncJob job = location2Job.remove(location);
+      if (job == null) {
+        response.setStatus(HttpStatusCode.NOT_FOUND.getStatusCode());
+      } else {
+        job.cancel();
+        response.setStatus(HttpStatusCode.NO_CONTENT.getStatusCode());
+      }
+      return;
+    }
+
+    final AsyncJob job = location2Job.get(location);
+    if (job == null) {
+      response.setStatus(HttpStatusCode.NOT_FOUND.getStatusCode());
+    } else if (!job.isFinished()) {
+      response.setStatus(HttpStatusCode.ACCEPTED.getStatusCode());
+      response.setHeader(HttpHeader.LOCATION, location);
+      response.setHeader(HttpHeader.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+    } else if (location2Job.remove(location, job)) {
+      final ResponseSpool spool = job.getResult();
+      try {
+        response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_HTTP.toContentTypeString());
+        response.setHeader(HttpHeader.CONTENT_ENCODING, "binary");
+        response.setHeader(HttpHeader.CONTENT_LENGTH, Long.toString(spool.size()));
+        response.setStatus(HttpStatusCode.OK.getStatusCode());
+        final OutputStream output = response.getOutputStream();
+        spool.writeTo(output);
+        output.close();
+      } finally {
+        spool.release();
+      }
+    } else {
+      // Delivered or cancelled concurrently.
+      response.setStatus(HttpStatusCode.NOT_FOUND.getStatusCode());
+    }
+  }
+
+  private String createNewAsyncLocation(final ODataRequest request) {
+    int pos = request.getRawBaseUri().lastIndexOf("/") + 1;
+    return request.getRawBaseUri().substring(0, pos) + STATUS_MONITOR_TOKEN + "/" + idGenerator.incrementAndGet();
+  }
+
+  private String getAsyncLocation(final HttpServletRequest request) {
+    return request.getRequestURL().toString();
+  }
+
+  private ResponseSpool serialize(final ODataResponse odResponse) throws SerializerException, IOException {
+    final ResponseSpool spool = new ResponseSpool(spoolThreshold, spoolDirectory);
+    try {
+      serializer.serialize(odResponse, spool);
+      spool.close();
+      return spool;
+    } catch (final SerializerException e) {
+      spool.release();
+      throw e;
+    } catch (final IOException e) {
+      spool.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Spools a response with status 500 and the message of the given serialization failure as plain-text body.
+   * The spool is kept in memory so that the error can be delivered even if spooling to a file has failed.
+   */
+  private ResponseSpool serializeFailure(final Exception exception) {
+    final ODataResponse errorResponse = new ODataResponse();
+    errorResponse.setStatusCode(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    errorResponse.setHeader(HttpHeader.CONTENT_TYPE,
+        ContentType.create(ContentType.TEXT_PLAIN, ContentType.PARAMETER_CHARSET, "utf-8").toContentTypeString());
+    errorResponse.setContent(new ByteArrayInputStream(
+        ("Serialization of the response failed: " + exception.getMessage()).getBytes(Charset.forName("UTF-8"))));
+
+    final ResponseSpool spool = new ResponseSpool(Integer.MAX_VALUE, null);
+    try {
+      serializer.serialize(errorResponse, spool);
+    } catch (final SerializerException e) {
+      // Cannot happen when writing a byte array into memory; deliver what has been written.
+    }
+    return spool;
+  }
+
+  private static ODataResponse createErrorResponse(final Throwable exception) {
+    final Throwable cause = exception instanceof InvocationTargetException ?
+        ((InvocationTargetException) exception).getCause() :
+        exception;
+    ODataResponse errorResponse = new ODataResponse();
+    errorResponse.setStatusCode(cause instanceof ODataApplicationException ?
+        ((ODataApplicationException) cause).getStatusCode() :
+        HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    return errorResponse;
+  }
+
+  /**
+   * Processing state of a single request.
+   */
+  private class AsyncJob implements Runnable {
+    private final AsyncProcessor<?> processor;
+    private final FutureTask<Object> task;
+    private ResponseSpool result;
+    private long finishedAt;
+    private boolean cancelled = false;
+
+    AsyncJob(final AsyncProcessor<?> processor) {
+      this.processor = processor;
+      task = new FutureTask<Object>(this, null);
+    }
+
+    @Override
+    public void run() {
+      ODataResponse odResponse;
+      try {
+        process(processor);
+        odResponse = processor.getProcessResponse();
+      } catch (final Exception e) {
+        odResponse = createErrorResponse(e);
+      }
+
+      ResponseSpool spool;
+      try {
+        spool = serialize(odResponse);
+      } catch (final Exception e) {
+        spool = serializeFailure(e);
+      }
+      complete(spool);
+    }
+
+    private synchronized void complete(final ResponseSpool spool) {
+      if (cancelled) {
+        spool.release();
+      } else {
+        result = spool;
+        finishedAt = System.currentTimeMillis();
+      }
+    }
+
+    synchronized boolean isFinished() {
+      return result != null;
+    }
+
+    synchronized boolean isExpired(final long now) {
+      return result != null && now - finishedAt > timeToLiveMillis;
+    }
+
+    synchronized ResponseSpool getResult() {
+      return result;
+    }
+
+    void cancel() {
+      task.cancel(true);
+      synchronized (this) {
+        cancelled = true;
+        if (result != null) {
+          result.release();
+        }
+      }
+    }
+  }
+}
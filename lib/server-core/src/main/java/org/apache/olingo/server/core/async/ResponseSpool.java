@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.async;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Output stream keeping the written data in memory up to a threshold and spooling it to a temporary file
+ * beyond that threshold.
+ * Spooled content is written out from a memory mapping of the file, in regions of at most
+ * {@link #MAPPING_SIZE} bytes.
+ */
+class ResponseSpool extends OutputStream {
+
+  static final int MAPPING_SIZE = 64 * 1024 * 1024;
+
+  private final int threshold;
+  private final File directory;
+  private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+  private File file;
+  private OutputStream fileOutput;
+  private long size = 0;
+
+  /**
+   * @param threshold maximum number of bytes held in memory
+   * @param directory directory for the temporary file; <code>null</code> for the default temporary directory
+   */
+  ResponseSpool(final int threshold, final File directory) {
+    this.threshold = threshold;
+    this.directory = directory;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    write(new byte[] { (byte) b }, 0, 1);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    if (fileOutput == null && memory.size() + len > threshold) {
+      file = File.createTempFile("olingo-async-", ".spool", directory);
+      fileOutput = new BufferedOutputStream(new FileOutputStream(file));
+      memory.writeTo(fileOutput);
+      memory = null;
+    }
+    if (fileOutput == null) {
+      memory.write(b, off, len);
+    } else {
+      fileOutput.write(b, off, len);
+    }
+    size += len;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (fileOutput != null) {
+      fileOutput.flush();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (fileOutput != null) {
+      fileOutput.close();
+    }
+  }
+
+  long size() {
+    return size;
+  }
+
+  boolean isSpooled() {
+    return file != null;
+  }
+
+  /**
+   * Writes the complete content to the given output stream; the spool has to be closed before.
+   */
+  void writeTo(final OutputStream output) throws IOException {
+    if (file == null) {
+      memory.writeTo(output);
+    } else {
+      final FileInputStream input = new FileInputStream(file);
+      try {
+        final FileChannel channel = input.getChannel();
+        final WritableByteChannel outputChannel = Channels.newChannel(output);
+        for (long position = 0; position < size; position += MAPPING_SIZE) {
+          final MappedByteBuffer buffer =
+              channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPING_SIZE, size - position));
+          while (buffer.hasRemaining()) {
+            outputChannel.write(buffer);
+          }
+        }
+      } finally {
+        input.close();
+      }
+    }
+    output.flush();
+  }
+
+  /**
+   * Releases the content, deleting the temporary file if there is one.
+   */
+  void release() {
+    memory = null;
+    if (file != null) {
+      try {
+        close();
+      } catch (final IOException e) {
+        // Ignore; the file is deleted anyway.
+      }
+      if (!file.delete()) {
+        file.deleteOnExit();
+      }
+    }
+  }
+}
@@ -18,17 +18,31 @@
  */
 package org.apache.olingo.server.core.batchhandler;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.batch.BatchExecutorSupport;
 import org.apache.olingo.server.api.batch.BatchFacade;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartReader;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.core.ODataHandlerImpl;
 import org.apache.olingo.server.core.batchhandler.referenceRewriting.BatchReferenceRewriter;
 
 public class BatchPartHandler {
@@ -60,6 +74,55 @@ public class BatchPartHandler {
     }
   }
 
+  public List<ODataResponsePart> handleBatchRequests(final List<BatchRequestPart> requests,
+      final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+    final Iterator<BatchRequestPart> iterator = requests.iterator();
+    return handleBatchRequests(new BatchRequestPartReader() {
+      @Override
+      public BatchRequestPart next() {
+        return iterator.hasNext() ? iterator.next() : null;
+      }
+    }, continueOnError);
+  }
+
+  /**
+   * Handles the parts while reading them. Independent parts are handed to the executor service, if any,
+   * as soon as they have been read; their responses are collected before the next dependent part is handled.
+   * <p>Syntax errors are found only when the part is read, so the parts before a malformed part, including
+   * change sets, may already have taken effect when the exception is thrown; independent parts still in process
+   * are cancelled then.</p>
+   */
+  public List<ODataResponsePart> handleBatchRequests(final BatchRequestPartReader reader,
+      final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+    final List<ODataResponsePart> responses = new ArrayList<ODataResponsePart>();
+    final ExecutorService executorService = getExecutorService();
+    final List<FutureTask<ODataResponse>> tasks = new ArrayList<FutureTask<ODataResponse>>();
+
+    try {
+      BatchRequestPart part;
+      while ((part = reader.next()) != null) {
+        if (executorService != null && isIndependent(part)) {
+          tasks.add(submit(part, executorService));
+        } else {
+          if (!collect(tasks, continueOnError, responses)) {
+            return responses;
+          }
+          final ODataResponsePart response = handleBatchRequest(part);
+          responses.add(response);
+          if (!continueOnError && isError(response)) {
+            return responses;
+          }
+        }
+      }
+      collect(tasks, continueOnError, responses);
+    } finally {
+      // Only left non-empty if reading or processing a part failed; the batch request has failed then.
+      cancel(tasks);
+    }
+
+    return responses;
+  }
+
   public ODataResponse handle(final ODataRequest request, final boolean isChangeSet)
       throws BatchDeserializerException {
     ODataResponse response;
@@ -74,13 +137,16 @@ public class BatchPartHandler {
       response = oDataHandler.process(request);
     }
 
+    addContentId(request, response);
+    return response;
+  }
+
+  private void addContentId(final ODataRequest request, final ODataResponse response) {
     // Add content id to response
     final String contentId = request.getHeader(HttpHeader.CONTENT_ID);
     if (contentId != null) {
       response.setHeader(HttpHeader.CONTENT_ID, contentId);
     }
-
-    return response;
   }
 
   private ODataResponsePart handleChangeSet(final BatchRequestPart request) throws ODataApplicationException,
@@ -88,4 +154,99 @@ public class BatchPartHandler {
     return batchProcessor.processChangeSet(batchFacade, request.getRequests());
   }
 
+  /**
+   * Starts processing the given independent part with the executor service, with its own handler.
+   */
+  private FutureTask<ODataResponse> submit(final BatchRequestPart part, final ExecutorService executorService) {
+    final ODataRequest request = part.getRequests().get(0);
+    final ODataHandler handler = ((ODataHandlerImpl) oDataHandler).copy();
+    final FutureTask<ODataResponse> task = new FutureTask<ODataResponse>(new Callable<ODataResponse>() {
+      @Override
+      public ODataResponse call() {
+        final ODataResponse response = handler.process(request);
+        addContentId(request, response);
+        return response;
+      }
+    });
+    try {
+      executorService.execute(task);
+    } catch (final RejectedExecutionException e) {
+      // The executor is saturated or shut down; the request is processed on the current thread instead.
+      task.run();
+    }
+    return task;
+  }
+
+  /**
+   * Adds the responses of the given tasks in the order of the requests and clears the task list.
+   * @return <code>false</code> if the processing has to stop because of an error response
+   */
+  private boolean collect(final List<FutureTask<ODataResponse>> tasks, final boolean continueOnError,
+      final List<ODataResponsePart> responses) {
+    try {
+      for (int index = 0; index < tasks.size(); index++) {
+        final ODataResponsePart response = new ODataResponsePart(tasks.get(index).get(), false);
+        responses.add(response);
+        if (!continueOnError && isError(response)) {
+          cancel(tasks.subList(index + 1, tasks.size()));
+          return false;
+        }
+      }
+    } catch (final InterruptedException e) {
+      cancel(tasks);
+      Thread.currentThread().interrupt();
+      throw new ODataRuntimeException("Interrupted while processing batch request parts", e);
+    } catch (final ExecutionException e) {
+      cancel(tasks);
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new ODataRuntimeException(e);
+    } finally {
+      tasks.clear();
+    }
+    return true;
+  }
+
+  private void cancel(final List<FutureTask<ODataResponse>> tasks) {
+    for (final FutureTask<ODataResponse> task : tasks) {
+      task.cancel(true);
+    }
+  }
+
+  /**
+   * Returns the executor service for concurrent processing if one has been registered and the handler
+   * supports it. Debug mode collects runtime measurements in the shared debugger, so it is always sequential.
+   */
+  private ExecutorService getExecutorService() {
+    if (oDataHandler instanceof ODataHandlerImpl) {
+      final ODataHandlerImpl handler = (ODataHandlerImpl) oDataHandler;
+      final BatchExecutorSupport support = handler.getBatchExecutorSupport();
+      if (support != null && !handler.isDebugMode()) {
+        return support.getExecutorService();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * A part is independent of the others if it is a single retrieve request outside of a change set
+   * which does not start with a reference (or any other segment starting with '$').
+   */
+  private boolean isIndependent(final BatchRequestPart part) {
+    if (part.isChangeSet() || part.getRequests().size() != 1) {
+      return false;
+    }
+    final ODataRequest request = part.getRequests().get(0);
+    final String path = request.getRawODataPath();
+    return request.getMethod() == HttpMethod.GET
+        && (path == null || !path.startsWith("/$"));
+  }
+
+  private boolean isError(final ODataResponsePart response) {
+    final int statusCode = response.getResponses().get(0).getStatusCode();
+    return statusCode >= 400 && statusCode <= 600;
+  }
 }
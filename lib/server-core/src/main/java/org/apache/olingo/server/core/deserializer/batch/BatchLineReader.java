@@ -20,7 +20,6 @@ package org.apache.olingo.server.core.deserializer.batch;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,8 +32,10 @@ public class BatchLineReader {
   private static final byte LF = '\n';
   private static final int EOF = -1;
   private static final int BUFFER_SIZE = 8192;
+  private static final int LINE_BUFFER_SIZE = 256;
   private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
   private static final Charset CS_ISO_8859_1 = Charset.forName("iso-8859-1");
+  private static final byte[] CONTENT_TYPE_BYTES = HttpHeader.CONTENT_TYPE.getBytes(CS_ISO_8859_1);
   public static final String BOUNDARY = "boundary";
   public static final String DOUBLE_DASH = "--";
   public static final String CRLF = "\r\n";
@@ -45,6 +46,9 @@ public class BatchLineReader {
   private byte[] buffer;
   private int offset = 0;
   private int limit = 0;
+  private byte[] lineBuffer = new byte[LINE_BUFFER_SIZE];
+  private int lineLength = 0;
+  private int lineNumber = 0;
 
   public BatchLineReader(final InputStream reader) {
     this(reader, BUFFER_SIZE);
@@ -65,76 +69,111 @@ public class BatchLineReader {
 
   public List<String> toList() throws IOException {
     final List<String> result = new ArrayList<String>();
-    String currentLine = readLine();
-    if (currentLine != null) {
-      currentBoundary = currentLine.trim();
+    String currentLine;
+    while ((currentLine = readLine()) != null) {
       result.add(currentLine);
-
-      while ((currentLine = readLine()) != null) {
-        result.add(currentLine);
-      }
     }
     return result;
   }
 
   public List<Line> toLineList() throws IOException {
     final List<Line> result = new ArrayList<Line>();
-    String currentLine = readLine();
-    if (currentLine != null) {
-      currentBoundary = currentLine.trim();
-      int counter = 1;
-      result.add(new Line(currentLine, counter++));
-
-      while ((currentLine = readLine()) != null) {
-        result.add(new Line(currentLine, counter++));
-      }
+    Line currentLine;
+    while ((currentLine = nextLine()) != null) {
+      result.add(currentLine);
     }
-
     return result;
   }
 
-  private void updateCurrentCharset(final String currentLine) {
-    if (currentLine != null) {
-      if (currentLine.startsWith(HttpHeader.CONTENT_TYPE)) {
-        //13 is content-type.length() + 1 for header value
-        String clValue = currentLine.substring(13, currentLine.length() - 2).trim();
-        ContentType ct = ContentType.parse(clValue);
-        if (ct != null) {
-          String charsetString = ct.getParameter(ContentType.PARAMETER_CHARSET);
-          if (charsetString != null) {
-            currentCharset = Charset.forName(charsetString);
-          } else {
-            currentCharset = DEFAULT_CHARSET;
-          }
-          // boundary
-          String boundary = ct.getParameter(BOUNDARY);
-          if (boundary != null) {
-            currentBoundary = DOUBLE_DASH + boundary;
-          }
+  /**
+   * Reads the next line, keeping its raw bytes.
+   * @return the next line or <code>null</code> if the end of the stream has been reached
+   */
+  public Line nextLine() throws IOException {
+    final boolean isFirstLine = lineNumber == 0;
+    final int length = readLineBytes();
+    if (length == 0) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    System.arraycopy(lineBuffer, 0, bytes, 0, length);
+    final Line line = new Line(bytes, readState.isReadBody() ? getCurrentCharset() : CS_ISO_8859_1, ++lineNumber);
+    if (isFirstLine) {
+      currentBoundary = line.toString().trim();
+    }
+    updateCurrentCharset(line);
+    return line;
+  }
+
+  private void updateCurrentCharset(final Line line) {
+    if (startsWith(CONTENT_TYPE_BYTES)) {
+      final String currentLine = line.toString();
+      //13 is content-type.length() + 1 for header value
+      String clValue = currentLine.substring(13, currentLine.length() - 2).trim();
+      ContentType ct = ContentType.parse(clValue);
+      if (ct != null) {
+        String charsetString = ct.getParameter(ContentType.PARAMETER_CHARSET);
+        if (charsetString != null) {
+          currentCharset = Charset.forName(charsetString);
+        } else {
+          currentCharset = DEFAULT_CHARSET;
         }
-      } else if (CRLF.equals(currentLine)) {
-        readState.foundLinebreak();
-      } else if (isBoundary(currentLine)) {
-        readState.foundBoundary();
+        // boundary
+        String boundary = ct.getParameter(BOUNDARY);
+        if (boundary != null) {
+          currentBoundary = DOUBLE_DASH + boundary;
+        }
+      }
+    } else if (lineLength == 2 && lineBuffer[0] == CR && lineBuffer[1] == LF) {
+      readState.foundLinebreak();
+    } else if (isBoundary()) {
+      readState.foundBoundary();
+    }
+  }
+
+  private boolean startsWith(final byte[] prefix) {
+    if (lineLength < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (lineBuffer[i] != prefix[i]) {
+        return false;
       }
     }
+    return true;
   }
 
-  private boolean isBoundary(final String currentLine) {
-    if ((currentBoundary + CRLF).equals(currentLine)) {
-      return true;
-    } else if ((currentBoundary + DOUBLE_DASH + CRLF).equals(currentLine)) {
-      return true;
+  private boolean isBoundary() {
+    // The boundary is followed by CRLF or by "--" and CRLF.
+    final int boundaryLength = currentBoundary == null ? 0 : currentBoundary.length();
+    if (boundaryLength == 0 || lineLength != boundaryLength + 2 && lineLength != boundaryLength + 4
+        || lineBuffer[lineLength - 2] != CR || lineBuffer[lineLength - 1] != LF) {
+      return false;
     }
-    return false;
+    for (int i = 0; i < boundaryLength; i++) {
+      if (lineBuffer[i] != currentBoundary.charAt(i)) {
+        return false;
+      }
+    }
+    return lineLength == boundaryLength + 2
+        || lineBuffer[boundaryLength] == '-' && lineBuffer[boundaryLength + 1] == '-';
   }
 
   String readLine() throws IOException {
+    final Line line = nextLine();
+    return line == null ? null : line.toString();
+  }
+
+  /**
+   * Reads the bytes of the next line into the line buffer.
+   * @return the number of bytes read, 0 if the end of the stream has been reached
+   */
+  private int readLineBytes() throws IOException {
+    lineLength = 0;
     if (limit == EOF) {
-      return null;
+      return 0;
     }
 
-    ByteBuffer innerBuffer = ByteBuffer.allocate(BUFFER_SIZE);
     // EOF will be considered as line ending
     boolean foundLineEnd = false;
 
@@ -146,13 +185,7 @@ public class BatchLineReader {
 
       if (!foundLineEnd) {
         byte currentChar = buffer[offset++];
-        if (!innerBuffer.hasRemaining()) {
-          innerBuffer.flip();
-          ByteBuffer tmp = ByteBuffer.allocate(innerBuffer.limit() * 2);
-          tmp.put(innerBuffer);
-          innerBuffer = tmp;
-        }
-        innerBuffer.put(currentChar);
+        appendToLine(currentChar);
 
         if (currentChar == LF) {
           foundLineEnd = true;
@@ -167,25 +200,23 @@ public class BatchLineReader {
 
           // Check if there is at least one character
           if (limit != EOF && buffer[offset] == LF) {
-            innerBuffer.put(LF);
+            appendToLine(LF);
             offset++;
           }
         }
       }
     }
 
-    if (innerBuffer.position() == 0) {
-      return null;
-    } else {
-      String currentLine;
-      if (readState.isReadBody()) {
-        currentLine = new String(innerBuffer.array(), 0, innerBuffer.position(), getCurrentCharset());
-      } else {
-        currentLine = new String(innerBuffer.array(), 0, innerBuffer.position(), CS_ISO_8859_1);
-      }
-      updateCurrentCharset(currentLine);
-      return currentLine;
+    return lineLength;
+  }
+
+  private void appendToLine(final byte b) {
+    if (lineLength == lineBuffer.length) {
+      byte[] tmp = new byte[lineBuffer.length * 2];
+      System.arraycopy(lineBuffer, 0, tmp, 0, lineLength);
+      lineBuffer = tmp;
     }
+    lineBuffer[lineLength++] = b;
   }
 
   private int fillBuffer() throws IOException {
@@ -27,50 +27,102 @@ import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartReader;
 
 public class BatchParser {
 
-  private BatchOptions options;
-
   public List<BatchRequestPart> parseBatchRequest(final InputStream content, final String boundary,
       final BatchOptions options)
       throws BatchDeserializerException {
-    this.options = options;
+    final List<BatchRequestPart> resultList = new LinkedList<BatchRequestPart>();
+    final BatchRequestPartReader reader = readBatchRequest(content, boundary, options);
+    BatchRequestPart part;
+    while ((part = reader.next()) != null) {
+      resultList.add(part);
+    }
+    return resultList;
+  }
 
-    BatchRequestTransformator transformator = new BatchRequestTransformator(options.getRawBaseUri(),
+  public BatchRequestPartReader readBatchRequest(final InputStream content, final String boundary,
+      final BatchOptions options) {
+    final BatchRequestTransformator transformator = new BatchRequestTransformator(options.getRawBaseUri(),
         options.getRawServiceResolutionUri());
-    return parse(content, boundary, transformator);
+    return new PartReader(new BatchLineReader(content), boundary, options.isStrict(), transformator);
   }
 
-  private List<BatchRequestPart> parse(final InputStream in, final String boundary,
-      final BatchRequestTransformator transformator)
-      throws BatchDeserializerException {
-    try {
-      return parseBatch(in, boundary, transformator);
-    } catch (IOException e) {
-      throw new ODataRuntimeException(e);
-    }
-  }
+  /**
+   * Splits the message at the boundary delimiters while reading it, so that only the lines
+   * of one body part are held in memory at a time.
+   */
+  private static class PartReader implements BatchRequestPartReader {
 
-  private List<BatchRequestPart> parseBatch(final InputStream in, final String boundary,
-      final BatchRequestTransformator transformator) throws IOException, BatchDeserializerException {
-    final List<BatchRequestPart> resultList = new LinkedList<BatchRequestPart>();
-    final List<List<Line>> bodyPartStrings = splitBodyParts(in, boundary);
+    private final BatchLineReader reader;
+    private final String boundary;
+    private final String delimiter;
+    private final String closeDelimiter;
+    private final boolean isStrict;
+    private final BatchRequestTransformator transformator;
+    private final List<BatchRequestPart> pending = new LinkedList<BatchRequestPart>();
+    private boolean isPreambleConsumed = false;
+    private boolean isEndReached = false;
+    private int firstLineNumber = 0;
 
-    for (List<Line> bodyPartString : bodyPartStrings) {
-      BatchBodyPart bodyPart = new BatchBodyPart(bodyPartString, boundary, options.isStrict()).parse();
-      resultList.addAll(transformator.transform(bodyPart));
+    public PartReader(final BatchLineReader reader, final String boundary, final boolean isStrict,
+        final BatchRequestTransformator transformator) {
+      this.reader = reader;
+      this.boundary = boundary;
+      delimiter = BatchLineReader.DOUBLE_DASH + boundary;
+      closeDelimiter = delimiter + BatchLineReader.DOUBLE_DASH;
+      this.isStrict = isStrict;
+      this.transformator = transformator;
     }
 
-    return resultList;
-  }
+    @Override
+    public BatchRequestPart next() throws BatchDeserializerException {
+      try {
+        while (pending.isEmpty()) {
+          if (!isPreambleConsumed) {
+            readPart();
+            isPreambleConsumed = true;
+          } else if (isEndReached) {
+            return null;
+          } else {
+            final List<Line> lines = readPart();
+            final BatchBodyPart bodyPart = new BatchBodyPart(lines, boundary, isStrict).parse();
+            pending.addAll(transformator.transform(bodyPart));
+          }
+        }
+        return pending.remove(0);
+      } catch (IOException e) {
+        throw new ODataRuntimeException(e);
+      }
+    }
 
-  private List<List<Line>> splitBodyParts(final InputStream in, final String boundary) throws IOException,
-      BatchDeserializerException {
-    final BatchLineReader reader = new BatchLineReader(in);
-    final List<Line> message = reader.toLineList();
-    reader.close();
+    private List<Line> readPart() throws IOException, BatchDeserializerException {
+      final List<Line> part = new LinkedList<Line>();
+      Line line;
+      while ((line = reader.nextLine()) != null) {
+        if (firstLineNumber == 0) {
+          firstLineNumber = line.getLineNumber();
+        }
+        if (line.isDelimiter(closeDelimiter)) {
+          isEndReached = true;
+          reader.close();
+          break;
+        } else if (line.isDelimiter(delimiter)) {
+          break;
+        } else {
+          part.add(line);
+        }
+      }
 
-    return BatchParserCommon.splitMessageByBoundary(message, boundary);
+      if (line == null) {
+        reader.close();
+        throw new BatchDeserializerException("Missing close boundary delimiter",
+            BatchDeserializerException.MessageKeys.MISSING_CLOSE_DELIMITER, Integer.toString(firstLineNumber));
+      }
+      BatchParserCommon.removeEndingCRLFFromList(part);
+      return part;
+    }
   }
 }
@@ -18,7 +18,6 @@
  */
 package org.apache.olingo.server.core.deserializer.batch;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.Iterator;
@@ -33,15 +32,16 @@ import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerExceptio
 
 public class BatchParserCommon {
 
-  private static final String PATTERN_BOUNDARY =
+  private static final Pattern PATTERN_BOUNDARY = Pattern.compile(
       "([a-zA-Z0-9_\\-\\.'\\+]{1,70})|"
-          + "\"([a-zA-Z0-9_\\-\\.'\\+\\s\\(\\),/:=\\?]{1,69}[a-zA-Z0-9_\\-\\.'\\+\\(\\),/:=\\?])\"";
-  private static final Pattern PATTERN_LAST_CRLF = Pattern.compile("(.*)\\r\\n\\s*", Pattern.DOTALL);
+          + "\"([a-zA-Z0-9_\\-\\.'\\+\\s\\(\\),/:=\\?]{1,69}[a-zA-Z0-9_\\-\\.'\\+\\(\\),/:=\\?])\"");
+  private static final Pattern PATTERN_BLANK_LINE = Pattern.compile("\\s*\r?\n\\s*");
   private static final Pattern PATTERN_HEADER_LINE = Pattern.compile("([a-zA-Z\\-]+):\\s?(.*)\\s*");
 
   public static final String CONTENT_TRANSFER_ENCODING = "Content-Transfer-Encoding";
 
   protected static final String BOUNDARY = "boundary";
+  private static final String DOUBLE_DASH = "--";
   public static final String BINARY_ENCODING = "binary";
 
   private BatchParserCommon() { /* private ctor for helper class */}
@@ -52,7 +52,7 @@ public class BatchParserCommon {
     for (final Map.Entry<String, String> entries : parameters.entrySet()) {
       if (BOUNDARY.equalsIgnoreCase(entries.getKey())) {
         final String boundary = entries.getValue().trim();
-        if (boundary.matches(PATTERN_BOUNDARY)) {
+        if (PATTERN_BOUNDARY.matcher(boundary).matches()) {
           return trimQuotes(boundary);
         } else {
           throw new BatchDeserializerException("Invalid boundary format",
@@ -111,16 +111,15 @@ public class BatchParserCommon {
     List<Line> currentPart = new LinkedList<Line>();
     boolean isEndReached = false;
 
-    final String quotedBoundary = Pattern.quote(boundary);
-    final Pattern boundaryDelimiterPattern = Pattern.compile("--" + quotedBoundary + "--\\s*");
-    final Pattern boundaryPattern = Pattern.compile("--" + quotedBoundary + "\\s*");
+    final String delimiter = DOUBLE_DASH + boundary;
+    final String closeDelimiter = delimiter + DOUBLE_DASH;
 
     for (Line currentLine : message) {
-      if (boundaryDelimiterPattern.matcher(currentLine.toString()).matches()) {
+      if (currentLine.isDelimiter(closeDelimiter)) {
         removeEndingCRLFFromList(currentPart);
         messageParts.add(currentPart);
         isEndReached = true;
-      } else if (boundaryPattern.matcher(currentLine.toString()).matches()) {
+      } else if (currentLine.isDelimiter(delimiter)) {
         removeEndingCRLFFromList(currentPart);
         messageParts.add(currentPart);
         currentPart = new LinkedList<Line>();
@@ -147,7 +146,7 @@ public class BatchParserCommon {
     return messageParts;
   }
 
-  private static void removeEndingCRLFFromList(final List<Line> list) {
+  static void removeEndingCRLFFromList(final List<Line> list) {
     if (list.size() > 0) {
       Line lastLine = list.remove(list.size() - 1);
       list.add(removeEndingCRLF(lastLine));
@@ -155,12 +154,7 @@ public class BatchParserCommon {
   }
 
   public static Line removeEndingCRLF(final Line line) {
-    Matcher matcher = PATTERN_LAST_CRLF.matcher(line.toString());
-    if (matcher.matches()) {
-      return new Line(matcher.group(1), line.getLineNumber());
-    } else {
-      return line;
-    }
+    return line.removeEndingCRLF();
   }
 
   public static Header consumeHeaders(final List<Line> remainingMessage) {
@@ -191,7 +185,7 @@ public class BatchParserCommon {
 
   public static void consumeBlankLine(final List<Line> remainingMessage, final boolean isStrict)
       throws BatchDeserializerException {
-    if (remainingMessage.size() > 0 && remainingMessage.get(0).toString().matches("\\s*\r?\n\\s*")) {
+    if (remainingMessage.size() > 0 && PATTERN_BLANK_LINE.matcher(remainingMessage.get(0).toString()).matches()) {
       remainingMessage.remove(0);
     } else {
       if (isStrict) {
@@ -203,9 +197,7 @@ public class BatchParserCommon {
   }
 
   public static InputStream convertLineListToInputStream(final List<Line> messageList, final Charset charset) {
-    final String message = lineListToString(messageList);
-
-    return new ByteArrayInputStream(message.getBytes(charset));
+    return convertLineListToInputStream(messageList, charset, -1);
   }
 
   private static String lineListToString(final List<Line> messageList) {
@@ -225,10 +217,14 @@ public class BatchParserCommon {
     return (lastIndex > 0) ? message.substring(0, lastIndex) : "";
   }
 
+  /**
+   * Gets an input stream over the raw bytes of the given lines, without decoding or copying them.
+   * @param list the lines
+   * @param charset the charset to encode lines without raw bytes
+   * @param length the maximum number of bytes, or -1 to take all bytes
+   */
   public static InputStream convertLineListToInputStream(final List<Line> list, final Charset charset,
       final int length) {
-    final String message = trimLineListToLength(list, length);
-
-    return new ByteArrayInputStream(message.getBytes(charset));
+    return new LineListInputStream(list, charset, length);
   }
 }
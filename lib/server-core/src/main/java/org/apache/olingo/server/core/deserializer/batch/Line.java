@@ -18,21 +18,122 @@
  */
 package org.apache.olingo.server.core.deserializer.batch;
 
+import java.nio.charset.Charset;
+
+/**
+ * A line of a batch request.
+ * <p>Lines read from a request keep their raw bytes; they are decoded only if their
+ * textual content is requested, so that request bodies can be passed on as bytes.</p>
+ */
 public class Line {
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
   private final int lineNumber;
-  private final String content;
+  private final byte[] bytes;
+  private final Charset charset;
+  private String content;
 
   public Line(final String content, final int lineNumber) {
     this.content = content;
     this.lineNumber = lineNumber;
+    bytes = null;
+    charset = null;
+  }
+
+  /**
+   * Creates a line from its raw bytes.
+   * @param bytes the bytes of the line including the line ending
+   * @param charset the charset used to decode the bytes if the textual content is requested
+   * @param lineNumber the number of the line within the request
+   */
+  public Line(final byte[] bytes, final Charset charset, final int lineNumber) {
+    this.bytes = bytes;
+    this.charset = charset;
+    this.lineNumber = lineNumber;
   }
 
   public int getLineNumber() {
     return lineNumber;
   }
 
+  /**
+   * Gets the bytes of this line; lines without raw bytes are encoded with the given charset.
+   */
+  public byte[] getBytes(final Charset defaultCharset) {
+    return bytes == null ? content.getBytes(defaultCharset) : bytes;
+  }
+
+  /**
+   * Checks whether this line consists of the given delimiter followed only by whitespace.
+   * @param delimiter the delimiter, e.g., the boundary with leading double dash; must consist of ASCII characters
+   */
+  public boolean isDelimiter(final String delimiter) {
+    if (bytes == null) {
+      return content.startsWith(delimiter) && isWhitespace(content, delimiter.length());
+    }
+    if (bytes.length < delimiter.length()) {
+      return false;
+    }
+    for (int i = 0; i < delimiter.length(); i++) {
+      if (bytes[i] != delimiter.charAt(i)) {
+        return false;
+      }
+    }
+    for (int i = delimiter.length(); i < bytes.length; i++) {
+      if (!isWhitespace((char) bytes[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes the last line break (CRLF) if it is followed only by whitespace.
+   * @return a new line without the line break or this line if there is nothing to remove
+   */
+  public Line removeEndingCRLF() {
+    if (bytes == null) {
+      int whitespaceStart = content.length();
+      while (whitespaceStart > 0 && isWhitespace(content.charAt(whitespaceStart - 1))) {
+        whitespaceStart--;
+      }
+      final int index = content.lastIndexOf("\r\n");
+      return index >= whitespaceStart ? new Line(content.substring(0, index), lineNumber) : this;
+    }
+    int whitespaceStart = bytes.length;
+    while (whitespaceStart > 0 && isWhitespace((char) bytes[whitespaceStart - 1])) {
+      whitespaceStart--;
+    }
+    for (int index = bytes.length - 2; index >= whitespaceStart; index--) {
+      if (bytes[index] == CR && bytes[index + 1] == LF) {
+        byte[] trimmed = new byte[index];
+        System.arraycopy(bytes, 0, trimmed, 0, index);
+        return new Line(trimmed, charset, lineNumber);
+      }
+    }
+    return this;
+  }
+
+  private static boolean isWhitespace(final String value, final int start) {
+    for (int i = start; i < value.length(); i++) {
+      if (!isWhitespace(value.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Whitespace as defined by the regular expression class <code>\s</code>. */
+  private static boolean isWhitespace(final char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
   @Override
   public String toString() {
+    if (content == null) {
+      content = new String(bytes, charset);
+    }
     return content;
   }
 
@@ -40,7 +141,7 @@ public class Line {
   public int hashCode() {
     final int prime = 31;
     int result = 1;
-    result = prime * result + ((content == null) ? 0 : content.hashCode());
+    result = prime * result + toString().hashCode();
     result = prime * result + lineNumber;
     return result;
   }
@@ -57,11 +158,7 @@ public class Line {
       return false;
     }
     Line other = (Line) obj;
-    if (content == null) {
-      if (other.content != null) {
-        return false;
-      }
-    } else if (!content.equals(other.content)) {
+    if (!toString().equals(other.toString())) {
       return false;
     }
     if (lineNumber != other.lineNumber) {
@@ -69,4 +166,4 @@ public class Line {
     }
     return true;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.deserializer.batch;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Input stream over the raw bytes of a list of lines, bounded to a maximum length.
+ * <p>The bytes are read directly from the lines, without joining them into a new array.</p>
+ */
+class LineListInputStream extends InputStream {
+
+  private final Iterator<Line> lines;
+  private final Charset charset;
+  private int remaining;
+  private byte[] current;
+  private int position;
+
+  /**
+   * @param lines the lines
+   * @param charset the charset to encode lines without raw bytes
+   * @param length the maximum number of bytes, or -1 to take all bytes
+   */
+  LineListInputStream(final List<Line> lines, final Charset charset, final int length) {
+    this.lines = lines.iterator();
+    this.charset = charset;
+    remaining = length < 0 ? Integer.MAX_VALUE : length;
+  }
+
+  @Override
+  public int read() {
+    if (!fill()) {
+      return -1;
+    }
+    remaining--;
+    return current[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] buffer, final int offset, final int length) {
+    if (length == 0) {
+      return 0;
+    }
+    int count = 0;
+    while (count < length && fill()) {
+      final int chunk = Math.min(Math.min(length - count, current.length - position), remaining);
+      System.arraycopy(current, position, buffer, offset + count, chunk);
+      position += chunk;
+      remaining -= chunk;
+      count += chunk;
+    }
+    return count == 0 ? -1 : count;
+  }
+
+  @Override
+  public int available() {
+    return current == null ? 0 : Math.min(current.length - position, remaining);
+  }
+
+  /** Moves to the next line with unread bytes if necessary; returns <code>false</code> at the end. */
+  private boolean fill() {
+    if (remaining <= 0) {
+      return false;
+    }
+    while (current == null || position == current.length) {
+      if (!lines.hasNext()) {
+        current = null;
+        return false;
+      }
+      current = lines.next().getBytes(charset);
+      position = 0;
+    }
+    return true;
+  }
+}
@@ -23,11 +23,14 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.ComplexValue;
@@ -36,9 +39,11 @@ import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Parameter;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.PropertyIndex;
 import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.EdmAction;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
+import org.apache.olingo.commons.api.edm.EdmElement;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmEnumType;
 import org.apache.olingo.commons.api.edm.EdmMapping;
@@ -59,6 +64,7 @@ import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.deserializer.DeserializerException.MessageKeys;
 import org.apache.olingo.server.api.deserializer.DeserializerResult;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
+import org.apache.olingo.server.core.StreamFactoryRegistry;
 import org.apache.olingo.server.core.deserializer.DeserializerResultImpl;
 import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilder;
 import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilderImpl;
@@ -66,10 +72,9 @@ import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilderImpl;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
@@ -79,15 +84,22 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   private static final String ODATA_CONTROL_INFORMATION_PREFIX = "@odata.";
 
   private final boolean isIEEE754Compatible;
+  private final JsonFactory jsonFactory;
   private ServiceMetadata serviceMetadata;
 
   public ODataJsonDeserializer(final ContentType contentType) {
-    isIEEE754Compatible = isODataIEEE754Compatible(contentType);
+    this(contentType, null);
   }
   
   public ODataJsonDeserializer(final ContentType contentType, final ServiceMetadata serviceMetadata) {
+    this(contentType, serviceMetadata, StreamFactoryRegistry.getDefault());
+  }
+
+  public ODataJsonDeserializer(final ContentType contentType, final ServiceMetadata serviceMetadata,
+      final StreamFactoryRegistry factoryRegistry) {
     isIEEE754Compatible = isODataIEEE754Compatible(contentType);
     this.serviceMetadata = serviceMetadata;
+    jsonFactory = factoryRegistry.getJsonFactory();
   }
   
   public void setMetadata(ServiceMetadata metadata) {
@@ -98,39 +110,23 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   public DeserializerResult entityCollection(final InputStream stream, final EdmEntityType edmEntityType)
       throws DeserializerException {
     try {
+      final JsonParser parser = createParser(stream);
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new DeserializerException("Invalid JSON syntax.",
+            DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
+      }
       return DeserializerResultImpl.with().entityCollection(
-          consumeEntityCollectionNode(edmEntityType, parseJsonTree(stream), null))
+          readEntityCollection(parser, edmEntityType))
           .build();
     } catch (final IOException e) {
       throw wrapParseException(e);
     }
   }
 
-  private EntityCollection consumeEntityCollectionNode(final EdmEntityType edmEntityType, final ObjectNode tree,
-      final ExpandTreeBuilder expandBuilder) throws DeserializerException {
-    EntityCollection entitySet = new EntityCollection();
-
-    // Consume entities
-    JsonNode jsonNode = tree.get(Constants.VALUE);
-    if (jsonNode != null) {
-      entitySet.getEntities().addAll(consumeEntitySetArray(edmEntityType, jsonNode, expandBuilder));
-      tree.remove(Constants.VALUE);
-    } else {
-      throw new DeserializerException("Could not find value array.",
-          DeserializerException.MessageKeys.VALUE_ARRAY_NOT_PRESENT);
-    }
-
-    if (tree.isObject()) {
-      removeAnnotations(tree);
-    }
-    assertJsonNodeIsEmpty(tree);
-
-    return entitySet;
-  }
-
   private List<Entity> consumeEntitySetArray(final EdmEntityType edmEntityType, final JsonNode jsonNode,
       final ExpandTreeBuilder expandBuilder) throws DeserializerException {
     if (jsonNode.isArray()) {
+      final PropertyIndex propertyIndex = PropertyIndex.of(edmEntityType);
       List<Entity> entities = new ArrayList<Entity>();
       for (JsonNode arrayElement : jsonNode) {
         if (arrayElement.isArray() || arrayElement.isValueNode()) {
@@ -138,7 +134,9 @@ public class ODataJsonDeserializer implements ODataDeserializer {
               DeserializerException.MessageKeys.INVALID_ENTITY);
         }
         EdmEntityType derivedEdmEntityType = (EdmEntityType)getDerivedType(edmEntityType, arrayElement);
-        entities.add(consumeEntityNode(derivedEdmEntityType, (ObjectNode) arrayElement, expandBuilder));
+        entities.add(consumeEntityNode(derivedEdmEntityType,
+            derivedEdmEntityType == edmEntityType ? propertyIndex : PropertyIndex.of(derivedEdmEntityType),
+            (ObjectNode) arrayElement, expandBuilder));
       }
       return entities;
     } else {
@@ -151,12 +149,15 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   public DeserializerResult entity(final InputStream stream, final EdmEntityType edmEntityType)
       throws DeserializerException {
     try {
-      final ObjectNode tree = parseJsonTree(stream);
+      final JsonParser parser = createParser(stream);
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new DeserializerException("Invalid JSON syntax.",
+            DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
+      }
       final ExpandTreeBuilderImpl expandBuilder = new ExpandTreeBuilderImpl();
 
-      EdmEntityType derivedEdmEntityType = (EdmEntityType)getDerivedType(edmEntityType, tree);
-
-      return DeserializerResultImpl.with().entity(consumeEntityNode(derivedEdmEntityType, tree, expandBuilder))
+      return DeserializerResultImpl.with().entity(
+          readEntity(parser, edmEntityType, PropertyIndex.of(edmEntityType), expandBuilder))
           .expandOption(expandBuilder.build())
           .build();
     } catch (final IOException e) {
@@ -164,9 +165,310 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
-  private Entity consumeEntityNode(final EdmEntityType edmEntityType, final ObjectNode tree,
-      final ExpandTreeBuilder expandBuilder) throws DeserializerException {
-    Entity entity = new Entity();
+  /*
+   * Entities and entity collections are read directly from the token stream, guided by the EDM type;
+   * only primitive values, binding annotations, and fields which cannot be resolved before the
+   * type annotation has been read are materialized as (small) JSON trees and handed over
+   * to the tree-based consumers below. The validation rules are the same in both cases.
+   */
+
+  private EntityCollection readEntityCollection(final JsonParser parser, final EdmEntityType edmEntityType)
+      throws IOException, DeserializerException {
+    EntityCollection entitySet = null;
+    final Set<String> fieldNames = new HashSet<String>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      parser.nextToken();
+      checkDuplicateField(fieldNames, name);
+      if (Constants.VALUE.equals(name)) {
+        if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+          throw new DeserializerException("The content of the value tag must be an Array but is not.",
+              DeserializerException.MessageKeys.VALUE_TAG_MUST_BE_AN_ARRAY);
+        }
+        entitySet = new EntityCollection();
+        readEntityArray(parser, edmEntityType, null, entitySet.getEntities());
+      } else {
+        skipAnnotation(parser, name);
+      }
+    }
+    if (entitySet == null) {
+      throw new DeserializerException("Could not find value array.",
+          DeserializerException.MessageKeys.VALUE_ARRAY_NOT_PRESENT);
+    }
+    return entitySet;
+  }
+
+  private void readEntityArray(final JsonParser parser, final EdmEntityType edmEntityType,
+      final ExpandTreeBuilder expandBuilder, final List<Entity> entities) throws IOException, DeserializerException {
+    final PropertyIndex propertyIndex = PropertyIndex.of(edmEntityType);
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+        throw new DeserializerException("Nested Arrays and primitive values are not allowed for an entity value.",
+            DeserializerException.MessageKeys.INVALID_ENTITY);
+      }
+      entities.add(readEntity(parser, edmEntityType, propertyIndex, expandBuilder));
+    }
+  }
+
+  /**
+   * Reads an entity from the current token on.
+   * @param propertyIndex the property index of the given type, looked up once per collection by the caller
+   */
+  private Entity readEntity(final JsonParser parser, final EdmEntityType edmEntityType,
+      final PropertyIndex propertyIndex, final ExpandTreeBuilder expandBuilder)
+      throws IOException, DeserializerException {
+    EdmEntityType type = edmEntityType;
+    final Set<String> fieldNames = new HashSet<String>();
+    final Map<String, Property> properties = new HashMap<String, Property>();
+    final Map<String, Link> navigationLinks = new HashMap<String, Link>();
+    final Map<String, JsonNode> bindings = new LinkedHashMap<String, JsonNode>();
+    Map<String, JsonNode> unresolved = null;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      parser.nextToken();
+      checkDuplicateField(fieldNames, name);
+      final EdmElement edmElement = type.getProperty(name);
+      if (edmElement instanceof EdmProperty) {
+        properties.put(name, readProperty(parser, (EdmProperty) edmElement));
+      } else if (edmElement instanceof EdmNavigationProperty) {
+        navigationLinks.put(name, readLink(parser, (EdmNavigationProperty) edmElement, expandBuilder));
+      } else if (Constants.JSON_TYPE.equals(name)) {
+        type = (EdmEntityType) resolveDerivedType(edmEntityType, parser.<JsonNode> readValueAsTree());
+      } else if (name.contains(Constants.JSON_BIND_LINK_SUFFIX)) {
+        bindings.put(name, parser.<JsonNode> readValueAsTree());
+      } else if (name.contains(ODATA_ANNOTATION_MARKER)) {
+        skipAnnotation(parser, name);
+      } else {
+        // The field could belong to a derived type announced later on.
+        if (unresolved == null) {
+          unresolved = new LinkedHashMap<String, JsonNode>();
+        }
+        unresolved.put(name, parser.<JsonNode> readValueAsTree());
+      }
+    }
+
+    if (unresolved != null) {
+      for (final Entry<String, JsonNode> field : unresolved.entrySet()) {
+        final String name = field.getKey();
+        final JsonNode jsonNode = field.getValue();
+        final EdmElement edmElement = type.getProperty(name);
+        if (edmElement instanceof EdmProperty) {
+          final EdmProperty edmProperty = (EdmProperty) edmElement;
+          checkNotNullOrValidNull(jsonNode, edmProperty);
+          properties.put(name, consumePropertyNode(edmProperty.getName(), edmProperty.getType(),
+              edmProperty.isCollection(), edmProperty.isNullable(), edmProperty.getMaxLength(),
+              edmProperty.getPrecision(), edmProperty.getScale(), edmProperty.isUnicode(), edmProperty.getMapping(),
+              jsonNode));
+        } else if (edmElement instanceof EdmNavigationProperty) {
+          final EdmNavigationProperty edmNavigationProperty = (EdmNavigationProperty) edmElement;
+          checkNotNullOrValidNull(jsonNode, edmNavigationProperty);
+          navigationLinks.put(name, createLink(expandBuilder, name, jsonNode, edmNavigationProperty));
+        } else {
+          throw new DeserializerException("Tree should be empty but still has content left: " + name,
+              DeserializerException.MessageKeys.UNKNOWN_CONTENT, name);
+        }
+      }
+    }
+
+    Entity entity = new Entity(type == edmEntityType ? propertyIndex : PropertyIndex.of(type));
+    entity.setType(type.getFullQualifiedName().getFullQualifiedNameAsString());
+    for (final String propertyName : type.getPropertyNames()) {
+      final Property property = properties.get(propertyName);
+      if (property != null) {
+        entity.addProperty(property);
+      }
+    }
+    for (final String navigationPropertyName : type.getNavigationPropertyNames()) {
+      final Link link = navigationLinks.get(navigationPropertyName);
+      if (link != null) {
+        entity.getNavigationLinks().add(link);
+      }
+    }
+    for (final Entry<String, JsonNode> binding : bindings.entrySet()) {
+      entity.getNavigationBindings().add(consumeBindingLink(binding.getKey(), binding.getValue(), type));
+    }
+    return entity;
+  }
+
+  private Link readLink(final JsonParser parser, final EdmNavigationProperty edmNavigationProperty,
+      final ExpandTreeBuilder expandBuilder) throws IOException, DeserializerException {
+    final String name = edmNavigationProperty.getName();
+    final JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.VALUE_NULL
+        && (!edmNavigationProperty.isNullable() || edmNavigationProperty.isCollection())) {
+      throw new DeserializerException("Property: " + name + " must not be null.",
+          MessageKeys.INVALID_NULL_PROPERTY, name);
+    }
+    Link link = new Link();
+    link.setTitle(name);
+    final ExpandTreeBuilder childExpandBuilder =
+        expandBuilder == null ? null : expandBuilder.expand(edmNavigationProperty);
+    if (token == JsonToken.START_ARRAY && edmNavigationProperty.isCollection()) {
+      link.setType(Constants.ENTITY_SET_NAVIGATION_LINK_TYPE);
+      EntityCollection inlineEntitySet = new EntityCollection();
+      readEntityArray(parser, edmNavigationProperty.getType(), childExpandBuilder, inlineEntitySet.getEntities());
+      link.setInlineEntitySet(inlineEntitySet);
+    } else if ((token == JsonToken.START_OBJECT || token == JsonToken.VALUE_NULL)
+        && !edmNavigationProperty.isCollection()) {
+      link.setType(Constants.ENTITY_NAVIGATION_LINK_TYPE);
+      if (token == JsonToken.START_OBJECT) {
+        link.setInlineEntity(readEntity(parser, edmNavigationProperty.getType(),
+            PropertyIndex.of(edmNavigationProperty.getType()), childExpandBuilder));
+      }
+    } else {
+      throw new DeserializerException("Invalid value: " + token
+          + " for expanded navigation property: " + name,
+          MessageKeys.INVALID_VALUE_FOR_NAVIGATION_PROPERTY, name);
+    }
+    return link;
+  }
+
+  private Property readProperty(final JsonParser parser, final EdmProperty edmProperty)
+      throws IOException, DeserializerException {
+    final String name = edmProperty.getName();
+    final EdmType type = edmProperty.getType();
+    if (parser.getCurrentToken() == JsonToken.VALUE_NULL && !edmProperty.isNullable()) {
+      throw new DeserializerException("Property: " + name + " must not be null.",
+          DeserializerException.MessageKeys.INVALID_NULL_PROPERTY, name);
+    }
+    if (type.getKind() != EdmTypeKind.COMPLEX) {
+      return consumePropertyNode(name, type, edmProperty.isCollection(),
+          edmProperty.isNullable(), edmProperty.getMaxLength(), edmProperty.getPrecision(), edmProperty.getScale(),
+          edmProperty.isUnicode(), edmProperty.getMapping(), parser.<JsonNode> readValueAsTree());
+    }
+
+    Property property = new Property();
+    property.setName(name);
+    property.setType(type.getFullQualifiedName().getFullQualifiedNameAsString());
+    if (edmProperty.isCollection()) {
+      if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+        throw new DeserializerException("Value for property: " + name + " must be an array but is not.",
+            DeserializerException.MessageKeys.INVALID_JSON_TYPE_FOR_PROPERTY, name);
+      }
+      final PropertyIndex propertyIndex = PropertyIndex.of((EdmComplexType) type);
+      List<Object> valueArray = new ArrayList<Object>();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        valueArray.add(readComplexValue(parser, name, (EdmComplexType) type, propertyIndex,
+            edmProperty.isNullable(), null));
+      }
+      property.setValue(ValueType.COLLECTION_COMPLEX, valueArray);
+    } else {
+      property.setValue(ValueType.COMPLEX,
+          readComplexValue(parser, name, (EdmComplexType) type, PropertyIndex.of((EdmComplexType) type),
+              edmProperty.isNullable(), property));
+    }
+    return property;
+  }
+
+  /**
+   * Reads a complex value from the current token on.
+   * @param propertyIndex the property index of the given type, looked up once per collection by the caller
+   * @param property if not <code>null</code>, derived types are allowed and set at this property
+   */
+  private ComplexValue readComplexValue(final JsonParser parser, final String name, final EdmComplexType edmType,
+      final PropertyIndex propertyIndex, final boolean isNullable, final Property property)
+      throws IOException, DeserializerException {
+    final JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      if (isNullable) {
+        return null;
+      }
+      throw new DeserializerException("Property: " + name + " must not be null.",
+          DeserializerException.MessageKeys.INVALID_NULL_PROPERTY, name);
+    }
+    if (token != JsonToken.START_OBJECT) {
+      throw new DeserializerException(
+          "Invalid value for property: " + name + " must not be an array or primitive value.",
+          DeserializerException.MessageKeys.INVALID_JSON_TYPE_FOR_PROPERTY, name);
+    }
+
+    EdmComplexType type = edmType;
+    final Set<String> fieldNames = new HashSet<String>();
+    final Map<String, Property> properties = new HashMap<String, Property>();
+    Map<String, JsonNode> unresolved = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String fieldName = parser.getCurrentName();
+      parser.nextToken();
+      checkDuplicateField(fieldNames, fieldName);
+      final EdmElement edmElement = type.getProperty(fieldName);
+      if (edmElement instanceof EdmProperty) {
+        properties.put(fieldName, readProperty(parser, (EdmProperty) edmElement));
+      } else if (property != null && Constants.JSON_TYPE.equals(fieldName)) {
+        type = (EdmComplexType) resolveDerivedType(edmType, parser.<JsonNode> readValueAsTree());
+      } else if (fieldName.contains(ODATA_ANNOTATION_MARKER)) {
+        skipAnnotation(parser, fieldName);
+      } else {
+        if (unresolved == null) {
+          unresolved = new LinkedHashMap<String, JsonNode>();
+        }
+        unresolved.put(fieldName, parser.<JsonNode> readValueAsTree());
+      }
+    }
+
+    if (unresolved != null) {
+      for (final Entry<String, JsonNode> field : unresolved.entrySet()) {
+        final EdmElement edmElement = type.getProperty(field.getKey());
+        if (!(edmElement instanceof EdmProperty)) {
+          throw new DeserializerException("Tree should be empty but still has content left: " + field.getKey(),
+              DeserializerException.MessageKeys.UNKNOWN_CONTENT, field.getKey());
+        }
+        final EdmProperty edmProperty = (EdmProperty) edmElement;
+        checkNotNullOrValidNull(field.getValue(), edmProperty);
+        properties.put(field.getKey(), consumePropertyNode(edmProperty.getName(), edmProperty.getType(),
+            edmProperty.isCollection(), edmProperty.isNullable(), edmProperty.getMaxLength(),
+            edmProperty.getPrecision(), edmProperty.getScale(), edmProperty.isUnicode(), edmProperty.getMapping(),
+            field.getValue()));
+      }
+    }
+
+    if (property != null) {
+      property.setType(type.getFullQualifiedName().getFullQualifiedNameAsString());
+    }
+    ComplexValue complexValue = new ComplexValue(type == edmType ? propertyIndex : PropertyIndex.of(type));
+    for (final String propertyName : type.getPropertyNames()) {
+      final Property complexProperty = properties.get(propertyName);
+      if (complexProperty != null) {
+        complexValue.getValue().add(complexProperty);
+      }
+    }
+    return complexValue;
+  }
+
+  private void checkDuplicateField(final Set<String> fieldNames, final String name) throws DeserializerException {
+    if (!fieldNames.add(name)) {
+      throw new DeserializerException("Duplicate json property detected: " + name,
+          DeserializerException.MessageKeys.DUPLICATE_PROPERTY);
+    }
+  }
+
+  /**
+   * Skips the value of an annotation; control information is ignored for requests
+   * as per specification chapter "4.5 Control Information", custom annotations are not supported.
+   */
+  private void skipAnnotation(final JsonParser parser, final String name) throws IOException, DeserializerException {
+    if (name.contains(ODATA_CONTROL_INFORMATION_PREFIX)) {
+      parser.skipChildren();
+    } else if (name.contains(ODATA_ANNOTATION_MARKER)) {
+      throw new DeserializerException("Custom annotation with field name: " + name + " not supported",
+          DeserializerException.MessageKeys.NOT_IMPLEMENTED);
+    } else {
+      throw new DeserializerException("Tree should be empty but still has content left: " + name,
+          DeserializerException.MessageKeys.UNKNOWN_CONTENT, name);
+    }
+  }
+
+  private void checkNotNullOrValidNull(final JsonNode jsonNode, final EdmProperty edmProperty)
+      throws DeserializerException {
+    if (jsonNode.isNull() && !edmProperty.isNullable()) {
+      throw new DeserializerException("Property: " + edmProperty.getName() + " must not be null.",
+          DeserializerException.MessageKeys.INVALID_NULL_PROPERTY, edmProperty.getName());
+    }
+  }
+
+  private Entity consumeEntityNode(final EdmEntityType edmEntityType, final PropertyIndex propertyIndex,
+      final ObjectNode tree, final ExpandTreeBuilder expandBuilder) throws DeserializerException {
+    Entity entity = new Entity(propertyIndex);
     entity.setType(edmEntityType.getFullQualifiedName().getFullQualifiedNameAsString());
 
     // Check and consume all Properties
@@ -201,10 +503,12 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
+  private JsonParser createParser(final InputStream stream) throws IOException {
+    return jsonFactory.createParser(stream);
+  }
+
   private ObjectNode parseJsonTree(final InputStream stream) throws IOException, DeserializerException {
-    ObjectMapper objectMapper = new ObjectMapper();
-    objectMapper.configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true);
-    JsonParser parser = new JsonFactory(objectMapper).createParser(stream);
+    JsonParser parser = createParser(stream);
     final JsonNode tree = parser.getCodec().readTree(parser);
     if (tree == null || !tree.isObject()) {
       throw new DeserializerException("Invalid JSON syntax.",
@@ -264,7 +568,9 @@ public class ODataJsonDeserializer implements ODataDeserializer {
             consumeEntitySetArray((EdmEntityType) edmParameter.getType(), node, null));
         parameter.setValue(ValueType.COLLECTION_ENTITY, entityCollection);
       } else {
-        final Entity entity = consumeEntityNode((EdmEntityType) edmParameter.getType(), (ObjectNode) node, null);
+        final EdmEntityType edmEntityType = (EdmEntityType) edmParameter.getType();
+        final Entity entity = consumeEntityNode(edmEntityType, PropertyIndex.of(edmEntityType),
+            (ObjectNode) node, null);
         parameter.setValue(ValueType.ENTITY, entity);
       }
     } else {
@@ -281,9 +587,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   /** Reads a parameter value from a String. */
   public Parameter parameter(final String content, final EdmParameter parameter) throws DeserializerException {
     try {
-      JsonParser parser = new JsonFactory(new ObjectMapper()
-      .configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true))
-      .createParser(content);
+      JsonParser parser = jsonFactory.createParser(content);
       JsonNode node = parser.getCodec().readTree(parser);
       if (node == null) {
         throw new DeserializerException("Invalid JSON syntax.",
@@ -401,8 +705,8 @@ public class ODataJsonDeserializer implements ODataDeserializer {
             && !edmNavigationProperty.isCollection()) {
           link.setType(Constants.ENTITY_NAVIGATION_LINK_TYPE);
           if (!jsonNode.isNull()) {
-            Entity inlineEntity = consumeEntityNode(derivedEdmEntityType, (ObjectNode) jsonNode,
-                childExpandBuilder);
+            Entity inlineEntity = consumeEntityNode(derivedEdmEntityType, PropertyIndex.of(derivedEdmEntityType),
+                (ObjectNode) jsonNode, childExpandBuilder);
             link.setInlineEntity(inlineEntity);
           }
         } else {
@@ -496,7 +800,8 @@ public class ODataJsonDeserializer implements ODataDeserializer {
       property.setType(derivedType.getFullQualifiedName()
           .getFullQualifiedNameAsString());
 
-      value = readComplexNode(name, derivedType, isNullable, jsonNode);
+      value = readComplexNode(name, derivedType, PropertyIndex.of((EdmComplexType) derivedType), isNullable,
+          jsonNode);
       property.setValue(ValueType.COMPLEX, value);
       break;
     default:
@@ -505,11 +810,11 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
-  private Object readComplexNode(final String name, final EdmType type, final boolean isNullable,
-      final JsonNode jsonNode)
+  private Object readComplexNode(final String name, final EdmType type, final PropertyIndex propertyIndex,
+      final boolean isNullable, final JsonNode jsonNode)
           throws DeserializerException {
     // read and add all complex properties
-    ComplexValue value = readComplexValue(name, type, isNullable, jsonNode);
+    ComplexValue value = readComplexValue(name, type, propertyIndex, isNullable, jsonNode);
 
     if (jsonNode.isObject()) {
       removeAnnotations((ObjectNode) jsonNode);
@@ -546,9 +851,10 @@ public class ODataJsonDeserializer implements ODataDeserializer {
             valueArray);
       break;
     case COMPLEX:
+      final PropertyIndex propertyIndex = PropertyIndex.of((EdmComplexType) type);
       while (iterator.hasNext()) {
         // read and add all complex properties
-        Object value = readComplexNode(name, type, isNullable, iterator.next());
+        Object value = readComplexNode(name, type, propertyIndex, isNullable, iterator.next());
         valueArray.add(value);
       }
       property.setValue(ValueType.COLLECTION_COMPLEX, valueArray);
@@ -559,7 +865,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
-  private ComplexValue readComplexValue(final String name, final EdmType type,
+  private ComplexValue readComplexValue(final String name, final EdmType type, final PropertyIndex propertyIndex,
       final boolean isNullable, final JsonNode jsonNode) throws DeserializerException {
     if (isValidNull(name, isNullable, jsonNode)) {
       return null;
@@ -570,8 +876,8 @@ public class ODataJsonDeserializer implements ODataDeserializer {
           DeserializerException.MessageKeys.INVALID_JSON_TYPE_FOR_PROPERTY, name);
     }
     // Even if there are no properties defined we have to give back an empty list
-    ComplexValue complexValue = new ComplexValue();
     EdmComplexType edmType = (EdmComplexType) type;
+    ComplexValue complexValue = new ComplexValue(propertyIndex);
     // Check and consume all Properties
     for (String propertyName : edmType.getPropertyNames()) {
       JsonNode subNode = jsonNode.get(propertyName);
@@ -835,7 +1141,11 @@ public class ODataJsonDeserializer implements ODataDeserializer {
 
   private EdmType getDerivedType(final EdmStructuredType edmType, final JsonNode jsonNode)
       throws DeserializerException {
-    JsonNode odataTypeNode = jsonNode.get(Constants.JSON_TYPE);
+    return resolveDerivedType(edmType, jsonNode.get(Constants.JSON_TYPE));
+  }
+
+  private EdmType resolveDerivedType(final EdmStructuredType edmType, final JsonNode odataTypeNode)
+      throws DeserializerException {
     if (odataTypeNode != null) {
       String odataType = odataTypeNode.asText();
       if (!odataType.isEmpty()) {
@@ -41,6 +41,7 @@ import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Parameter;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.PropertyIndex;
 import org.apache.olingo.commons.api.data.Valuable;
 import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.EdmAction;
@@ -63,12 +64,11 @@ import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.deserializer.DeserializerException.MessageKeys;
 import org.apache.olingo.server.api.deserializer.DeserializerResult;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
+import org.apache.olingo.server.core.StreamFactoryRegistry;
 import org.apache.olingo.server.core.deserializer.DeserializerResultImpl;
 
 public class ODataXmlDeserializer implements ODataDeserializer {
 
-  private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
-
   private static final QName propertiesQName = new QName(Constants.NS_METADATA, Constants.PROPERTIES);
   private static final QName propertyValueQName = new QName(Constants.NS_METADATA, Constants.VALUE);
   private static final QName contextQName = new QName(Constants.NS_METADATA, Constants.CONTEXT);
@@ -80,13 +80,20 @@ public class ODataXmlDeserializer implements ODataDeserializer {
   private static final QName parametersQName = new QName(Constants.NS_METADATA, "parameters");
   private static final QName typeQName = new QName(Constants.NS_METADATA, Constants.ATTR_TYPE);
   
+  private final XMLInputFactory xmlInputFactory;
   private ServiceMetadata serviceMetadata;
 
   public ODataXmlDeserializer() {
+    this(null);
   }
 
   public ODataXmlDeserializer(final ServiceMetadata serviceMetadata) {
+    this(serviceMetadata, StreamFactoryRegistry.getDefault());
+  }
+
+  public ODataXmlDeserializer(final ServiceMetadata serviceMetadata, final StreamFactoryRegistry factoryRegistry) {
     this.serviceMetadata = serviceMetadata;
+    xmlInputFactory = factoryRegistry.getXmlInputFactory();
   }
   
   public void setMetadata(ServiceMetadata metadata) {
@@ -94,7 +101,7 @@ public class ODataXmlDeserializer implements ODataDeserializer {
   }
   
   protected XMLEventReader getReader(final InputStream input) throws XMLStreamException {
-    return FACTORY.createXMLEventReader(input);
+    return xmlInputFactory.createXMLEventReader(input);
   }
 
   private Object primitive(final XMLEventReader reader, final StartElement start,
@@ -131,9 +138,9 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     return value;
   }
 
-  private Object complex(final XMLEventReader reader, final StartElement start, final EdmComplexType edmComplex)
-      throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
-    ComplexValue value = new ComplexValue();
+  private Object complex(final XMLEventReader reader, final StartElement start, final EdmComplexType edmComplex,
+      final PropertyIndex propertyIndex) throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
+    ComplexValue value = new ComplexValue(propertyIndex);
     boolean foundEndProperty = false;
     while (reader.hasNext() && !foundEndProperty) {
       final XMLEvent event = reader.nextEvent();
@@ -156,6 +163,8 @@ public class ODataXmlDeserializer implements ODataDeserializer {
       DeserializerException {
 
     List<Object> values = new ArrayList<Object>();
+    final PropertyIndex propertyIndex =
+        edmType instanceof EdmComplexType ? PropertyIndex.of((EdmComplexType) edmType) : null;
 
     boolean foundEndProperty = false;
     while (reader.hasNext() && !foundEndProperty) {
@@ -166,7 +175,7 @@ public class ODataXmlDeserializer implements ODataDeserializer {
           values.add(primitive(reader, event.asStartElement(), edmType, isNullable,
               maxLength, precision, scale, isUnicode));
         } else if (edmType instanceof EdmComplexType) {
-          values.add(complex(reader, event.asStartElement(), (EdmComplexType) edmType));
+          values.add(complex(reader, event.asStartElement(), (EdmComplexType) edmType, propertyIndex));
         }
         // do not add null or empty values
       }
@@ -250,9 +259,11 @@ public class ODataXmlDeserializer implements ODataDeserializer {
       valuable.setValue(getValueType(edmType, false),
           primitive(reader, start, edmType, isNullable, maxLength, precision, scale, isUnicode));
     } else if (edmType instanceof EdmComplexType) {
-      valuable.setValue(ValueType.COMPLEX, complex(reader, start, (EdmComplexType) edmType));
+      valuable.setValue(ValueType.COMPLEX,
+          complex(reader, start, (EdmComplexType) edmType, PropertyIndex.of((EdmComplexType) edmType)));
     } else if (edmType instanceof EdmEntityType) {
-      valuable.setValue(ValueType.ENTITY, entity(reader, start, (EdmEntityType) edmType));
+      valuable.setValue(ValueType.ENTITY,
+          entity(reader, start, (EdmEntityType) edmType, PropertyIndex.of((EdmEntityType) edmType)));
     }
     // do not add null or empty values
   }
@@ -333,7 +344,8 @@ public class ODataXmlDeserializer implements ODataDeserializer {
                     DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, link.getTitle());
               }
 
-              link.setInlineEntity(entity(reader, inline, navigationProperty.getType()));
+              link.setInlineEntity(entity(reader, inline, navigationProperty.getType(),
+                  PropertyIndex.of(navigationProperty.getType())));
             }
             if (Constants.QNAME_ATOM_ELEM_FEED.equals(inline.getName())) {
               if (!navigationProperty.isCollection()) {
@@ -455,8 +467,12 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     return entity;
   }
 
-  private Entity entity(final XMLEventReader reader, final StartElement start, final EdmEntityType edmEntityType)
-      throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
+  /**
+   * Reads an entity or an entity reference.
+   * @param propertyIndex the property index of the given type, looked up once per collection by the caller
+   */
+  private Entity entity(final XMLEventReader reader, final StartElement start, final EdmEntityType edmEntityType,
+      final PropertyIndex propertyIndex) throws XMLStreamException, EdmPrimitiveTypeException, DeserializerException {
     Entity entity = null;
     EdmEntityType resolvedType = edmEntityType;
     if (entryRefQName.equals(start.getName())) {
@@ -573,6 +589,7 @@ public class ODataXmlDeserializer implements ODataDeserializer {
           foundEndEntry = true;
         }
       }
+      entity.setPropertyIndex(resolvedType == edmEntityType ? propertyIndex : PropertyIndex.of(resolvedType));
     }
     return entity;
   }
@@ -583,7 +600,7 @@ public class ODataXmlDeserializer implements ODataDeserializer {
     try {
       final XMLEventReader reader = getReader(input);
       final StartElement start = skipBeforeFirstStartElement(reader);
-      final Entity entity = entity(reader, start, edmEntityType);
+      final Entity entity = entity(reader, start, edmEntityType, PropertyIndex.of(edmEntityType));
       if (entity == null) {
         throw new DeserializerException("No entity found!", DeserializerException.MessageKeys.INVALID_ENTITY);
       }
@@ -620,6 +637,7 @@ public class ODataXmlDeserializer implements ODataDeserializer {
       return null;
     }
     final EntityCollection entitySet = new EntityCollection();
+    final PropertyIndex propertyIndex = PropertyIndex.of(edmEntityType);
     final Attribute xmlBase = start.getAttributeByName(Constants.QNAME_ATTR_XML_BASE);
     if (xmlBase != null) {
       entitySet.setBaseURI(URI.create(xmlBase.getValue()));
@@ -650,7 +668,7 @@ public class ODataXmlDeserializer implements ODataDeserializer {
             }
           }
         } else if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(event.asStartElement().getName())) {
-          entitySet.getEntities().add(entity(reader, event.asStartElement(), edmEntityType));
+          entitySet.getEntities().add(entity(reader, event.asStartElement(), edmEntityType, propertyIndex));
         } else if (entryRefQName.equals(event.asStartElement().getName())) {
           entitySet.getEntities().add(entityRef(event.asStartElement()));
         }
@@ -819,7 +837,8 @@ public class ODataXmlDeserializer implements ODataDeserializer {
         final EntityCollection entityCollection = entitySet(reader, start, (EdmEntityType) edmParameter.getType());
         parameter.setValue(ValueType.COLLECTION_ENTITY, entityCollection);
       } else {
-        final Entity entity = entity(reader, start, (EdmEntityType) edmParameter.getType());
+        final EdmEntityType edmEntityType = (EdmEntityType) edmParameter.getType();
+        final Entity entity = entity(reader, start, edmEntityType, PropertyIndex.of(edmEntityType));
         parameter.setValue(ValueType.ENTITY, entity);
       }
       break;
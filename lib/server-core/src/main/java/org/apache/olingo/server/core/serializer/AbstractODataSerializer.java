@@ -20,14 +20,35 @@ package org.apache.olingo.server.core.serializer;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
 
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.ServiceMetadataImpl;
+import org.apache.olingo.server.core.serializer.utils.WritePlan;
+import org.apache.olingo.server.core.serializer.utils.WritePlanCache;
 
 public abstract class AbstractODataSerializer implements ODataSerializer {
 
   protected static final String IO_EXCEPTION_TEXT = "An I/O exception occurred.";
 
+  private final WritePlanCache writePlanCache = new WritePlanCache();
+
+  /**
+   * Returns the plan for writing the structural properties of the given type with the given selection,
+   * taken from the cache of the service metadata if available.
+   */
+  protected WritePlan getWritePlan(final ServiceMetadata metadata, final EdmStructuredType type,
+      final Set<List<String>> selection) {
+    return (metadata instanceof ServiceMetadataImpl ?
+        ((ServiceMetadataImpl) metadata).getWritePlanCache() :
+        writePlanCache)
+        .get(type, selection);
+  }
+
   protected void closeCircleStreamBufferOutput(final OutputStream outputStream,
       final SerializerException cachedException)
       throws SerializerException {
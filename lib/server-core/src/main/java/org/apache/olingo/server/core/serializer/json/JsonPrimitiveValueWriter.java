@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes the most common primitive values directly with the typed methods of the JSON generator,
+ * without converting them to an intermediate String first.
+ * <p>The result is the same as writing the result of
+ * {@link EdmPrimitiveType#valueToString(Object, Boolean, Integer, Integer, Integer, Boolean)}.
+ * Values which are not handled here, including all values which violate the facets of the type,
+ * are left to that general conversion, so that errors are reported in the usual way.</p>
+ */
+final class JsonPrimitiveValueWriter {
+
+  private static final EdmPrimitiveType BOOLEAN = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Boolean);
+  private static final EdmPrimitiveType BYTE = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Byte);
+  private static final EdmPrimitiveType SBYTE = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.SByte);
+  private static final EdmPrimitiveType INT16 = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int16);
+  private static final EdmPrimitiveType INT32 = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int32);
+  private static final EdmPrimitiveType INT64 = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int64);
+  private static final EdmPrimitiveType SINGLE = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Single);
+  private static final EdmPrimitiveType DOUBLE = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Double);
+  private static final EdmPrimitiveType DECIMAL = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Decimal);
+  private static final EdmPrimitiveType DATE = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Date);
+  private static final EdmPrimitiveType DATE_TIME_OFFSET =
+      EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.DateTimeOffset);
+  private static final EdmPrimitiveType TIME_OF_DAY =
+      EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.TimeOfDay);
+
+  private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+  /** Values before the Gregorian reform are left to the Calendar-based conversion (Julian calendar). */
+  private static final int MIN_YEAR = 1583;
+  private static final int MAX_YEAR = 9999;
+  /** "yyyy-mm-ddThh:mm:ss.fffffffff+hh:mm" */
+  private static final int MAX_LENGTH = 35;
+
+  private JsonPrimitiveValueWriter() {}
+
+  /**
+   * Writes the given non-null value if the type and the value's Java type are supported and the value
+   * fulfills the facets.
+   * @return <code>true</code> if the value has been written, <code>false</code> if the caller has to write it
+   */
+  static boolean write(final EdmPrimitiveType type, final Object value, final Integer precision,
+      final Integer scale, final boolean isIEEE754Compatible, final JsonGenerator json) throws IOException {
+    if (type == INT32) {
+      return writeInteger(value, Integer.MIN_VALUE, Integer.MAX_VALUE, json);
+    } else if (type == INT64) {
+      return !isIEEE754Compatible && writeInteger(value, Long.MIN_VALUE, Long.MAX_VALUE, json);
+    } else if (type == INT16) {
+      return writeInteger(value, Short.MIN_VALUE, Short.MAX_VALUE, json);
+    } else if (type == DOUBLE) {
+      return writeDouble(value, json);
+    } else if (type == DECIMAL) {
+      return !isIEEE754Compatible && writeDecimal(value, precision, scale, json);
+    } else if (type == BOOLEAN) {
+      if (value instanceof Boolean) {
+        json.writeBoolean((Boolean) value);
+        return true;
+      }
+      return false;
+    } else if (type == DATE_TIME_OFFSET) {
+      return writeDateTimeOffset(value, precision, json);
+    } else if (type == DATE) {
+      return value instanceof Calendar && writeDate((Calendar) value, json);
+    } else if (type == TIME_OF_DAY) {
+      return value instanceof Calendar && writeTimeOfDay((Calendar) value, precision, json);
+    } else if (type == SINGLE) {
+      return writeSingle(value, json);
+    } else if (type == BYTE) {
+      return writeInteger(value, 0, 255, json);
+    } else if (type == SBYTE) {
+      return writeInteger(value, Byte.MIN_VALUE, Byte.MAX_VALUE, json);
+    }
+    return false;
+  }
+
+  private static boolean writeInteger(final Object value, final long min, final long max, final JsonGenerator json)
+      throws IOException {
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof Long) {
+      final long longValue = ((Number) value).longValue();
+      if (longValue >= min && longValue <= max) {
+        if (value instanceof Long) {
+          json.writeNumber(longValue);
+        } else {
+          json.writeNumber((int) longValue);
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean writeDouble(final Object value, final JsonGenerator json) throws IOException {
+    if (value instanceof Double) {
+      final double doubleValue = (Double) value;
+      if (!Double.isInfinite(doubleValue) && !Double.isNaN(doubleValue)) {
+        json.writeNumber(doubleValue);
+        return true;
+      }
+    } else if (value instanceof Float) {
+      final float floatValue = (Float) value;
+      if (!Float.isInfinite(floatValue) && !Float.isNaN(floatValue)) {
+        json.writeNumber(floatValue);
+        return true;
+      }
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      json.writeNumber(((Number) value).intValue());
+      return true;
+    } else if (value instanceof Long && Math.abs((Long) value) < 1L << 51) {
+      json.writeNumber((Long) value);
+      return true;
+    }
+    return false;
+  }
+
+  private static boolean writeSingle(final Object value, final JsonGenerator json) throws IOException {
+    if (value instanceof Float) {
+      final float floatValue = (Float) value;
+      if (!Float.isInfinite(floatValue) && !Float.isNaN(floatValue)) {
+        json.writeNumber(floatValue);
+        return true;
+      }
+    } else if (value instanceof Short || value instanceof Byte) {
+      json.writeNumber(((Number) value).intValue());
+      return true;
+    }
+    return false;
+  }
+
+  private static boolean writeDecimal(final Object value, final Integer precision, final Integer scale,
+      final JsonGenerator json) throws IOException {
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof Long) {
+      final long longValue = ((Number) value).longValue();
+      if (precision == null || precision >= countDigits(longValue)) {
+        json.writeNumber(longValue);
+        return true;
+      }
+    } else if (value instanceof BigDecimal) {
+      final BigDecimal bigDecimalValue = (BigDecimal) value;
+      final int digits = bigDecimalValue.scale() >= 0
+          ? Math.max(bigDecimalValue.precision(), bigDecimalValue.scale())
+          : bigDecimalValue.precision() - bigDecimalValue.scale();
+      if ((precision == null || precision >= digits) && bigDecimalValue.scale() <= (scale == null ? 0 : scale)) {
+        json.writeNumber(bigDecimalValue.toPlainString());
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int countDigits(final long value) {
+    if (value == Long.MIN_VALUE) {
+      return 19;
+    }
+    long remaining = Math.abs(value);
+    int digits = 1;
+    while (remaining >= 10) {
+      remaining /= 10;
+      digits++;
+    }
+    return digits;
+  }
+
+  private static boolean writeDateTimeOffset(final Object value, final Integer precision, final JsonGenerator json)
+      throws IOException {
+    if (value instanceof Calendar) {
+      final Calendar calendar = (Calendar) value;
+      final int offsetInMinutes = (calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET)) / 60000;
+      return writeDateTime(calendar, calendar.get(Calendar.MILLISECOND), false, offsetInMinutes, precision, json);
+    }
+
+    final long millis;
+    int fractionalSeconds;
+    final boolean isNano = value instanceof Timestamp;
+    if (value instanceof Date) {
+      millis = ((Date) value).getTime();
+      fractionalSeconds = isNano ? ((Timestamp) value).getNanos() : -1;
+    } else if (value instanceof Long) {
+      millis = (Long) value;
+      fractionalSeconds = -1;
+    } else {
+      return false;
+    }
+
+    long days = millis / MILLIS_PER_DAY;
+    long millisOfDay = millis % MILLIS_PER_DAY;
+    if (millisOfDay < 0) {
+      days--;
+      millisOfDay += MILLIS_PER_DAY;
+    }
+    if (fractionalSeconds < 0) {
+      fractionalSeconds = (int) (millisOfDay % 1000);
+    }
+
+    // Civil date from days since 1970-01-01 in the proleptic Gregorian calendar.
+    final long z = days + 719468;
+    final long era = (z >= 0 ? z : z - 146096) / 146097;
+    final long dayOfEra = z - era * 146097;
+    final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    final long shiftedMonth = (5 * dayOfYear + 2) / 153;
+    final int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+    final int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+    final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+    if (year < MIN_YEAR || year > MAX_YEAR) {
+      return false;
+    }
+
+    final int secondOfDay = (int) (millisOfDay / 1000);
+    final char[] buffer = new char[MAX_LENGTH];
+    int length = appendDate(buffer, 0, (int) year, month, day);
+    buffer[length++] = 'T';
+    length = appendTime(buffer, length, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60);
+    length = appendFractionalSeconds(buffer, length, fractionalSeconds, isNano, precision);
+    if (length < 0) {
+      return false;
+    }
+    buffer[length++] = 'Z';
+    json.writeString(buffer, 0, length);
+    return true;
+  }
+
+  private static boolean writeDateTime(final Calendar calendar, final int fractionalSeconds, final boolean isNano,
+      final int offsetInMinutes, final Integer precision, final JsonGenerator json) throws IOException {
+    final int year = calendar.get(Calendar.YEAR);
+    if (!isSupported(calendar, year)) {
+      return false;
+    }
+    final char[] buffer = new char[MAX_LENGTH];
+    int length = appendDate(buffer, 0, year, calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH));
+    buffer[length++] = 'T';
+    length = appendTime(buffer, length,
+        calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE), calendar.get(Calendar.SECOND));
+    length = appendFractionalSeconds(buffer, length, fractionalSeconds, isNano, precision);
+    if (length < 0) {
+      return false;
+    }
+    if (offsetInMinutes == 0) {
+      buffer[length++] = 'Z';
+    } else {
+      buffer[length++] = offsetInMinutes < 0 ? '-' : '+';
+      final int absoluteOffset = Math.abs(offsetInMinutes);
+      length = appendTwoDigits(buffer, length, absoluteOffset / 60);
+      buffer[length++] = ':';
+      length = appendTwoDigits(buffer, length, absoluteOffset % 60);
+    }
+    json.writeString(buffer, 0, length);
+    return true;
+  }
+
+  private static boolean writeDate(final Calendar calendar, final JsonGenerator json) throws IOException {
+    final int year = calendar.get(Calendar.YEAR);
+    if (!isSupported(calendar, year)) {
+      return false;
+    }
+    final char[] buffer = new char[10];
+    final int length = appendDate(buffer, 0, year, calendar.get(Calendar.MONTH) + 1,
+        calendar.get(Calendar.DAY_OF_MONTH));
+    json.writeString(buffer, 0, length);
+    return true;
+  }
+
+  private static boolean writeTimeOfDay(final Calendar calendar, final Integer precision, final JsonGenerator json)
+      throws IOException {
+    final char[] buffer = new char[12];
+    int length = appendTime(buffer, 0,
+        calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE), calendar.get(Calendar.SECOND));
+    length = appendFractionalSeconds(buffer, length, calendar.get(Calendar.MILLISECOND), false, precision);
+    if (length < 0) {
+      return false;
+    }
+    json.writeString(buffer, 0, length);
+    return true;
+  }
+
+  private static boolean isSupported(final Calendar calendar, final int year) {
+    return calendar instanceof GregorianCalendar
+        && calendar.get(Calendar.ERA) == GregorianCalendar.AD
+        && year >= MIN_YEAR && year <= MAX_YEAR;
+  }
+
+  private static int appendDate(final char[] buffer, final int start, final int year, final int month,
+      final int day) {
+    int index = appendTwoDigits(buffer, start, year / 100);
+    index = appendTwoDigits(buffer, index, year % 100);
+    buffer[index++] = '-';
+    index = appendTwoDigits(buffer, index, month);
+    buffer[index++] = '-';
+    return appendTwoDigits(buffer, index, day);
+  }
+
+  private static int appendTime(final char[] buffer, final int start, final int hour, final int minute,
+      final int second) {
+    int index = appendTwoDigits(buffer, start, hour);
+    buffer[index++] = ':';
+    index = appendTwoDigits(buffer, index, minute);
+    buffer[index++] = ':';
+    return appendTwoDigits(buffer, index, second);
+  }
+
+  private static int appendTwoDigits(final char[] buffer, final int index, final int number) {
+    buffer[index] = (char) ('0' + number / 10);
+    buffer[index + 1] = (char) ('0' + number % 10);
+    return index + 2;
+  }
+
+  /**
+   * Appends the fractional seconds without trailing zeroes.
+   * @return the new length or -1 if the value does not fit into the precision
+   */
+  private static int appendFractionalSeconds(final char[] buffer, final int start, final int fractionalSeconds,
+      final boolean isNano, final Integer precision) {
+    if (fractionalSeconds <= 0) {
+      return start;
+    }
+    int significant = isNano ? 9 : 3;
+    int output = fractionalSeconds;
+    while (output % 10 == 0) {
+      output /= 10;
+      significant--;
+    }
+    if (precision == null || precision < significant) {
+      return -1;
+    }
+    int index = start;
+    buffer[index++] = '.';
+    for (int divisor = isNano ? 100000000 : 100; significant > 0; divisor /= 10, significant--) {
+      buffer[index++] = (char) ('0' + fractionalSeconds / divisor % 10);
+    }
+    return index;
+  }
+}
@@ -24,7 +24,6 @@ import static org.apache.olingo.server.core.serializer.utils.ContentTypeHelper.i
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -69,24 +68,33 @@ import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
 import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
 import org.apache.olingo.server.api.uri.queryoption.SelectOption;
 import org.apache.olingo.server.core.ODataWritableContent;
+import org.apache.olingo.server.core.StreamFactoryRegistry;
 import org.apache.olingo.server.core.serializer.AbstractODataSerializer;
 import org.apache.olingo.server.core.serializer.SerializerResultImpl;
 import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
-import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+import org.apache.olingo.server.core.serializer.utils.WritePlan;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 
 public class ODataJsonSerializer extends AbstractODataSerializer {
 
   private final boolean isIEEE754Compatible;
   private final ContentType contentType;
+  private final JsonFactory jsonFactory;
 
   public ODataJsonSerializer(final ContentType contentType) {
+    this(contentType, StreamFactoryRegistry.getDefault());
+  }
+
+  public ODataJsonSerializer(final ContentType contentType, final StreamFactoryRegistry factoryRegistry) {
     this.contentType = contentType;
     isIEEE754Compatible = isODataIEEE754Compatible(contentType);
+    jsonFactory = factoryRegistry.getJsonFactory();
   }
 
   @Override
@@ -98,7 +106,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       new ServiceDocumentJsonSerializer(metadata, serviceRoot, 
           isODataMetadataNone(contentType)).writeServiceDocument(json);
 
@@ -127,7 +135,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       new ODataErrorSerializer().writeErrorDocument(json, error);
 
       json.close();
@@ -151,7 +159,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
 
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -198,7 +206,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
 
     SerializerException cachedException;
     try {
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
 
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -236,7 +244,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       writeEntity(metadata, entityType, entity, contextURL,
           options == null ? null : options.getExpand(),
           options == null ? null : options.getSelect(),
@@ -269,13 +277,18 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final boolean onlyReference, final JsonGenerator json) throws IOException,
       SerializerException {
     json.writeStartArray();
+    WritePlan plan = null;
     for (final Entity entity : entitySet) {
       if (onlyReference) {
         json.writeStartObject();
         json.writeStringField(Constants.JSON_ID, getEntityId(entity));
         json.writeEndObject();
       } else {
-        writeEntity(metadata, entityType, entity, null, expand, select, false, json);
+        if (plan == null) {
+          // resolved once for all entities of the collection
+          plan = getWritePlan(metadata, entityType, WritePlan.getSelection(select)).withExpand(expand);
+        }
+        writeEntity(metadata, entityType, entity, null, expand, plan, false, json);
       }
     }
     json.writeEndArray();
@@ -295,23 +308,22 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     return entity.getId().toASCIIString();
   }
 
-  private boolean areKeyPredicateNamesSelected(SelectOption select, EdmEntityType type) {
-    if (select == null || ExpandSelectHelper.isAll(select)) {
-      return true;
-    }
-    final Set<String> selected = ExpandSelectHelper.getSelectedPropertyNames(select.getSelectItems());
-    for (String key : type.getKeyPredicateNames()) {
-      if (!selected.contains(key)) {
-        return false;
-      }
-    }
-    return true;
-  }
-
   public void writeEntity(final ServiceMetadata metadata, final EdmEntityType entityType, final Entity entity,
       final ContextURL contextURL, final ExpandOption expand, final SelectOption select, final boolean onlyReference,
       final JsonGenerator json)
       throws IOException, SerializerException {
+    writeEntity(metadata, entityType, entity, contextURL, expand,
+        onlyReference ? null : getWritePlan(metadata, entityType, WritePlan.getSelection(select)).withExpand(expand),
+        onlyReference, json);
+  }
+
+  /**
+   * Writes an entity with the plan for the given entity type; the plan for a derived type is resolved if needed.
+   */
+  private void writeEntity(final ServiceMetadata metadata, final EdmEntityType entityType, final Entity entity,
+      final ContextURL contextURL, final ExpandOption expand, final WritePlan entityTypePlan,
+      final boolean onlyReference, final JsonGenerator json)
+      throws IOException, SerializerException {
     json.writeStartObject();
     if (!isODataMetadataNone(contentType)) {
       // top-level entity
@@ -341,11 +353,13 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       json.writeStringField(Constants.JSON_ID, getEntityId(entity));
     } else {
       final EdmEntityType resolvedType = resolveEntityType(metadata, entityType, entity.getType());
+      final WritePlan plan = resolvedType == entityTypePlan.getType() ? entityTypePlan :
+          getWritePlan(metadata, resolvedType, entityTypePlan.getSelection()).withExpand(expand);
       if ((!isODataMetadataNone(contentType) && !resolvedType.equals(entityType)) 
           || isODataMetadataFull(contentType)) {
         json.writeStringField(Constants.JSON_TYPE, "#" + entity.getType());
       }
-      if ((!isODataMetadataNone(contentType) && !areKeyPredicateNamesSelected(select, resolvedType)) 
+      if ((!isODataMetadataNone(contentType) && !plan.areKeysSelected()) 
           || isODataMetadataFull(contentType)) {
         json.writeStringField(Constants.JSON_ID, getEntityId(entity));
       }
@@ -359,8 +373,8 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
         }
       }
       
-      writeProperties(metadata, resolvedType, entity.getProperties(), select, json);
-      writeNavigationProperties(metadata, resolvedType, entity, expand, json);
+      writeProperties(metadata, plan, entity.getProperties(), json);
+      writeNavigationProperties(metadata, plan, entity, json);
       writeOperations(entity.getOperations(), json);
       json.writeEndObject();
     }
@@ -430,38 +444,32 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final List<Property> properties,
       final SelectOption select, final JsonGenerator json)
       throws IOException, SerializerException {
-    final boolean all = ExpandSelectHelper.isAll(select);
-    final Set<String> selected = all ? new HashSet<String>() :
-        ExpandSelectHelper.getSelectedPropertyNames(select.getSelectItems());
-    for (final String propertyName : type.getPropertyNames()) {
-      if (all || selected.contains(propertyName)) {
-        final EdmProperty edmProperty = type.getStructuralProperty(propertyName);
-        final Property property = findProperty(propertyName, properties);
-        final Set<List<String>> selectedPaths = all || edmProperty.isPrimitive() ? null :
-            ExpandSelectHelper.getSelectedPaths(select.getSelectItems(), propertyName);
-        writeProperty(metadata, edmProperty, property, selectedPaths, json);
-      }
+    writeProperties(metadata, getWritePlan(metadata, type, WritePlan.getSelection(select)), properties, json);
+  }
+
+  private void writeProperties(final ServiceMetadata metadata, final WritePlan plan,
+      final List<Property> properties, final JsonGenerator json)
+      throws IOException, SerializerException {
+    for (final WritePlan.Slot slot : plan.getSlots()) {
+      writeProperty(metadata, slot.getEdmProperty(), slot.getJsonName(), plan.findProperty(slot, properties),
+          slot.getSelectedPaths(), json);
     }
   }
 
   protected void writeNavigationProperties(final ServiceMetadata metadata,
       final EdmStructuredType type, final Linked linked, final ExpandOption expand,
       final JsonGenerator json) throws SerializerException, IOException {
-    if (ExpandSelectHelper.hasExpand(expand)) {
-      final boolean expandAll = ExpandSelectHelper.isExpandAll(expand);
-      final Set<String> expanded = expandAll ? new HashSet<String>() :
-          ExpandSelectHelper.getExpandedPropertyNames(expand.getExpandItems());
-      for (final String propertyName : type.getNavigationPropertyNames()) {
-        if (expandAll || expanded.contains(propertyName)) {
-          final EdmNavigationProperty property = type.getNavigationProperty(propertyName);
-          final Link navigationLink = linked.getNavigationLink(property.getName());
-          final ExpandItem innerOptions = expandAll ? null :
-              ExpandSelectHelper.getExpandItem(expand.getExpandItems(), propertyName);
-          if (innerOptions != null && innerOptions.getLevelsOption() != null) {
-            throw new SerializerException("Expand option $levels is not supported.",
-                SerializerException.MessageKeys.NOT_IMPLEMENTED);
-          }
-          writeExpandedNavigationProperty(metadata, property, navigationLink,
+    writeNavigationProperties(metadata, getWritePlan(metadata, type, null).withExpand(expand), linked, json);
+  }
+
+  private void writeNavigationProperties(final ServiceMetadata metadata, final WritePlan plan,
+      final Linked linked, final JsonGenerator json) throws SerializerException, IOException {
+    if (plan.hasExpand()) {
+      for (final WritePlan.NavigationSlot slot : plan.getNavigationSlots()) {
+        if (slot.isExpanded()) {
+          final Link navigationLink = linked.getNavigationLink(slot.getName());
+          final ExpandItem innerOptions = slot.getExpandItem();
+          writeExpandedNavigationProperty(metadata, slot.getEdmNavigationProperty(), navigationLink,
               innerOptions == null ? null : innerOptions.getExpandOption(),
               innerOptions == null ? null : innerOptions.getSelectOption(),
               innerOptions == null ? null : innerOptions.getCountOption(),
@@ -471,7 +479,8 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
         }
       }
     } else if (isODataMetadataFull(contentType)) {
-      for (final String propertyName : type.getNavigationPropertyNames()) {
+      for (final WritePlan.NavigationSlot slot : plan.getNavigationSlots()) {
+        final String propertyName = slot.getName();
         final Link navigationLink = linked.getNavigationLink(propertyName);
         if (navigationLink != null) {
           json.writeStringField(propertyName + Constants.JSON_NAVIGATION_LINK, navigationLink.getHref());  
@@ -535,10 +544,18 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final EdmProperty edmProperty, final Property property,
       final Set<List<String>> selectedPaths, final JsonGenerator json)
       throws IOException, SerializerException {
+    writeProperty(metadata, edmProperty, new SerializedString(edmProperty.getName()), property, selectedPaths,
+        json);
+  }
+
+  private void writeProperty(final ServiceMetadata metadata,
+      final EdmProperty edmProperty, final SerializableString name, final Property property,
+      final Set<List<String>> selectedPaths, final JsonGenerator json)
+      throws IOException, SerializerException {
     boolean isStreamProperty = isStreamProperty(edmProperty);
     writePropertyType(edmProperty, property, json);
     if (!isStreamProperty) {
-      json.writeFieldName(edmProperty.getName());
+      json.writeFieldName(name);
     }
     if ((property == null || property.isNull())) {
       if (edmProperty.isNullable() == Boolean.FALSE) {
@@ -701,6 +718,10 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   protected void writePrimitiveValue(final String name, final EdmPrimitiveType type, final Object primitiveValue,
       final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
       final Boolean isUnicode, final JsonGenerator json) throws EdmPrimitiveTypeException, IOException {
+    if (primitiveValue != null
+        && JsonPrimitiveValueWriter.write(type, primitiveValue, precision, scale, isIEEE754Compatible, json)) {
+      return;
+    }
     final String value = type.valueToString(primitiveValue,
         isNullable, maxLength, precision, scale, isUnicode);
     if (value == null) {
@@ -754,26 +775,10 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       json.writeStringField(Constants.JSON_TYPE, "#" + complexProperty.getType());
     }
 
-    for (final String propertyName : resolvedType.getPropertyNames()) {
-      final Property property = findProperty(propertyName, properties);
-      if (selectedPaths == null || ExpandSelectHelper.isSelected(selectedPaths, propertyName)) {
-        writeProperty(metadata, (EdmProperty) resolvedType.getProperty(propertyName), property,
-            selectedPaths == null ? null : ExpandSelectHelper.getReducedSelectedPaths(selectedPaths, propertyName),
-            json);
-      }
-    }
+    writeProperties(metadata, getWritePlan(metadata, resolvedType, selectedPaths), properties, json);
     json.writeEndObject();
   }
 
-  private Property findProperty(final String propertyName, final List<Property> properties) {
-    for (final Property property : properties) {
-      if (propertyName.equals(property.getName())) {
-        return property;
-      }
-    }
-    return null;
-  }
-
   @Override
   public SerializerResult primitive(final ServiceMetadata metadata, final EdmPrimitiveType type,
       final Property property, final PrimitiveSerializerOptions options) throws SerializerException {
@@ -783,7 +788,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -827,7 +832,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);      
@@ -866,7 +871,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -904,7 +909,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -940,7 +945,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       final UriHelper uriHelper = new UriHelperImpl();
       outputStream = buffer.getOutputStream();
-      final JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      final JsonGenerator json = jsonFactory.createGenerator(outputStream);
 
       json.writeStartObject();
       writeContextURL(contextURL, json);
@@ -971,7 +976,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       final UriHelper uriHelper = new UriHelperImpl();
       outputStream = buffer.getOutputStream();
-      final JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      final JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
 
       writeContextURL(contextURL, json);
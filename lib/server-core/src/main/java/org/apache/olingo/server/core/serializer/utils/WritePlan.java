@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.PropertyIndex;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.api.uri.queryoption.SelectItem;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * The structural properties of a structured type which have to be written for a given selection,
+ * in the order of the type's definition, and the navigation properties with the decision whether
+ * they have to be expanded.
+ * <p>A plan is immutable and does not depend on the data of a single instance,
+ * so it can be reused for all instances of the type with the same selection.
+ * Plans for a selection alone can be cached across requests; the expand decisions depend on the
+ * request's $expand option and are added per collection with {@link #withExpand(ExpandOption)}.</p>
+ * <p>A selection is given as set of property paths, each starting with the name of a property of the type,
+ * where a path consisting of only the property name selects the whole property;
+ * <code>null</code> selects all properties.</p>
+ */
+public final class WritePlan {
+
+  /** A structural property to be written. */
+  public static final class Slot {
+    private final EdmProperty edmProperty;
+    private final String name;
+    private final SerializedString jsonName;
+    private final Set<List<String>> selectedPaths;
+
+    private Slot(final EdmProperty edmProperty, final Set<List<String>> selectedPaths) {
+      this.edmProperty = edmProperty;
+      name = edmProperty.getName();
+      jsonName = new SerializedString(name);
+      this.selectedPaths = selectedPaths;
+    }
+
+    public EdmProperty getEdmProperty() {
+      return edmProperty;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /** Returns the property name with its JSON encoding computed in advance. */
+    public SerializedString getJsonName() {
+      return jsonName;
+    }
+
+    /**
+     * Returns the selection within the value of this property, relative to the property's type,
+     * or <code>null</code> if the whole value is selected.
+     */
+    public Set<List<String>> getSelectedPaths() {
+      return selectedPaths;
+    }
+  }
+
+  /** A navigation property with the decision whether it has to be expanded. */
+  public static final class NavigationSlot {
+    private final EdmNavigationProperty edmNavigationProperty;
+    private final String name;
+    private final boolean expanded;
+    private final ExpandItem expandItem;
+
+    private NavigationSlot(final EdmNavigationProperty edmNavigationProperty, final boolean expanded,
+        final ExpandItem expandItem) {
+      this.edmNavigationProperty = edmNavigationProperty;
+      name = edmNavigationProperty.getName();
+      this.expanded = expanded;
+      this.expandItem = expandItem;
+    }
+
+    public EdmNavigationProperty getEdmNavigationProperty() {
+      return edmNavigationProperty;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isExpanded() {
+      return expanded;
+    }
+
+    /**
+     * Returns the expand item with the options for the expanded navigation property,
+     * or <code>null</code> if there are no options.
+     */
+    public ExpandItem getExpandItem() {
+      return expandItem;
+    }
+  }
+
+  private final EdmStructuredType type;
+  private final Set<List<String>> selection;
+  private final PropertyIndex index;
+  private final List<Slot> slots;
+  private final boolean keysSelected;
+  private final boolean expand;
+  private final List<NavigationSlot> navigationSlots;
+
+  private WritePlan(final EdmStructuredType type, final Set<List<String>> selection) {
+    this.type = type;
+    this.selection = selection;
+    index = PropertyIndex.of(type);
+    final List<Slot> slotList = new ArrayList<Slot>(index.size());
+    for (final String propertyName : index.getNames()) {
+      if (selection == null || isSelected(selection, propertyName)) {
+        slotList.add(new Slot(type.getStructuralProperty(propertyName),
+            selection == null ? null : reduce(selection, propertyName)));
+      }
+    }
+    slots = Collections.unmodifiableList(slotList);
+
+    boolean allKeysSelected = true;
+    if (selection != null && type instanceof EdmEntityType) {
+      for (final String keyName : ((EdmEntityType) type).getKeyPredicateNames()) {
+        allKeysSelected &= isSelected(selection, keyName);
+      }
+    }
+    keysSelected = allKeysSelected;
+
+    expand = false;
+    final List<NavigationSlot> navigationSlotList = new ArrayList<NavigationSlot>();
+    for (final String propertyName : type.getNavigationPropertyNames()) {
+      navigationSlotList.add(new NavigationSlot(type.getNavigationProperty(propertyName), false, null));
+    }
+    navigationSlots = Collections.unmodifiableList(navigationSlotList);
+  }
+
+  private WritePlan(final WritePlan plan, final ExpandOption expandOption) throws SerializerException {
+    type = plan.type;
+    selection = plan.selection;
+    index = plan.index;
+    slots = plan.slots;
+    keysSelected = plan.keysSelected;
+
+    expand = true;
+    final boolean expandAll = ExpandSelectHelper.isExpandAll(expandOption);
+    final Set<String> expanded = expandAll ? Collections.<String> emptySet() :
+        ExpandSelectHelper.getExpandedPropertyNames(expandOption.getExpandItems());
+    final List<NavigationSlot> navigationSlotList = new ArrayList<NavigationSlot>(plan.navigationSlots.size());
+    for (final NavigationSlot slot : plan.navigationSlots) {
+      if (expandAll || expanded.contains(slot.name)) {
+        final ExpandItem innerOptions = expandAll ? null :
+            ExpandSelectHelper.getExpandItem(expandOption.getExpandItems(), slot.name);
+        if (innerOptions != null && innerOptions.getLevelsOption() != null) {
+          throw new SerializerException("Expand option $levels is not supported.",
+              SerializerException.MessageKeys.NOT_IMPLEMENTED);
+        }
+        navigationSlotList.add(new NavigationSlot(slot.edmNavigationProperty, true, innerOptions));
+      } else {
+        navigationSlotList.add(slot);
+      }
+    }
+    navigationSlots = Collections.unmodifiableList(navigationSlotList);
+  }
+
+  /**
+   * Creates a plan; consider using a {@link WritePlanCache} instead.
+   * @param type the structured type
+   * @param selection the selected property paths or <code>null</code> for all properties
+   */
+  public static WritePlan create(final EdmStructuredType type, final Set<List<String>> selection) {
+    return new WritePlan(type, selection);
+  }
+
+  /**
+   * Returns a plan with the same structural properties and the expand decisions for the given $expand option.
+   * The expand decisions are resolved once so that the plan can be used for all instances of a collection.
+   * @param expandOption the $expand option; may be <code>null</code>
+   * @throws SerializerException if an expand option is not supported
+   */
+  public WritePlan withExpand(final ExpandOption expandOption) throws SerializerException {
+    return ExpandSelectHelper.hasExpand(expandOption) ? new WritePlan(this, expandOption) : this;
+  }
+
+  public EdmStructuredType getType() {
+    return type;
+  }
+
+  /** Returns the selection the plan has been created for; <code>null</code> if all properties are selected. */
+  public Set<List<String>> getSelection() {
+    return selection;
+  }
+
+  public List<Slot> getSlots() {
+    return slots;
+  }
+
+  /** Returns whether the plan has been created with a $expand option. */
+  public boolean hasExpand() {
+    return expand;
+  }
+
+  /** Returns all navigation properties of the type, in the order of the type's definition. */
+  public List<NavigationSlot> getNavigationSlots() {
+    return navigationSlots;
+  }
+
+  /** Returns whether all key properties of an entity type are selected. */
+  public boolean areKeysSelected() {
+    return keysSelected;
+  }
+
+  /**
+   * Finds the value of the given slot's property in a list of properties.
+   * The lookup is fast if the list follows the order of the type's definition, as it is usually the case.
+   * @return the property or <code>null</code> if not found
+   * @see PropertyIndex#find(List, String)
+   */
+  public Property findProperty(final Slot slot, final List<Property> properties) {
+    return index.find(properties, slot.name);
+  }
+
+  /**
+   * Converts a $select option into a selection.
+   * @return the selected property paths or <code>null</code> if all properties are selected
+   */
+  public static Set<List<String>> getSelection(final SelectOption select) {
+    if (ExpandSelectHelper.isAll(select)) {
+      return null;
+    }
+    Set<List<String>> selection = new HashSet<List<String>>();
+    for (final SelectItem item : select.getSelectItems()) {
+      final List<UriResource> parts = item.getResourcePath().getUriResourceParts();
+      if (parts.get(0) instanceof UriResourceProperty) {
+        List<String> path = new ArrayList<String>(parts.size());
+        for (final UriResource part : parts) {
+          if (part instanceof UriResourceProperty) {
+            path.add(((UriResourceProperty) part).getProperty().getName());
+          }
+        }
+        selection.add(Collections.unmodifiableList(path));
+      }
+    }
+    return Collections.unmodifiableSet(selection);
+  }
+
+  private static boolean isSelected(final Set<List<String>> selection, final String propertyName) {
+    for (final List<String> path : selection) {
+      if (propertyName.equals(path.get(0))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Set<List<String>> reduce(final Set<List<String>> selection, final String propertyName) {
+    Set<List<String>> reducedPaths = new HashSet<List<String>>();
+    for (final List<String> path : selection) {
+      if (propertyName.equals(path.get(0))) {
+        if (path.size() > 1) {
+          reducedPaths.add(path.subList(1, path.size()));
+        } else {
+          return null;
+        }
+      }
+    }
+    return reducedPaths.isEmpty() ? null : Collections.unmodifiableSet(reducedPaths);
+  }
+}
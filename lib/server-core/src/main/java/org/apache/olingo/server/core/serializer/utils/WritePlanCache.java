@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+
+/**
+ * Thread-safe cache of {@link WritePlan}s, keyed on the structured type and the selection.
+ * <p>The types are compared by identity, so a cache must only be used with types of the same EDM.
+ * The number of cached plans is limited; if the limit is reached, the cache is cleared.</p>
+ */
+public class WritePlanCache {
+
+  private static final int MAX_SIZE = 1000;
+
+  private final ConcurrentMap<Key, WritePlan> plans = new ConcurrentHashMap<Key, WritePlan>();
+
+  /**
+   * Returns the plan for the given type and selection, creating it if necessary.
+   * @param type the structured type
+   * @param selection the selected property paths or <code>null</code> for all properties;
+   * the selection must not be modified afterwards
+   */
+  public WritePlan get(final EdmStructuredType type, final Set<List<String>> selection) {
+    final Key key = new Key(type, selection);
+    WritePlan plan = plans.get(key);
+    if (plan == null) {
+      plan = WritePlan.create(type, selection);
+      if (plans.size() >= MAX_SIZE) {
+        plans.clear();
+      }
+      plans.put(key, plan);
+    }
+    return plan;
+  }
+
+  private static final class Key {
+    private final EdmStructuredType type;
+    private final Set<List<String>> selection;
+    private final int hash;
+
+    private Key(final EdmStructuredType type, final Set<List<String>> selection) {
+      this.type = type;
+      this.selection = selection;
+      hash = 31 * System.identityHashCode(type) + (selection == null ? 0 : selection.hashCode());
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return type == other.type
+          && (selection == null ? other.selection == null : selection.equals(other.selection));
+    }
+  }
+}
@@ -22,7 +22,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -72,11 +71,12 @@ import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
 import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
 import org.apache.olingo.server.api.uri.queryoption.SelectOption;
 import org.apache.olingo.server.core.ODataWritableContent;
+import org.apache.olingo.server.core.StreamFactoryRegistry;
 import org.apache.olingo.server.core.serializer.AbstractODataSerializer;
 import org.apache.olingo.server.core.serializer.SerializerResultImpl;
 import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
-import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+import org.apache.olingo.server.core.serializer.utils.WritePlan;
 
 public class ODataXmlSerializer extends AbstractODataSerializer {
 
@@ -89,6 +89,16 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
   private static final String DATA = Constants.PREFIX_DATASERVICES;
   private static final String NS_DATA = Constants.NS_DATASERVICES;
 
+  private final XMLOutputFactory xmlOutputFactory;
+
+  public ODataXmlSerializer() {
+    this(StreamFactoryRegistry.getDefault());
+  }
+
+  public ODataXmlSerializer(final StreamFactoryRegistry factoryRegistry) {
+    xmlOutputFactory = factoryRegistry.getXmlOutputFactory();
+  }
+
   @Override
   public SerializerResult serviceDocument(final ServiceMetadata metadata, final String serviceRoot)
       throws SerializerException {
@@ -97,7 +107,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       ServiceDocumentXmlSerializer serializer = new ServiceDocumentXmlSerializer(metadata, serviceRoot);
       serializer.writeServiceDocument(writer);
 
@@ -126,7 +136,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       MetadataDocumentXmlSerializer serializer = new MetadataDocumentXmlSerializer(serviceMetadata);
       serializer.writeMetadataDocument(writer);
 
@@ -160,7 +170,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
 
       writer.writeStartElement("error");
@@ -231,7 +241,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       writer.writeNamespace(ATOM, NS_ATOM);
@@ -291,7 +301,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
     SerializerException cachedException;
     try {
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       writer.writeNamespace(ATOM, NS_ATOM);
@@ -353,7 +363,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writeEntity(metadata, entityType, entity, contextURL,
           options == null ? null : options.getExpand(),
@@ -401,8 +411,13 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       final AbstractEntityCollection entitySet, final ExpandOption expand, final SelectOption select,
       final String xml10InvalidCharReplacement,final XMLStreamWriter writer, final boolean writeOnlyRef) 
           throws XMLStreamException, SerializerException {
+    WritePlan plan = null;
     for (final Entity entity : entitySet) {
-      writeEntity(metadata, entityType, entity, null, expand, select, 
+      if (plan == null && !writeOnlyRef) {
+        // resolved once for all entities of the collection
+        plan = getWritePlan(metadata, entityType, WritePlan.getSelection(select)).withExpand(expand);
+      }
+      writeEntity(metadata, entityType, entity, null, expand, plan, 
           xml10InvalidCharReplacement, writer, false, writeOnlyRef);
     }
   }
@@ -412,6 +427,19 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       final SelectOption select, final String xml10InvalidCharReplacement,
       final XMLStreamWriter writer, final boolean top, final boolean writeOnlyRef)
       throws XMLStreamException, SerializerException {
+    writeEntity(metadata, entityType, entity, contextURL, expand,
+        writeOnlyRef ? null : getWritePlan(metadata, entityType, WritePlan.getSelection(select)).withExpand(expand),
+        xml10InvalidCharReplacement, writer, top, writeOnlyRef);
+  }
+
+  /**
+   * Writes an entity with the plan for the given entity type; the plan for a derived type is resolved if needed.
+   */
+  private void writeEntity(final ServiceMetadata metadata, final EdmEntityType entityType,
+      final Entity entity, final ContextURL contextURL, final ExpandOption expand,
+      final WritePlan entityTypePlan, final String xml10InvalidCharReplacement,
+      final XMLStreamWriter writer, final boolean top, final boolean writeOnlyRef)
+      throws XMLStreamException, SerializerException {
 
     if (writeOnlyRef) {
       writeReference(entity, contextURL, writer, top);
@@ -467,7 +495,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     }
 
     EdmEntityType resolvedType = resolveEntityType(metadata, entityType, entity.getType());
-    writeNavigationProperties(metadata, resolvedType, entity, expand, xml10InvalidCharReplacement, writer);
+    final WritePlan plan = resolvedType == entityTypePlan.getType() ? entityTypePlan :
+        getWritePlan(metadata, resolvedType, entityTypePlan.getSelection()).withExpand(expand);
+    writeNavigationProperties(metadata, plan, entity, xml10InvalidCharReplacement, writer);
 
     writer.writeStartElement(ATOM, Constants.ATOM_ELEM_CATEGORY, NS_ATOM);
     writer.writeAttribute(Constants.ATOM_ATTR_SCHEME, Constants.NS_SCHEME);
@@ -482,7 +512,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     }
 
     writer.writeStartElement(METADATA, Constants.PROPERTIES, NS_METADATA);
-    writeProperties(metadata, resolvedType, entity.getProperties(), select, xml10InvalidCharReplacement, writer);
+    writeProperties(metadata, plan, entity.getProperties(),
+        xml10InvalidCharReplacement, writer);
     writer.writeEndElement(); // properties
 
     if (!entityType.hasStream()) { // content
@@ -577,17 +608,16 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
   protected void writeProperties(final ServiceMetadata metadata, final EdmStructuredType type,
       final List<Property> properties, final SelectOption select, final String xml10InvalidCharReplacement, 
       final XMLStreamWriter writer) throws XMLStreamException, SerializerException {
-    final boolean all = ExpandSelectHelper.isAll(select);
-    final Set<String> selected = all ? new HashSet<String>() :
-        ExpandSelectHelper.getSelectedPropertyNames(select.getSelectItems());
-    for (final String propertyName : type.getPropertyNames()) {
-      if (all || selected.contains(propertyName)) {
-        final EdmProperty edmProperty = type.getStructuralProperty(propertyName);
-        final Property property = findProperty(propertyName, properties);
-        final Set<List<String>> selectedPaths = all || edmProperty.isPrimitive() ? null :
-            ExpandSelectHelper.getSelectedPaths(select.getSelectItems(), propertyName);
-        writeProperty(metadata, edmProperty, property, selectedPaths, xml10InvalidCharReplacement, writer);
-      }
+    writeProperties(metadata, getWritePlan(metadata, type, WritePlan.getSelection(select)), properties,
+        xml10InvalidCharReplacement, writer);
+  }
+
+  private void writeProperties(final ServiceMetadata metadata, final WritePlan plan,
+      final List<Property> properties, final String xml10InvalidCharReplacement,
+      final XMLStreamWriter writer) throws XMLStreamException, SerializerException {
+    for (final WritePlan.Slot slot : plan.getSlots()) {
+      writeProperty(metadata, slot.getEdmProperty(), plan.findProperty(slot, properties), slot.getSelectedPaths(),
+          xml10InvalidCharReplacement, writer);
     }
   }
 
@@ -595,40 +625,32 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       final EdmStructuredType type, final Linked linked, final ExpandOption expand,
       final String xml10InvalidCharReplacement, final XMLStreamWriter writer) 
           throws SerializerException, XMLStreamException {
-    if (ExpandSelectHelper.hasExpand(expand)) {
-      final boolean expandAll = ExpandSelectHelper.isExpandAll(expand);
-      final Set<String> expanded = expandAll ? new HashSet<String>() :
-          ExpandSelectHelper.getExpandedPropertyNames(expand.getExpandItems());
-      for (final String propertyName : type.getNavigationPropertyNames()) {
-        final EdmNavigationProperty property = type.getNavigationProperty(propertyName);
-        final Link navigationLink = getOrCreateLink(linked, propertyName);
-        if (expandAll || expanded.contains(propertyName)) {
-          final ExpandItem innerOptions = expandAll ? null :
-              ExpandSelectHelper.getExpandItem(expand.getExpandItems(), propertyName);
-          if (innerOptions != null && innerOptions.getLevelsOption() != null) {
-            throw new SerializerException("Expand option $levels is not supported.",
-                SerializerException.MessageKeys.NOT_IMPLEMENTED);
-          }
-          if (navigationLink != null) {
-            writeLink(writer, navigationLink, false);
-            writer.writeStartElement(METADATA, Constants.ATOM_ELEM_INLINE, NS_METADATA);
-            writeExpandedNavigationProperty(metadata, property, navigationLink,
-                innerOptions == null ? null : innerOptions.getExpandOption(),
-                innerOptions == null ? null : innerOptions.getSelectOption(),
-                innerOptions == null ? null : innerOptions.getCountOption(),
-                innerOptions == null ? false : innerOptions.hasCountPath(),
-                innerOptions == null ? false : innerOptions.isRef(),                                    
-                xml10InvalidCharReplacement, writer);
-            writer.writeEndElement();
-            writer.writeEndElement();
-          }
-        } else {
-          writeLink(writer, getOrCreateLink(linked, propertyName));
+    writeNavigationProperties(metadata, getWritePlan(metadata, type, null).withExpand(expand), linked,
+        xml10InvalidCharReplacement, writer);
+  }
+
+  private void writeNavigationProperties(final ServiceMetadata metadata, final WritePlan plan,
+      final Linked linked, final String xml10InvalidCharReplacement, final XMLStreamWriter writer)
+          throws SerializerException, XMLStreamException {
+    for (final WritePlan.NavigationSlot slot : plan.getNavigationSlots()) {
+      final Link navigationLink = getOrCreateLink(linked, slot.getName());
+      if (slot.isExpanded()) {
+        final ExpandItem innerOptions = slot.getExpandItem();
+        if (navigationLink != null) {
+          writeLink(writer, navigationLink, false);
+          writer.writeStartElement(METADATA, Constants.ATOM_ELEM_INLINE, NS_METADATA);
+          writeExpandedNavigationProperty(metadata, slot.getEdmNavigationProperty(), navigationLink,
+              innerOptions == null ? null : innerOptions.getExpandOption(),
+              innerOptions == null ? null : innerOptions.getSelectOption(),
+              innerOptions == null ? null : innerOptions.getCountOption(),
+              innerOptions == null ? false : innerOptions.hasCountPath(),
+              innerOptions == null ? false : innerOptions.isRef(),                                    
+              xml10InvalidCharReplacement, writer);
+          writer.writeEndElement();
+          writer.writeEndElement();
         }
-      }
-    } else {
-      for (final String propertyName : type.getNavigationPropertyNames()) {
-        writeLink(writer, getOrCreateLink(linked, propertyName));
+      } else {
+        writeLink(writer, navigationLink);
       }
     }
     for (Link link : linked.getAssociationLinks()) {
@@ -882,24 +904,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
 
     final EdmComplexType resolvedType = resolveComplexType(metadata,
         type, complexProperty.getType());
-    
-    for (final String propertyName : resolvedType.getPropertyNames()) {
-      final Property property = findProperty(propertyName, properties);
-      if (selectedPaths == null || ExpandSelectHelper.isSelected(selectedPaths, propertyName)) {
-        writeProperty(metadata, (EdmProperty) resolvedType.getProperty(propertyName), property,
-            selectedPaths == null ? null : ExpandSelectHelper.getReducedSelectedPaths(selectedPaths, propertyName),
-            xml10InvalidCharReplacement, writer);
-      }
-    }
-  }
-
-  private Property findProperty(final String propertyName, final List<Property> properties) {
-    for (final Property property : properties) {
-      if (propertyName.equals(property.getName())) {
-        return property;
-      }
-    }
-    return null;
+    writeProperties(metadata, getWritePlan(metadata, resolvedType, selectedPaths), properties,
+        xml10InvalidCharReplacement, writer);
   }
 
   @Override
@@ -912,7 +918,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
 
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
@@ -970,7 +976,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       EdmComplexType resolvedType = resolveComplexType(metadata, type, property.getType());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
       writer.writeNamespace(METADATA, NS_METADATA);
@@ -1018,7 +1024,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
 
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
@@ -1072,7 +1078,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
 
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
       writer.writeNamespace(METADATA, NS_METADATA);
@@ -1115,7 +1121,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writeReference(entity, options == null ? null : options.getContextURL(), writer, true);
       writer.writeEndDocument();
@@ -1166,7 +1172,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       writer.writeNamespace(ATOM, NS_ATOM);
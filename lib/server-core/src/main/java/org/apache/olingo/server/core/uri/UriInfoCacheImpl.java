@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
+
+/**
+ * Bounded cache of URI information with least-recently-used eviction.
+ * The entries are distributed over several independently locked segments to reduce contention.
+ */
+public class UriInfoCacheImpl implements UriInfoCache {
+
+  private static final int SEGMENT_COUNT = 16;
+
+  private final Segment[] segments;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public UriInfoCacheImpl(final int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("The maximum size must be positive.");
+    }
+    final int segmentCount = Math.min(SEGMENT_COUNT, maxSize);
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      // Distribute the remainder so that the segment sizes add up to the maximum size.
+      segments[i] = new Segment(maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0));
+    }
+  }
+
+  @Override
+  public UriInfo get(final Edm edm, final HttpMethod method, final String rawODataPath, final String rawQueryPath) {
+    final Key key = new Key(edm, method, rawODataPath, rawQueryPath);
+    final UriInfo uriInfo = segmentFor(key).get(key);
+    (uriInfo == null ? misses : hits).incrementAndGet();
+    return uriInfo;
+  }
+
+  @Override
+  public void put(final Edm edm, final HttpMethod method, final String rawODataPath, final String rawQueryPath,
+      final UriInfo uriInfo) {
+    final Key key = new Key(edm, method, rawODataPath, rawQueryPath);
+    segmentFor(key).put(key, uriInfo);
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (final Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    for (final Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  private Segment segmentFor(final Key key) {
+    final int hash = key.hashCode();
+    return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % segments.length];
+  }
+
+  private static final class Segment {
+    private final Map<Key, UriInfo> entries;
+
+    private Segment(final int maxSize) {
+      entries = new LinkedHashMap<Key, UriInfo>(16, 0.75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, UriInfo> eldest) {
+          return size() > maxSize;
+        }
+      };
+    }
+
+    synchronized UriInfo get(final Key key) {
+      return entries.get(key);
+    }
+
+    synchronized void put(final Key key, final UriInfo uriInfo) {
+      entries.put(key, uriInfo);
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+
+    synchronized void clear() {
+      entries.clear();
+    }
+  }
+
+  private static final class Key {
+    private final Edm edm;
+    private final HttpMethod method;
+    private final String path;
+    private final String query;
+    private final int hash;
+
+    private Key(final Edm edm, final HttpMethod method, final String path, final String query) {
+      this.edm = edm;
+      this.method = method;
+      this.path = path;
+      this.query = query;
+      int result = System.identityHashCode(edm);
+      result = 31 * result + (method == null ? 0 : method.hashCode());
+      result = 31 * result + (path == null ? 0 : path.hashCode());
+      result = 31 * result + (query == null ? 0 : query.hashCode());
+      hash = result;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return edm == other.edm && method == other.method
+          && (path == null ? other.path == null : path.equals(other.path))
+          && (query == null ? other.query == null : query.equals(other.query));
+    }
+  }
+}
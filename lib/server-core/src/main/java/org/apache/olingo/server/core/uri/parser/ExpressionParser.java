@@ -1017,7 +1017,7 @@ public class ExpressionParser {
     }
   }
 
-  protected static EdmType getType(final Expression expression) throws UriParserException {
+  public static EdmType getType(final Expression expression) throws UriParserException {
     EdmType type;
     if (expression instanceof Literal) {
       type = ((Literal) expression).getType();
@@ -19,6 +19,7 @@
 package org.apache.olingo.server.core;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.server.api.OData;
@@ -47,6 +48,20 @@ public class ODataImplTest {
     assertNotNull(odata.createDeserializer(ContentType.APPLICATION_JSON));
   }
 
+  @Test
+  public void factoryRegistry() {
+    final ODataImpl odataImpl = (ODataImpl) OData.newInstance();
+    assertSame(StreamFactoryRegistry.getDefault(), odataImpl.getFactoryRegistry());
+    assertSame(((ODataImpl) odata).getFactoryRegistry(), odataImpl.getFactoryRegistry());
+
+    final StreamFactoryRegistry registry = new StreamFactoryRegistry();
+    odataImpl.setFactoryRegistry(registry);
+    assertSame(registry, odataImpl.getFactoryRegistry());
+
+    odataImpl.setFactoryRegistry(null);
+    assertSame(StreamFactoryRegistry.getDefault(), odataImpl.getFactoryRegistry());
+  }
+
   public void xmlDeserializer() throws DeserializerException {
     assertNotNull(odata.createDeserializer(ContentType.APPLICATION_XML));
   }
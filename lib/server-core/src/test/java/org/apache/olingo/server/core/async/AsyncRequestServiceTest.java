@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.processor.ServiceDocumentProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.junit.Test;
+
+public class AsyncRequestServiceTest {
+
+  private static final String BASE_URI = "http://localhost/odata.svc";
+  private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+  public static class TestProcessor implements ServiceDocumentProcessor {
+    private final CountDownLatch latch;
+
+    public TestProcessor(final CountDownLatch latch) {
+      this.latch = latch;
+    }
+
+    @Override
+    public void init(final OData odata, final ServiceMetadata serviceMetadata) {}
+
+    @Override
+    public void readServiceDocument(final ODataRequest request, final ODataResponse response,
+        final UriInfo uriInfo, final ContentType requestedContentType) throws ODataApplicationException {
+      try {
+        latch.await();
+      } catch (final InterruptedException e) {
+        throw new ODataApplicationException("interrupted", 500, null);
+      }
+      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+      response.setContent(IOUtils.toInputStream(CONTENT));
+    }
+  }
+
+  /** Produces a response whose content cannot be read, so that its serialization fails. */
+  public static class UnreadableContentProcessor implements ServiceDocumentProcessor {
+    @Override
+    public void init(final OData odata, final ServiceMetadata serviceMetadata) {}
+
+    @Override
+    public void readServiceDocument(final ODataRequest request, final ODataResponse response,
+        final UriInfo uriInfo, final ContentType requestedContentType) {
+      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+      response.setContent(new InputStream() {
+        @Override
+        public int read() throws IOException {
+          throw new IOException("unreadable");
+        }
+      });
+    }
+  }
+
+  @Test
+  public void processAndDeliverSpooled() throws Exception {
+    AsyncRequestService service = new AsyncRequestService(1, 1);
+    service.setSpoolThreshold(10);
+    final String location = submit(service, new CountDownLatch(0), new ODataResponse());
+    assertEquals(BASE_URI.substring(0, BASE_URI.lastIndexOf('/') + 1) + "status/1", location);
+    waitForCompletion(service, location);
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    HttpServletResponse response = statusRequest(service, HttpMethod.GET, location, output);
+    verify(response).setStatus(HttpStatusCode.OK.getStatusCode());
+    final String result = output.toString("ISO-8859-1");
+    assertTrue(result.startsWith("HTTP/1.1 200 OK\r\n"));
+    assertTrue(result.endsWith("\r\n\r\n" + CONTENT));
+
+    response = statusRequest(service, HttpMethod.GET, location, null);
+    verify(response).setStatus(HttpStatusCode.NOT_FOUND.getStatusCode());
+    service.shutdown();
+  }
+
+  @Test
+  public void serializationFailure() throws Exception {
+    AsyncRequestService service = new AsyncRequestService(1, 1);
+    final String location = submit(service, new UnreadableContentProcessor(), new ODataResponse());
+    waitForCompletion(service, location);
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final HttpServletResponse response = statusRequest(service, HttpMethod.GET, location, output);
+    verify(response).setStatus(HttpStatusCode.OK.getStatusCode());
+    final String result = output.toString("UTF-8");
+    assertTrue(result, result.startsWith("HTTP/1.1 500 Internal Server Error\r\n"));
+    assertTrue(result, result.contains("Content-Type: text/plain;charset=utf-8\r\n"));
+    assertTrue(result, result.contains("\r\n\r\nSerialization of the response failed: "));
+    service.shutdown();
+  }
+
+  @Test
+  public void runningAndCancelled() throws Exception {
+    AsyncRequestService service = new AsyncRequestService(1, 1);
+    final CountDownLatch latch = new CountDownLatch(1);
+    final String location = submit(service, latch, new ODataResponse());
+
+    HttpServletResponse response = statusRequest(service, HttpMethod.GET, location, null);
+    verify(response).setStatus(HttpStatusCode.ACCEPTED.getStatusCode());
+    verify(response).setHeader(HttpHeader.LOCATION, location);
+
+    response = statusRequest(service, HttpMethod.DELETE, location, null);
+    verify(response).setStatus(HttpStatusCode.NO_CONTENT.getStatusCode());
+    assertTrue(service.getLocations().isEmpty());
+
+    response = statusRequest(service, HttpMethod.GET, location, null);
+    verify(response).setStatus(HttpStatusCode.NOT_FOUND.getStatusCode());
+    service.shutdown();
+  }
+
+  @Test
+  public void rejectedWhenSaturated() throws Exception {
+    AsyncRequestService service = new AsyncRequestService(1, 1);
+    service.setRetryAfter(42);
+    final CountDownLatch latch = new CountDownLatch(1);
+    submit(service, latch, new ODataResponse());
+    submit(service, latch, new ODataResponse());
+
+    final ODataResponse odResponse = new ODataResponse();
+    try {
+      submit(service, latch, odResponse);
+      fail("Expected exception not thrown.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode(), e.getStatusCode());
+      assertEquals("42", odResponse.getHeader(HttpHeader.RETRY_AFTER));
+    }
+    assertEquals(2, service.getLocations().size());
+
+    latch.countDown();
+    service.shutdown();
+  }
+
+  @Test
+  public void expired() throws Exception {
+    AsyncRequestService service = new AsyncRequestService(1, 1);
+    service.setTimeToLive(0);
+    final String location = submit(service, new CountDownLatch(0), new ODataResponse());
+    waitForCompletion(service, location);
+    TimeUnit.MILLISECONDS.sleep(5);
+
+    service.removeExpired();
+    assertFalse(service.isFinished(location));
+    assertTrue(service.getLocations().isEmpty());
+    service.shutdown();
+  }
+
+  private String submit(final AsyncRequestService service, final CountDownLatch latch,
+      final ODataResponse odResponse) throws Exception {
+    return submit(service, new TestProcessor(latch), odResponse);
+  }
+
+  private String submit(final AsyncRequestService service, final ServiceDocumentProcessor processor,
+      final ODataResponse odResponse) throws Exception {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    AsyncProcessor<ServiceDocumentProcessor> asyncProcessor =
+        service.register(processor, ServiceDocumentProcessor.class);
+    asyncProcessor.prepareFor().readServiceDocument(request, odResponse, mock(UriInfo.class),
+        ContentType.APPLICATION_JSON);
+    return asyncProcessor.processAsync();
+  }
+
+  private void waitForCompletion(final AsyncRequestService service, final String location) throws Exception {
+    for (int i = 0; i < 500 && !service.isFinished(location); i++) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertTrue(service.isFinished(location));
+  }
+
+  private HttpServletResponse statusRequest(final AsyncRequestService service, final HttpMethod method,
+      final String location, final ByteArrayOutputStream output) throws IOException {
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getMethod()).thenReturn(method.name());
+    when(request.getRequestURL()).thenReturn(new StringBuffer(location));
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    if (output != null) {
+      when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+        @Override
+        public void write(final int b) throws IOException {
+          output.write(b);
+        }
+      });
+    }
+    service.handle(request, response);
+    return response;
+  }
+}
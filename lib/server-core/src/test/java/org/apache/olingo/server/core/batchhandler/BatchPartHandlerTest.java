@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.batchhandler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.batch.BatchExecutorSupport;
+import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
+import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartReader;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.core.ODataHandlerImpl;
+import org.apache.olingo.server.core.deserializer.batch.BatchParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class BatchPartHandlerTest {
+
+  private static final String CRLF = "\r\n";
+
+  private ExecutorService executorService;
+  private ODataHandlerImpl handler;
+
+  @Before
+  public void setup() {
+    executorService = Executors.newFixedThreadPool(3);
+    handler = mock(ODataHandlerImpl.class);
+    when(handler.copy()).thenReturn(handler);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void independentPartsAreProcessedConcurrently() throws Exception {
+    registerExecutor();
+    final CountDownLatch latch = new CountDownLatch(3);
+    when(handler.process(any(ODataRequest.class))).then(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        latch.countDown();
+        // Only returns in time if all three requests are in process at the same time.
+        final boolean concurrent = latch.await(5, TimeUnit.SECONDS);
+        return response((ODataRequest) invocation.getArguments()[0],
+            concurrent ? HttpStatusCode.OK : HttpStatusCode.REQUEST_TIMEOUT);
+      }
+    });
+
+    final List<ODataResponsePart> responses = createPartHandler().handleBatchRequests(
+        Arrays.asList(get("ESAllPrim(1)", "1"), get("ESAllPrim(2)", "2"), get("ESAllPrim(3)", "3")), false);
+
+    assertEquals(3, responses.size());
+    for (int index = 0; index < 3; index++) {
+      final ODataResponse response = responses.get(index).getResponses().get(0);
+      assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+      assertEquals(Integer.toString(index + 1), response.getHeader(HttpHeader.CONTENT_ID));
+    }
+  }
+
+  @Test
+  public void processingStopsAfterError() throws Exception {
+    registerExecutor();
+    final ODataRequest failing = get("ESAllPrim(1)", null).getRequests().get(0);
+    final BatchRequestPart afterRun = get("ESAllPrim(4)", null);
+    when(handler.process(any(ODataRequest.class))).then(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        final ODataRequest request = (ODataRequest) invocation.getArguments()[0];
+        return response(request, request == failing ? HttpStatusCode.NOT_FOUND : HttpStatusCode.OK);
+      }
+    });
+
+    final BatchRequestPart changeSet = new BatchRequestPart(true, Collections.<ODataRequest> emptyList());
+    final List<BatchRequestPart> parts = Arrays.asList(
+        new BatchRequestPart(false, Collections.singletonList(failing)), get("ESAllPrim(2)", null),
+        changeSet, afterRun);
+
+    final List<ODataResponsePart> responses = createPartHandler().handleBatchRequests(parts, false);
+    assertEquals(1, responses.size());
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(),
+        responses.get(0).getResponses().get(0).getStatusCode());
+    verify(handler, never()).process(afterRun.getRequests().get(0));
+  }
+
+  @Test
+  public void sequentialWithoutExecutor() throws Exception {
+    final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+    when(handler.process(any(ODataRequest.class))).then(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        threads.add(Thread.currentThread());
+        return response((ODataRequest) invocation.getArguments()[0], HttpStatusCode.NOT_FOUND);
+      }
+    });
+
+    final List<ODataResponsePart> responses = createPartHandler().handleBatchRequests(
+        Arrays.asList(get("ESAllPrim(1)", null), get("ESAllPrim(2)", null)), true);
+
+    assertEquals(2, responses.size());
+    assertEquals(Arrays.asList(Thread.currentThread(), Thread.currentThread()), threads);
+    assertNull(responses.get(1).getResponses().get(0).getHeader(HttpHeader.CONTENT_ID));
+    assertFalse(responses.get(1).isChangeSet());
+  }
+
+  @Test
+  public void partsAreProcessedWhileReading() throws Exception {
+    final List<String> events = new ArrayList<String>();
+    when(handler.process(any(ODataRequest.class))).then(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        final ODataRequest request = (ODataRequest) invocation.getArguments()[0];
+        events.add("process " + request.getRawODataPath());
+        return response(request, HttpStatusCode.OK);
+      }
+    });
+    final Iterator<BatchRequestPart> parts = Arrays.asList(get("ESAllPrim(1)", null), get("ESAllPrim(2)", null))
+        .iterator();
+
+    final List<ODataResponsePart> responses = createPartHandler().handleBatchRequests(
+        new BatchRequestPartReader() {
+          @Override
+          public BatchRequestPart next() {
+            events.add("read");
+            return parts.hasNext() ? parts.next() : null;
+          }
+        }, false);
+
+    assertEquals(2, responses.size());
+    assertEquals(Arrays.asList("read", "process /ESAllPrim(1)", "read", "process /ESAllPrim(2)", "read"), events);
+  }
+
+  @Test
+  public void malformedTrailingPart() throws Exception {
+    registerExecutor();
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    when(handler.process(any(ODataRequest.class))).then(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        started.countDown();
+        try {
+          new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+          interrupted.countDown();
+        }
+        return response((ODataRequest) invocation.getArguments()[0], HttpStatusCode.OK);
+      }
+    });
+    final BatchProcessor processor = mock(BatchProcessor.class);
+    final ODataResponse created = new ODataResponse();
+    created.setStatusCode(HttpStatusCode.CREATED.getStatusCode());
+    when(processor.processChangeSet(any(BatchFacade.class), any(List.class)))
+        .thenReturn(new ODataResponsePart(created, true));
+
+    final String boundary = "batch_8194-cf13-1f56";
+    final String mimeHeaders = "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: binary" + CRLF;
+    final String batch = "--" + boundary + CRLF
+        + "Content-Type: multipart/mixed; boundary=changeset_f980-1cb6-94dd" + CRLF
+        + CRLF
+        + "--changeset_f980-1cb6-94dd" + CRLF
+        + mimeHeaders
+        + "Content-ID: 1" + CRLF
+        + CRLF
+        + "POST ESAllPrim HTTP/1.1" + CRLF
+        + "Content-Type: application/json" + CRLF
+        + CRLF
+        + "{}" + CRLF
+        + "--changeset_f980-1cb6-94dd--" + CRLF
+        + CRLF
+        + "--" + boundary + CRLF
+        + mimeHeaders
+        + CRLF
+        + "GET ESAllPrim(1) HTTP/1.1" + CRLF
+        + CRLF
+        + CRLF
+        + "--" + boundary + CRLF
+        + mimeHeaders
+        + CRLF
+        + /* GET */"ESAllPrim(2) HTTP/1.1" + CRLF
+        + CRLF
+        + CRLF
+        + "--" + boundary + "--";
+    final BatchRequestPartReader parser = new BatchParser().readBatchRequest(IOUtils.toInputStream(batch), boundary,
+        BatchOptions.with().rawBaseUri("http://localhost/odata").build());
+    final BatchRequestPartReader reader = new BatchRequestPartReader() {
+      private int count = 0;
+
+      @Override
+      public BatchRequestPart next() throws BatchDeserializerException {
+        if (++count == 3) {
+          // The malformed part is read only once the independent part is in process.
+          try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return parser.next();
+      }
+    };
+
+    try {
+      new BatchPartHandler(handler, processor, null).handleBatchRequests(reader, false);
+      fail("Expected " + BatchDeserializerException.class.getSimpleName());
+    } catch (final BatchDeserializerException e) {
+      // The change set before the malformed part has already taken effect ...
+      verify(processor).processChangeSet(any(BatchFacade.class), any(List.class));
+      // ... while the independent part still in process has been cancelled.
+      assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+  }
+
+  private void registerExecutor() {
+    when(handler.getBatchExecutorSupport()).thenReturn(new BatchExecutorSupport() {
+      @Override
+      public ExecutorService getExecutorService() {
+        return executorService;
+      }
+    });
+  }
+
+  private BatchPartHandler createPartHandler() {
+    return new BatchPartHandler(handler, mock(BatchProcessor.class), null);
+  }
+
+  private BatchRequestPart get(final String path, final String contentId) {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawODataPath("/" + path);
+    if (contentId != null) {
+      request.addHeader(HttpHeader.CONTENT_ID, contentId);
+    }
+    return new BatchRequestPart(false, Collections.singletonList(request));
+  }
+
+  private ODataResponse response(final ODataRequest request, final HttpStatusCode status) {
+    final ODataResponse response = new ODataResponse();
+    response.setStatusCode(status.getStatusCode());
+    return response;
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.olingo.server.core.deserializer.batch;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -36,6 +37,7 @@ import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerExceptio
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException.MessageKeys;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartReader;
 import org.junit.Test;
 
 public class BatchRequestParserTest {
@@ -520,6 +522,45 @@ public class BatchRequestParserTest {
     assertEquals(0, parts.size());
   }
 
+  @Test
+  public void readPartByPart() throws Exception {
+    final String batch = "--batch_8194-cf13-1f56" + CRLF
+        + GET_REQUEST
+        + "--batch_8194-cf13-1f56" + CRLF
+        + MIME_HEADERS
+        + CRLF
+        + /* GET */"Employees('2')/EmployeeName HTTP/1.1" + CRLF
+        + CRLF
+        + CRLF
+        + "--batch_8194-cf13-1f56--";
+
+    final BatchOptions options = BatchOptions.with().isStrict(true).rawBaseUri(SERVICE_ROOT).build();
+    final BatchRequestPartReader reader =
+        new BatchParser().readBatchRequest(IOUtils.toInputStream(batch), BOUNDARY, options);
+
+    final BatchRequestPart part = reader.next();
+    assertNotNull(part);
+    assertFalse(part.isChangeSet());
+    assertEquals("/Employees('1')/EmployeeName", part.getRequests().get(0).getRawODataPath());
+
+    try {
+      reader.next();
+      fail("No exception thrown. Expect: " + MessageKeys.INVALID_STATUS_LINE);
+    } catch (BatchDeserializerException e) {
+      assertMessageKey(e, MessageKeys.INVALID_STATUS_LINE);
+    }
+  }
+
+  @Test
+  public void readEmptyRequest() throws Exception {
+    final BatchOptions options = BatchOptions.with().rawBaseUri(SERVICE_ROOT).build();
+    final BatchRequestPartReader reader = new BatchParser().readBatchRequest(
+        IOUtils.toInputStream("--batch_8194-cf13-1f56--"), BOUNDARY, options);
+
+    assertNull(reader.next());
+    assertNull(reader.next());
+  }
+
   @Test
   public void testBadRequest() throws Exception {
     final String batch = "This is a bad request. There is no syntax and also no semantic";
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+public class JsonPrimitiveValueWriterTest {
+
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  @Test
+  public void numbers() throws Exception {
+    assertWritten(EdmPrimitiveTypeKind.Int32, 123, null, null, "123");
+    assertWritten(EdmPrimitiveTypeKind.Int32, (long) Integer.MIN_VALUE, null, null, "-2147483648");
+    assertWritten(EdmPrimitiveTypeKind.Int64, Long.MAX_VALUE, null, null, "9223372036854775807");
+    assertWritten(EdmPrimitiveTypeKind.Int16, (short) -5, null, null, "-5");
+    assertWritten(EdmPrimitiveTypeKind.Byte, 255, null, null, "255");
+    assertWritten(EdmPrimitiveTypeKind.SByte, (byte) -128, null, null, "-128");
+    assertWritten(EdmPrimitiveTypeKind.Double, 1.5E300, null, null, "1.5E300");
+    assertWritten(EdmPrimitiveTypeKind.Double, 42.0F, null, null, "42.0");
+    assertWritten(EdmPrimitiveTypeKind.Double, 7L, null, null, "7");
+    assertWritten(EdmPrimitiveTypeKind.Single, 3.25F, null, null, "3.25");
+    assertWritten(EdmPrimitiveTypeKind.Decimal, 12345, 5, null, "12345");
+    assertWritten(EdmPrimitiveTypeKind.Decimal, new BigDecimal("-1.5E3"), null, null, "-1500");
+    assertWritten(EdmPrimitiveTypeKind.Decimal, new BigDecimal("12.345"), 5, 3, "12.345");
+    assertWritten(EdmPrimitiveTypeKind.Boolean, true, null, null, "true");
+  }
+
+  @Test
+  public void notHandled() throws Exception {
+    // Out of range or violating facets: left to the general conversion.
+    assertNotWritten(EdmPrimitiveTypeKind.Int32, Long.MAX_VALUE, null, null);
+    assertNotWritten(EdmPrimitiveTypeKind.Byte, -1, null, null);
+    assertNotWritten(EdmPrimitiveTypeKind.Decimal, 123456, 5, null);
+    assertNotWritten(EdmPrimitiveTypeKind.Decimal, new BigDecimal("12.345"), 5, 2);
+    assertNotWritten(EdmPrimitiveTypeKind.Double, Double.POSITIVE_INFINITY, null, null);
+    assertNotWritten(EdmPrimitiveTypeKind.Double, 1L << 52, null, null);
+    assertNotWritten(EdmPrimitiveTypeKind.String, "text", null, null);
+    assertNotWritten(EdmPrimitiveTypeKind.DateTimeOffset, 1234L, null, null);
+    assertNotWritten(EdmPrimitiveTypeKind.Boolean, "true", null, null);
+  }
+
+  @Test
+  public void ieee754Compatible() throws Exception {
+    final StringWriter writer = new StringWriter();
+    final JsonGenerator json = FACTORY.createGenerator(writer);
+    assertFalse(JsonPrimitiveValueWriter.write(type(EdmPrimitiveTypeKind.Int64), 1L, null, null, true, json));
+    assertFalse(JsonPrimitiveValueWriter.write(type(EdmPrimitiveTypeKind.Decimal), 1, null, null, true, json));
+    assertTrue(JsonPrimitiveValueWriter.write(type(EdmPrimitiveTypeKind.Int32), 1, null, null, true, json));
+  }
+
+  @Test
+  public void temporal() throws Exception {
+    final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT+01:30"));
+    calendar.clear();
+    calendar.set(2012, 1, 29, 1, 2, 3);
+    calendar.set(Calendar.MILLISECOND, 50);
+    assertWritten(EdmPrimitiveTypeKind.DateTimeOffset, calendar, 3, null, "\"2012-02-29T01:02:03.05+01:30\"");
+    assertWritten(EdmPrimitiveTypeKind.Date, calendar, null, null, "\"2012-02-29\"");
+    assertWritten(EdmPrimitiveTypeKind.TimeOfDay, calendar, 2, null, "\"01:02:03.05\"");
+    assertNotWritten(EdmPrimitiveTypeKind.TimeOfDay, calendar, 1, null);
+
+    final long millis = calendar.getTimeInMillis();
+    assertWritten(EdmPrimitiveTypeKind.DateTimeOffset, millis, 3, null, "\"2012-02-28T23:32:03.05Z\"");
+    assertWritten(EdmPrimitiveTypeKind.DateTimeOffset, new Date(millis), 3, null, "\"2012-02-28T23:32:03.05Z\"");
+
+    final Timestamp timestamp = new Timestamp(millis);
+    timestamp.setNanos(123456789);
+    assertWritten(EdmPrimitiveTypeKind.DateTimeOffset, timestamp, 9, null, "\"2012-02-28T23:32:03.123456789Z\"");
+    assertWritten(EdmPrimitiveTypeKind.DateTimeOffset, new Date(-1L), 3, null, "\"1969-12-31T23:59:59.999Z\"");
+    assertNotWritten(EdmPrimitiveTypeKind.DateTimeOffset, new Date(-20000000000000L), 3, null);
+  }
+
+  private EdmPrimitiveType type(final EdmPrimitiveTypeKind kind) {
+    return EdmPrimitiveTypeFactory.getInstance(kind);
+  }
+
+  private void assertWritten(final EdmPrimitiveTypeKind kind, final Object value, final Integer precision,
+      final Integer scale, final String expected) throws Exception {
+    final StringWriter writer = new StringWriter();
+    final JsonGenerator json = FACTORY.createGenerator(writer);
+    assertTrue(JsonPrimitiveValueWriter.write(type(kind), value, precision, scale, false, json));
+    json.close();
+    assertEquals(expected, writer.toString());
+
+    // Same result as the general conversion.
+    final String converted = type(kind).valueToString(value, null, null, precision, scale, null);
+    assertEquals(expected, expected.startsWith("\"") ? '"' + converted + '"' : converted);
+  }
+
+  private void assertNotWritten(final EdmPrimitiveTypeKind kind, final Object value, final Integer precision,
+      final Integer scale) throws Exception {
+    final StringWriter writer = new StringWriter();
+    final JsonGenerator json = FACTORY.createGenerator(writer);
+    assertFalse(JsonPrimitiveValueWriter.write(type(kind), value, precision, scale, false, json));
+    json.close();
+    assertEquals("", writer.toString());
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.junit.Test;
+
+public class WritePlanTest {
+
+  @Test
+  public void allProperties() {
+    final EdmEntityType type = mockType();
+    final WritePlan plan = WritePlan.create(type, null);
+    assertEquals(3, plan.getSlots().size());
+    assertEquals("Key", plan.getSlots().get(0).getName());
+    assertEquals("Complex", plan.getSlots().get(2).getJsonName().getValue());
+    assertNull(plan.getSlots().get(2).getSelectedPaths());
+    assertTrue(plan.areKeysSelected());
+  }
+
+  @Test
+  public void selectedProperties() {
+    final EdmEntityType type = mockType();
+    @SuppressWarnings("unchecked")
+    final Set<List<String>> selection = new HashSet<List<String>>(Arrays.asList(
+        Arrays.asList("Complex", "Inner"),
+        Collections.singletonList("Name")));
+    final WritePlan plan = WritePlan.create(type, selection);
+    assertEquals(2, plan.getSlots().size());
+    assertEquals("Name", plan.getSlots().get(0).getName());
+    assertNull(plan.getSlots().get(0).getSelectedPaths());
+    assertEquals(Collections.singleton(Collections.singletonList("Inner")),
+        plan.getSlots().get(1).getSelectedPaths());
+    assertFalse(plan.areKeysSelected());
+  }
+
+  @Test
+  public void findProperty() {
+    final WritePlan plan = WritePlan.create(mockType(), null);
+    final Property key = new Property(null, "Key", ValueType.PRIMITIVE, 1);
+    final Property name = new Property(null, "Name", ValueType.PRIMITIVE, "n");
+    assertSame(name, plan.findProperty(plan.getSlots().get(1), Arrays.asList(key, name)));
+    assertSame(name, plan.findProperty(plan.getSlots().get(1), Arrays.asList(name, key)));
+    assertSame(key, plan.findProperty(plan.getSlots().get(0), Arrays.asList(name, key)));
+    assertNull(plan.findProperty(plan.getSlots().get(2), Arrays.asList(key, name)));
+  }
+
+  @Test
+  public void cache() {
+    final EdmEntityType type = mockType();
+    final WritePlanCache cache = new WritePlanCache();
+    final WritePlan plan = cache.get(type, null);
+    assertSame(plan, cache.get(type, null));
+    final Set<List<String>> selection = Collections.singleton(Collections.singletonList("Name"));
+    final WritePlan selectedPlan = cache.get(type, selection);
+    assertSame(selectedPlan, cache.get(type, Collections.singleton(Collections.singletonList("Name"))));
+    assertFalse(plan == selectedPlan);
+    assertFalse(plan == cache.get(mockType(), null));
+  }
+
+  @Test
+  public void expand() throws Exception {
+    final EdmEntityType type = mockType();
+    final WritePlan plan = WritePlan.create(type, null);
+    assertFalse(plan.hasExpand());
+    assertEquals(1, plan.getNavigationSlots().size());
+    assertFalse(plan.getNavigationSlots().get(0).isExpanded());
+    assertSame(plan, plan.withExpand(null));
+
+    final ExpandItem item = mock(ExpandItem.class);
+    when(item.isStar()).thenReturn(true);
+    final ExpandOption expand = mock(ExpandOption.class);
+    when(expand.getExpandItems()).thenReturn(Collections.singletonList(item));
+    final WritePlan expandedPlan = plan.withExpand(expand);
+    assertTrue(expandedPlan.hasExpand());
+    assertSame(plan.getSlots(), expandedPlan.getSlots());
+    assertEquals("Navigation", expandedPlan.getNavigationSlots().get(0).getName());
+    assertTrue(expandedPlan.getNavigationSlots().get(0).isExpanded());
+    assertNull(expandedPlan.getNavigationSlots().get(0).getExpandItem());
+  }
+
+  private EdmEntityType mockType() {
+    EdmEntityType type = mock(EdmEntityType.class);
+    when(type.getPropertyNames()).thenReturn(Arrays.asList("Key", "Name", "Complex"));
+    when(type.getKeyPredicateNames()).thenReturn(Collections.singletonList("Key"));
+    for (final String name : type.getPropertyNames()) {
+      EdmProperty property = mock(EdmProperty.class);
+      when(property.getName()).thenReturn(name);
+      when(type.getStructuralProperty(name)).thenReturn(property);
+    }
+    EdmNavigationProperty navigationProperty = mock(EdmNavigationProperty.class);
+    when(navigationProperty.getName()).thenReturn("Navigation");
+    when(type.getNavigationPropertyNames()).thenReturn(Collections.singletonList("Navigation"));
+    when(type.getNavigationProperty("Navigation")).thenReturn(navigationProperty);
+    return type;
+  }
+}
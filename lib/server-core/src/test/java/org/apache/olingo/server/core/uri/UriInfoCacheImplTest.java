@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.junit.Test;
+
+public class UriInfoCacheImplTest {
+
+  private final Edm edm = mock(Edm.class);
+
+  @Test
+  public void hitsAndMisses() {
+    UriInfoCacheImpl cache = new UriInfoCacheImpl(10);
+    final UriInfo uriInfo = new UriInfoImpl();
+    assertNull(cache.get(edm, HttpMethod.GET, "ESAllPrim", null));
+    cache.put(edm, HttpMethod.GET, "ESAllPrim", null, uriInfo);
+    assertSame(uriInfo, cache.get(edm, HttpMethod.GET, "ESAllPrim", null));
+    assertNull(cache.get(edm, HttpMethod.DELETE, "ESAllPrim", null));
+    assertNull(cache.get(edm, HttpMethod.GET, "ESAllPrim", "$top=1"));
+    assertNull(cache.get(mock(Edm.class), HttpMethod.GET, "ESAllPrim", null));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(4, cache.getMissCount());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertNull(cache.get(edm, HttpMethod.GET, "ESAllPrim", null));
+  }
+
+  @Test
+  public void leastRecentlyUsedEntriesAreEvicted() {
+    // A single segment for a maximum size of one
+    UriInfoCacheImpl cache = new UriInfoCacheImpl(1);
+    final UriInfo first = new UriInfoImpl();
+    cache.put(edm, HttpMethod.GET, "first", null, first);
+    cache.put(edm, HttpMethod.GET, "second", null, new UriInfoImpl());
+    assertEquals(1, cache.size());
+    assertNull(cache.get(edm, HttpMethod.GET, "first", null));
+
+    cache = new UriInfoCacheImpl(100);
+    for (int i = 0; i < 1000; i++) {
+      cache.put(edm, HttpMethod.GET, "path" + i, null, first);
+    }
+    assertTrue(cache.size() <= 100);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void illegalSize() {
+    new UriInfoCacheImpl(0);
+  }
+}
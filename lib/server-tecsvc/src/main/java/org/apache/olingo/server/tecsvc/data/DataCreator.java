@@ -38,6 +38,7 @@ import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Operation;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.PropertyIndex;
 import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
@@ -679,8 +680,10 @@ public class DataCreator {
   }
 
   private void setEntityType(EntityCollection entityCollection, final EdmEntityType type) {
+    final PropertyIndex propertyIndex = PropertyIndex.of(type);
     for (Entity entity : entityCollection.getEntities()) {
       entity.setType(type.getFullQualifiedName().getFullQualifiedNameAsString());
+      entity.setPropertyIndex(propertyIndex);
     }
   }
 
@@ -28,6 +28,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -37,6 +39,7 @@ import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Parameter;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.PropertyIndex;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
@@ -63,6 +66,7 @@ import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriParameter;
 import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.core.inmemory.KeyIndex;
 
 public class DataProvider {
 
@@ -73,6 +77,7 @@ public class DataProvider {
   private AtomicLong KEY_STRING = new AtomicLong(0);
 
   private Map<String, EntityCollection> data;
+  private final ConcurrentMap<String, KeyIndex> keyIndexes = new ConcurrentHashMap<String, KeyIndex>();
   private final OData odata;
   private final Edm edm;
 
@@ -92,8 +97,27 @@ public class DataProvider {
   }
 
   public Entity read(final EdmEntitySet edmEntitySet, final List<UriParameter> keys) throws DataProviderException {
-    final EntityCollection entitySet = readAll(edmEntitySet);
-    return entitySet == null ? null : read(edmEntitySet.getEntityType(), entitySet, keys);
+    try {
+      return getKeyIndex(edmEntitySet).get(keys);
+    } catch (final DataProviderException e) {
+      throw e;
+    } catch (final ODataApplicationException e) {
+      throw new DataProviderException(e.getMessage(), HttpStatusCode.fromStatusCode(e.getStatusCode()), e);
+    }
+  }
+
+  private KeyIndex getKeyIndex(final EdmEntitySet edmEntitySet) throws DataProviderException {
+    KeyIndex keyIndex = keyIndexes.get(edmEntitySet.getName());
+    if (keyIndex == null) {
+      final KeyIndex created = new KeyIndex(edmEntitySet.getEntityType());
+      created.addAll(readAll(edmEntitySet).getEntities());
+      // Concurrent requests may build the same index; all of them use the one registered first.
+      keyIndex = keyIndexes.putIfAbsent(edmEntitySet.getName(), created);
+      if (keyIndex == null) {
+        keyIndex = created;
+      }
+    }
+    return keyIndex;
   }
 
   public Entity read(final EdmEntityType edmEntityType, final EntityCollection entitySet,
@@ -132,6 +156,7 @@ public class DataProvider {
   public void delete(final EdmEntitySet edmEntitySet, final Entity entity) throws DataProviderException {
     deleteLinksTo(entity);
     readAll(edmEntitySet).getEntities().remove(entity);
+    getKeyIndex(edmEntitySet).remove(entity);
   }
 
   public void deleteLinksTo(final Entity to) throws DataProviderException {
@@ -158,10 +183,9 @@ public class DataProvider {
 
   public Entity create(final EdmEntitySet edmEntitySet) throws DataProviderException {
     final EdmEntityType edmEntityType = edmEntitySet.getEntityType();
-    EntityCollection entitySet = readAll(edmEntitySet);
-    final List<Entity> entities = entitySet.getEntities();
-    final Map<String, Object> newKey = findFreeComposedKey(entities, edmEntityType);
-    Entity newEntity = new Entity();
+    final KeyIndex keyIndex = getKeyIndex(edmEntitySet);
+    final Map<String, Object> newKey = findFreeComposedKey(keyIndex, edmEntityType);
+    Entity newEntity = new Entity(PropertyIndex.of(edmEntityType));
     newEntity.setType(edmEntityType.getFullQualifiedName().getFullQualifiedNameAsString());
     for (final String keyName : edmEntityType.getKeyPredicateNames()) {
       newEntity.addProperty(DataCreator.createPrimitive(keyName, newKey.get(keyName)));
@@ -173,12 +197,13 @@ public class DataProvider {
     } catch (final SerializerException e) {
       throw new DataProviderException("Unable to set entity ID!", HttpStatusCode.INTERNAL_SERVER_ERROR, e);
     }
-    entities.add(newEntity);
+    readAll(edmEntitySet).getEntities().add(newEntity);
+    keyIndex.add(newEntity);
 
     return newEntity;
   }
 
-  private Map<String, Object> findFreeComposedKey(final List<Entity> entities, final EdmEntityType entityType)
+  private Map<String, Object> findFreeComposedKey(final KeyIndex keyIndex, final EdmEntityType entityType)
       throws DataProviderException {
     // Weak key construction
     final HashMap<String, Object> keys = new HashMap<String, Object>();
@@ -194,27 +219,27 @@ public class DataProvider {
       if (EdmPrimitiveTypeKind.Int16.getFullQualifiedName().equals(typeName)) {
         newValue = (short) KEY_INT_16.incrementAndGet();
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (keyIndex.containsValue(keyName, newValue)) {
           newValue = (short) KEY_INT_16.incrementAndGet();
         }
       } else if (EdmPrimitiveTypeKind.Int32.getFullQualifiedName().equals(typeName)) {
         newValue = KEY_INT_32.incrementAndGet();
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (keyIndex.containsValue(keyName, newValue)) {
           newValue = KEY_INT_32.incrementAndGet();
         }
       } else if (EdmPrimitiveTypeKind.Int64.getFullQualifiedName().equals(typeName)) {
         // Integer keys
         newValue = KEY_INT_64.incrementAndGet();
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (keyIndex.containsValue(keyName, newValue)) {
           newValue = KEY_INT_64.incrementAndGet();
         }
       } else if (EdmPrimitiveTypeKind.String.getFullQualifiedName().equals(typeName)) {
         // String keys
         newValue = String.valueOf(KEY_STRING.incrementAndGet());
 
-        while (!isFree(newValue, keyName, entities)) {
+        while (keyIndex.containsValue(keyName, newValue)) {
           newValue = String.valueOf(KEY_STRING.incrementAndGet());
         }
       } else if (type instanceof EdmEnumType) {
@@ -233,16 +258,6 @@ public class DataProvider {
     return keys;
   }
 
-  private boolean isFree(final Object value, final String keyPropertyName, final List<Entity> entities) {
-    for (final Entity entity : entities) {
-      if (value != null && value.equals(entity.getProperty(keyPropertyName).getValue())) {
-        return false;
-      }
-    }
-
-    return true;
-  }
-
   private void createProperties(final EdmStructuredType type, final List<Property> properties)
       throws DataProviderException {
     final List<String> keyNames = type instanceof EdmEntityType ?
@@ -446,8 +461,10 @@ public class DataProvider {
       if (newProperty != null) {
         if (type.getKind() == EdmTypeKind.COMPLEX) {
           // Create each complex value.
+          final PropertyIndex propertyIndex = PropertyIndex.of((EdmComplexType) type);
           for (final ComplexValue complexValue : (List<ComplexValue>) newProperty.asCollection()) {
-            ((List<ComplexValue>) property.asCollection()).add(createComplexValue(edmProperty, complexValue, patch));
+            ((List<ComplexValue>) property.asCollection()).add(
+                createComplexValue(edmProperty, propertyIndex, complexValue, patch));
           }
         } else {
           // Primitive type
@@ -475,10 +492,10 @@ public class DataProvider {
     property.setValue(property.getValueType(), value);
   }
 
-  private ComplexValue createComplexValue(final EdmProperty edmProperty, final ComplexValue complexValue,
-      final boolean patch) throws DataProviderException {
-    final ComplexValue result = new ComplexValue();
+  private ComplexValue createComplexValue(final EdmProperty edmProperty, final PropertyIndex propertyIndex,
+      final ComplexValue complexValue, final boolean patch) throws DataProviderException {
     final EdmComplexType edmType = (EdmComplexType) edmProperty.getType();
+    final ComplexValue result = new ComplexValue(propertyIndex);
     final List<Property> givenProperties = complexValue.getValue();
 
     // Create ALL properties, even if no value is given. Check if null is allowed
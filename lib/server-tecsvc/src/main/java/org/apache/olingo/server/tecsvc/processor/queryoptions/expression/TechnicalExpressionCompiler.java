@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmFunction;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResourceFunction;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.core.inmemory.expression.ExpressionCompiler;
+import org.apache.olingo.server.core.inmemory.expression.ExpressionEvaluator;
+import org.apache.olingo.server.core.inmemory.expression.operand.TypedOperand;
+import org.apache.olingo.server.core.inmemory.expression.operand.VisitorOperand;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+
+/**
+ * Expression compiler which additionally supports function calls, with the data of the technical service.
+ */
+public class TechnicalExpressionCompiler extends ExpressionCompiler {
+
+  private final UriInfoResource uriInfo;
+  private final Edm edm;
+
+  public TechnicalExpressionCompiler(final UriInfoResource uriInfo, final Edm edm) {
+    super(uriInfo);
+    this.uriInfo = uriInfo;
+    this.edm = edm;
+  }
+
+  @Override
+  protected ExpressionEvaluator compileFunction(final UriResourceFunction uriResourceFunction, final Member member)
+      throws ExpressionVisitException, ODataApplicationException {
+    if (member.getResourcePath().getUriResourceParts().size() > 1) {
+      return NOT_IMPLEMENTED;
+    }
+    return new FunctionEvaluator(uriResourceFunction.getFunction(), uriResourceFunction.getParameters());
+  }
+
+  /** The function result does not depend on the entity, so the function is called only once. */
+  private class FunctionEvaluator implements ExpressionEvaluator {
+    private final EdmFunction function;
+    private final List<UriParameter> parameters;
+    private VisitorOperand result;
+
+    public FunctionEvaluator(final EdmFunction function, final List<UriParameter> parameters) {
+      this.function = function;
+      this.parameters = parameters;
+    }
+
+    @Override
+    public VisitorOperand evaluate(final Entity entity) throws ODataApplicationException {
+      if (result == null) {
+        final EdmType type = function.getReturnType().getType();
+        final DataProvider dataProvider = new DataProvider(OData.newInstance(), edm);
+        result = new TypedOperand(
+            type.getKind() == EdmTypeKind.ENTITY ?
+                function.getReturnType().isCollection() ?
+                    dataProvider.readFunctionEntityCollection(function, parameters, uriInfo) :
+                    dataProvider.readFunctionEntity(function, parameters, uriInfo) :
+                dataProvider.readFunctionPrimitiveComplex(function, parameters, uriInfo),
+            type);
+      }
+      return result;
+    }
+  }
+}
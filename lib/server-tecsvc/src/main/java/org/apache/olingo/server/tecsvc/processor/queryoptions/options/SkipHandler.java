@@ -19,28 +19,11 @@
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
 import java.util.Iterator;
-import java.util.Locale;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
-import org.apache.olingo.commons.api.http.HttpStatusCode;
-import org.apache.olingo.server.api.ODataApplicationException;
-import org.apache.olingo.server.api.uri.queryoption.SkipOption;
 
 public class SkipHandler {
-  public static void applySkipSystemQueryHandler(final SkipOption skipOption, final EntityCollection entitySet)
-      throws ODataApplicationException {
-
-    if (skipOption != null) {
-      if (skipOption.getValue() >= 0) {
-        popAtMost(entitySet, skipOption.getValue());
-      } else {
-        throw new ODataApplicationException("Skip value must be positive", HttpStatusCode.BAD_REQUEST.getStatusCode(),
-            Locale.ROOT);
-      }
-    }
-  }
-
   static void popAtMost(final EntityCollection entitySet, final int n) {
     final Iterator<Entity> iter = entitySet.getEntities().iterator();
     int i = 0;
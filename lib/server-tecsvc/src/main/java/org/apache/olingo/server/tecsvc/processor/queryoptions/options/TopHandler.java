@@ -18,27 +18,9 @@
  */
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
-import java.util.Locale;
-
 import org.apache.olingo.commons.api.data.EntityCollection;
-import org.apache.olingo.commons.api.http.HttpStatusCode;
-import org.apache.olingo.server.api.ODataApplicationException;
-import org.apache.olingo.server.api.uri.queryoption.TopOption;
 
 public class TopHandler {
-  public static void applyTopSystemQueryOption(final TopOption topOption, final EntityCollection entitySet)
-      throws ODataApplicationException {
-
-    if (topOption != null) {
-      if (topOption.getValue() >= 0) {
-        reduceToSize(entitySet, topOption.getValue());
-      } else {
-        throw new ODataApplicationException("Top value must be positive", HttpStatusCode.BAD_REQUEST.getStatusCode(),
-            Locale.ROOT);
-      }
-    }
-  }
-
   static void reduceToSize(final EntityCollection entitySet, final int n) {
     while (entitySet.getEntities().size() > n) {
       entitySet.getEntities().remove(entitySet.getEntities().size() - 1);
@@ -174,6 +174,34 @@ public class DataProviderTest {
     Assert.assertEquals("x/y", entity.getMediaContentType());
   }
 
+  @Test
+  public void esTwoKeyNavCreateAndDelete() throws Exception {
+    final DataProvider dataProvider = new DataProvider(oData, edm);
+    final EdmEntitySet esTwoKeyNav = entityContainer.getEntitySet("ESTwoKeyNav");
+    final Entity existing = dataProvider.read(esTwoKeyNav, Arrays.asList(
+        mockParameter("PropertyInt16", "1"), mockParameter("PropertyString", "'2'")));
+    Assert.assertNotNull(existing);
+    Assert.assertNull(dataProvider.read(esTwoKeyNav, Arrays.asList(
+        mockParameter("PropertyInt16", "2"), mockParameter("PropertyString", "'2'"))));
+
+    final Entity created = dataProvider.create(esTwoKeyNav);
+    final List<UriParameter> key = Arrays.asList(
+        mockParameter("PropertyInt16", created.getProperty("PropertyInt16").getValue().toString()),
+        mockParameter("PropertyString", "'" + created.getProperty("PropertyString").getValue() + "'"));
+    Assert.assertEquals(created, dataProvider.read(esTwoKeyNav, key));
+
+    dataProvider.delete(esTwoKeyNav, created);
+    Assert.assertNull(dataProvider.read(esTwoKeyNav, key));
+    dataProvider.delete(esTwoKeyNav, existing);
+    Assert.assertNull(dataProvider.read(esTwoKeyNav, Arrays.asList(
+        mockParameter("PropertyInt16", "1"), mockParameter("PropertyString", "'2'"))));
+  }
+
+  @Test(expected = DataProvider.DataProviderException.class)
+  public void wrongKey() throws Exception {
+    new DataProvider(oData, edm).read(esAllPrim, Arrays.asList(mockParameter("PropertyInt16", "'1'")));
+  }
+
   private static UriParameter mockParameter(final String name, final String text) {
     UriParameter parameter = Mockito.mock(UriParameter.class);
     Mockito.when(parameter.getName()).thenReturn(name);
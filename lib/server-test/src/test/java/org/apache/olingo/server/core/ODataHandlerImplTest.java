@@ -21,6 +21,9 @@ package org.apache.olingo.server.core;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
@@ -31,6 +34,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 
 import java.util.Collections;
 import java.util.Locale;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
@@ -50,6 +54,7 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
 import org.apache.olingo.server.api.processor.ActionComplexCollectionProcessor;
 import org.apache.olingo.server.api.processor.ActionComplexProcessor;
 import org.apache.olingo.server.api.processor.ActionEntityCollectionProcessor;
@@ -75,7 +80,9 @@ import org.apache.olingo.server.api.processor.Processor;
 import org.apache.olingo.server.api.processor.ReferenceCollectionProcessor;
 import org.apache.olingo.server.api.processor.ReferenceProcessor;
 import org.apache.olingo.server.api.processor.ServiceDocumentProcessor;
+import org.apache.olingo.server.api.serializer.RenderedDocumentCache;
 import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 import org.apache.olingo.server.tecsvc.provider.ContainerProvider;
 import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
@@ -149,6 +156,62 @@ public class ODataHandlerImplTest {
         containsString("<edmx:Edmx Version=\"4.0\""));
   }
 
+  @Test
+  public void metadataRenderedOnce() throws Exception {
+    final String[] eTag = new String[] { "W/\"1\"" };
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList(),
+        new ServiceMetadataETagSupport() {
+          @Override
+          public String getMetadataETag() {
+            return eTag[0];
+          }
+
+          @Override
+          public String getServiceDocumentETag() {
+            return null;
+          }
+        });
+    final String key = "metadata:" + ContentType.APPLICATION_XML.toContentTypeString();
+    final RenderedDocumentCache cache = (RenderedDocumentCache) metadata;
+
+    ODataResponse response = processMetadata(odata, metadata, null);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    final String content = IOUtils.toString(response.getContent());
+    assertThat(content, containsString("<edmx:Edmx Version=\"4.0\""));
+    final byte[] rendered = cache.getRenderedDocument(key, eTag[0]);
+    assertNotNull(rendered);
+
+    response = processMetadata(odata, metadata, null);
+    assertEquals(content, IOUtils.toString(response.getContent()));
+    assertSame(rendered, cache.getRenderedDocument(key, eTag[0]));
+
+    eTag[0] = "W/\"2\"";
+    assertNull(cache.getRenderedDocument(key, eTag[0]));
+    response = processMetadata(odata, metadata, null);
+    assertEquals(content, IOUtils.toString(response.getContent()));
+    assertNotSame(rendered, cache.getRenderedDocument(key, eTag[0]));
+
+    response = processMetadata(odata, metadata, "deflate, gzip;q=0.5");
+    assertEquals("gzip", response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertEquals(content, IOUtils.toString(new GZIPInputStream(response.getContent())));
+    response = processMetadata(odata, metadata, "gzip;q=0");
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+  }
+
+  private ODataResponse processMetadata(final OData odata, final ServiceMetadata metadata,
+      final String acceptEncoding) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("$metadata");
+    if (acceptEncoding != null) {
+      request.addHeader(HttpHeader.ACCEPT_ENCODING, Collections.singletonList(acceptEncoding));
+    }
+    return new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata)).process(request);
+  }
+
   @Test
   public void maxVersionNone() {
     final ODataResponse response = dispatch(HttpMethod.GET, "$metadata", null);
@@ -820,6 +883,48 @@ public class ODataHandlerImplTest {
         any(ContentType.class));
   }
 
+  @Test
+  public void uriInfoCache() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final UriInfoCache cache = odata.createUriInfoCache(10);
+
+    final UriInfo first = processWithCache(odata, metadata, cache, "ESAllPrim", "$top=1");
+    final UriInfo second = processWithCache(odata, metadata, cache, "ESAllPrim", "$top=1");
+    assertSame(first, second);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.size());
+
+    // different query
+    assertNotSame(first, processWithCache(odata, metadata, cache, "ESAllPrim", "$top=2"));
+    // parameter aliases and custom query options are never cached
+    processWithCache(odata, metadata, cache, "ESAllPrim", "$filter=PropertyInt16 eq @p&@p=1");
+    processWithCache(odata, metadata, cache, "ESAllPrim", "custom=1");
+    assertEquals(2, cache.size());
+
+    // same URI for another service
+    final ServiceMetadata otherMetadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    assertNotSame(first, processWithCache(odata, otherMetadata, cache, "ESAllPrim", "$top=1"));
+  }
+
+  private UriInfo processWithCache(final OData odata, final ServiceMetadata metadata, final UriInfoCache cache,
+      final String path, final String query) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(path);
+    request.setRawQueryPath(query);
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    handler.register(mock(EntityCollectionProcessor.class));
+    handler.register(cache);
+    handler.process(request);
+    assertNull(handler.getLastThrownException());
+    return handler.getUriInfo();
+  }
+
   private ODataResponse dispatch(final HttpMethod method, final String path, final String query,
       final String headerName, final String headerValue, final Processor processor) {
     ODataRequest request = new ODataRequest();
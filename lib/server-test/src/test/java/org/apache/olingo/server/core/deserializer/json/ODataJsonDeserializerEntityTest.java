@@ -278,7 +278,23 @@ public class ODataJsonDeserializerEntityTest extends AbstractODataDeserializerTe
     Assert.assertEquals("First Resource - first", e.getProperty("PropertyString").getValue());
     Assert.assertEquals(true, e.getProperty("PropertyBoolean").getValue());
   }
-  
+
+  @Test
+  public void extendedEntityPropertyTypeAnnotationLast() throws Exception {
+    final String payload = "{\"PropertyBoolean\":true,"
+        + "\"PropertyString\":\"string\","
+        + "\"PropertyInt16\":32767,"
+        + "\"@odata.type\":\"#olingo.odata.test1.ETKeyPrimNavDerived\"}";
+    final Entity result = deserialize(payload, "ETKeyPrimNav");
+    Assert.assertEquals("olingo.odata.test1.ETKeyPrimNavDerived", result.getType());
+    Assert.assertEquals(3, result.getProperties().size());
+    Assert.assertEquals("PropertyInt16", result.getProperties().get(0).getName());
+    Assert.assertEquals(true, result.getProperty("PropertyBoolean").getValue());
+
+    expectException("{\"PropertyBoolean\":true,\"PropertyInt16\":32767}", "ETKeyPrimNav",
+        DeserializerException.MessageKeys.UNKNOWN_CONTENT);
+  }
+
   private Property getCVProperty(ComplexValue cv, String name) {
     for (Property p : cv.getValue()) {
       if (p.getName().equals(name)) {
@@ -30,6 +30,7 @@ import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.PropertyIndex;
 import org.apache.olingo.commons.api.edm.EdmEntityContainer;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
@@ -109,6 +110,7 @@ public class ODataXmlDeserializerTest extends AbstractODataDeserializerTest {
 
     Assert.assertEquals(16, result.getProperties().size());
     Assert.assertEquals(2, result.getNavigationBindings().size());
+    Assert.assertSame(PropertyIndex.of(edmEntitySet.getEntityType()), result.getPropertyIndex());
     
     Assert.assertEquals((short) 32767, result.getProperty("PropertyInt16").asPrimitive());
     Assert.assertEquals("First Resource - positive values", result.getProperty("PropertyString").asPrimitive());
@@ -601,6 +603,9 @@ public class ODataXmlDeserializerTest extends AbstractODataDeserializerTest {
 
     Assert.assertEquals(3, complexCollection.size());
     Assert.assertEquals("Collection(olingo.odata.test1.CTTwoPrim)", result.getType());
+    Assert.assertNotNull(((ComplexValue) complexCollection.get(0)).getPropertyIndex());
+    Assert.assertSame(((ComplexValue) complexCollection.get(0)).getPropertyIndex(),
+        ((ComplexValue) complexCollection.get(2)).getPropertyIndex());
     Assert.assertEquals((short) 123,
         getCVProperty((ComplexValue) complexCollection.get(0), "PropertyInt16").asPrimitive());
     Assert.assertEquals("TEST 1",